@@ -0,0 +1,47 @@
+package com.travelplatform.gateway.cache;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Immutable snapshot of a successful upstream GET response.
+ */
+public record CachedResponse(HttpHeaders headers, byte[] body, String etag,
+                             long storedAtMillis, long expiresAtMillis) {
+
+    public long ageSeconds(long nowMillis) {
+        return Math.max(0, (nowMillis - storedAtMillis) / 1000);
+    }
+
+    /**
+     * Approximate heap footprint, used as the cache weight.
+     */
+    public int weight() {
+        int headerBytes = 0;
+        for (var header : headers.entrySet()) {
+            headerBytes += header.getKey().length();
+            for (String value : header.getValue()) {
+                headerBytes += value.length();
+            }
+        }
+        return body.length + headerBytes * 2 + 64;
+    }
+
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag) || ("W/" + tag).equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
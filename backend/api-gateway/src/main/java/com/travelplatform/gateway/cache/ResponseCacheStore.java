@@ -0,0 +1,175 @@
+package com.travelplatform.gateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded, TTL-aware store for cached GET responses, plus the bookkeeping that
+ * collapses concurrent misses for the same key into one upstream call.
+ */
+@Component
+public class ResponseCacheStore {
+
+    private final Cache<String, CachedResponse> cache;
+    private final Cache<String, CachedResponse> lastKnownGood;
+    private final Map<String, Sinks.One<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final int maxEntryBytes;
+    private final Duration coalesceTimeout;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+    private final Counter notModified;
+    private final Counter bytesServed;
+
+    public ResponseCacheStore(@Value("${response-cache.max-size:64MB}") DataSize maxSize,
+                              @Value("${response-cache.max-entry-size:1MB}") DataSize maxEntrySize,
+                              @Value("${response-cache.coalesce-timeout:5s}") Duration coalesceTimeout,
+                              @Value("${response-cache.stale.max-size:32MB}") DataSize staleMaxSize,
+                              @Value("${response-cache.stale.retention:10m}") Duration staleRetention,
+                              MeterRegistry meterRegistry) {
+        this.maxEntryBytes = (int) maxEntrySize.toBytes();
+        this.coalesceTimeout = coalesceTimeout;
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(maxSize.toBytes())
+            .weigher((String key, CachedResponse response) -> response.weight())
+            .expireAfter(new Expiry<String, CachedResponse>() {
+                @Override
+                public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+                    long ttl = response.expiresAtMillis() - System.currentTimeMillis();
+                    return TimeUnit.MILLISECONDS.toNanos(Math.max(0, ttl));
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, CachedResponse response, long currentTime, long currentDuration) {
+                    return expireAfterCreate(key, response, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(String key, CachedResponse response, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .recordStats()
+            .build();
+
+        // Outlives the fresh cache so fallbacks can serve stale data during outages
+        this.lastKnownGood = Caffeine.newBuilder()
+            .maximumWeight(staleMaxSize.toBytes())
+            .weigher((String key, CachedResponse response) -> response.weight())
+            .expireAfterWrite(staleRetention)
+            .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway.response-cache");
+        this.hits = counter(meterRegistry, "hit");
+        this.misses = counter(meterRegistry, "miss");
+        this.coalesced = counter(meterRegistry, "coalesced");
+        this.notModified = counter(meterRegistry, "not-modified");
+        this.bytesServed = Counter.builder("gateway.response-cache.served.bytes")
+            .description("Response body bytes served from the gateway cache")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("gateway.response-cache.hit.ratio", this, ResponseCacheStore::hitRatio)
+            .description("Share of cacheable requests answered without an upstream call")
+            .register(meterRegistry);
+    }
+
+    public CachedResponse get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(String key, CachedResponse response) {
+        if (response.body().length <= maxEntryBytes) {
+            cache.put(key, response);
+            lastKnownGood.put(key, response);
+        }
+    }
+
+    /**
+     * Returns the last successful response for a key, even if it is no longer
+     * fresh. Only meant for degraded answers while upstream is failing.
+     */
+    public CachedResponse getLastKnownGood(String key) {
+        return lastKnownGood.getIfPresent(key);
+    }
+
+    public int getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    /**
+     * Registers the caller as the leader for a missing key. Returns {@code null}
+     * when the caller won and must fetch upstream, or the pending result of the
+     * current leader otherwise. The pending result completes empty if the
+     * leader's response turned out not to be cacheable.
+     */
+    public Mono<CachedResponse> joinOrLead(String key, Sinks.One<CachedResponse> candidate) {
+        Sinks.One<CachedResponse> leader = inFlight.putIfAbsent(key, candidate);
+        if (leader == null) {
+            return null;
+        }
+        coalesced.increment();
+        return leader.asMono().timeout(coalesceTimeout, Mono.empty());
+    }
+
+    public void complete(String key, Sinks.One<CachedResponse> leader, CachedResponse response) {
+        inFlight.remove(key, leader);
+        if (response != null) {
+            leader.tryEmitValue(response);
+        } else {
+            leader.tryEmitEmpty();
+        }
+    }
+
+    public void recordHit(CachedResponse response) {
+        hits.increment();
+        bytesServed.increment(response.body().length);
+    }
+
+    public void recordNotModified() {
+        hits.increment();
+        notModified.increment();
+    }
+
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    public static String cacheKey(String tenantId, String rawPath, String rawQuery) {
+        StringBuilder key = new StringBuilder(64)
+            .append(tenantId)
+            .append(' ')
+            .append(rawPath);
+        if (rawQuery != null) {
+            key.append('?').append(rawQuery);
+        }
+        return key.toString();
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private static Counter counter(MeterRegistry registry, String result) {
+        return Counter.builder("gateway.response-cache.requests")
+            .description("Cacheable GET requests by cache outcome")
+            .tag("result", result)
+            .register(registry);
+    }
+}
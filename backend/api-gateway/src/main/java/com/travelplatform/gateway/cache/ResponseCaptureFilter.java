@@ -0,0 +1,243 @@
+package com.travelplatform.gateway.cache;
+
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tees upstream response bodies into {@link ResponseCacheStore} for requests
+ * that {@code ResponseCacheGatewayFilterFactory} marked as cache-miss leaders.
+ * <p>
+ * This has to be a global filter ordered ahead of {@link NettyWriteResponseFilter}
+ * so the response it writes to is the decorated one, while the cache lookup
+ * itself stays a route filter that runs after authentication.
+ */
+@Component
+public class ResponseCaptureFilter implements GlobalFilter, Ordered {
+
+    public static final String CAPTURE_ATTR = ResponseCaptureFilter.class.getName() + ".capture";
+
+    private static final Pattern MAX_AGE = Pattern.compile("(?:s-maxage|max-age)\\s*=\\s*(\\d+)");
+    private static final List<String> UNCACHEABLE_DIRECTIVES = List.of("no-store", "no-cache", "private");
+
+    // Added per request by the gateway's own CORS handling, not by upstream
+    private static final Set<String> GATEWAY_VARY_HEADERS = Set.of(
+        HttpHeaders.ORIGIN.toLowerCase(),
+        HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD.toLowerCase(),
+        HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS.toLowerCase(),
+        HttpHeaders.ACCEPT_ENCODING.toLowerCase());
+
+    // Per connection (RFC 9110 7.6.1) or per response, so never replayed
+    private static final Set<String> UNSTORED_HEADERS = Set.of(
+        HttpHeaders.CONNECTION.toLowerCase(),
+        "keep-alive",
+        HttpHeaders.PROXY_AUTHENTICATE.toLowerCase(),
+        HttpHeaders.PROXY_AUTHORIZATION.toLowerCase(),
+        HttpHeaders.TE.toLowerCase(),
+        HttpHeaders.TRAILER.toLowerCase(),
+        HttpHeaders.TRANSFER_ENCODING.toLowerCase(),
+        HttpHeaders.UPGRADE.toLowerCase(),
+        HttpHeaders.CONTENT_LENGTH.toLowerCase(),
+        HttpHeaders.VARY.toLowerCase(),
+        "x-cache");
+
+    private final ResponseCacheStore store;
+
+    public ResponseCaptureFilter(ResponseCacheStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (exchange.getRequest().getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+        ServerHttpResponse decorated = new CapturingResponse(exchange);
+        return chain.filter(exchange.mutate().response(decorated).build())
+            .doFinally(signal -> {
+                // Release followers if the leader never reached writeWith
+                Capture capture = exchange.getAttribute(CAPTURE_ATTR);
+                if (capture != null) {
+                    capture.finish(store, null);
+                }
+            });
+    }
+
+    /**
+     * State handed from the route filter to the capturing response.
+     */
+    public static final class Capture {
+
+        private final String key;
+        private final Sinks.One<CachedResponse> sink;
+        private final long defaultTtlMillis;
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        public Capture(String key, Sinks.One<CachedResponse> sink, long defaultTtlMillis) {
+            this.key = key;
+            this.sink = sink;
+            this.defaultTtlMillis = defaultTtlMillis;
+        }
+
+        void finish(ResponseCacheStore store, CachedResponse response) {
+            if (finished.compareAndSet(false, true)) {
+                if (response != null) {
+                    store.put(key, response);
+                }
+                store.complete(key, sink, response);
+            }
+        }
+    }
+
+    private class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+
+        CapturingResponse(ServerWebExchange exchange) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            Capture capture = exchange.getAttribute(CAPTURE_ATTR);
+            if (capture == null) {
+                return super.writeWith(body);
+            }
+
+            HttpHeaders headers = getHeaders();
+            long ttlMillis = ttlMillis(headers, capture.defaultTtlMillis);
+            if (getStatusCode() == null || getStatusCode().value() != HttpStatus.OK.value() || ttlMillis <= 0 || !isStorable(headers)
+                    || headers.getContentLength() > store.getMaxEntryBytes()) {
+                capture.finish(store, null);
+                return super.writeWith(body);
+            }
+
+            int limit = store.getMaxEntryBytes();
+            ByteArrayOutputStream copy = new ByteArrayOutputStream();
+            AtomicBoolean overflow = new AtomicBoolean();
+            Flux<DataBuffer> tee = Flux.from(body)
+                .map(buffer -> {
+                    int length = buffer.readableByteCount();
+                    if (!overflow.get()) {
+                        if (copy.size() + length > limit) {
+                            overflow.set(true);
+                        } else {
+                            ByteBuffer bytes = ByteBuffer.allocate(length);
+                            buffer.toByteBuffer(buffer.readPosition(), bytes, 0, length);
+                            copy.write(bytes.array(), 0, length);
+                        }
+                    }
+                    return (DataBuffer) buffer;
+                })
+                .doOnComplete(() -> capture.finish(store,
+                    overflow.get() ? null : snapshot(headers, upstreamHeaderNames(exchange), copy.toByteArray(), ttlMillis)))
+                .doOnError(e -> capture.finish(store, null))
+                .doOnCancel(() -> capture.finish(store, null));
+
+            headers.set("X-Cache", "MISS");
+            return super.writeWith(tee);
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            // Streaming responses are never cached
+            Capture capture = exchange.getAttribute(CAPTURE_ATTR);
+            if (capture != null) {
+                capture.finish(store, null);
+            }
+            return super.writeAndFlushWith(body);
+        }
+    }
+
+    /**
+     * Names of the headers the upstream sent, as recorded by the routing
+     * filter, or {@code null} when the route did not record them.
+     */
+    private static Set<String> upstreamHeaderNames(ServerWebExchange exchange) {
+        return exchange.getAttribute(ServerWebExchangeUtils.CLIENT_RESPONSE_HEADER_NAMES);
+    }
+
+    /**
+     * Keeps only what the upstream said about the resource. Headers the
+     * gateway added for this caller, such as the rate limiter's remaining
+     * count, would otherwise be replayed to every later caller.
+     */
+    private static CachedResponse snapshot(HttpHeaders response, Set<String> upstreamNames, byte[] body,
+                                           long ttlMillis) {
+        HttpHeaders headers = new HttpHeaders();
+        response.forEach((name, values) -> {
+            if (!UNSTORED_HEADERS.contains(name.toLowerCase())
+                    && !name.regionMatches(true, 0, "Access-Control-", 0, 15)
+                    && (upstreamNames == null || upstreamNames.contains(name))) {
+                headers.put(name, List.copyOf(values));
+            }
+        });
+        String etag = response.getETag();
+        if (etag == null) {
+            etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+            headers.setETag(etag);
+        }
+        long now = System.currentTimeMillis();
+        return new CachedResponse(HttpHeaders.readOnlyHttpHeaders(headers), body, etag, now, now + ttlMillis);
+    }
+
+    private static boolean isStorable(HttpHeaders headers) {
+        if (headers.containsKey(HttpHeaders.SET_COOKIE) || headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            return false;
+        }
+        List<String> vary = headers.getVary();
+        for (String header : vary) {
+            if (!GATEWAY_VARY_HEADERS.contains(header.toLowerCase())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long ttlMillis(HttpHeaders headers, long defaultTtlMillis) {
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl == null) {
+            return defaultTtlMillis;
+        }
+        String directives = cacheControl.toLowerCase();
+        for (String directive : UNCACHEABLE_DIRECTIVES) {
+            if (directives.contains(directive)) {
+                return 0;
+            }
+        }
+        Matcher maxAge = MAX_AGE.matcher(directives);
+        if (maxAge.find()) {
+            return Math.min(defaultTtlMillis, Long.parseLong(maxAge.group(1)) * 1000);
+        }
+        return defaultTtlMillis;
+    }
+}
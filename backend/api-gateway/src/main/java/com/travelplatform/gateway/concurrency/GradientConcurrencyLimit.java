@@ -0,0 +1,118 @@
+package com.travelplatform.gateway.concurrency;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive limit on the requests a route may have in flight, after the
+ * gradient algorithm of Netflix's concurrency-limits.
+ * <p>
+ * Response times are averaged over short windows and compared with a
+ * baseline of the fastest recent windows. While they stay within the
+ * tolerance of it the limit grows by a queue allowance of its square root;
+ * once they climb past it, which is what queueing in a saturating
+ * downstream looks like, the limit shrinks in proportion, before timeouts
+ * or errors would show up. Errors and 503/504s shrink it by the largest step.
+ */
+public class GradientConcurrencyLimit {
+
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int MIN_WINDOW_SAMPLES = 10;
+    // Windows over which the baseline follows response times that rose for good
+    private static final int BASELINE_WINDOWS = 600;
+    private static final double TOLERANCE = 1.5;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    private long windowStart = System.nanoTime();
+    private long windowNanos;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    private boolean windowDropped;
+    private double baselineRttNanos = Double.NaN;
+
+    public GradientConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Takes a slot if fewer than the limit are in flight. Every successful
+     * call must be followed by {@link #release} or {@link #cancel}.
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Frees the slot and feeds the response time into the limit.
+     *
+     * @param dropped the downstream failed or said it was overloaded
+     */
+    public void release(long rttNanos, boolean dropped) {
+        int current = inFlight.getAndDecrement();
+        sample(rttNanos, current, dropped, System.nanoTime());
+    }
+
+    /**
+     * Frees the slot without a sample, for calls the client abandoned.
+     */
+    public void cancel() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    private synchronized void sample(long rttNanos, int inFlightAtEnd, boolean dropped, long nowNanos) {
+        windowNanos += rttNanos;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtEnd);
+        windowDropped |= dropped;
+        if (nowNanos - windowStart < WINDOW_NANOS || windowSamples < MIN_WINDOW_SAMPLES) {
+            return;
+        }
+
+        double shortRtt = (double) windowNanos / windowSamples;
+        boolean drop = windowDropped;
+        int maxInFlight = windowMaxInFlight;
+        windowStart = nowNanos;
+        windowNanos = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+        windowDropped = false;
+
+        // Falls to any faster window at once, but only creeps up, so sustained
+        // queueing can't redefine itself as normal before the limit reacts
+        if (Double.isNaN(baselineRttNanos) || shortRtt < baselineRttNanos) {
+            baselineRttNanos = shortRtt;
+        } else {
+            baselineRttNanos += (shortRtt - baselineRttNanos) / BASELINE_WINDOWS;
+        }
+
+        double current = limit;
+        // Without drops, a route using under half its limit says nothing about what it could take
+        if (!drop && maxInFlight < current / 2) {
+            return;
+        }
+        double gradient = drop ? MIN_GRADIENT
+            : Math.max(MIN_GRADIENT, Math.min(1.0, TOLERANCE * baselineRttNanos / shortRtt));
+        double target = current * gradient + Math.sqrt(current);
+        double next = current * (1 - SMOOTHING) + target * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+}
@@ -0,0 +1,23 @@
+package com.travelplatform.gateway.config;
+
+import com.travelplatform.gateway.loadbalancer.InstanceLoadTracker;
+import com.travelplatform.gateway.loadbalancer.LatencyAwareLoadBalancerConfiguration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+
+    @Bean
+    public InstanceLoadTracker instanceLoadTracker(@Value("${load-balancing.decay-time:10s}") Duration decayTime,
+                                                   @Value("${load-balancing.error-penalty:2s}") Duration errorPenalty,
+                                                   @Value("${load-balancing.slow-start:30s}") Duration slowStart,
+                                                   @Value("${load-balancing.idle-timeout:10m}") Duration idleTimeout) {
+        return new InstanceLoadTracker(decayTime, errorPenalty, slowStart, idleTimeout);
+    }
+}
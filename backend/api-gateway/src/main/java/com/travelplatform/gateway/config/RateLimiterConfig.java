@@ -0,0 +1,51 @@
+package com.travelplatform.gateway.config;
+
+import com.travelplatform.gateway.ratelimit.TenantRateLimiter;
+import com.travelplatform.gateway.ratelimit.TenantUserKeyResolver;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+public class RateLimiterConfig {
+
+    @Bean
+    @SuppressWarnings("unchecked")
+    public RedisScript<List<Long>> tenantRateLimiterScript() {
+        DefaultRedisScript<List<Long>> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(
+            new ClassPathResource("META-INF/scripts/tenant_rate_limiter.lua")));
+        script.setResultType((Class<List<Long>>) (Class<?>) List.class);
+        return script;
+    }
+
+    @Bean
+    @Primary
+    public TenantRateLimiter tenantRateLimiter(ReactiveStringRedisTemplate redisTemplate,
+                                               @Qualifier("tenantRateLimiterScript") RedisScript<List<Long>> script,
+                                               ConfigurationService configurationService,
+                                               MeterRegistry meterRegistry,
+                                               @Value("${rate-limiter.local.max-keys:100000}") long localMaxKeys,
+                                               @Value("${rate-limiter.local.idle-timeout:10m}") Duration localIdleTimeout) {
+        return new TenantRateLimiter(redisTemplate, script, configurationService, meterRegistry,
+            localMaxKeys, localIdleTimeout);
+    }
+
+    @Bean
+    public KeyResolver tenantUserKeyResolver(@Value("${tenant.default-tenant:default}") String defaultTenant) {
+        return new TenantUserKeyResolver(defaultTenant);
+    }
+}
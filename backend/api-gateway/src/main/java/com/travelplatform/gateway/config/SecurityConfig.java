@@ -22,6 +22,7 @@ public class SecurityConfig {
                 corsConfig.setAllowCredentials(true);
                 return corsConfig;
             }))
+            // Token checks happen per route in JwtAuthenticationFilter
             .authorizeExchange(authz -> authz
                 .anyExchange().permitAll()
             )
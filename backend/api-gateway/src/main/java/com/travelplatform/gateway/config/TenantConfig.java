@@ -0,0 +1,50 @@
+package com.travelplatform.gateway.config;
+
+import com.travelplatform.common.tenant.TenantRegistry;
+import com.travelplatform.common.tenant.TenantResolver;
+import com.travelplatform.common.tenant.TenantWebFilter;
+import com.travelplatform.gateway.service.JwtVerificationService;
+import com.travelplatform.gateway.service.JwtVerificationService.AuthenticatedUser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+import java.util.List;
+
+@Configuration
+public class TenantConfig {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    @Bean
+    public TenantRegistry tenantRegistry(@Value("${tenant.resolution.known:default}") List<String> known,
+                                         @Value("${tenant.resolution.max-tenants:10000}") int maxTenants,
+                                         @Value("${tenant.resolution.admit-unknown:false}") boolean admitUnknown) {
+        return new TenantRegistry(known, maxTenants, admitUnknown);
+    }
+
+    @Bean
+    public TenantResolver tenantResolver(TenantRegistry tenantRegistry,
+                                         @Value("${tenant.header-name:X-Tenant-ID}") String headerName,
+                                         @Value("${tenant.default-tenant:default}") String defaultTenant,
+                                         @Value("${tenant.resolution.from-host:false}") boolean fromHost) {
+        return new TenantResolver(tenantRegistry, headerName, defaultTenant, fromHost);
+    }
+
+    // Tenants outside the known list are accepted once someone presents a valid token issued for them
+    @Bean
+    public TenantWebFilter tenantWebFilter(TenantResolver tenantResolver, JwtVerificationService jwtVerificationService) {
+        return new TenantWebFilter(tenantResolver, request -> tokenTenant(request, jwtVerificationService));
+    }
+
+    private static String tokenTenant(ServerHttpRequest request, JwtVerificationService jwtVerificationService) {
+        String authorization = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.startsWith(BEARER_PREFIX)) {
+            return null;
+        }
+        AuthenticatedUser user = jwtVerificationService.verify(authorization.substring(BEARER_PREFIX.length()));
+        return user == null || user.isExpired() ? null : user.tenantId();
+    }
+}
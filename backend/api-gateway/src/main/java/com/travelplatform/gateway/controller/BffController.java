@@ -0,0 +1,80 @@
+package com.travelplatform.gateway.controller;
+
+import com.travelplatform.gateway.filter.JwtAuthenticationFilter;
+import com.travelplatform.gateway.service.HomeAggregationService;
+import com.travelplatform.gateway.service.HomeAggregationService.HomePage;
+import com.travelplatform.gateway.service.HomeAggregationService.Profile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Backend-for-frontend endpoints, each reached through a route that forwards
+ * to it, so the route's JWT and rate limiting filters run first.
+ */
+@RestController
+@RequestMapping("/bff")
+public class BffController {
+
+    private static final List<String> IDENTITY_HEADERS = List.of(
+        JwtAuthenticationFilter.USER_ID_HEADER,
+        JwtAuthenticationFilter.USERNAME_HEADER,
+        JwtAuthenticationFilter.USER_ROLES_HEADER,
+        JwtAuthenticationFilter.USER_PERMISSIONS_HEADER);
+
+    private final HomeAggregationService homeAggregationService;
+    private final String tenantHeader;
+
+    public BffController(HomeAggregationService homeAggregationService,
+                         @Value("${tenant.header-name:X-Tenant-ID}") String tenantHeader) {
+        this.homeAggregationService = homeAggregationService;
+        this.tenantHeader = tenantHeader;
+    }
+
+    @GetMapping("/home")
+    public Mono<ResponseEntity<HomePage>> home(ServerWebExchange exchange) {
+        // Identity headers are only trustworthy once a route's JWT filter has replaced them
+        if (exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR) == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        HttpHeaders request = exchange.getRequest().getHeaders();
+        String userId = request.getFirst(JwtAuthenticationFilter.USER_ID_HEADER);
+        if (userId == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+
+        HttpHeaders identity = new HttpHeaders();
+        for (String name : IDENTITY_HEADERS) {
+            String value = request.getFirst(name);
+            if (value != null) {
+                identity.set(name, value);
+            }
+        }
+        String tenantId = request.getFirst(tenantHeader);
+        if (tenantId != null) {
+            identity.set(tenantHeader, tenantId);
+        }
+        Profile profile = new Profile(userId, request.getFirst(JwtAuthenticationFilter.USERNAME_HEADER), tenantId,
+            List.of(StringUtils.commaDelimitedListToStringArray(request.getFirst(JwtAuthenticationFilter.USER_ROLES_HEADER))));
+
+        return homeAggregationService.home(profile, identity).map(page -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CACHE_CONTROL, "no-store");
+            if (!page.degraded().isEmpty()) {
+                response.header(FallbackController.DEGRADED_HEADER, "true");
+            }
+            return response.body(page);
+        });
+    }
+}
@@ -0,0 +1,138 @@
+package com.travelplatform.gateway.controller;
+
+import com.travelplatform.gateway.cache.CachedResponse;
+import com.travelplatform.gateway.cache.ResponseCacheStore;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Target of the routes' {@code fallbackUri: forward:/fallback/<service>}.
+ * <p>
+ * GETs are answered from the last known good copy kept by {@link ResponseCacheStore}
+ * when there is one; everything else gets a small 503 so clients fail fast
+ * instead of queueing behind a broken downstream.
+ */
+@RestController
+@RequestMapping("/fallback")
+public class FallbackController {
+
+    public static final String DEGRADED_HEADER = "X-Degraded";
+    public static final String DEGRADED_REASON_HEADER = "X-Degraded-Reason";
+    public static final String FALLBACK_SOURCE_HEADER = "X-Fallback-Source";
+
+    private final ResponseCacheStore store;
+    private final MeterRegistry meterRegistry;
+    private final String tenantHeader;
+    private final String defaultTenant;
+    private final long retryAfterSeconds;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public FallbackController(ResponseCacheStore store,
+                              MeterRegistry meterRegistry,
+                              @Value("${tenant.header-name:X-Tenant-ID}") String tenantHeader,
+                              @Value("${tenant.default-tenant:default}") String defaultTenant,
+                              @Value("${response-cache.stale.retry-after:5}") long retryAfterSeconds) {
+        this.store = store;
+        this.meterRegistry = meterRegistry;
+        this.tenantHeader = tenantHeader;
+        this.defaultTenant = defaultTenant;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @RequestMapping("/{service:[a-z][a-z-]{0,63}}")
+    public Mono<Void> fallback(@PathVariable String service, ServerWebExchange exchange) {
+        String reason = reason(exchange);
+        URI original = originalUri(exchange);
+
+        // Only forwarded requests have been through auth; direct hits never see cached data
+        if (original != null && exchange.getRequest().getMethod() == HttpMethod.GET) {
+            String tenantId = exchange.getRequest().getHeaders().getFirst(tenantHeader);
+            String key = ResponseCacheStore.cacheKey(tenantId != null ? tenantId : defaultTenant,
+                original.getRawPath(), original.getRawQuery());
+            CachedResponse stale = store.getLastKnownGood(key);
+            if (stale != null) {
+                record(service, "stale");
+                return serveStale(exchange.getResponse(), stale, reason);
+            }
+        }
+
+        record(service, "error");
+        return serveError(exchange.getResponse(), service, reason);
+    }
+
+    private Mono<Void> serveStale(ServerHttpResponse response, CachedResponse stale, String reason) {
+        HttpHeaders headers = response.getHeaders();
+        response.setStatusCode(HttpStatus.OK);
+        headers.putAll(stale.headers());
+        headers.setContentLength(stale.body().length);
+        headers.set(HttpHeaders.AGE, Long.toString(stale.ageSeconds(System.currentTimeMillis())));
+        headers.set(HttpHeaders.WARNING, "110 - \"Response is Stale\"");
+        // Keeps the capture filter and downstream caches from treating this copy as fresh
+        headers.setCacheControl("no-store");
+        headers.set(DEGRADED_HEADER, "true");
+        headers.set(DEGRADED_REASON_HEADER, reason);
+        headers.set(FALLBACK_SOURCE_HEADER, "stale-cache");
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(stale.body())));
+    }
+
+    private Mono<Void> serveError(ServerHttpResponse response, String service, String reason) {
+        byte[] body = ("{\"status\":503,\"error\":\"Service Unavailable\",\"service\":\"" + service
+            + "\",\"reason\":\"" + reason + "\",\"degraded\":true}").getBytes(StandardCharsets.UTF_8);
+
+        HttpHeaders headers = response.getHeaders();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setContentLength(body.length);
+        headers.setCacheControl("no-store");
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        headers.set(DEGRADED_HEADER, "true");
+        headers.set(DEGRADED_REASON_HEADER, reason);
+        headers.set(FALLBACK_SOURCE_HEADER, "none");
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(body)));
+    }
+
+    private static URI originalUri(ServerWebExchange exchange) {
+        Set<URI> uris = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ORIGINAL_REQUEST_URL_ATTR);
+        return uris == null || uris.isEmpty() ? null : uris.iterator().next();
+    }
+
+    private static String reason(ServerWebExchange exchange) {
+        Throwable error = exchange.getAttribute(ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR);
+        if (error instanceof CallNotPermittedException) {
+            return "circuit-open";
+        }
+        if (error instanceof TimeoutException) {
+            return "timeout";
+        }
+        return "upstream-error";
+    }
+
+    private void record(String service, String outcome) {
+        counters.computeIfAbsent(service + ':' + outcome, key -> Counter.builder("gateway.fallback.responses")
+            .description("Responses served by the circuit breaker fallback")
+            .tag("service", service)
+            .tag("outcome", outcome)
+            .register(meterRegistry))
+            .increment();
+    }
+}
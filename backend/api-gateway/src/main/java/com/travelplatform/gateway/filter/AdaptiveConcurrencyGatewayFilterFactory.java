@@ -0,0 +1,152 @@
+package com.travelplatform.gateway.filter;
+
+import com.travelplatform.gateway.concurrency.GradientConcurrencyLimit;
+import com.travelplatform.gateway.controller.FallbackController;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caps a route's in-flight requests at a {@link GradientConcurrencyLimit}
+ * and answers the excess with an immediate 503, so a saturating downstream
+ * sees load shed while its latency rises instead of after the circuit
+ * breaker has counted enough failures.
+ * <p>
+ * Listed before {@code CircuitBreaker} so shed requests never count against
+ * the breaker, and after {@code ResponseCache} so cache hits take no slot.
+ */
+@Component
+public class AdaptiveConcurrencyGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<AdaptiveConcurrencyGatewayFilterFactory.Config> {
+
+    private static final byte[] REJECTED_BODY = ("{\"status\":503,\"error\":\"Service Unavailable\","
+        + "\"reason\":\"concurrency-limit\",\"degraded\":true}").getBytes(StandardCharsets.UTF_8);
+
+    private final MeterRegistry meterRegistry;
+    // Discovery refreshes rebuild the routes on every heartbeat; the learned limit has to survive that
+    private final Map<String, RouteLimit> limits = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        RouteLimit routeLimit = limits.computeIfAbsent(config.getRouteId(), routeId -> createLimit(routeId, config));
+        GradientConcurrencyLimit limit = routeLimit.limit();
+
+        return (exchange, chain) -> {
+            if (!limit.tryAcquire()) {
+                routeLimit.rejected().increment();
+                return reject(exchange.getResponse());
+            }
+            long start = System.nanoTime();
+            return chain.filter(exchange).doFinally(signal -> {
+                if (signal == SignalType.CANCEL) {
+                    limit.cancel();
+                } else {
+                    limit.release(System.nanoTime() - start, signal == SignalType.ON_ERROR || overloaded(exchange));
+                }
+            });
+        };
+    }
+
+    private static boolean overloaded(ServerWebExchange exchange) {
+        // The breaker's fallback may have answered with a stale 200
+        if (exchange.getAttribute(ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR) != null) {
+            return true;
+        }
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        return status != null && (status.value() == 503 || status.value() == 504);
+    }
+
+    private static Mono<Void> reject(ServerHttpResponse response) {
+        HttpHeaders headers = response.getHeaders();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setContentLength(REJECTED_BODY.length);
+        headers.setCacheControl("no-store");
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+        headers.set(FallbackController.DEGRADED_HEADER, "true");
+        headers.set(FallbackController.DEGRADED_REASON_HEADER, "concurrency-limit");
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(REJECTED_BODY)));
+    }
+
+    private RouteLimit createLimit(String routeId, Config config) {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(
+            config.getInitialLimit(), config.getMinLimit(), config.getMaxLimit());
+        Gauge.builder("gateway.concurrency.limit", limit, GradientConcurrencyLimit::getLimit)
+            .description("Requests the route may currently have in flight")
+            .tag("route", routeId)
+            .strongReference(true)
+            .register(meterRegistry);
+        Counter rejected = Counter.builder("gateway.concurrency.rejected")
+            .description("Requests shed with a 503 because the route was at its concurrency limit")
+            .tag("route", routeId)
+            .register(meterRegistry);
+        return new RouteLimit(limit, rejected);
+    }
+
+    private record RouteLimit(GradientConcurrencyLimit limit, Counter rejected) {
+    }
+
+    public static class Config implements HasRouteId {
+
+        private String routeId;
+        private int initialLimit = 20;
+        private int minLimit = 5;
+        private int maxLimit = 200;
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package com.travelplatform.gateway.filter;
+
+import com.travelplatform.gateway.hedging.LatencyPercentile;
+import com.travelplatform.gateway.hedging.RetryBudget;
+import com.travelplatform.gateway.loadbalancer.InstanceLoadTracker;
+import com.travelplatform.gateway.metrics.RouteMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerUriTools;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.RetryableRequestContext;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactiveLoadBalancer;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.DelegatingServiceInstance;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.Sinks;
+import reactor.netty.Connection;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientResponse;
+
+import java.net.ConnectException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Sends GET and HEAD requests to the route's service itself, so it can have
+ * two in flight: when the first instance hasn't answered within the route's
+ * recent p95, the same request goes to a second instance and whichever
+ * responds first is used. A request whose connection fails is retried once
+ * on another instance. Hedges and retries both draw on a {@link RetryBudget}.
+ * <p>
+ * Must be the last filter of an lb:// route. The winning response is handed
+ * over the way {@link NettyRoutingFilter} hands over its own, and
+ * {@link NettyWriteResponseFilter} streams the body, so the global filters
+ * that would route the request again are skipped.
+ */
+@Component
+public class HedgingGatewayFilterFactory extends AbstractGatewayFilterFactory<HedgingGatewayFilterFactory.Config> {
+
+    private static final String NONE = "none";
+    private static final String HEDGED = "hedged";
+    private static final String RETRIED = "retried";
+    private static final String DENIED = "denied";
+
+    private final HttpClient httpClient;
+    private final ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider;
+    private final Duration responseTimeout;
+    private final LoadBalancerClientFactory loadBalancerClientFactory;
+    private final InstanceLoadTracker loadTracker;
+    private final RouteMetrics routeMetrics;
+    private final MeterRegistry meterRegistry;
+    // Discovery refreshes rebuild the routes on every heartbeat; budgets and latencies have to survive that
+    private final Map<String, RouteHedging> routes = new ConcurrentHashMap<>();
+    private volatile List<HttpHeadersFilter> headersFilters;
+
+    public HedgingGatewayFilterFactory(HttpClient httpClient,
+                                       ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider,
+                                       HttpClientProperties httpClientProperties,
+                                       LoadBalancerClientFactory loadBalancerClientFactory,
+                                       InstanceLoadTracker loadTracker,
+                                       RouteMetrics routeMetrics,
+                                       MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.httpClient = httpClient;
+        this.headersFiltersProvider = headersFiltersProvider;
+        this.responseTimeout = httpClientProperties.getResponseTimeout();
+        this.loadBalancerClientFactory = loadBalancerClientFactory;
+        this.loadTracker = loadTracker;
+        this.routeMetrics = routeMetrics;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        RouteHedging hedging = routes.computeIfAbsent(config.getRouteId(), routeId -> createHedging(routeId, config));
+        long minDelayNanos = config.getMinDelay().toNanos();
+
+        return (exchange, chain) -> {
+            HttpMethod method = exchange.getRequest().getMethod();
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            if ((method != HttpMethod.GET && method != HttpMethod.HEAD)
+                    || route == null || !"lb".equals(route.getUri().getScheme())) {
+                return chain.filter(exchange);
+            }
+            ReactiveLoadBalancer<ServiceInstance> loadBalancer =
+                loadBalancerClientFactory.getInstance(route.getUri().getHost());
+            if (loadBalancer == null) {
+                return chain.filter(exchange);
+            }
+            hedging.budget().recordRequest();
+
+            return Mono.from(loadBalancer.choose()).flatMap(chosen -> {
+                // No instances: the load balancer filter answers that with its usual 503
+                if (!chosen.hasServer()) {
+                    return chain.filter(exchange);
+                }
+                Mono<Void> routed = race(exchange, hedging, loadBalancer, chosen.getServer(), minDelayNanos)
+                    .doOnNext(winner -> commit(exchange, hedging, winner))
+                    .then();
+                return routeMetrics.timeUpstream(exchange, routed);
+            });
+        };
+    }
+
+    private Mono<Attempt> race(ServerWebExchange exchange, RouteHedging hedging,
+                               ReactiveLoadBalancer<ServiceInstance> loadBalancer, ServiceInstance primary,
+                               long minDelayNanos) {
+        HttpHeaders headers = HttpHeadersFilter.filterRequest(getHeadersFilters(), exchange);
+        AtomicReference<String> outcome = new AtomicReference<>(NONE);
+        Sinks.One<Boolean> primaryFailed = Sinks.one();
+
+        long start = System.nanoTime();
+        Mono<Attempt> first = send(exchange, headers, primary, false)
+            .doFinally(signal -> {
+                // A primary that lost to a hedge took at least this long
+                if (signal != SignalType.ON_ERROR) {
+                    hedging.latency().record(System.nanoTime() - start);
+                }
+            })
+            .onErrorResume(error -> {
+                primaryFailed.tryEmitValue(true);
+                if (!(error instanceof ConnectException) || !claim(outcome, RETRIED, hedging)) {
+                    return Mono.error(error);
+                }
+                return otherThan(loadBalancer, primary)
+                    .flatMap(instance -> send(exchange, headers, instance, true))
+                    .switchIfEmpty(Mono.error(error));
+            });
+
+        long p95 = hedging.latency().nanos();
+        Mono<Attempt> hedge = p95 < 0 ? Mono.empty() : Mono.delay(Duration.ofNanos(Math.max(p95, minDelayNanos)))
+            // Once the primary has failed, its retry is the only extra attempt
+            .takeUntilOther(primaryFailed.asMono())
+            .filter(tick -> claim(outcome, HEDGED, hedging))
+            .flatMap(tick -> otherThan(loadBalancer, primary))
+            .flatMap(instance -> send(exchange, headers, instance, true))
+            // A failed hedge leaves the race to the primary rather than answering for it
+            .flatMap(attempt -> attempt.failed() ? attempt.discard() : Mono.just(attempt));
+
+        Mono<Attempt> winner = Mono.firstWithValue(first, hedge)
+            .onErrorMap(NoSuchElementException.class,
+                e -> e.getSuppressed().length > 0 ? e.getSuppressed()[0] : e)
+            .doOnDiscard(Attempt.class, Attempt::dispose)
+            .doFinally(signal -> hedging.count(outcome.get()));
+        if (responseTimeout != null) {
+            winner = winner.timeout(responseTimeout, Mono.error(() -> new ResponseStatusException(
+                HttpStatus.GATEWAY_TIMEOUT, "Response took longer than timeout: " + responseTimeout)));
+        }
+        return winner;
+    }
+
+    /**
+     * Claims the request's one extra attempt, if it hasn't been taken and the
+     * budget allows.
+     */
+    private static boolean claim(AtomicReference<String> outcome, String kind, RouteHedging hedging) {
+        if (!outcome.compareAndSet(NONE, kind)) {
+            return false;
+        }
+        if (hedging.budget().tryAcquire()) {
+            return true;
+        }
+        outcome.set(DENIED);
+        return false;
+    }
+
+    private static Mono<ServiceInstance> otherThan(ReactiveLoadBalancer<ServiceInstance> loadBalancer,
+                                                   ServiceInstance primary) {
+        return Mono.from(loadBalancer.choose(new DefaultRequest<>(new RetryableRequestContext(primary))))
+            // A service down to one instance has nowhere else to send it
+            .filter(response -> response.hasServer() && !sameInstance(response.getServer(), primary))
+            .map(Response::getServer);
+    }
+
+    private static boolean sameInstance(ServiceInstance a, ServiceInstance b) {
+        return Objects.equals(a.getHost(), b.getHost()) && a.getPort() == b.getPort();
+    }
+
+    private Mono<Attempt> send(ServerWebExchange exchange, HttpHeaders headers, ServiceInstance instance, boolean backup) {
+        ServerHttpRequest request = exchange.getRequest();
+        URI url = LoadBalancerUriTools.reconstructURI(
+            new DelegatingServiceInstance(instance, instance.isSecure() ? "https" : "http"), request.getURI());
+        boolean preserveHost = exchange.getAttributeOrDefault(ServerWebExchangeUtils.PRESERVE_HOST_HEADER_ATTRIBUTE, false);
+
+        Mono<Attempt> call = httpClient
+            .headers(nettyHeaders -> {
+                headers.forEach(nettyHeaders::add);
+                nettyHeaders.remove(HttpHeaders.HOST);
+                if (preserveHost) {
+                    nettyHeaders.add(HttpHeaders.HOST, request.getHeaders().getFirst(HttpHeaders.HOST));
+                }
+            })
+            .request(io.netty.handler.codec.http.HttpMethod.valueOf(request.getMethod().name()))
+            .uri(url.toASCIIString())
+            .responseConnection((response, connection) -> Mono.just(new Attempt(url, response, connection, backup)))
+            // Not next(): cancelling after the headers would close the connection the body arrives on
+            .single();
+        return loadTracker.track(instance, call);
+    }
+
+    /**
+     * Applies the winning response to the exchange as {@link NettyRoutingFilter} does.
+     */
+    private void commit(ServerWebExchange exchange, RouteHedging hedging, Attempt winner) {
+        if (winner.backup()) {
+            hedging.backupWins().increment();
+        }
+        Map<String, Object> attributes = exchange.getAttributes();
+        attributes.put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR, winner.url());
+        attributes.put(ServerWebExchangeUtils.CLIENT_RESPONSE_ATTR, winner.response());
+        attributes.put(ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR, winner.connection());
+
+        HttpHeaders headers = new HttpHeaders();
+        winner.response().responseHeaders().forEach(entry -> headers.add(entry.getKey(), entry.getValue()));
+        String contentType = headers.getFirst(HttpHeaders.CONTENT_TYPE);
+        if (StringUtils.hasLength(contentType)) {
+            attributes.put(ServerWebExchangeUtils.ORIGINAL_RESPONSE_CONTENT_TYPE_ATTR, contentType);
+        }
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatusCode.valueOf(winner.response().status().code()));
+        HttpHeaders filtered = HttpHeadersFilter.filter(getHeadersFilters(), headers, exchange, HttpHeadersFilter.Type.RESPONSE);
+        if (!filtered.containsKey(HttpHeaders.TRANSFER_ENCODING) && filtered.containsKey(HttpHeaders.CONTENT_LENGTH)) {
+            response.getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+        }
+        attributes.put(ServerWebExchangeUtils.CLIENT_RESPONSE_HEADER_NAMES, filtered.keySet());
+        response.getHeaders().addAll(filtered);
+        ServerWebExchangeUtils.setAlreadyRouted(exchange);
+    }
+
+    private List<HttpHeadersFilter> getHeadersFilters() {
+        if (headersFilters == null) {
+            headersFilters = headersFiltersProvider.getIfAvailable(List::of);
+        }
+        return headersFilters;
+    }
+
+    private RouteHedging createHedging(String routeId, Config config) {
+        return new RouteHedging(
+            new RetryBudget(config.getBudgetPercent() / 100.0, config.getMinPerSecond()),
+            new LatencyPercentile(config.getPercentile()),
+            Map.of(
+                NONE, counter(routeId, NONE),
+                HEDGED, counter(routeId, HEDGED),
+                RETRIED, counter(routeId, RETRIED),
+                DENIED, counter(routeId, DENIED)),
+            Counter.builder("gateway.hedging.backup-wins")
+                .description("Requests answered by the hedge or retry rather than the first instance")
+                .tag("route", routeId)
+                .register(meterRegistry));
+    }
+
+    private Counter counter(String routeId, String outcome) {
+        return Counter.builder("gateway.hedging.requests")
+            .description("GET and HEAD requests on hedged routes by extra attempt made; denied ran out of budget")
+            .tag("route", routeId)
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    private record RouteHedging(RetryBudget budget, LatencyPercentile latency,
+                                Map<String, Counter> outcomes, Counter backupWins) {
+
+        void count(String outcome) {
+            outcomes.get(outcome).increment();
+        }
+    }
+
+    private record Attempt(URI url, HttpClientResponse response, Connection connection, boolean backup) {
+
+        boolean failed() {
+            int status = response.status().code();
+            return status >= 500 || status == 429;
+        }
+
+        <T> Mono<T> discard() {
+            dispose();
+            return Mono.empty();
+        }
+
+        void dispose() {
+            connection.dispose();
+        }
+    }
+
+    public static class Config implements HasRouteId {
+
+        private String routeId;
+        // Extra attempts as a share of the route's requests
+        private int budgetPercent = 10;
+        private int minPerSecond = 5;
+        private double percentile = 95;
+        private Duration minDelay = Duration.ofMillis(5);
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+
+        public int getBudgetPercent() {
+            return budgetPercent;
+        }
+
+        public void setBudgetPercent(int budgetPercent) {
+            this.budgetPercent = budgetPercent;
+        }
+
+        public int getMinPerSecond() {
+            return minPerSecond;
+        }
+
+        public void setMinPerSecond(int minPerSecond) {
+            this.minPerSecond = minPerSecond;
+        }
+
+        public double getPercentile() {
+            return percentile;
+        }
+
+        public void setPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        public Duration getMinDelay() {
+            return minDelay;
+        }
+
+        public void setMinDelay(Duration minDelay) {
+            this.minDelay = minDelay;
+        }
+    }
+}
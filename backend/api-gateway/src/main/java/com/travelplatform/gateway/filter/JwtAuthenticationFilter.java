@@ -0,0 +1,163 @@
+package com.travelplatform.gateway.filter;
+
+import com.travelplatform.gateway.service.JwtVerificationService;
+import com.travelplatform.gateway.service.JwtVerificationService.AuthenticatedUser;
+import com.travelplatform.gateway.service.TokenRevocationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Authenticates requests at the edge and forwards the caller's identity to
+ * downstream services as headers, so they don't have to re-verify the token.
+ */
+@Component
+public class JwtAuthenticationFilter extends AbstractGatewayFilterFactory<JwtAuthenticationFilter.Config> {
+
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USERNAME_HEADER = "X-Username";
+    public static final String USER_ROLES_HEADER = "X-User-Roles";
+    // Hex permission mask; test bits with a bitwise AND instead of resolving roles
+    public static final String USER_PERMISSIONS_HEADER = "X-User-Permissions";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtVerificationService jwtVerificationService;
+    private final TokenRevocationService tokenRevocationService;
+    private final String tenantHeader;
+
+    public JwtAuthenticationFilter(JwtVerificationService jwtVerificationService,
+                                   TokenRevocationService tokenRevocationService,
+                                   @Value("${tenant.header-name:X-Tenant-ID}") String tenantHeader) {
+        super(Config.class);
+        this.jwtVerificationService = jwtVerificationService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.tenantHeader = tenantHeader;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        List<PathPattern> publicPaths = new ArrayList<>();
+        for (String path : config.getPublicPaths()) {
+            publicPaths.add(PathPatternParser.defaultInstance.parse(path));
+        }
+
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (isPublic(request, publicPaths)) {
+                return chain.filter(exchange.mutate().request(stripIdentityHeaders(request)).build());
+            }
+
+            String authorization = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+            if (authorization == null || !authorization.startsWith(BEARER_PREFIX)) {
+                return reject(exchange, HttpStatus.UNAUTHORIZED);
+            }
+
+            AuthenticatedUser user = jwtVerificationService.verify(authorization.substring(BEARER_PREFIX.length()));
+            if (user == null || user.isExpired()) {
+                return reject(exchange, HttpStatus.UNAUTHORIZED);
+            }
+
+            // A token issued for one tenant must not be replayed against another
+            String requestedTenant = request.getHeaders().getFirst(tenantHeader);
+            if (requestedTenant != null && user.tenantId() != null && !requestedTenant.equals(user.tenantId())) {
+                return reject(exchange, HttpStatus.FORBIDDEN);
+            }
+
+            ServerWebExchange authenticated = exchange.mutate().request(withIdentity(request, user)).build();
+            // Only sessions the local filter flags cost a Redis round trip
+            if (user.sessionId() != null && tokenRevocationService.mightBeRevoked(user.sessionId())) {
+                return tokenRevocationService.isRevoked(user.sessionId())
+                    .flatMap(revoked -> revoked ? reject(exchange, HttpStatus.UNAUTHORIZED) : chain.filter(authenticated));
+            }
+            return chain.filter(authenticated);
+        };
+    }
+
+    private ServerHttpRequest withIdentity(ServerHttpRequest request, AuthenticatedUser user) {
+        return request.mutate()
+            .headers(headers -> {
+                headers.remove(USER_ID_HEADER);
+                headers.remove(USERNAME_HEADER);
+                headers.remove(USER_ROLES_HEADER);
+                headers.remove(USER_PERMISSIONS_HEADER);
+                if (user.userId() != null) {
+                    headers.set(USER_ID_HEADER, user.userId());
+                }
+                if (user.username() != null) {
+                    headers.set(USERNAME_HEADER, user.username());
+                }
+                if (user.tenantId() != null) {
+                    headers.set(tenantHeader, user.tenantId());
+                }
+                headers.set(USER_ROLES_HEADER, user.roles());
+                headers.set(USER_PERMISSIONS_HEADER, user.permissions());
+            })
+            .build();
+    }
+
+    private static boolean isPublic(ServerHttpRequest request, List<PathPattern> publicPaths) {
+        if (publicPaths.isEmpty()) {
+            return false;
+        }
+        PathContainer path = request.getPath().pathWithinApplication();
+        for (PathPattern pattern : publicPaths) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Callers must never be able to assert an identity on public paths either
+    private static ServerHttpRequest stripIdentityHeaders(ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        if (!headers.containsKey(USER_ID_HEADER) && !headers.containsKey(USERNAME_HEADER)
+                && !headers.containsKey(USER_ROLES_HEADER) && !headers.containsKey(USER_PERMISSIONS_HEADER)) {
+            return request;
+        }
+        return request.mutate()
+            .headers(h -> {
+                h.remove(USER_ID_HEADER);
+                h.remove(USERNAME_HEADER);
+                h.remove(USER_ROLES_HEADER);
+                h.remove(USER_PERMISSIONS_HEADER);
+            })
+            .build();
+    }
+
+    private static Mono<Void> reject(ServerWebExchange exchange, HttpStatus status) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        if (status == HttpStatus.UNAUTHORIZED) {
+            response.getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+        }
+        return response.setComplete();
+    }
+
+    public static class Config {
+
+        private List<String> publicPaths = new ArrayList<>();
+
+        public List<String> getPublicPaths() {
+            return publicPaths;
+        }
+
+        public void setPublicPaths(List<String> publicPaths) {
+            this.publicPaths = publicPaths;
+        }
+    }
+}
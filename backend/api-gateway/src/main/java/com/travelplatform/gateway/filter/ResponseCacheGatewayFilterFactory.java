@@ -0,0 +1,153 @@
+package com.travelplatform.gateway.filter;
+
+import com.travelplatform.gateway.cache.CachedResponse;
+import com.travelplatform.gateway.cache.ResponseCacheStore;
+import com.travelplatform.gateway.cache.ResponseCaptureFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Serves idempotent catalog GETs from a per-tenant in-memory cache, answers
+ * matching If-None-Match revalidations with 304, and collapses concurrent
+ * misses for the same key into a single upstream call.
+ * <p>
+ * Runs as a normal route filter so it sits after {@link JwtAuthenticationFilter};
+ * the upstream body is captured by {@link ResponseCaptureFilter}.
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    private final ResponseCacheStore store;
+    private final String tenantHeader;
+    private final String defaultTenant;
+
+    public ResponseCacheGatewayFilterFactory(ResponseCacheStore store,
+                                             @Value("${tenant.header-name:X-Tenant-ID}") String tenantHeader,
+                                             @Value("${tenant.default-tenant:default}") String defaultTenant) {
+        super(Config.class);
+        this.store = store;
+        this.tenantHeader = tenantHeader;
+        this.defaultTenant = defaultTenant;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("ttl");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        long ttlMillis = config.getTtl().toMillis();
+
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+
+            List<String> requestCacheControl = request.getHeaders().get(HttpHeaders.CACHE_CONTROL);
+            boolean noStore = hasDirective(requestCacheControl, "no-store");
+            boolean noCache = hasDirective(requestCacheControl, "no-cache");
+            if (noStore) {
+                return chain.filter(exchange);
+            }
+
+            String key = cacheKey(request);
+            String ifNoneMatch = request.getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+            if (!noCache) {
+                CachedResponse cached = store.get(key);
+                if (cached != null) {
+                    return serve(exchange, cached, ifNoneMatch);
+                }
+            }
+            store.recordMiss();
+
+            // Conditional requests we can't answer go straight upstream
+            if (ifNoneMatch != null) {
+                return chain.filter(exchange);
+            }
+
+            Sinks.One<CachedResponse> sink = Sinks.one();
+            Mono<CachedResponse> pending = store.joinOrLead(key, sink);
+            if (pending == null) {
+                exchange.getAttributes().put(ResponseCaptureFilter.CAPTURE_ATTR,
+                    new ResponseCaptureFilter.Capture(key, sink, ttlMillis));
+                return chain.filter(exchange);
+            }
+            // Chosen on whether the leader stored a response: serving one completes empty too
+            return pending
+                .map(response -> serve(exchange, response, null))
+                .defaultIfEmpty(Mono.defer(() -> chain.filter(exchange)))
+                .flatMap(write -> write);
+        };
+    }
+
+    private Mono<Void> serve(ServerWebExchange exchange, CachedResponse cached, String ifNoneMatch) {
+        ServerHttpResponse response = exchange.getResponse();
+        long now = System.currentTimeMillis();
+
+        if (cached.matches(ifNoneMatch)) {
+            store.recordNotModified();
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            response.getHeaders().setETag(cached.etag());
+            response.getHeaders().set(HttpHeaders.AGE, Long.toString(cached.ageSeconds(now)));
+            response.getHeaders().set("X-Cache", "HIT");
+            return response.setComplete();
+        }
+
+        store.recordHit(cached);
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().putAll(cached.headers());
+        response.getHeaders().setContentLength(cached.body().length);
+        response.getHeaders().set(HttpHeaders.AGE, Long.toString(cached.ageSeconds(now)));
+        response.getHeaders().set("X-Cache", "HIT");
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cached.body())));
+    }
+
+    private String cacheKey(ServerHttpRequest request) {
+        String tenantId = request.getHeaders().getFirst(tenantHeader);
+        return ResponseCacheStore.cacheKey(tenantId != null ? tenantId : defaultTenant,
+            request.getURI().getRawPath(), request.getURI().getRawQuery());
+    }
+
+    private static boolean hasDirective(List<String> cacheControl, String directive) {
+        if (cacheControl == null) {
+            return false;
+        }
+        for (String value : cacheControl) {
+            if (value.toLowerCase().contains(directive)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static class Config {
+
+        // Upper bound on freshness; a shorter upstream max-age wins
+        private Duration ttl = Duration.ofSeconds(30);
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.travelplatform.gateway.hedging;
+
+import java.util.Arrays;
+
+/**
+ * A percentile of the most recent response times, recomputed every few
+ * samples from a fixed window so reads are a volatile load.
+ */
+public class LatencyPercentile {
+
+    private static final int WINDOW = 512;
+    private static final int RECOMPUTE_EVERY = 64;
+
+    private final double percentile;
+    private final long[] samples = new long[WINDOW];
+    private int next;
+    private int count;
+    private volatile long current = -1;
+
+    /**
+     * @param percentile between 0 and 100
+     */
+    public LatencyPercentile(double percentile) {
+        this.percentile = percentile / 100;
+    }
+
+    public synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % WINDOW;
+        count = Math.min(count + 1, WINDOW);
+        if (next % RECOMPUTE_EVERY == 0) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(percentile * count) - 1;
+            current = sorted[Math.max(0, Math.min(count - 1, rank))];
+        }
+    }
+
+    /**
+     * The percentile in nanoseconds, or -1 until the first
+     * {@value #RECOMPUTE_EVERY} samples have been seen.
+     */
+    public long nanos() {
+        return current;
+    }
+}
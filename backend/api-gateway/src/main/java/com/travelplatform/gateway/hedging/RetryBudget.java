@@ -0,0 +1,57 @@
+package com.travelplatform.gateway.hedging;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps hedges and retries at a share of a route's requests, counted per
+ * second, plus a small floor so a quiet route can still retry. When every
+ * request fails, extra attempts stay bounded by that share instead of
+ * doubling the load on a struggling service.
+ */
+public class RetryBudget {
+
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final double ratio;
+    private final int minPerSecond;
+
+    private long windowStart = System.nanoTime();
+    private int requests;
+    private int previousRequests;
+    private int spent;
+
+    public RetryBudget(double ratio, int minPerSecond) {
+        this.ratio = ratio;
+        this.minPerSecond = minPerSecond;
+    }
+
+    public synchronized void recordRequest() {
+        roll(System.nanoTime());
+        requests++;
+    }
+
+    /**
+     * Takes one extra attempt from the budget if any is left this second.
+     */
+    public synchronized boolean tryAcquire() {
+        roll(System.nanoTime());
+        // The previous second stands in for this one until it has seen some traffic
+        double allowed = ratio * Math.max(requests, previousRequests) + minPerSecond;
+        if (spent >= allowed) {
+            return false;
+        }
+        spent++;
+        return true;
+    }
+
+    private void roll(long nowNanos) {
+        long elapsed = nowNanos - windowStart;
+        if (elapsed < WINDOW_NANOS) {
+            return;
+        }
+        previousRequests = elapsed < 2 * WINDOW_NANOS ? requests : 0;
+        requests = 0;
+        spent = 0;
+        windowStart = nowNanos;
+    }
+}
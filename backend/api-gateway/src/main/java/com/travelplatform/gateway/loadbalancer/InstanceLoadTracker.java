@@ -0,0 +1,98 @@
+package com.travelplatform.gateway.loadbalancer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cloud.client.ServiceInstance;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+
+/**
+ * Per-instance load shared by the load balancers of all lb:// services,
+ * recorded by {@link InstanceLoadFilter} and by filters that call instances
+ * themselves, and read by {@link LatencyAwareLoadBalancer}. Instances that
+ * stop receiving traffic, typically because they left the registry, are
+ * forgotten after the idle timeout, and ramp up again if they return.
+ */
+public class InstanceLoadTracker {
+
+    private final Cache<String, InstanceStats> instances;
+    private final double decayNanos;
+    private final long errorPenaltyNanos;
+    private final long slowStartNanos;
+
+    public InstanceLoadTracker(Duration decayTime, Duration errorPenalty, Duration slowStart, Duration idleTimeout) {
+        this.instances = Caffeine.newBuilder()
+            .expireAfterAccess(idleTimeout)
+            .build();
+        this.decayNanos = decayTime.toNanos();
+        this.errorPenaltyNanos = errorPenalty.toNanos();
+        this.slowStartNanos = slowStart.toNanos();
+    }
+
+    /**
+     * Of two candidates, the one with the lower expected wait: response time
+     * scaled by the requests already queued on it. Until an instance has
+     * answered once it is assumed to be as fast as the other.
+     */
+    ServiceInstance lessLoaded(ServiceInstance first, ServiceInstance second) {
+        long now = System.nanoTime();
+        InstanceStats a = stats(first);
+        InstanceStats b = stats(second);
+        double latencyA = a.latencyNanos(now, decayNanos);
+        double latencyB = b.latencyNanos(now, decayNanos);
+        if (Double.isNaN(latencyA)) {
+            latencyA = Double.isNaN(latencyB) ? 1 : latencyB;
+        }
+        if (Double.isNaN(latencyB)) {
+            latencyB = latencyA;
+        }
+        double costA = latencyA * (a.outstanding() + 1);
+        double costB = latencyB * (b.outstanding() + 1);
+        return costB < costA ? second : first;
+    }
+
+    /**
+     * Chance that an instance keeps a request it won, below 1 during slow
+     * start.
+     */
+    double warmupWeight(ServiceInstance instance) {
+        return stats(instance).warmupWeight(System.nanoTime(), slowStartNanos);
+    }
+
+    /**
+     * Counts {@code call} as outstanding on the instance until it completes,
+     * and the time it took as a response time. Cancelled calls are not
+     * sampled: the client went away, which says nothing about the instance.
+     */
+    public <T> Mono<T> track(ServiceInstance instance, Mono<T> call) {
+        InstanceStats stats = stats(instance);
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            stats.started();
+            return call.doFinally(signal -> {
+                if (signal == SignalType.CANCEL) {
+                    stats.cancelled();
+                } else {
+                    completed(stats, System.nanoTime() - start, signal == SignalType.ON_ERROR);
+                }
+            });
+        });
+    }
+
+    InstanceStats stats(ServiceInstance instance) {
+        return instances.get(instance.getServiceId() + '|' + instance.getHost() + ':' + instance.getPort(),
+            key -> new InstanceStats(System.nanoTime()));
+    }
+
+    /**
+     * Records a finished call. A failed one counts as at least the error
+     * penalty, since connection errors return quickly and would otherwise
+     * make a dead instance look like the fastest.
+     */
+    void completed(InstanceStats stats, long responseNanos, boolean failed) {
+        long sample = failed ? Math.max(responseNanos, errorPenaltyNanos) : responseNanos;
+        stats.completed(sample, System.nanoTime(), decayNanos);
+    }
+}
@@ -0,0 +1,75 @@
+package com.travelplatform.gateway.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load of one service instance as seen from this gateway: requests in flight
+ * and a peak-sensitive moving average of response time. A response slower
+ * than the average replaces it outright, so a pausing instance is avoided at
+ * once; faster ones pull it down with a weight that grows with the time
+ * since the last response.
+ */
+class InstanceStats {
+
+    private static final double MIN_WARMUP_WEIGHT = 0.1;
+
+    private final long firstSeenNanos;
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    private boolean sampled;
+    private double latencyNanos;
+    private long lastSampleNanos;
+
+    InstanceStats(long nowNanos) {
+        this.firstSeenNanos = nowNanos;
+    }
+
+    void started() {
+        outstanding.incrementAndGet();
+    }
+
+    void cancelled() {
+        outstanding.decrementAndGet();
+    }
+
+    synchronized void completed(long responseNanos, long nowNanos, double decayNanos) {
+        outstanding.decrementAndGet();
+        if (!sampled || responseNanos > latencyNanos) {
+            latencyNanos = responseNanos;
+            sampled = true;
+        } else {
+            double weight = Math.exp(-(nowNanos - lastSampleNanos) / decayNanos);
+            latencyNanos = latencyNanos * weight + responseNanos * (1 - weight);
+        }
+        lastSampleNanos = nowNanos;
+    }
+
+    int outstanding() {
+        return outstanding.get();
+    }
+
+    /**
+     * The average response time, NaN before the first response. It decays
+     * while no responses arrive, so an instance passed over after a slow
+     * spell is tried again instead of being starved of the samples that
+     * would clear it.
+     */
+    synchronized double latencyNanos(long nowNanos, double decayNanos) {
+        if (!sampled) {
+            return Double.NaN;
+        }
+        return latencyNanos * Math.exp(-(nowNanos - lastSampleNanos) / decayNanos);
+    }
+
+    /**
+     * Share of a warm instance's traffic this one should take, rising
+     * linearly over the slow-start period after it was first seen.
+     */
+    double warmupWeight(long nowNanos, long slowStartNanos) {
+        if (slowStartNanos <= 0) {
+            return 1;
+        }
+        double warmed = (double) (nowNanos - firstSeenNanos) / slowStartNanos;
+        return Math.max(MIN_WARMUP_WEIGHT, Math.min(1, warmed));
+    }
+}
@@ -0,0 +1,88 @@
+package com.travelplatform.gateway.loadbalancer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.RetryableRequestContext;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks two instances at random and sends the request to the less loaded
+ * one, by {@link InstanceLoadTracker#lessLoaded}. Comparing two random
+ * instances instead of all of them keeps a burst from piling onto the single
+ * instance that currently looks best, while still steering around slow ones.
+ * An instance in slow start takes its {@link InstanceLoadTracker#warmupWeight}
+ * of the requests it wins. A {@link RetryableRequestContext} request gets an
+ * instance other than its previous one whenever there is another.
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(LatencyAwareLoadBalancer.class);
+
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+    private final String serviceId;
+    private final InstanceLoadTracker loadTracker;
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                                    String serviceId,
+                                    InstanceLoadTracker loadTracker) {
+        this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+        this.serviceId = serviceId;
+        this.loadTracker = loadTracker;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider
+            .getIfAvailable(NoopServiceInstanceListSupplier::new);
+        ServiceInstance previous = request.getContext() instanceof RetryableRequestContext context
+            ? context.getPreviousServiceInstance() : null;
+        return supplier.get(request).next()
+            .map(instances -> choose(previous == null ? instances : excluding(instances, previous)));
+    }
+
+    private static List<ServiceInstance> excluding(List<ServiceInstance> instances, ServiceInstance previous) {
+        List<ServiceInstance> others = instances.stream()
+            .filter(instance -> !Objects.equals(instance.getHost(), previous.getHost())
+                || instance.getPort() != previous.getPort())
+            .toList();
+        return others.isEmpty() ? instances : others;
+    }
+
+    private Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        int count = instances.size();
+        if (count == 0) {
+            log.warn("No instances available for service: {}", serviceId);
+            return new EmptyResponse();
+        }
+        if (count == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(count);
+        int second = random.nextInt(count - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance chosen = loadTracker.lessLoaded(instances.get(first), instances.get(second));
+        ServiceInstance other = chosen == instances.get(first) ? instances.get(second) : instances.get(first);
+        // An instance in slow start keeps a request it won only in proportion to
+        // its weight: unsampled and idle, it would otherwise win nearly every time
+        if (random.nextDouble() >= loadTracker.warmupWeight(chosen)) {
+            chosen = other;
+        }
+        return new DefaultResponse(chosen);
+    }
+}
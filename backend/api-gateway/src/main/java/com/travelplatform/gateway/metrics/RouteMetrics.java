@@ -0,0 +1,177 @@
+package com.travelplatform.gateway.metrics;
+
+import com.travelplatform.common.tenant.TenantResolver;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency histograms and in-flight gauges per route, status class and
+ * tenant. Buckets are fixed and only the busiest tenants get their own tag,
+ * so the series count stays bounded; timers are looked up once and cached,
+ * which keeps recording to a map lookup and a few atomic adds.
+ */
+@Component
+public class RouteMetrics implements DisposableBean {
+
+    private static final String TENANT_TAG_ATTRIBUTE = RouteMetrics.class.getName() + ".TENANT_TAG";
+    private static final String UNMATCHED = "unmatched";
+
+    private final MeterRegistry meterRegistry;
+    private final Duration[] buckets;
+    private final Duration rerankInterval;
+    private final TopTenants topTenants;
+    private final Stage requests;
+    private final Stage upstream;
+    private volatile Disposable reranking;
+
+    public RouteMetrics(MeterRegistry meterRegistry,
+                        @Value("${route-metrics.buckets:5ms,10ms,25ms,50ms,100ms,250ms,500ms,1s,2500ms,5s,10s}") Duration[] buckets,
+                        @Value("${route-metrics.tenants.top-n:10}") int topTenants,
+                        @Value("${route-metrics.tenants.rerank-interval:1m}") Duration rerankInterval) {
+        this.meterRegistry = meterRegistry;
+        this.buckets = buckets;
+        this.rerankInterval = rerankInterval;
+        this.topTenants = new TopTenants(topTenants);
+        this.requests = new Stage("gateway.request.duration", "gateway.requests.active",
+            "Time from route match until the response is written");
+        this.upstream = new Stage("gateway.upstream.duration", "gateway.upstream.requests.active",
+            "Time from sending a request to the upstream service until its response headers arrive");
+    }
+
+    /**
+     * Times the rest of the filter chain as the whole request.
+     */
+    public Mono<Void> timeRequest(ServerWebExchange exchange, Mono<Void> chain) {
+        exchange.getAttributes().put(TENANT_TAG_ATTRIBUTE,
+            topTenants.tagFor(exchange.getAttribute(TenantResolver.TENANT_ATTRIBUTE)));
+        return requests.time(exchange, chain);
+    }
+
+    /**
+     * Times the rest of the filter chain as the upstream call.
+     */
+    public Mono<Void> timeUpstream(ServerWebExchange exchange, Mono<Void> chain) {
+        return upstream.time(exchange, chain);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        reranking = Flux.interval(rerankInterval, rerankInterval)
+            .onBackpressureDrop()
+            .subscribe(tick -> {
+                Set<String> demoted = topTenants.rerank();
+                if (!demoted.isEmpty()) {
+                    requests.remove(demoted);
+                    upstream.remove(demoted);
+                }
+            });
+    }
+
+    @Override
+    public void destroy() {
+        Disposable current = reranking;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    private static String statusClass(HttpStatusCode status) {
+        // A chain that completes without setting a status is committed as 200
+        return status == null ? "2xx" : status.value() / 100 + "xx";
+    }
+
+    private static String errorClass(Throwable error) {
+        return error instanceof ResponseStatusException e ? statusClass(e.getStatusCode()) : "5xx";
+    }
+
+    private record MeterKey(String route, String status, String tenant) {
+    }
+
+    private final class Stage {
+
+        private final String timerName;
+        private final String gaugeName;
+        private final String description;
+        private final Map<MeterKey, Timer> timers = new ConcurrentHashMap<>();
+        private final Map<String, AtomicInteger> active = new ConcurrentHashMap<>();
+
+        Stage(String timerName, String gaugeName, String description) {
+            this.timerName = timerName;
+            this.gaugeName = gaugeName;
+            this.description = description;
+        }
+
+        Mono<Void> time(ServerWebExchange exchange, Mono<Void> chain) {
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            String routeId = route != null ? route.getId() : UNMATCHED;
+            String tenant = exchange.getAttributeOrDefault(TENANT_TAG_ATTRIBUTE, TopTenants.OTHER);
+            AtomicInteger inFlight = active.computeIfAbsent(routeId, this::registerGauge);
+
+            return Mono.defer(() -> {
+                long start = System.nanoTime();
+                inFlight.incrementAndGet();
+                return chain
+                    .doOnSuccess(ignored -> record(routeId, statusClass(exchange.getResponse().getStatusCode()), tenant, start, inFlight))
+                    .doOnError(error -> record(routeId, errorClass(error), tenant, start, inFlight))
+                    .doOnCancel(() -> record(routeId, "cancelled", tenant, start, inFlight));
+            });
+        }
+
+        void remove(Set<String> tenants) {
+            timers.entrySet().removeIf(entry -> {
+                if (!tenants.contains(entry.getKey().tenant())) {
+                    return false;
+                }
+                meterRegistry.remove(entry.getValue());
+                return true;
+            });
+        }
+
+        private void record(String route, String status, String tenant, long start, AtomicInteger inFlight) {
+            inFlight.decrementAndGet();
+            timers.computeIfAbsent(new MeterKey(route, status, tenant), this::registerTimer)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        private Timer registerTimer(MeterKey key) {
+            return Timer.builder(timerName)
+                .description(description)
+                .tag("route", key.route())
+                .tag("status", key.status())
+                .tag("tenant", key.tenant())
+                .serviceLevelObjectives(buckets)
+                .register(meterRegistry);
+        }
+
+        private AtomicInteger registerGauge(String route) {
+            AtomicInteger inFlight = new AtomicInteger();
+            Gauge.builder(gaugeName, inFlight, AtomicInteger::get)
+                .description("Requests in flight")
+                .tag("route", route)
+                .strongReference(true)
+                .register(meterRegistry);
+            return inFlight;
+        }
+    }
+}
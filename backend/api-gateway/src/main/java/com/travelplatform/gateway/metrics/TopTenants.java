@@ -0,0 +1,79 @@
+package com.travelplatform.gateway.metrics;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Tenant tag values for gateway metrics: the busiest tenants of the last
+ * window by id, every other tenant as {@value #OTHER}, so the number of
+ * series stays bounded however many tenants there are. Until the first
+ * re-rank, and while fewer than the limit are tagged, tenants are tagged in
+ * order of arrival.
+ */
+public class TopTenants {
+
+    public static final String OTHER = "other";
+
+    private final int limit;
+    // Bounded by the tenant registry, which rejects ids beyond its capacity
+    private final Map<String, LongAdder> requests = new ConcurrentHashMap<>();
+    private volatile Set<String> tagged = Set.of();
+
+    public TopTenants(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Counts a request for the tenant and returns the tag to record it under.
+     */
+    public String tagFor(String tenantId) {
+        if (tenantId == null) {
+            return OTHER;
+        }
+        requests.computeIfAbsent(tenantId, id -> new LongAdder()).increment();
+        Set<String> current = tagged;
+        if (current.contains(tenantId)) {
+            return tenantId;
+        }
+        return current.size() < limit && admit(tenantId) ? tenantId : OTHER;
+    }
+
+    /**
+     * Tags the tenants with the most requests since the last call and starts
+     * a new window.
+     *
+     * @return tenants that lost their own tag, whose meters can be dropped
+     */
+    public synchronized Set<String> rerank() {
+        Set<String> next = requests.entrySet().stream()
+            .sorted(Comparator.comparingLong((Map.Entry<String, LongAdder> entry) -> entry.getValue().sum()).reversed())
+            .limit(limit)
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toUnmodifiableSet());
+        requests.clear();
+
+        Set<String> demoted = new HashSet<>(tagged);
+        demoted.removeAll(next);
+        tagged = next;
+        return demoted;
+    }
+
+    private synchronized boolean admit(String tenantId) {
+        Set<String> current = tagged;
+        if (current.contains(tenantId)) {
+            return true;
+        }
+        if (current.size() >= limit) {
+            return false;
+        }
+        Set<String> next = new HashSet<>(current);
+        next.add(tenantId);
+        tagged = Set.copyOf(next);
+        return true;
+    }
+}
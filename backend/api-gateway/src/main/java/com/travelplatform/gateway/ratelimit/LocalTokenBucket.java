@@ -0,0 +1,59 @@
+package com.travelplatform.gateway.ratelimit;
+
+/**
+ * In-process token bucket used as a pre-filter in front of Redis.
+ * <p>
+ * Tokens are only kept when Redis also admits the request (callers refund on a
+ * Redis denial), so this bucket never holds fewer tokens than the shared one.
+ * An empty local bucket therefore proves the client is over its global limit.
+ */
+class LocalTokenBucket {
+
+    private final double replenishPerNano;
+    private final double capacity;
+
+    private double tokens;
+    private long lastRefillNanos;
+    private volatile long blockedUntilNanos;
+
+    LocalTokenBucket(int replenishRate, int burstCapacity, long nowNanos) {
+        this.replenishPerNano = replenishRate / 1_000_000_000d;
+        this.capacity = burstCapacity;
+        this.tokens = burstCapacity;
+        this.lastRefillNanos = nowNanos;
+        this.blockedUntilNanos = nowNanos;
+    }
+
+    synchronized boolean tryConsume(long nowNanos) {
+        refill(nowNanos);
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    synchronized void refund() {
+        tokens = Math.min(capacity, tokens + 1);
+    }
+
+    boolean isBlocked(long nowNanos) {
+        return nowNanos - blockedUntilNanos < 0;
+    }
+
+    /**
+     * Rejects locally until the shared bucket can have refilled a token, after
+     * Redis reported it empty.
+     */
+    void blockFor(long nanos, long nowNanos) {
+        blockedUntilNanos = nowNanos + nanos;
+    }
+
+    private void refill(long nowNanos) {
+        long elapsed = nowNanos - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * replenishPerNano);
+            lastRefillNanos = nowNanos;
+        }
+    }
+}
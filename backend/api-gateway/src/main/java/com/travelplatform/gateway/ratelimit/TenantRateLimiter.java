@@ -0,0 +1,193 @@
+package com.travelplatform.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user and per-tenant token-bucket rate limiter backed by Redis, with an
+ * in-process tier that rejects clients already known to be over their limit
+ * without a Redis round trip.
+ * <p>
+ * Keys come from {@code TenantUserKeyResolver} as {@code tenant:user}.
+ */
+public class TenantRateLimiter extends AbstractRateLimiter<TenantRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "tenant-rate-limiter";
+
+    private static final Logger log = LoggerFactory.getLogger(TenantRateLimiter.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final RedisScript<List<Long>> script;
+    private final MeterRegistry meterRegistry;
+    private final Config defaultConfig = new Config();
+    private final Cache<String, LocalTokenBucket> localBuckets;
+    private final Map<String, RouteMeters> routeMeters = new ConcurrentHashMap<>();
+
+    public TenantRateLimiter(ReactiveStringRedisTemplate redisTemplate,
+                             RedisScript<List<Long>> script,
+                             ConfigurationService configurationService,
+                             MeterRegistry meterRegistry,
+                             long localMaxKeys,
+                             Duration localIdleTimeout) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.redisTemplate = redisTemplate;
+        this.script = script;
+        this.meterRegistry = meterRegistry;
+        this.localBuckets = Caffeine.newBuilder()
+            .maximumSize(localMaxKeys)
+            .expireAfterAccess(localIdleTimeout)
+            .build();
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        RouteMeters meters = routeMeters.computeIfAbsent(routeId, this::createMeters);
+
+        int separator = id.indexOf(':');
+        String tenantId = separator > 0 ? id.substring(0, separator) : id;
+        String userId = separator > 0 ? id.substring(separator + 1) : "anonymous";
+
+        long now = System.nanoTime();
+        LocalTokenBucket userBucket = localBuckets.get(routeId + "|u|" + id,
+            k -> new LocalTokenBucket(config.getUserReplenishRate(), config.getUserBurstCapacity(), now));
+        LocalTokenBucket tenantBucket = localBuckets.get(routeId + "|t|" + tenantId,
+            k -> new LocalTokenBucket(config.getTenantReplenishRate(), config.getTenantBurstCapacity(), now));
+
+        if (userBucket.isBlocked(now) || tenantBucket.isBlocked(now)) {
+            meters.rejectedLocal.increment();
+            return Mono.just(new Response(false, headers(config, 0)));
+        }
+        if (!userBucket.tryConsume(now)) {
+            meters.rejectedLocal.increment();
+            return Mono.just(new Response(false, headers(config, 0)));
+        }
+        if (!tenantBucket.tryConsume(now)) {
+            userBucket.refund();
+            meters.rejectedLocal.increment();
+            return Mono.just(new Response(false, headers(config, 0)));
+        }
+
+        String prefix = "rate_limiter.{" + tenantId + "}." + routeId;
+        List<String> keys = List.of(
+            prefix + ".user." + userId + ".tokens", prefix + ".user." + userId + ".timestamp",
+            prefix + ".tenant.tokens", prefix + ".tenant.timestamp");
+        List<String> args = List.of(
+            Integer.toString(config.getUserReplenishRate()), Integer.toString(config.getUserBurstCapacity()),
+            Integer.toString(config.getTenantReplenishRate()), Integer.toString(config.getTenantBurstCapacity()),
+            "1");
+
+        return redisTemplate.execute(script, keys, args)
+            .next()
+            .map(result -> {
+                boolean allowed = result.get(0) == 1L;
+                long userRemaining = result.get(1);
+                long tenantRemaining = result.get(2);
+                if (allowed) {
+                    meters.allowed.increment();
+                } else {
+                    // Keep local tokens in step with Redis and hold the exhausted
+                    // bucket shut until it could have refilled a token
+                    userBucket.refund();
+                    tenantBucket.refund();
+                    long blockedAt = System.nanoTime();
+                    if (userRemaining < 1) {
+                        userBucket.blockFor(1_000_000_000L / config.getUserReplenishRate(), blockedAt);
+                    }
+                    if (tenantRemaining < 1) {
+                        tenantBucket.blockFor(1_000_000_000L / config.getTenantReplenishRate(), blockedAt);
+                    }
+                    meters.rejectedRedis.increment();
+                }
+                return new Response(allowed, headers(config, Math.min(userRemaining, tenantRemaining)));
+            })
+            .onErrorResume(e -> {
+                // Redis is unavailable: the local tier already admitted this request
+                log.warn("Rate limiter script failed, falling back to local limits: {}", e.getMessage());
+                meters.allowedLocal.increment();
+                return Mono.just(new Response(true, headers(config, -1)));
+            });
+    }
+
+    private Map<String, String> headers(Config config, long remaining) {
+        return Map.of(
+            RedisRateLimiter.REMAINING_HEADER, Long.toString(remaining),
+            RedisRateLimiter.REPLENISH_RATE_HEADER, Integer.toString(config.getUserReplenishRate()),
+            RedisRateLimiter.BURST_CAPACITY_HEADER, Integer.toString(config.getUserBurstCapacity()));
+    }
+
+    private RouteMeters createMeters(String routeId) {
+        return new RouteMeters(
+            counter(routeId, "allowed", "redis"),
+            counter(routeId, "allowed", "local"),
+            counter(routeId, "rejected", "local"),
+            counter(routeId, "rejected", "redis"));
+    }
+
+    private Counter counter(String routeId, String outcome, String tier) {
+        return Counter.builder("gateway.ratelimit.requests")
+            .description("Requests evaluated by the tenant rate limiter")
+            .tag("route", routeId)
+            .tag("outcome", outcome)
+            .tag("tier", tier)
+            .register(meterRegistry);
+    }
+
+    private record RouteMeters(Counter allowed, Counter allowedLocal, Counter rejectedLocal, Counter rejectedRedis) {
+    }
+
+    public static class Config {
+
+        private int userReplenishRate = 10;
+        private int userBurstCapacity = 20;
+        private int tenantReplenishRate = 500;
+        private int tenantBurstCapacity = 1000;
+
+        public int getUserReplenishRate() {
+            return userReplenishRate;
+        }
+
+        public void setUserReplenishRate(int userReplenishRate) {
+            this.userReplenishRate = userReplenishRate;
+        }
+
+        public int getUserBurstCapacity() {
+            return userBurstCapacity;
+        }
+
+        public void setUserBurstCapacity(int userBurstCapacity) {
+            this.userBurstCapacity = userBurstCapacity;
+        }
+
+        public int getTenantReplenishRate() {
+            return tenantReplenishRate;
+        }
+
+        public void setTenantReplenishRate(int tenantReplenishRate) {
+            this.tenantReplenishRate = tenantReplenishRate;
+        }
+
+        public int getTenantBurstCapacity() {
+            return tenantBurstCapacity;
+        }
+
+        public void setTenantBurstCapacity(int tenantBurstCapacity) {
+            this.tenantBurstCapacity = tenantBurstCapacity;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.travelplatform.gateway.ratelimit;
+
+import com.travelplatform.common.tenant.TenantResolver;
+import com.travelplatform.common.tenant.TenantWebFilter;
+import com.travelplatform.gateway.filter.JwtAuthenticationFilter;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Resolves rate-limit keys as {@code tenant:user}. The tenant is the one
+ * {@link TenantWebFilter} resolved; the user is the id forwarded by
+ * {@link JwtAuthenticationFilter}, or the client address on public routes.
+ */
+public class TenantUserKeyResolver implements KeyResolver {
+
+    private final String defaultTenant;
+
+    public TenantUserKeyResolver(String defaultTenant) {
+        this.defaultTenant = defaultTenant;
+    }
+
+    @Override
+    public Mono<String> resolve(ServerWebExchange exchange) {
+        String tenantId = exchange.getAttributeOrDefault(TenantResolver.TENANT_ATTRIBUTE, defaultTenant);
+
+        String userId = exchange.getRequest().getHeaders().getFirst(JwtAuthenticationFilter.USER_ID_HEADER);
+        if (userId == null) {
+            InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+            userId = remoteAddress != null && remoteAddress.getAddress() != null
+                ? remoteAddress.getAddress().getHostAddress()
+                : "anonymous";
+        }
+        return Mono.just(tenantId + ":" + userId);
+    }
+}
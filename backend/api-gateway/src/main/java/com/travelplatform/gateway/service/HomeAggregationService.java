@@ -0,0 +1,149 @@
+package com.travelplatform.gateway.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreakerFactory;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Builds the home page payload from user-service and travel-service in one
+ * round trip. Both calls run concurrently, each under its own timeout and its
+ * service's route circuit breaker; a part that fails or runs late is left
+ * out and named in {@code degraded}, so one slow service costs the client
+ * that part of the page rather than all of it.
+ */
+@Service
+public class HomeAggregationService {
+
+    private static final String BOOKINGS = "bookings";
+    private static final String PACKAGES = "packages";
+
+    private final WebClient webClient;
+    private final ReactiveCircuitBreakerFactory<?, ?> circuitBreakerFactory;
+    private final MeterRegistry meterRegistry;
+    private final Duration timeout;
+    private final int bookingsLimit;
+    private final int packagesLimit;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public HomeAggregationService(WebClient.Builder webClientBuilder,
+                                  HttpClient httpClient,
+                                  ReactorLoadBalancerExchangeFilterFunction loadBalancerFunction,
+                                  ReactiveCircuitBreakerFactory<?, ?> circuitBreakerFactory,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${bff.timeout:800ms}") Duration timeout,
+                                  @Value("${bff.home.bookings-limit:5}") int bookingsLimit,
+                                  @Value("${bff.home.packages-limit:6}") int packagesLimit) {
+        // The gateway's own client, so these calls share its connection pool and timeouts
+        this.webClient = webClientBuilder
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
+            .filter(loadBalancerFunction)
+            .build();
+        this.circuitBreakerFactory = circuitBreakerFactory;
+        this.meterRegistry = meterRegistry;
+        this.timeout = timeout;
+        this.bookingsLimit = bookingsLimit;
+        this.packagesLimit = packagesLimit;
+    }
+
+    /**
+     * @param identity the caller's identity and tenant headers, as set by the JWT filter
+     */
+    public Mono<HomePage> home(Profile profile, HttpHeaders identity) {
+        Mono<Optional<JsonNode>> bookings = part(BOOKINGS, "user-service",
+            "/api/v1/users/bookings?limit=" + bookingsLimit, identity);
+        Mono<Optional<JsonNode>> packages = part(PACKAGES, "travel-service",
+            "/api/v1/travels/packages?limit=" + packagesLimit, identity);
+
+        return Mono.zip(bookings, packages).map(parts -> {
+            List<String> degraded = new ArrayList<>(2);
+            if (parts.getT1().isEmpty()) {
+                degraded.add(BOOKINGS);
+            }
+            if (parts.getT2().isEmpty()) {
+                degraded.add(PACKAGES);
+            }
+            return new HomePage(profile, parts.getT1().orElse(null), parts.getT2().orElse(null), degraded);
+        });
+    }
+
+    private Mono<Optional<JsonNode>> part(String name, String service, String path, HttpHeaders identity) {
+        Mono<ResponseEntity<JsonNode>> call = webClient.get()
+            .uri("http://" + service + path)
+            .headers(headers -> headers.addAll(identity))
+            .exchangeToMono(response -> {
+                if (response.statusCode().is2xxSuccessful()) {
+                    return response.toEntity(JsonNode.class);
+                }
+                // A 4xx is about the request, so it passes the service's breaker and fails the part below
+                return response.statusCode().is5xxServerError()
+                    ? response.createError()
+                    : response.toBodilessEntity().map(entity -> new ResponseEntity<JsonNode>(entity.getStatusCode()));
+            })
+            .timeout(timeout);
+
+        // The breaker the service's route uses, so an open circuit skips the call here too.
+        // Mono::error keeps the cause instead of the default fallback's NoFallbackAvailableException
+        return circuitBreakerFactory.create(service + "-circuit-breaker").run(call, Mono::error)
+            .flatMap(entity -> entity.getStatusCode().is2xxSuccessful() && entity.hasBody()
+                ? Mono.just(entity.getBody())
+                : Mono.<JsonNode>error(new ResponseStatusException(entity.getStatusCode())))
+            .map(body -> {
+                record(name, "ok");
+                return Optional.of(body);
+            })
+            .onErrorResume(error -> {
+                record(name, reason(error));
+                return Mono.just(Optional.<JsonNode>empty());
+            });
+    }
+
+    // Same vocabulary as the fallback controller's X-Degraded-Reason
+    private static String reason(Throwable error) {
+        if (error instanceof CallNotPermittedException) {
+            return "circuit-open";
+        }
+        if (error instanceof TimeoutException) {
+            return "timeout";
+        }
+        return "upstream-error";
+    }
+
+    private void record(String part, String outcome) {
+        counters.computeIfAbsent(part + ':' + outcome, key -> Counter.builder("gateway.bff.parts")
+            .description("Parts of aggregated responses by outcome")
+            .tag("part", part)
+            .tag("outcome", outcome)
+            .register(meterRegistry))
+            .increment();
+    }
+
+    public record Profile(String userId, String username, String tenantId, List<String> roles) {
+    }
+
+    /**
+     * @param bookings the caller's latest bookings as user-service returns them, or {@code null} if degraded
+     * @param packages the newest packages as travel-service returns them, or {@code null} if degraded
+     */
+    public record HomePage(Profile profile, JsonNode bookings, JsonNode packages, List<String> degraded) {
+    }
+}
@@ -0,0 +1,159 @@
+package com.travelplatform.gateway.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tells whether an access token's session was revoked (logout, or a refresh
+ * token used twice) without a Redis call per request.
+ * <p>
+ * user-service records revoked sessions in Redis. This node keeps them in a
+ * bloom filter, rebuilt from the revocation index every sync interval and
+ * topped up from the revocation channel in between, so only sessions the
+ * filter might contain are confirmed against Redis.
+ */
+@Service
+public class TokenRevocationService implements DisposableBean {
+
+    // Written by user-service's RefreshTokenStore
+    private static final String REVOKED_KEY_PREFIX = "auth:revoked:";
+    private static final String REVOKED_INDEX_KEY = "auth:revoked-index";
+    private static final String REVOCATION_CHANNEL = "auth:revocations";
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final Duration syncInterval;
+    private final long expectedSessions;
+    private final double falsePositiveRate;
+    private final AtomicLong revokedSessions = new AtomicLong();
+    private final Disposable.Composite subscriptions = Disposables.composite();
+
+    private volatile RevocationBloomFilter filter;
+    // Receives channel updates while a rebuild reads the index, so none fall between the two
+    private volatile RevocationBloomFilter rebuilding;
+
+    private final Counter clear;
+    private final Counter revoked;
+    private final Counter falsePositives;
+    private final Counter errors;
+
+    public TokenRevocationService(ReactiveStringRedisTemplate redisTemplate,
+                                  @Value("${jwt.revocation.sync-interval:30s}") Duration syncInterval,
+                                  @Value("${jwt.revocation.expected-sessions:100000}") long expectedSessions,
+                                  @Value("${jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                                  MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.syncInterval = syncInterval;
+        this.expectedSessions = expectedSessions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new RevocationBloomFilter(expectedSessions, falsePositiveRate);
+
+        this.clear = counter(meterRegistry, "clear");
+        this.revoked = counter(meterRegistry, "revoked");
+        this.falsePositives = counter(meterRegistry, "false-positive");
+        this.errors = counter(meterRegistry, "error");
+        Gauge.builder("gateway.jwt.revoked-sessions", revokedSessions, AtomicLong::get)
+            .description("Revoked sessions loaded into the bloom filter at the last sync")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Whether the session may be revoked; {@code false} is definitive and
+     * needs no Redis call.
+     */
+    public boolean mightBeRevoked(String sessionId) {
+        if (filter.mightContain(sessionId)) {
+            return true;
+        }
+        clear.increment();
+        return false;
+    }
+
+    /**
+     * Confirms a possible revocation against Redis. Fails closed: a session
+     * the filter flagged is treated as revoked while Redis can't be asked.
+     */
+    public Mono<Boolean> isRevoked(String sessionId) {
+        return redisTemplate.hasKey(REVOKED_KEY_PREFIX + sessionId)
+            .doOnNext(confirmed -> (confirmed ? revoked : falsePositives).increment())
+            .onErrorResume(e -> {
+                errors.increment();
+                log.warn("Could not confirm revocation of session {}: {}", sessionId, e.getMessage());
+                return Mono.just(true);
+            });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        // Redis being down must not block startup; both loops retry until it is back
+        subscriptions.add(redisTemplate.listenToChannel(REVOCATION_CHANNEL)
+            .map(ReactiveSubscription.Message::getMessage)
+            .doOnNext(this::add)
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(syncInterval))
+            .subscribe());
+        subscriptions.add(Flux.interval(Duration.ZERO, syncInterval)
+            .onBackpressureDrop()
+            .concatMap(tick -> rebuild().onErrorResume(e -> {
+                log.warn("Revoked sessions not synced, keeping the previous filter: {}", e.getMessage());
+                return Mono.empty();
+            }))
+            .subscribe());
+    }
+
+    @Override
+    public void destroy() {
+        subscriptions.dispose();
+    }
+
+    private void add(String sessionId) {
+        filter.add(sessionId);
+        RevocationBloomFilter next = rebuilding;
+        if (next != null) {
+            next.add(sessionId);
+        }
+    }
+
+    // Bloom filters can't drop entries, so expired revocations only leave on a rebuild
+    private Mono<Void> rebuild() {
+        RevocationBloomFilter next = new RevocationBloomFilter(
+            Math.max(expectedSessions, 2 * revokedSessions.get()), falsePositiveRate);
+        rebuilding = next;
+        return redisTemplate.opsForZSet()
+            .rangeByScore(REVOKED_INDEX_KEY, Range.rightUnbounded(Range.Bound.inclusive((double) System.currentTimeMillis())))
+            .doOnNext(next::add)
+            .count()
+            .doOnNext(count -> {
+                filter = next;
+                revokedSessions.set(count);
+            })
+            .doFinally(signal -> rebuilding = null)
+            .then();
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("gateway.jwt.revocation-checks")
+            .description("Access token session checks by outcome; only flagged sessions reach Redis")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+}
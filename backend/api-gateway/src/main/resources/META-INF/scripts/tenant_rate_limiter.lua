@@ -0,0 +1,55 @@
+-- Two-level token bucket: a request is admitted only if both the user's and
+-- the tenant's bucket for the route have a token left. All keys share the
+-- {tenant} hash tag so the script stays on one slot in Redis Cluster.
+--
+-- KEYS[1], KEYS[2]  user bucket tokens / timestamp
+-- KEYS[3], KEYS[4]  tenant bucket tokens / timestamp
+-- ARGV[1], ARGV[2]  user replenish rate / burst capacity
+-- ARGV[3], ARGV[4]  tenant replenish rate / burst capacity
+-- ARGV[5]           requested tokens
+redis.replicate_commands()
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) + tonumber(time[2]) / 1000000
+local requested = tonumber(ARGV[5])
+
+local function refill(tokens_key, timestamp_key, rate, capacity)
+  local last_tokens = tonumber(redis.call('get', tokens_key))
+  if last_tokens == nil then
+    last_tokens = capacity
+  end
+  local last_refreshed = tonumber(redis.call('get', timestamp_key))
+  if last_refreshed == nil then
+    last_refreshed = 0
+  end
+  local delta = math.max(0, now - last_refreshed)
+  return math.min(capacity, last_tokens + (delta * rate))
+end
+
+local function store(tokens_key, timestamp_key, tokens, rate, capacity)
+  local ttl = math.ceil(capacity / rate * 2)
+  if ttl > 0 then
+    redis.call('setex', tokens_key, ttl, tokens)
+    redis.call('setex', timestamp_key, ttl, now)
+  end
+end
+
+local user_rate = tonumber(ARGV[1])
+local user_capacity = tonumber(ARGV[2])
+local tenant_rate = tonumber(ARGV[3])
+local tenant_capacity = tonumber(ARGV[4])
+
+local user_tokens = refill(KEYS[1], KEYS[2], user_rate, user_capacity)
+local tenant_tokens = refill(KEYS[3], KEYS[4], tenant_rate, tenant_capacity)
+
+local allowed_num = 0
+if user_tokens >= requested and tenant_tokens >= requested then
+  user_tokens = user_tokens - requested
+  tenant_tokens = tenant_tokens - requested
+  allowed_num = 1
+end
+
+store(KEYS[1], KEYS[2], user_tokens, user_rate, user_capacity)
+store(KEYS[3], KEYS[4], tenant_tokens, tenant_rate, tenant_capacity)
+
+return { allowed_num, math.floor(user_tokens), math.floor(tenant_tokens) }
@@ -0,0 +1,449 @@
+package com.travelplatform.gateway;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Just enough of a Redis server, over RESP2, for the services' caches,
+ * refresh-token store and pub/sub invalidation: strings with expiry, the
+ * revocation sorted set, and channels. Keys are held in memory and never
+ * persisted.
+ * <p>
+ * There is no Lua here. The gateway's {@code tenant_rate_limiter.lua} is
+ * answered by a port of it in {@link #tokenBuckets}, recognised by the
+ * script's SHA-1; any other script, or an edited one, is refused.
+ */
+public final class EmbeddedRedis implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedRedis.class);
+
+    private static final byte[] OK = "+OK\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NIL = "$-1\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NOSCRIPT = "-NOSCRIPT No matching script. Please use EVAL.\r\n"
+        .getBytes(StandardCharsets.US_ASCII);
+
+    // api-gateway's META-INF/scripts/tenant_rate_limiter.lua as ported below; update both together
+    private static final String TOKEN_BUCKET_SHA = "bf274ebdba9c7eb96fe6961dbf7ec29534167c9f";
+
+    private final ServerSocket serverSocket;
+    // A thread per connection; clients keep only a few open
+    private final ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "embedded-redis");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, Value> strings = new ConcurrentHashMap<>();
+    // Member to score, per key; guarded by the map itself
+    private final Map<String, Map<String, Double>> sortedSets = new HashMap<>();
+    private final Map<String, Set<Connection>> channels = new ConcurrentHashMap<>();
+    private final Set<String> loadedScripts = ConcurrentHashMap.newKeySet();
+    // Scripts run atomically in Redis; this keeps two evaluations from interleaving
+    private final Object scriptLock = new Object();
+
+    public EmbeddedRedis() throws IOException {
+        this.serverSocket = new ServerSocket(0, 128, InetAddress.getLoopbackAddress());
+        connections.execute(this::accept);
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Connection connection = new Connection(socket);
+                connections.execute(() -> serve(connection));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    log.warn("Redis stand-in stopped accepting: {}", e.getMessage());
+                }
+                return;
+            }
+        }
+    }
+
+    private void serve(Connection connection) {
+        try (connection) {
+            List<byte[]> command;
+            while ((command = connection.read()) != null) {
+                if (!command.isEmpty()) {
+                    connection.write(execute(connection, command));
+                }
+            }
+        } catch (IOException e) {
+            // Client went away
+        } finally {
+            channels.values().forEach(subscribers -> subscribers.remove(connection));
+        }
+    }
+
+    private byte[] execute(Connection connection, List<byte[]> command) {
+        String name = text(command.get(0)).toUpperCase();
+        List<String> args = new ArrayList<>(command.size() - 1);
+        for (int i = 1; i < command.size(); i++) {
+            args.add(text(command.get(i)));
+        }
+        return switch (name) {
+            // RESP3 is refused so clients fall back to RESP2
+            case "HELLO" -> error("unknown command 'HELLO'");
+            case "PING" -> "+PONG\r\n".getBytes(StandardCharsets.US_ASCII);
+            case "AUTH", "CLIENT", "SELECT", "QUIT" -> OK;
+            case "INFO" -> bulk("redis_version:7.2.0\r\n".getBytes(StandardCharsets.UTF_8));
+            case "GET" -> {
+                Value value = live(args.get(0));
+                yield value != null ? bulk(value.data()) : NIL;
+            }
+            case "SET" -> set(args, command.get(2));
+            case "SETEX", "PSETEX" -> {
+                long ttl = Long.parseLong(args.get(1)) * (name.equals("SETEX") ? 1000 : 1);
+                strings.put(args.get(0), new Value(command.get(3), System.currentTimeMillis() + ttl));
+                yield OK;
+            }
+            case "EXISTS" -> integer(args.stream().filter(key -> live(key) != null).count());
+            case "DEL", "UNLINK" -> integer(args.stream().filter(key -> strings.remove(key) != null
+                | removeSortedSet(key)).count());
+            case "ZADD" -> zadd(args);
+            case "ZCARD" -> {
+                synchronized (sortedSets) {
+                    yield integer(sortedSets.getOrDefault(args.get(0), Map.of()).size());
+                }
+            }
+            case "ZRANGEBYSCORE" -> zrangeByScore(args);
+            case "ZREMRANGEBYSCORE" -> zremRangeByScore(args);
+            case "PUBLISH" -> integer(publish(args.get(0), command.get(2)));
+            case "SUBSCRIBE" -> {
+                ByteArrayOutputStream replies = new ByteArrayOutputStream();
+                for (String channel : args) {
+                    channels.computeIfAbsent(channel, c -> new CopyOnWriteArraySet<>()).add(connection);
+                    replies.writeBytes(array(bulk("subscribe"), bulk(channel), integer(connection.subscriptions.incrementAndGet())));
+                }
+                yield replies.toByteArray();
+            }
+            case "UNSUBSCRIBE" -> {
+                ByteArrayOutputStream replies = new ByteArrayOutputStream();
+                List<String> targets = args.isEmpty() ? List.copyOf(channels.keySet()) : args;
+                for (String channel : targets) {
+                    Set<Connection> subscribers = channels.get(channel);
+                    if (subscribers != null && subscribers.remove(connection)) {
+                        connection.subscriptions.decrementAndGet();
+                    }
+                    replies.writeBytes(array(bulk("unsubscribe"), bulk(channel), integer(connection.subscriptions.get())));
+                }
+                yield replies.toByteArray();
+            }
+            case "EVAL" -> {
+                String sha = sha1(command.get(1));
+                if (!TOKEN_BUCKET_SHA.equals(sha)) {
+                    yield error("the Redis stand-in only runs the gateway's rate limiter script");
+                }
+                loadedScripts.add(sha);
+                yield eval(args);
+            }
+            case "EVALSHA" -> loadedScripts.contains(args.get(0)) ? eval(args) : NOSCRIPT;
+            default -> error("unknown command '" + name + "'");
+        };
+    }
+
+    private byte[] set(List<String> args, byte[] data) {
+        String key = args.get(0);
+        boolean ifAbsent = false;
+        boolean ifPresent = false;
+        long expiresAt = 0;
+        for (int i = 2; i < args.size(); i++) {
+            switch (args.get(i).toUpperCase()) {
+                case "NX" -> ifAbsent = true;
+                case "XX" -> ifPresent = true;
+                case "PX" -> expiresAt = System.currentTimeMillis() + Long.parseLong(args.get(++i));
+                case "EX" -> expiresAt = System.currentTimeMillis() + Long.parseLong(args.get(++i)) * 1000;
+                default -> {
+                    return error("syntax error");
+                }
+            }
+        }
+        Value value = new Value(data, expiresAt);
+        if (ifAbsent) {
+            // An expired entry counts as absent
+            boolean[] stored = new boolean[1];
+            strings.compute(key, (k, existing) -> {
+                if (existing == null || existing.expired()) {
+                    stored[0] = true;
+                    return value;
+                }
+                return existing;
+            });
+            return stored[0] ? OK : NIL;
+        }
+        if (ifPresent) {
+            return strings.computeIfPresent(key, (k, existing) -> existing.expired() ? null : value) != null ? OK : NIL;
+        }
+        strings.put(key, value);
+        return OK;
+    }
+
+    // Arguments after the script or its SHA: numkeys, the keys, then ARGV
+    private byte[] eval(List<String> args) {
+        int keyCount = Integer.parseInt(args.get(1));
+        return tokenBuckets(args.subList(2, 2 + keyCount), args.subList(2 + keyCount, args.size()));
+    }
+
+    private byte[] tokenBuckets(List<String> keys, List<String> argv) {
+        double userRate = Double.parseDouble(argv.get(0));
+        double userCapacity = Double.parseDouble(argv.get(1));
+        double tenantRate = Double.parseDouble(argv.get(2));
+        double tenantCapacity = Double.parseDouble(argv.get(3));
+        double requested = Double.parseDouble(argv.get(4));
+        synchronized (scriptLock) {
+            double now = System.currentTimeMillis() / 1000.0;
+            double userTokens = refill(keys.get(0), keys.get(1), userRate, userCapacity, now);
+            double tenantTokens = refill(keys.get(2), keys.get(3), tenantRate, tenantCapacity, now);
+            long allowed = 0;
+            if (userTokens >= requested && tenantTokens >= requested) {
+                userTokens -= requested;
+                tenantTokens -= requested;
+                allowed = 1;
+            }
+            store(keys.get(0), keys.get(1), userTokens, userRate, userCapacity, now);
+            store(keys.get(2), keys.get(3), tenantTokens, tenantRate, tenantCapacity, now);
+            return array(integer(allowed), integer((long) Math.floor(userTokens)),
+                integer((long) Math.floor(tenantTokens)));
+        }
+    }
+
+    private double refill(String tokensKey, String timestampKey, double rate, double capacity, double now) {
+        Value tokens = live(tokensKey);
+        Value refreshed = live(timestampKey);
+        double lastTokens = tokens != null ? Double.parseDouble(text(tokens.data())) : capacity;
+        double lastRefreshed = refreshed != null ? Double.parseDouble(text(refreshed.data())) : 0;
+        return Math.min(capacity, lastTokens + Math.max(0, now - lastRefreshed) * rate);
+    }
+
+    private void store(String tokensKey, String timestampKey, double tokens, double rate, double capacity,
+                       double now) {
+        long ttlSeconds = (long) Math.ceil(capacity / rate * 2);
+        if (ttlSeconds > 0) {
+            long expiresAt = System.currentTimeMillis() + ttlSeconds * 1000;
+            strings.put(tokensKey, new Value(Double.toString(tokens).getBytes(StandardCharsets.US_ASCII), expiresAt));
+            strings.put(timestampKey, new Value(Double.toString(now).getBytes(StandardCharsets.US_ASCII), expiresAt));
+        }
+    }
+
+    private byte[] zadd(List<String> args) {
+        synchronized (sortedSets) {
+            Map<String, Double> members = sortedSets.computeIfAbsent(args.get(0), k -> new HashMap<>());
+            int added = 0;
+            for (int i = 1; i + 1 < args.size(); i += 2) {
+                if (members.put(args.get(i + 1), Double.parseDouble(args.get(i))) == null) {
+                    added++;
+                }
+            }
+            return integer(added);
+        }
+    }
+
+    private byte[] zrangeByScore(List<String> args) {
+        double min = score(args.get(1));
+        double max = score(args.get(2));
+        synchronized (sortedSets) {
+            List<byte[]> members = sortedSets.getOrDefault(args.get(0), Map.of()).entrySet().stream()
+                .filter(member -> member.getValue() >= min && member.getValue() <= max)
+                .sorted(Map.Entry.comparingByValue())
+                .map(member -> bulk(member.getKey()))
+                .toList();
+            return array(members.toArray(byte[][]::new));
+        }
+    }
+
+    private byte[] zremRangeByScore(List<String> args) {
+        double min = score(args.get(1));
+        double max = score(args.get(2));
+        synchronized (sortedSets) {
+            Map<String, Double> members = sortedSets.getOrDefault(args.get(0), Map.of());
+            int before = members.size();
+            members.values().removeIf(score -> score >= min && score <= max);
+            return integer(before - members.size());
+        }
+    }
+
+    private boolean removeSortedSet(String key) {
+        synchronized (sortedSets) {
+            return sortedSets.remove(key) != null;
+        }
+    }
+
+    private int publish(String channel, byte[] message) {
+        Set<Connection> subscribers = channels.getOrDefault(channel, Set.of());
+        byte[] payload = array(bulk("message"), bulk(channel), bulk(message));
+        int delivered = 0;
+        for (Connection subscriber : subscribers) {
+            try {
+                subscriber.write(payload);
+                delivered++;
+            } catch (IOException e) {
+                subscribers.remove(subscriber);
+            }
+        }
+        return delivered;
+    }
+
+    private Value live(String key) {
+        Value value = strings.get(key);
+        if (value != null && value.expired()) {
+            strings.remove(key, value);
+            return null;
+        }
+        return value;
+    }
+
+    // Handles -inf, +inf and exclusive "(" bounds
+    private static double score(String bound) {
+        return switch (bound) {
+            case "-inf" -> Double.NEGATIVE_INFINITY;
+            case "+inf", "inf" -> Double.POSITIVE_INFINITY;
+            default -> bound.startsWith("(")
+                ? Math.nextUp(Double.parseDouble(bound.substring(1)))
+                : Double.parseDouble(bound);
+        };
+    }
+
+    private static String sha1(byte[] script) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(script));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String text(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] error(String message) {
+        return ("-ERR " + message + "\r\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] integer(long value) {
+        return (":" + value + "\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] bulk(String value) {
+        return bulk(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] bulk(byte[] value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(value.length + 16);
+        out.writeBytes(("$" + value.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.writeBytes(value);
+        out.writeBytes(new byte[] {'\r', '\n'});
+        return out.toByteArray();
+    }
+
+    private static byte[] array(byte[]... elements) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(("*" + elements.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        for (byte[] element : elements) {
+            out.writeBytes(element);
+        }
+        return out.toByteArray();
+    }
+
+    private record Value(byte[] data, long expiresAt) {
+
+        boolean expired() {
+            return expiresAt > 0 && expiresAt <= System.currentTimeMillis();
+        }
+    }
+
+    private static final class Connection implements AutoCloseable {
+
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+        private final AtomicInteger subscriptions = new AtomicInteger();
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new BufferedInputStream(socket.getInputStream());
+            this.out = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        // A RESP array of bulk strings, or null at end of stream
+        List<byte[]> read() throws IOException {
+            int type = in.read();
+            if (type == -1) {
+                return null;
+            }
+            if (type != '*') {
+                throw new IOException("Inline commands are not supported");
+            }
+            int count = (int) readNumber();
+            List<byte[]> parts = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                if (in.read() != '$') {
+                    throw new IOException("Expected a bulk string");
+                }
+                byte[] part = in.readNBytes((int) readNumber());
+                in.skipNBytes(2);
+                parts.add(part);
+            }
+            return parts;
+        }
+
+        private long readNumber() throws IOException {
+            long value = 0;
+            int c;
+            while ((c = in.read()) != '\r') {
+                if (c == -1) {
+                    throw new EOFException();
+                }
+                value = value * 10 + (c - '0');
+            }
+            in.read();
+            return value;
+        }
+
+        // Replies and pushed messages from other connections' PUBLISH must not interleave
+        synchronized void write(byte[] reply) throws IOException {
+            out.write(reply);
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.travelplatform.gateway.loadbalancer;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.SimpleObjectProvider;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The gateway's instance choice against stub instances on local ports that
+ * answer after an injected delay, with calls tracked the way
+ * {@code InstanceLoadFilter} tracks them.
+ */
+class LatencyAwareLoadBalancerTest {
+
+    private static final String SERVICE = "travel-service";
+    private static final int WORKERS = 8;
+    private static final Duration FAST = Duration.ofMillis(5);
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final List<HttpServer> servers = new ArrayList<>();
+    private final List<ExecutorService> executors = new ArrayList<>();
+    private final List<ServiceInstance> instances = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        servers.forEach(server -> server.stop(0));
+        executors.forEach(ExecutorService::shutdownNow);
+    }
+
+    @Test
+    void slowInstanceGetsASmallShare() throws Exception {
+        InstanceLoadTracker tracker = tracker(Duration.ZERO);
+        LatencyAwareLoadBalancer balancer = balancer(tracker);
+        ServiceInstance slow = stub(Duration.ofMillis(80));
+        stub(FAST);
+        stub(FAST);
+
+        Map<String, Integer> served = run(balancer, tracker, Duration.ofSeconds(2));
+
+        int total = served.values().stream().mapToInt(Integer::intValue).sum();
+        // Random or round-robin choice would give it a third
+        assertThat((double) served.get(slow.getInstanceId()) / total).isLessThan(0.1);
+        // Still tried now and then, so a recovery would be noticed
+        assertThat(served.get(slow.getInstanceId())).isPositive();
+    }
+
+    @Test
+    void newInstanceRampsUpOverSlowStart() throws Exception {
+        Duration slowStart = Duration.ofSeconds(2);
+        InstanceLoadTracker tracker = tracker(slowStart);
+        LatencyAwareLoadBalancer balancer = balancer(tracker);
+        stub(FAST);
+        stub(FAST);
+        // Long enough for both to have warmed up
+        run(balancer, tracker, slowStart.plusMillis(200));
+
+        ServiceInstance added = stub(FAST);
+        long addedAt = System.nanoTime();
+        double early = share(run(balancer, tracker, Duration.ofMillis(300)), added);
+        Thread.sleep(Math.max(0, TimeUnit.NANOSECONDS.toMillis(addedAt + slowStart.toNanos() - System.nanoTime())));
+        double warm = share(run(balancer, tracker, Duration.ofSeconds(1)), added);
+
+        assertThat(early).isLessThan(0.15);
+        assertThat(warm).isGreaterThan(0.25);
+        assertThat(early).isLessThan(warm / 2);
+    }
+
+    private Map<String, Integer> run(LatencyAwareLoadBalancer balancer, InstanceLoadTracker tracker,
+                                     Duration duration) throws Exception {
+        Map<String, AtomicInteger> served = new ConcurrentHashMap<>();
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(WORKERS);
+        try {
+            List<Future<?>> workers = new ArrayList<>(WORKERS);
+            for (int i = 0; i < WORKERS; i++) {
+                workers.add(executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        ServiceInstance instance = balancer.choose(new DefaultRequest<>()).block().getServer();
+                        tracker.track(instance, Mono.fromCallable(() -> call(instance))).block();
+                        served.computeIfAbsent(instance.getInstanceId(), id -> new AtomicInteger()).incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Map<String, Integer> counts = new ConcurrentHashMap<>();
+        instances.forEach(instance -> counts.put(instance.getInstanceId(), 0));
+        served.forEach((id, count) -> counts.put(id, count.get()));
+        return counts;
+    }
+
+    private static double share(Map<String, Integer> served, ServiceInstance instance) {
+        int total = served.values().stream().mapToInt(Integer::intValue).sum();
+        return (double) served.get(instance.getInstanceId()) / total;
+    }
+
+    private int call(ServiceInstance instance) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(instance.getUri().resolve("/stub")).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private ServiceInstance stub(Duration latency) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        executors.add(executor);
+        server.setExecutor(executor);
+        server.createContext("/stub", exchange -> {
+            try {
+                Thread.sleep(latency.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // An empty body rather than none: on JDK 17 the client then sometimes found reused connections closed
+            exchange.sendResponseHeaders(200, 0);
+            exchange.close();
+        });
+        server.start();
+        servers.add(server);
+        int port = server.getAddress().getPort();
+        ServiceInstance instance = new DefaultServiceInstance(SERVICE + "-" + port, SERVICE, "127.0.0.1", port, false);
+        instances.add(instance);
+        return instance;
+    }
+
+    private LatencyAwareLoadBalancer balancer(InstanceLoadTracker tracker) {
+        ServiceInstanceListSupplier supplier = new ServiceInstanceListSupplier() {
+            @Override
+            public String getServiceId() {
+                return SERVICE;
+            }
+
+            @Override
+            public Flux<List<ServiceInstance>> get() {
+                return Flux.defer(() -> Flux.just(List.copyOf(instances)));
+            }
+        };
+        return new LatencyAwareLoadBalancer(new SimpleObjectProvider<>(supplier), SERVICE, tracker);
+    }
+
+    // As configured under load-balancing in the gateway's application.yml, but for slow start
+    private static InstanceLoadTracker tracker(Duration slowStart) {
+        return new InstanceLoadTracker(Duration.ofSeconds(10), Duration.ofSeconds(2), slowStart, Duration.ofMinutes(10));
+    }
+}
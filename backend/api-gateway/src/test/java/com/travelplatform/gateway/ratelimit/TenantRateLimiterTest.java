@@ -0,0 +1,137 @@
+package com.travelplatform.gateway.ratelimit;
+
+import com.travelplatform.gateway.EmbeddedRedis;
+import com.travelplatform.gateway.config.RateLimiterConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two rate limiters over one Redis stand-in, as two gateway instances share
+ * one Redis, so rejections that only the shared buckets can make are seen.
+ */
+class TenantRateLimiterTest {
+
+    private static final String ROUTE = "travel-service";
+
+    private final List<LettuceConnectionFactory> connections = new ArrayList<>();
+    private EmbeddedRedis redis;
+    private TenantRateLimiter first;
+    private TenantRateLimiter second;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        redis = new EmbeddedRedis();
+        RedisScript<List<Long>> script = new RateLimiterConfig().tenantRateLimiterScript();
+        first = limiter(script);
+        second = limiter(script);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        connections.forEach(LettuceConnectionFactory::destroy);
+        redis.close();
+    }
+
+    @Test
+    void userBucketIsSharedAcrossInstances() {
+        configure(2, 3, 100, 100);
+
+        assertThat(isAllowed(first, "acme:alice")).isTrue();
+        assertThat(isAllowed(first, "acme:alice")).isTrue();
+        RateLimiter.Response last = first.isAllowed(ROUTE, "acme:alice").block();
+        assertThat(last.isAllowed()).isTrue();
+        assertThat(last.getHeaders()).containsEntry(RedisRateLimiter.REMAINING_HEADER, "0");
+
+        // The second instance's local bucket is full; only the script knows the user is out of tokens
+        RateLimiter.Response rejected = second.isAllowed(ROUTE, "acme:alice").block();
+        assertThat(rejected.isAllowed()).isFalse();
+        assertThat(isAllowed(second, "acme:bob")).isTrue();
+    }
+
+    @Test
+    void tenantBucketCapsEveryUserOfTheTenant() {
+        configure(100, 100, 2, 4);
+
+        int allowed = 0;
+        for (String user : List.of("alice", "bob", "carol", "dave")) {
+            for (TenantRateLimiter instance : List.of(first, second)) {
+                if (isAllowed(instance, "acme:" + user)) {
+                    allowed++;
+                }
+            }
+        }
+
+        assertThat(allowed).isEqualTo(4);
+        assertThat(isAllowed(first, "globex:alice")).isTrue();
+    }
+
+    @Test
+    void tokensRefillAtTheReplenishRate() throws Exception {
+        configure(4, 2, 100, 100);
+        assertThat(isAllowed(first, "acme:alice")).isTrue();
+        assertThat(isAllowed(second, "acme:alice")).isTrue();
+        assertThat(isAllowed(second, "acme:alice")).isFalse();
+
+        // One token every 250ms; the rejecting instance holds its bucket shut until then
+        Thread.sleep(350);
+
+        assertThat(isAllowed(second, "acme:alice")).isTrue();
+        assertThat(isAllowed(first, "acme:alice")).isFalse();
+    }
+
+    @Test
+    void localLimitsApplyWhileRedisIsDown() throws Exception {
+        configure(1, 3, 100, 100);
+        redis.close();
+
+        List<RateLimiter.Response> responses = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            responses.add(first.isAllowed(ROUTE, "acme:alice").block());
+        }
+
+        assertThat(responses).extracting(RateLimiter.Response::isAllowed).containsExactly(true, true, true, false);
+        // Admitted without the shared count, which the remaining header says is unknown
+        assertThat(responses.get(0).getHeaders()).containsEntry(RedisRateLimiter.REMAINING_HEADER, "-1");
+    }
+
+    private boolean isAllowed(TenantRateLimiter limiter, String key) {
+        return limiter.isAllowed(ROUTE, key).block().isAllowed();
+    }
+
+    private void configure(int userRate, int userBurst, int tenantRate, int tenantBurst) {
+        for (TenantRateLimiter limiter : List.of(first, second)) {
+            TenantRateLimiter.Config config = new TenantRateLimiter.Config();
+            config.setUserReplenishRate(userRate);
+            config.setUserBurstCapacity(userBurst);
+            config.setTenantReplenishRate(tenantRate);
+            config.setTenantBurstCapacity(tenantBurst);
+            limiter.getConfig().put(ROUTE, config);
+        }
+    }
+
+    private TenantRateLimiter limiter(RedisScript<List<Long>> script) {
+        // A short command timeout, so the fallback is reached quickly once Redis is gone
+        LettuceConnectionFactory connection = new LettuceConnectionFactory(
+            new RedisStandaloneConfiguration("127.0.0.1", redis.port()),
+            LettuceClientConfiguration.builder().commandTimeout(Duration.ofMillis(500)).build());
+        connection.afterPropertiesSet();
+        connections.add(connection);
+        return new TenantRateLimiter(new ReactiveStringRedisTemplate(connection), script, null,
+            new SimpleMeterRegistry(), 1000, Duration.ofMinutes(10));
+    }
+}
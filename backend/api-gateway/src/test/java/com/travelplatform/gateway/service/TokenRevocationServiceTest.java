@@ -0,0 +1,98 @@
+package com.travelplatform.gateway.service;
+
+import com.travelplatform.gateway.EmbeddedRedis;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The gateway's revocation check against the Redis stand-in, with the keys,
+ * index and channel written the way user-service's RefreshTokenStore writes
+ * them.
+ */
+class TokenRevocationServiceTest {
+
+    private static final Duration SYNC_INTERVAL = Duration.ofMillis(200);
+    private static final Duration PROPAGATION = Duration.ofSeconds(5);
+
+    private EmbeddedRedis redis;
+    private LettuceConnectionFactory connection;
+    private ReactiveStringRedisTemplate redisTemplate;
+    private TokenRevocationService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        redis = new EmbeddedRedis();
+        connection = new LettuceConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1", redis.port()),
+            LettuceClientConfiguration.builder().commandTimeout(Duration.ofMillis(500)).build());
+        connection.afterPropertiesSet();
+        redisTemplate = new ReactiveStringRedisTemplate(connection);
+        service = new TokenRevocationService(redisTemplate, SYNC_INTERVAL, 1000, 0.01, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        service.destroy();
+        connection.destroy();
+        redis.close();
+    }
+
+    @Test
+    void revocationsOnTheChannelAreFlaggedAndConfirmed() throws Exception {
+        service.start();
+
+        redisTemplate.opsForValue().set("auth:revoked:logged-out", "1").block();
+        // Published until seen, since the subscription starts asynchronously
+        long deadline = System.nanoTime() + PROPAGATION.toNanos();
+        while (!service.mightBeRevoked("logged-out") && System.nanoTime() < deadline) {
+            redisTemplate.convertAndSend("auth:revocations", "logged-out").block();
+            Thread.sleep(50);
+        }
+
+        assertThat(service.mightBeRevoked("logged-out")).isTrue();
+        assertThat(service.isRevoked("logged-out").block()).isTrue();
+        assertThat(service.mightBeRevoked("active")).isFalse();
+    }
+
+    @Test
+    void filterIsRebuiltFromTheIndex() throws Exception {
+        long now = System.currentTimeMillis();
+        redisTemplate.opsForZSet().add("auth:revoked-index", "revoked", now + 60_000).block();
+        redisTemplate.opsForZSet().add("auth:revoked-index", "expired", now - 1).block();
+
+        service.start();
+
+        assertThat(awaitFlagged("revoked")).isTrue();
+        // Listed in the index but past its expiry, so left out of the filter
+        assertThat(service.mightBeRevoked("expired")).isFalse();
+    }
+
+    @Test
+    void flaggedSessionWithoutARevocationIsAFalsePositive() {
+        assertThat(service.isRevoked("active").block()).isFalse();
+    }
+
+    @Test
+    void flaggedSessionsCountAsRevokedWhileRedisIsDown() throws Exception {
+        redis.close();
+
+        assertThat(service.isRevoked("unknown").block()).isTrue();
+    }
+
+    private boolean awaitFlagged(String sessionId) throws InterruptedException {
+        long deadline = System.nanoTime() + PROPAGATION.toNanos();
+        while (!service.mightBeRevoked(sessionId) && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        return service.mightBeRevoked(sessionId);
+    }
+}
@@ -0,0 +1,29 @@
+package com.travelplatform.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * JMH entry point that writes JSON results unless told otherwise, so runs
+ * can be compared between releases:
+ * <pre>
+ * java -jar target/benchmarks.jar                        # all, to jmh-result.json
+ * java -jar target/benchmarks.jar Jwt -rff 1.0.0.json    # matching benchmarks, named file
+ * </pre>
+ * Any other JMH option is passed through.
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> options = new ArrayList<>(Arrays.asList(args));
+        if (!options.contains("-rf")) {
+            options.add("-rf");
+            options.add("json");
+        }
+        org.openjdk.jmh.Main.main(options.toArray(String[]::new));
+    }
+}
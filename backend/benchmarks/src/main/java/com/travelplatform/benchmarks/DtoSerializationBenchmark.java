@@ -0,0 +1,121 @@
+package com.travelplatform.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.travelplatform.userservice.dto.AuthResponseDto;
+import com.travelplatform.userservice.dto.BookingDto;
+import com.travelplatform.userservice.dto.BookingPageDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response bodies of the login and booking-list endpoints, written with an
+ * ObjectMapper configured as Spring Boot configures the services' one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoSerializationBenchmark {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 1, 9, 30);
+
+    private ObjectWriter writer;
+    private AuthResponseDto authResponse;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+        writer = objectMapper.writer();
+
+        authResponse = AuthResponseDto.builder()
+            .accessToken("eyJhbGciOiJIUzUxMiJ9." + "a".repeat(400) + "." + "b".repeat(86))
+            .refreshToken("eyJhbGciOiJIUzUxMiJ9." + "c".repeat(380) + "." + "d".repeat(86))
+            .tokenType("Bearer")
+            .expiresIn(86400000L)
+            .tenantId("acme")
+            .user(AuthResponseDto.UserDto.builder()
+                .id(UUID.randomUUID())
+                .username("jane.doe")
+                .email("jane.doe@example.com")
+                .firstName("Jane")
+                .lastName("Doe")
+                .fullName("Jane Doe")
+                .phoneNumber("+1-555-0100")
+                .isEmailVerified(true)
+                .preferredLanguage("en")
+                .timezone("Europe/Berlin")
+                .lastLoginAt(NOW)
+                .roles(Set.of("USER", "TRAVEL_AGENT"))
+                .createdAt(NOW.minusYears(1))
+                .build())
+            .build();
+    }
+
+    @Benchmark
+    public byte[] authResponse() throws Exception {
+        return writer.writeValueAsBytes(authResponse);
+    }
+
+    @Benchmark
+    public byte[] bookingPage(BookingPage page) throws Exception {
+        return writer.writeValueAsBytes(page.dto);
+    }
+
+    @State(Scope.Benchmark)
+    public static class BookingPage {
+
+        // Default and maximum page sizes of GET /api/v1/users/bookings
+        @Param({"20", "100"})
+        public int bookings;
+
+        private BookingPageDto dto;
+
+        @Setup
+        public void setUp() {
+            List<BookingDto> page = new ArrayList<>(bookings);
+            for (int i = 0; i < bookings; i++) {
+                page.add(BookingDto.builder()
+                    .id(UUID.randomUUID())
+                    .travelPackageId(UUID.randomUUID())
+                    .travelPackageTitle("Seven days in the Dolomites " + i)
+                    .destination("Bolzano, Italy")
+                    .bookingDate(LocalDate.of(2024, 6, 1).plusDays(i))
+                    .travelersCount(1 + i % 4)
+                    .totalPrice(new BigDecimal("1249.90").add(BigDecimal.valueOf(i)))
+                    .status("CONFIRMED")
+                    .createdAt(NOW.minusDays(i))
+                    .build());
+            }
+            dto = BookingPageDto.builder()
+                .bookings(page)
+                .nextCursor("MjAyNC0wMi0yOVQwOTozMDowMHw0Mg")
+                .hasMore(true)
+                .build();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.travelplatform.benchmarks;
+
+import com.travelplatform.userservice.entity.Permission;
+import com.travelplatform.userservice.entity.User;
+import com.travelplatform.userservice.service.JwtService;
+import com.travelplatform.userservice.service.PermissionService;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue on login/refresh and the claim lookup every authenticated call
+ * makes, once answered by the verified-token cache and once with a cache
+ * that keeps nothing, so each lookup pays for the HMAC check.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final String TENANT = "acme";
+    private static final UUID USER_ROLE = UUID.randomUUID();
+    private static final UUID AGENT_ROLE = UUID.randomUUID();
+
+    private final List<AnnotationConfigApplicationContext> contexts = new ArrayList<>();
+    private JwtService jwtService;
+    private JwtService uncachedJwtService;
+    private User user;
+    private String sessionId;
+    private String accessToken;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CacheManager cacheManager = new ConcurrentMapCacheManager(PermissionService.CACHE_NAME);
+        cacheManager.getCache(PermissionService.CACHE_NAME).put(TENANT, Map.of(
+            USER_ROLE, new PermissionService.RoleGrant("USER", Permission.mask(Permission.USER_READ, Permission.BOOKING_READ)),
+            AGENT_ROLE, new PermissionService.RoleGrant("TRAVEL_AGENT", Permission.mask(Permission.TRAVEL_READ, Permission.TRAVEL_CREATE))));
+        // Role grants are served from the cache above, so the repository is never reached
+        PermissionService permissionService = new PermissionService(null, cacheManager);
+        jwtService = jwtService(permissionService, "5m");
+        // Entries expire as they are written
+        uncachedJwtService = jwtService(permissionService, "0s");
+
+        user = User.builder()
+            .id(UUID.randomUUID())
+            .username("jane.doe")
+            .tenantId(TENANT)
+            .roleIds(Set.of(USER_ROLE, AGENT_ROLE))
+            .build();
+        sessionId = UUID.randomUUID().toString();
+        accessToken = jwtService.generateAccessToken(user, sessionId);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexts.forEach(AnnotationConfigApplicationContext::close);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtService.generateAccessToken(user, sessionId);
+    }
+
+    @Benchmark
+    public Claims parseClaimsCached() {
+        return jwtService.parseClaims(accessToken);
+    }
+
+    @Benchmark
+    public Claims parseClaimsUncached() {
+        return uncachedJwtService.parseClaims(accessToken);
+    }
+
+    // A bare context so JwtService gets its @Value fields and @PostConstruct as in the service
+    private JwtService jwtService(PermissionService permissionService, String cacheMaxTtl) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance());
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("jwt", Map.of(
+            "jwt.secret", "benchmark-secret-key-long-enough-for-hmac-sha-512-signing-0123456789",
+            "jwt.expiration", "86400000",
+            "jwt.refresh-expiration", "604800000",
+            "jwt.cache.max-ttl", cacheMaxTtl)));
+        context.registerBean(MeterRegistry.class, SimpleMeterRegistry::new);
+        context.registerBean(PermissionService.class, () -> permissionService);
+        context.registerBean(JwtService.class);
+        context.refresh();
+        contexts.add(context);
+        return context.getBean(JwtService.class);
+    }
+}
@@ -0,0 +1,119 @@
+package com.travelplatform.benchmarks;
+
+import com.travelplatform.travelservice.dto.PackageSearchCriteria;
+import com.travelplatform.travelservice.dto.PackageSearchResultDto;
+import com.travelplatform.travelservice.entity.TravelPackage;
+import com.travelplatform.travelservice.search.PackageSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory package search over one tenant's catalog, filled through
+ * {@link PackageSearchIndex#apply} so no database is needed. Each query
+ * includes its facet counts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PackageSearchBenchmark {
+
+    private static final String TENANT = "acme";
+    private static final String[] CATEGORIES = {"ADVENTURE", "BEACH", "CITY", "CRUISE", "CULTURE", "FAMILY",
+        "LUXURY", "NATURE", "ROMANCE", "SKI", "WELLNESS", "WILDLIFE"};
+    private static final String[] DESTINATIONS = {"Lisbon", "Kyoto", "Reykjavik", "Cape Town", "Cusco", "Bali",
+        "Queenstown", "Marrakesh", "Vancouver", "Dubrovnik", "Hanoi", "Patagonia", "Zanzibar", "Tromso", "Santorini"};
+    private static final String[] THEMES = {"hiking", "food", "sailing", "diving", "wine", "safari", "yoga",
+        "photography", "history", "cycling", "kayak", "spa", "festival", "volcano", "glacier", "desert"};
+
+    @Param({"1000000"})
+    public int packages;
+
+    private PackageSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource();
+        index = new PackageSearchIndex(dataSource, new DataSourceTransactionManager(dataSource),
+            new SimpleMeterRegistry(), 1000, Duration.ofSeconds(30));
+
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 0, 0);
+        for (int i = 0; i < packages; i++) {
+            String destination = DESTINATIONS[random.nextInt(DESTINATIONS.length)];
+            String theme = THEMES[random.nextInt(THEMES.length)];
+            String otherTheme = THEMES[random.nextInt(THEMES.length)];
+            LocalDateTime createdAt = start.plusMinutes(i);
+            index.apply(TravelPackage.builder()
+                .id(UUID.randomUUID())
+                .tenantId(TENANT)
+                .title(theme + " week in " + destination + " " + i)
+                .description("Guided " + theme + " and " + otherTheme + " with local hosts")
+                .destination(destination)
+                .category(CATEGORIES[random.nextInt(CATEGORIES.length)])
+                .price(BigDecimal.valueOf(200 + random.nextInt(9800), 0))
+                .durationDays(2 + random.nextInt(20))
+                .maxTravelers(1 + random.nextInt(30))
+                .isActive(random.nextInt(10) != 0)
+                .createdAt(createdAt)
+                .updatedAt(createdAt)
+                .build());
+        }
+    }
+
+    @Benchmark
+    public PackageSearchResultDto selective() {
+        return index.search(PackageSearchCriteria.builder()
+            .tenantId(TENANT)
+            .query("glacier hiking")
+            .categories(List.of("NATURE", "ADVENTURE"))
+            .destination("Patagonia")
+            .minPrice(new BigDecimal("1000"))
+            .maxPrice(new BigDecimal("4000"))
+            .travelers(4)
+            .sort(PackageSearchCriteria.Sort.PRICE_ASC)
+            .limit(20)
+            .build());
+    }
+
+    @Benchmark
+    public PackageSearchResultDto textOnly() {
+        return index.search(PackageSearchCriteria.builder()
+            .tenantId(TENANT)
+            .query("safari")
+            .limit(20)
+            .build());
+    }
+
+    @Benchmark
+    public PackageSearchResultDto broad() {
+        return index.search(PackageSearchCriteria.builder()
+            .tenantId(TENANT)
+            .minDuration(3)
+            .sort(PackageSearchCriteria.Sort.PRICE_DESC)
+            .limit(20)
+            .build());
+    }
+}
@@ -0,0 +1,138 @@
+package com.travelplatform.benchmarks;
+
+import com.travelplatform.common.concurrency.ResourceLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time for a burst of {@code requests} blocking requests to drain under the
+ * services' two execution modes, with the sizes from their application.yml:
+ * 200 Tomcat threads and a Hikari pool that blocks for a connection, against
+ * a virtual thread per request with the pool and Redis behind
+ * {@link ResourceLimiter}s. Each request makes a Redis call, a JDBC query and,
+ * for {@code remoteMillis} above zero, waits on an unpooled downstream such as
+ * another service. Without that wait the connection pool is the bottleneck
+ * in both modes; with it, the thread count caps the platform pool.
+ * <p>
+ * Compiled only with {@code -Pjava21}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThreadModelBenchmark {
+
+    private static final int TOMCAT_THREADS = 200;
+    private static final int JDBC_CONNECTIONS = 20;
+    private static final int REDIS_PERMITS = 64;
+    private static final Duration ACQUIRE_TIMEOUT = Duration.ofSeconds(2);
+    private static final long REDIS_MILLIS = 1;
+    private static final long JDBC_MILLIS = 2;
+
+    @Param({"1000", "5000"})
+    public int requests;
+
+    @Param({"0", "50"})
+    public long remoteMillis;
+
+    private ExecutorService tomcatThreads;
+    private Semaphore hikari;
+    private ResourceLimiter jdbcLimiter;
+    private ResourceLimiter redisLimiter;
+
+    @Setup
+    public void setUp() {
+        tomcatThreads = Executors.newFixedThreadPool(TOMCAT_THREADS);
+        hikari = new Semaphore(JDBC_CONNECTIONS, true);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        jdbcLimiter = new ResourceLimiter("jdbc", JDBC_CONNECTIONS, ACQUIRE_TIMEOUT, meterRegistry);
+        redisLimiter = new ResourceLimiter("redis", REDIS_PERMITS, ACQUIRE_TIMEOUT, meterRegistry);
+    }
+
+    @TearDown
+    public void tearDown() {
+        tomcatThreads.shutdownNow();
+    }
+
+    @Benchmark
+    public void threadPool() throws InterruptedException {
+        drain(tomcatThreads, () -> {
+            // Lettuce shares one connection, so Redis calls are not limited in this mode
+            sleep(REDIS_MILLIS);
+            hikari.acquireUninterruptibly();
+            try {
+                sleep(JDBC_MILLIS);
+            } finally {
+                hikari.release();
+            }
+            sleep(remoteMillis);
+        });
+    }
+
+    @Benchmark
+    public void virtualThreads() throws InterruptedException {
+        try (ExecutorService perRequest = Executors.newVirtualThreadPerTaskExecutor()) {
+            drain(perRequest, () -> {
+                limited(redisLimiter, REDIS_MILLIS);
+                limited(jdbcLimiter, JDBC_MILLIS);
+                sleep(remoteMillis);
+            });
+        }
+    }
+
+    private void drain(ExecutorService executor, Runnable request) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(requests);
+        for (int i = 0; i < requests; i++) {
+            executor.execute(() -> {
+                try {
+                    request.run();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+
+    private static void limited(ResourceLimiter limiter, long millis) {
+        limiter.acquire();
+        try {
+            sleep(millis);
+        } finally {
+            limiter.release();
+        }
+    }
+
+    // Stands in for blocking I/O: a platform thread is held, a virtual one unmounts
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
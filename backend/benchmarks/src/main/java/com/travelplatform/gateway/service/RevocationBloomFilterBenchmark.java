@@ -0,0 +1,84 @@
+package com.travelplatform.gateway.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The revocation check every authenticated gateway request makes, for a
+ * session that was not revoked and one that was, against a filter holding
+ * {@code revoked} sessions. A concurrent set of the same sessions is the
+ * baseline the filter trades exactness against for a fixed footprint; the
+ * set reuses the string's cached hash, where the filter hashes the id anew.
+ * <p>
+ * Lives in the gateway's package because the filter is package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RevocationBloomFilterBenchmark {
+
+    @Param({"10000", "100000"})
+    public int revoked;
+
+    private RevocationBloomFilter filter;
+    private Set<String> set;
+    private TokenRevocationService service;
+    // Session ids as a parsed token would carry them: fresh strings with no cached hash
+    private String liveSession;
+    private String revokedSession;
+
+    @Setup
+    public void setUp() {
+        filter = new RevocationBloomFilter(revoked, 0.01);
+        set = ConcurrentHashMap.newKeySet(revoked);
+        String last = null;
+        for (int i = 0; i < revoked; i++) {
+            last = UUID.randomUUID().toString();
+            filter.add(last);
+            set.add(last);
+        }
+        // Never started, so nothing reaches Redis; only the local filter is measured
+        service = new TokenRevocationService(null, Duration.ofSeconds(30), revoked, 0.01, new SimpleMeterRegistry());
+        liveSession = UUID.randomUUID().toString();
+        revokedSession = new String(last);
+    }
+
+    @Benchmark
+    public boolean filterLive() {
+        return filter.mightContain(liveSession);
+    }
+
+    @Benchmark
+    public boolean filterRevoked() {
+        return filter.mightContain(revokedSession);
+    }
+
+    @Benchmark
+    public boolean setLive() {
+        return set.contains(liveSession);
+    }
+
+    @Benchmark
+    public boolean mightBeRevoked() {
+        return service.mightBeRevoked(liveSession);
+    }
+}
@@ -0,0 +1,56 @@
+package com.travelplatform.common.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One subscription connection for every Redis channel the service listens
+ * on; listeners register themselves on the container.
+ */
+@Configuration
+public class RedisListenerConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisListenerConfig.class);
+
+    private static final long SUBSCRIBE_RETRY_SECONDS = 30;
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        // Started once the app is up; the listeners only drop local caches, so Redis being down must not block startup
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer() {
+            @Override
+            public boolean isAutoStartup() {
+                return false;
+            }
+        };
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    @Bean
+    public ApplicationListener<ApplicationReadyEvent> redisListenerSubscriber(
+            RedisMessageListenerContainer redisMessageListenerContainer) {
+        return event -> subscribe(redisMessageListenerContainer);
+    }
+
+    private static void subscribe(RedisMessageListenerContainer container) {
+        try {
+            container.start();
+        } catch (RuntimeException e) {
+            log.warn("Redis listeners not subscribed, retrying in {}s: {}", SUBSCRIBE_RETRY_SECONDS, e.getMessage());
+            // A failed start still counts as started, so reset before the next attempt
+            container.stop();
+            CompletableFuture.runAsync(() -> subscribe(container),
+                CompletableFuture.delayedExecutor(SUBSCRIBE_RETRY_SECONDS, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.travelplatform.common.cache;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.function.BiConsumer;
+
+/**
+ * A bounded Caffeine L1 in front of a shared L2 cache (Redis).
+ * <p>
+ * Reads try L1, then L2, then the value loader, filling the tiers on the way
+ * back. Entries read after {@code refreshAfter} are reloaded from L2 in the
+ * background, so hot keys stay local until L2 drops them. Writes go to L2,
+ * replace the local entry, and are announced through {@code invalidator} so
+ * other nodes drop theirs.
+ * <p>
+ * L1 is keyed by the same string form of the key that L2 stores under.
+ * An L2 that can't be reached counts as a miss on reads, so loads still
+ * fill L1; explicit writes and evictions fail as they would without L1.
+ */
+public class TwoTierCache implements Cache {
+
+    private final String name;
+    private final Cache l2;
+    private final LoadingCache<String, ValueWrapper> l1;
+    // Called with the key after a local write, or null after a clear
+    private final BiConsumer<String, String> invalidator;
+
+    private final Counter l1Hits;
+    private final Counter l1Misses;
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+    private final Counter l2Errors;
+    private final Counter refreshes;
+    private final Counter localInvalidations;
+    private final Counter remoteInvalidations;
+
+    public TwoTierCache(String name, Cache l2, L1Spec spec, BiConsumer<String, String> invalidator,
+                        MeterRegistry meterRegistry) {
+        this.name = name;
+        this.l2 = l2;
+        this.invalidator = invalidator;
+        this.l1Hits = gets(meterRegistry, "l1", "hit");
+        this.l1Misses = gets(meterRegistry, "l1", "miss");
+        this.l2Hits = gets(meterRegistry, "l2", "hit");
+        this.l2Misses = gets(meterRegistry, "l2", "miss");
+        this.l2Errors = gets(meterRegistry, "l2", "error");
+        this.refreshes = Counter.builder("cache.tier.refreshes")
+            .description("L1 entries reloaded from L2 ahead of expiry")
+            .tag("cache", name)
+            .register(meterRegistry);
+        this.localInvalidations = invalidations(meterRegistry, "local");
+        this.remoteInvalidations = invalidations(meterRegistry, "remote");
+
+        this.l1 = Caffeine.newBuilder()
+            .maximumSize(spec.maxSize())
+            .expireAfterWrite(spec.ttl())
+            .refreshAfterWrite(spec.refreshAfter())
+            .build(new CacheLoader<>() {
+                @Override
+                public ValueWrapper load(String key) {
+                    return fromL2(key);
+                }
+
+                @Override
+                public ValueWrapper reload(String key, ValueWrapper oldValue) {
+                    refreshes.increment();
+                    // Gone from L2 means expired or invalidated there, so it goes here too
+                    return fromL2(key);
+                }
+            });
+        Gauge.builder("cache.tier.l1.size", l1, LoadingCache::estimatedSize)
+            .description("Entries held in the in-process tier")
+            .tag("cache", name)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return l1;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String l1Key = l1Key(key);
+        ValueWrapper value = l1.getIfPresent(l1Key);
+        if (value != null) {
+            l1Hits.increment();
+            return value;
+        }
+        l1Misses.increment();
+        return l1.get(l1Key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper value = get(key);
+        Object stored = value != null ? value.get() : null;
+        if (stored != null && type != null && !type.isInstance(stored)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + stored);
+        }
+        return (T) stored;
+    }
+
+    /**
+     * Concurrent misses for one key share a single L2 read and, if that
+     * misses too, a single call to the loader.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String l1Key = l1Key(key);
+        ValueWrapper value = l1.getIfPresent(l1Key);
+        if (value != null) {
+            l1Hits.increment();
+            return (T) value.get();
+        }
+        l1Misses.increment();
+        value = l1.get(l1Key, k -> {
+            ValueWrapper stored = fromL2(k);
+            if (stored != null) {
+                return stored;
+            }
+            T loaded;
+            try {
+                loaded = valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            if (loaded == null) {
+                return null;
+            }
+            try {
+                l2.put(key, loaded);
+            } catch (RuntimeException e) {
+                l2Errors.increment();
+            }
+            return new SimpleValueWrapper(loaded);
+        });
+        return value != null ? (T) value.get() : null;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        l2.put(key, value);
+        String l1Key = l1Key(key);
+        if (value != null) {
+            l1.put(l1Key, new SimpleValueWrapper(value));
+        } else {
+            l1.invalidate(l1Key);
+        }
+        announce(l1Key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = l2.putIfAbsent(key, value);
+        String l1Key = l1Key(key);
+        l1.invalidate(l1Key);
+        if (existing == null) {
+            announce(l1Key);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        l2.evict(key);
+        String l1Key = l1Key(key);
+        l1.invalidate(l1Key);
+        announce(l1Key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = l2.evictIfPresent(key);
+        String l1Key = l1Key(key);
+        l1.invalidate(l1Key);
+        announce(l1Key);
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        l2.clear();
+        l1.invalidateAll();
+        announce(null);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = l2.invalidate();
+        l1.invalidateAll();
+        announce(null);
+        return invalidated;
+    }
+
+    /**
+     * Drops a key (or everything, for {@code null}) from L1 only, after
+     * another node changed it in L2.
+     */
+    void invalidateLocal(String l1Key) {
+        remoteInvalidations.increment();
+        if (l1Key == null) {
+            l1.invalidateAll();
+        } else {
+            l1.invalidate(l1Key);
+        }
+    }
+
+    private ValueWrapper fromL2(String l1Key) {
+        // The L2 cache does its own key conversion; a String key converts to itself
+        ValueWrapper value;
+        try {
+            value = l2.get(l1Key);
+        } catch (RuntimeException e) {
+            l2Errors.increment();
+            return null;
+        }
+        (value != null ? l2Hits : l2Misses).increment();
+        return value;
+    }
+
+    private void announce(String l1Key) {
+        localInvalidations.increment();
+        invalidator.accept(name, l1Key);
+    }
+
+    static String l1Key(Object key) {
+        return key instanceof String string ? string : String.valueOf(key);
+    }
+
+    private Counter gets(MeterRegistry meterRegistry, String level, String result) {
+        return Counter.builder("cache.tier.gets")
+            .description("Cache lookups by tier and outcome")
+            .tag("cache", name)
+            .tag("level", level)
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    private Counter invalidations(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("cache.tier.invalidations")
+            .description("L1 invalidations made here (local) or received from other nodes (remote)")
+            .tag("cache", name)
+            .tag("source", source)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Sizing of the in-process tier.
+     *
+     * @param maxSize      most entries held per cache
+     * @param ttl          longest an entry is served without L2 seeing it again
+     * @param refreshAfter age after which a read reloads the entry in the background
+     */
+    public record L1Spec(long maxSize, Duration ttl, Duration refreshAfter) {
+    }
+}
@@ -0,0 +1,126 @@
+package com.travelplatform.common.concurrency;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.ReactiveRedisClusterConnection;
+import org.springframework.data.redis.connection.ReactiveRedisConnection;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisSentinelConnection;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Holds a permit for each blocking Redis connection from checkout until it is
+ * closed. Subscriptions keep their connection for the life of the listener,
+ * so they hand the permit back as soon as they subscribe. Reactive
+ * connections never block a thread and pass straight through.
+ */
+public class LimitedRedisConnectionFactory implements RedisConnectionFactory, ReactiveRedisConnectionFactory, DisposableBean {
+
+    private final RedisConnectionFactory target;
+    private final ResourceLimiter limiter;
+
+    public LimitedRedisConnectionFactory(RedisConnectionFactory target, ResourceLimiter limiter) {
+        this.target = target;
+        this.limiter = limiter;
+    }
+
+    @Override
+    public RedisConnection getConnection() {
+        limiter.acquire();
+        try {
+            return releasing(RedisConnection.class, target.getConnection());
+        } catch (RuntimeException e) {
+            limiter.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public RedisClusterConnection getClusterConnection() {
+        limiter.acquire();
+        try {
+            return releasing(RedisClusterConnection.class, target.getClusterConnection());
+        } catch (RuntimeException e) {
+            limiter.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public RedisSentinelConnection getSentinelConnection() {
+        return target.getSentinelConnection();
+    }
+
+    @Override
+    public boolean getConvertPipelineAndTxResults() {
+        return target.getConvertPipelineAndTxResults();
+    }
+
+    @Override
+    public ReactiveRedisConnection getReactiveConnection() {
+        return reactiveTarget().getReactiveConnection();
+    }
+
+    @Override
+    public ReactiveRedisClusterConnection getReactiveClusterConnection() {
+        return reactiveTarget().getReactiveClusterConnection();
+    }
+
+    @Override
+    public DataAccessException translateExceptionIfPossible(RuntimeException ex) {
+        return target.translateExceptionIfPossible(ex);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        // The container only sees this wrapper, so pass its shutdown on to the real factory
+        if (target instanceof DisposableBean disposable) {
+            disposable.destroy();
+        }
+    }
+
+    private ReactiveRedisConnectionFactory reactiveTarget() {
+        if (target instanceof ReactiveRedisConnectionFactory reactive) {
+            return reactive;
+        }
+        throw new UnsupportedOperationException("Reactive connections not supported by " + target.getClass().getName());
+    }
+
+    private <C extends RedisConnection> C releasing(Class<C> type, C connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                limiter.release();
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "subscribe", "pSubscribe" -> release.run();
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                default -> {
+                    // Everything else goes straight to the native connection
+                }
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            } finally {
+                if ("close".equals(method.getName())) {
+                    release.run();
+                }
+            }
+        }));
+    }
+}
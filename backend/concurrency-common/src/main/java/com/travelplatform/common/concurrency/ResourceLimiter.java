@@ -0,0 +1,93 @@
+package com.travelplatform.common.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps how many callers use one downstream resource at a time. With virtual
+ * threads the request thread count no longer bounds that, so each pool gets
+ * a fair semaphore sized to what it can actually serve, and callers that wait
+ * longer than the acquire timeout get a 503 instead of piling up.
+ */
+public class ResourceLimiter {
+
+    private final String resource;
+    private final int permits;
+    private final Semaphore semaphore;
+    private final long acquireTimeoutNanos;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    public ResourceLimiter(String resource, int permits, Duration acquireTimeout, MeterRegistry meterRegistry) {
+        this.resource = resource;
+        this.permits = permits;
+        this.semaphore = new Semaphore(permits, true);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+
+        this.waitTimer = Timer.builder("resource.limiter.wait")
+            .description("Time spent waiting for a permit on a downstream resource")
+            .tag("resource", resource)
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+        this.rejected = Counter.builder("resource.limiter.rejected")
+            .description("Callers turned away after waiting the full acquire timeout")
+            .tag("resource", resource)
+            .register(meterRegistry);
+        Gauge.builder("resource.limiter.in-use", this, ResourceLimiter::inUse)
+            .description("Permits currently held")
+            .tag("resource", resource)
+            .register(meterRegistry);
+        Gauge.builder("resource.limiter.waiting", waiting, AtomicInteger::get)
+            .description("Callers waiting for a permit")
+            .tag("resource", resource)
+            .register(meterRegistry);
+    }
+
+    /**
+     * @throws ResponseStatusException 503 when no permit frees up within the acquire timeout
+     */
+    public void acquire() {
+        if (semaphore.tryAcquire()) {
+            return;
+        }
+        long start = System.nanoTime();
+        waiting.incrementAndGet();
+        boolean acquired;
+        try {
+            acquired = semaphore.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted waiting for " + resource);
+        } finally {
+            waiting.decrementAndGet();
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too busy, " + resource + " saturated");
+        }
+    }
+
+    public void release() {
+        semaphore.release();
+    }
+
+    public int inUse() {
+        return permits - semaphore.availablePermits();
+    }
+
+    public String resource() {
+        return resource;
+    }
+}
@@ -0,0 +1,63 @@
+package com.travelplatform.common.concurrency;
+
+import com.travelplatform.common.tenant.TenantRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.time.Duration;
+
+/**
+ * Opt-in virtual-thread mode ({@code spring.threads.virtual.enabled=true}).
+ * Spring Boot moves Tomcat request handling and the task executor and
+ * scheduler onto virtual threads; this bounds what those threads can reach
+ * instead. Each connection pool and Redis get a {@link ResourceLimiter}
+ * sized to what they can serve, applied when the connection is checked out.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Bean
+    public static BeanPostProcessor resourceLimitingPostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                                                  Environment environment) {
+        if (Runtime.version().feature() < 21) {
+            log.warn("Virtual threads need Java 21, running on {}; requests stay on the Tomcat pool "
+                + "but downstream resource limits still apply", Runtime.version());
+        }
+        Duration acquireTimeout = environment.getProperty("resource-limits.acquire-timeout", Duration.class,
+            Duration.ofSeconds(2));
+        int redisPermits = environment.getProperty("resource-limits.redis.permits", Integer.class, 64);
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // One permit per pooled connection, so a caller with a permit never waits on the pool
+                if (bean instanceof TenantRoutingDataSource routing) {
+                    routing.decoratePools((name, pool) -> new LimitedDataSource(pool, new ResourceLimiter("jdbc:" + name,
+                        pool.getMaximumPoolSize(), acquireTimeout, meterRegistry.getObject())));
+                    return routing;
+                }
+                if (bean instanceof HikariDataSource pool) {
+                    return new LimitedDataSource(pool, new ResourceLimiter("jdbc:" + beanName,
+                        pool.getMaximumPoolSize(), acquireTimeout, meterRegistry.getObject()));
+                }
+                if (bean instanceof RedisConnectionFactory factory && !(bean instanceof LimitedRedisConnectionFactory)) {
+                    return new LimitedRedisConnectionFactory(factory, new ResourceLimiter("redis:" + beanName,
+                        redisPermits, acquireTimeout, meterRegistry.getObject()));
+                }
+                return bean;
+            }
+        };
+    }
+}
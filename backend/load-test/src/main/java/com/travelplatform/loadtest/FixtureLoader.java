@@ -0,0 +1,150 @@
+package com.travelplatform.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.travelplatform.loadtest.inprocess.InProcessPlatform;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Prepares each tenant before the run: registers its users, or signs them
+ * in when a previous run already did, and finds or seeds the packages and
+ * bookings its scenarios read.
+ */
+final class FixtureLoader {
+
+    private static final String PASSWORD = "load-test-password";
+    private static final int MAX_ATTEMPTS = 20;
+    // Registration hashes a password; more at once only fills the hashing queue
+    private static final int CONCURRENT_SIGN_INS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private final HttpClient client;
+    private final LoadProfile.Target target;
+    private final InProcessPlatform platform;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Semaphore signIns = new Semaphore(CONCURRENT_SIGN_INS);
+
+    /**
+     * @param platform the in-process services to seed directly, or {@code null} for an external target
+     */
+    FixtureLoader(HttpClient client, LoadProfile.Target target, InProcessPlatform platform) {
+        this.client = client;
+        this.target = target;
+        this.platform = platform;
+    }
+
+    List<TenantFixture> load(Map<String, LoadProfile.TenantProfile> tenants) throws Exception {
+        List<TenantFixture> fixtures = new ArrayList<>(tenants.size());
+        for (Map.Entry<String, LoadProfile.TenantProfile> tenant : tenants.entrySet()) {
+            fixtures.add(load(tenant.getKey(), tenant.getValue()));
+        }
+        return fixtures;
+    }
+
+    private TenantFixture load(String tenantId, LoadProfile.TenantProfile tenant) throws Exception {
+        List<TenantFixture.VirtualUser> users = new ArrayList<>(tenant.users());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<TenantFixture.VirtualUser>> pending = new ArrayList<>(tenant.users());
+            for (int i = 0; i < tenant.users(); i++) {
+                String username = "lt-" + tenantId + "-" + i;
+                pending.add(executor.submit(() -> signIn(tenantId, username)));
+            }
+            for (Future<TenantFixture.VirtualUser> user : pending) {
+                users.add(user.get());
+            }
+        }
+
+        List<UUID> packageIds = platform != null
+            ? platform.seedCatalog(tenantId, tenant.packages(),
+                users.stream().map(TenantFixture.VirtualUser::userId).toList(), tenant.bookingsPerUser())
+            : listPackages(tenantId, users);
+        System.out.printf("Tenant %s: %d users, %d packages%n", tenantId, users.size(), packageIds.size());
+        return new TenantFixture(tenantId, List.copyOf(users), List.copyOf(packageIds));
+    }
+
+    private TenantFixture.VirtualUser signIn(String tenantId, String username) throws Exception {
+        Map<String, String> registration = new LinkedHashMap<>();
+        registration.put("username", username);
+        registration.put("email", username + "@load-test.example.com");
+        registration.put("password", PASSWORD);
+        registration.put("confirmPassword", PASSWORD);
+        registration.put("firstName", "Load");
+        registration.put("lastName", "Test");
+        String loginBody = objectMapper.writeValueAsString(Map.of("usernameOrEmail", username, "password", PASSWORD));
+
+        HttpResponse<String> response = post(tenantId, "/api/v1/users/auth/register",
+            objectMapper.writeValueAsString(registration));
+        if (response.statusCode() == 409) {
+            response = post(tenantId, "/api/v1/users/auth/login", loginBody);
+        }
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Could not sign in " + username + " to " + tenantId + ": HTTP "
+                + response.statusCode() + " " + response.body());
+        }
+        JsonNode auth = objectMapper.readTree(response.body());
+        return new TenantFixture.VirtualUser(username, loginBody, auth.path("accessToken").asText(),
+            UUID.fromString(auth.path("user").path("id").asText()));
+    }
+
+    private HttpResponse<String> post(String tenantId, String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(target.userService() + path))
+            .header(Scenario.TENANT_HEADER, tenantId)
+            .header("Content-Type", "application/json")
+            .timeout(Duration.ofSeconds(30))
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+        for (int attempt = 1; ; attempt++) {
+            HttpResponse<String> response;
+            signIns.acquire();
+            try {
+                response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            } finally {
+                signIns.release();
+            }
+            if ((response.statusCode() != 429 && response.statusCode() != 503) || attempt == MAX_ATTEMPTS) {
+                return response;
+            }
+            Thread.sleep(100L * attempt);
+        }
+    }
+
+    private List<UUID> listPackages(String tenantId, List<TenantFixture.VirtualUser> users)
+            throws IOException, InterruptedException {
+        if (users.isEmpty()) {
+            return List.of();
+        }
+        TenantFixture.VirtualUser user = users.get(0);
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create(target.travelService() + "/api/v1/travels/packages?limit=100"))
+            .header(Scenario.TENANT_HEADER, tenantId)
+            .header(Scenario.AUTHORIZATION_HEADER, "Bearer " + user.accessToken())
+            .header(Scenario.USER_ID_HEADER, user.userId().toString())
+            .timeout(Duration.ofSeconds(30))
+            .GET()
+            .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Could not list packages of " + tenantId + ": HTTP "
+                + response.statusCode());
+        }
+        List<UUID> ids = new ArrayList<>();
+        for (JsonNode item : objectMapper.readTree(response.body()).path("items")) {
+            ids.add(UUID.fromString(item.path("id").asText()));
+        }
+        return ids;
+    }
+}
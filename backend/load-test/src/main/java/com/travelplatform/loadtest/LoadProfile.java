@@ -0,0 +1,52 @@
+package com.travelplatform.loadtest;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * A load run, bound from {@code load-test.yml} and {@code --load.*} arguments.
+ *
+ * @param rate           requests started per second, across all tenants, however slowly they complete
+ * @param warmup         time at the full rate before latencies are recorded
+ * @param duration       recorded time at the full rate
+ * @param maxInFlight    requests outstanding before new ones are dropped and counted as errors
+ * @param requestTimeout time after which a request counts as an error
+ * @param target         services to drive; blank URLs start them in-process
+ * @param thresholds     targets the run fails on
+ * @param tenants        traffic share, seed data and scenario mix per tenant id
+ * @param reportFile     JSON summary written after the run
+ */
+public record LoadProfile(double rate, Duration warmup, Duration duration, int maxInFlight,
+                          Duration requestTimeout, Target target, Thresholds thresholds,
+                          Map<String, TenantProfile> tenants, String reportFile) {
+
+    /**
+     * @param userService   base URL serving {@code /api/v1/users/**}
+     * @param travelService base URL serving {@code /api/v1/travels/**}; may be the gateway too
+     */
+    public record Target(String userService, String travelService) {
+
+        boolean inProcess() {
+            return userService == null || userService.isBlank() || travelService == null || travelService.isBlank();
+        }
+    }
+
+    /**
+     * @param p95           highest acceptable 95th percentile latency
+     * @param minThroughput fewest successful responses per second
+     * @param maxErrorRate  largest acceptable share of failed, timed-out and dropped requests
+     */
+    public record Thresholds(Duration p95, double minThroughput, double maxErrorRate) {
+    }
+
+    /**
+     * @param weight          share of the overall rate, relative to the other tenants
+     * @param users           accounts registered before the run, used by login and bookings
+     * @param packages        packages seeded in-process; elsewhere the first page listed is used
+     * @param bookingsPerUser bookings seeded in-process per user
+     * @param mix             relative weight of each scenario in this tenant's traffic
+     */
+    public record TenantProfile(double weight, int users, int packages, int bookingsPerUser,
+                                Map<Scenario, Integer> mix) {
+    }
+}
@@ -0,0 +1,107 @@
+package com.travelplatform.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Summary of a run: latency percentiles and throughput per tenant and
+ * scenario and overall, and the thresholds the run missed.
+ *
+ * @param failures one line per missed threshold; empty when the run passed
+ */
+record LoadReport(double rate, double measuredSeconds, List<Row> scenarios, Row total, List<String> failures) {
+
+    /**
+     * @param errors     non-2xx/3xx responses, timeouts, connection failures and dropped requests
+     * @param throughput successful responses per second
+     */
+    record Row(String tenant, String scenario, long requests, long errors, double throughput,
+               double p50Ms, double p95Ms, double p99Ms, double maxMs) {
+
+        static Row of(String tenant, String scenario, Histogram latency, long succeeded, long errors, double seconds) {
+            return new Row(tenant, scenario, succeeded + errors, errors, succeeded / seconds,
+                millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(95)),
+                millis(latency.getValueAtPercentile(99)), millis(latency.getMaxValue()));
+        }
+
+        double errorRate() {
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+
+    static LoadReport of(LoadProfile profile, List<ScenarioStats> stats) {
+        double seconds = profile.duration().toNanos() / 1e9;
+        Histogram overall = null;
+        long succeeded = 0;
+        long errors = 0;
+        List<Row> rows = new ArrayList<>();
+        for (ScenarioStats scenario : stats) {
+            Histogram latency = scenario.latency();
+            long scenarioErrors = scenario.failed() + scenario.dropped();
+            rows.add(Row.of(scenario.tenantId(), scenario.scenario().name(), latency, scenario.succeeded(),
+                scenarioErrors, seconds));
+            if (overall == null) {
+                overall = latency.copy();
+            } else {
+                overall.add(latency);
+            }
+            succeeded += scenario.succeeded();
+            errors += scenarioErrors;
+        }
+        Row total = Row.of("*", "*", overall, succeeded, errors, seconds);
+
+        LoadProfile.Thresholds thresholds = profile.thresholds();
+        List<String> failures = new ArrayList<>();
+        if (total.p95Ms() > thresholds.p95().toNanos() / 1e6) {
+            failures.add(String.format("p95 %.1f ms is above %d ms", total.p95Ms(), thresholds.p95().toMillis()));
+        }
+        if (total.throughput() < thresholds.minThroughput()) {
+            failures.add(String.format("throughput %.0f/s is below %.0f/s", total.throughput(),
+                thresholds.minThroughput()));
+        }
+        if (total.errorRate() > thresholds.maxErrorRate()) {
+            failures.add(String.format("error rate %.2f%% is above %.2f%%", total.errorRate() * 100,
+                thresholds.maxErrorRate() * 100));
+        }
+        return new LoadReport(profile.rate(), seconds, rows, total, failures);
+    }
+
+    boolean passed() {
+        return failures.isEmpty();
+    }
+
+    void print(PrintStream out) {
+        String format = "%-12s %-14s %10s %8s %10s %9s %9s %9s %9s%n";
+        out.printf(format, "tenant", "scenario", "requests", "errors", "ok/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (Row row : scenarios) {
+            print(out, row);
+        }
+        print(out, total);
+        out.println();
+        if (passed()) {
+            out.printf("PASSED at %.0f requests/s%n", rate);
+        } else {
+            failures.forEach(failure -> out.println("FAILED: " + failure));
+        }
+    }
+
+    void write(Path file) throws IOException {
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), this);
+    }
+
+    private static void print(PrintStream out, Row row) {
+        out.printf("%-12s %-14s %10d %8d %10.0f %9.2f %9.2f %9.2f %9.2f%n", row.tenant(), row.scenario(),
+            row.requests(), row.errors(), row.throughput(), row.p50Ms(), row.p95Ms(), row.p99Ms(), row.maxMs());
+    }
+}
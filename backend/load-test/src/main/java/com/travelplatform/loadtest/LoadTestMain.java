@@ -0,0 +1,87 @@
+package com.travelplatform.loadtest;
+
+import com.travelplatform.loadtest.inprocess.InProcessPlatform;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs a load profile and exits non-zero when it misses its thresholds.
+ *
+ * <pre>
+ * java -jar load-test.jar                                   # services in-process, bundled profile
+ * java -jar load-test.jar --profile=smoke.yml --load.rate=500
+ * java -jar load-test.jar --load.target.user-service=http://localhost:8080 \
+ *                         --load.target.travel-service=http://localhost:8080
+ * </pre>
+ */
+public final class LoadTestMain {
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadProfile profile = profile(args);
+        System.exit(run(profile) ? 0 : 1);
+    }
+
+    static boolean run(LoadProfile profile) throws Exception {
+        InProcessPlatform platform = null;
+        LoadProfile.Target target = profile.target();
+        if (target.inProcess()) {
+            platform = InProcessPlatform.start(profile.tenants().keySet());
+            target = new LoadProfile.Target(platform.userServiceUrl(), platform.travelServiceUrl());
+        }
+        try {
+            // HTTP/1.1 keeps one request per connection, as browsers behind the gateway do; h2c would multiplex
+            HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+            List<TenantFixture> fixtures = new FixtureLoader(client, target, platform).load(profile.tenants());
+
+            System.out.printf("Running %.0f requests/s for %s after a %s warmup against %s and %s%n",
+                profile.rate(), profile.duration(), profile.warmup(), target.userService(), target.travelService());
+            List<ScenarioStats> stats = new OpenModelRunner(profile, target, fixtures, client).run();
+
+            LoadReport report = LoadReport.of(profile, stats);
+            report.print(System.out);
+            if (profile.reportFile() != null && !profile.reportFile().isBlank()) {
+                report.write(Path.of(profile.reportFile()));
+            }
+            return report.passed();
+        } finally {
+            if (platform != null) {
+                platform.close();
+            }
+        }
+    }
+
+    // The bundled profile, or --profile=<file>, overridden by --load.* arguments
+    static LoadProfile profile(String[] args) throws Exception {
+        SimpleCommandLinePropertySource arguments = new SimpleCommandLinePropertySource(args);
+        Resource resource = arguments.containsProperty("profile")
+            ? new FileSystemResource(arguments.getProperty("profile"))
+            : new ClassPathResource("load-test.yml");
+
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(arguments);
+        for (PropertySource<?> source : new YamlPropertySourceLoader().load(resource.getFilename(), resource)) {
+            environment.getPropertySources().addLast(source);
+        }
+        return Binder.get(environment).bind("load", LoadProfile.class)
+            .orElseThrow(() -> new IllegalArgumentException("No load profile in " + resource));
+    }
+}
@@ -0,0 +1,135 @@
+package com.travelplatform.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Starts requests at a constant rate whether or not earlier ones have
+ * completed (an open model), each on its own virtual thread. A server that
+ * slows down therefore faces a growing queue, as it would with real users,
+ * instead of a generator that politely waits for it.
+ */
+final class OpenModelRunner {
+
+    private final LoadProfile profile;
+    private final LoadProfile.Target target;
+    private final HttpClient client;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final TenantFixture[] tenants;
+    private final double[] tenantWeights;
+    private final ScenarioStats[][] stats;
+    private final double[][] scenarioWeights;
+
+    OpenModelRunner(LoadProfile profile, LoadProfile.Target target, List<TenantFixture> fixtures, HttpClient client) {
+        this.profile = profile;
+        this.target = target;
+        this.client = client;
+        this.tenants = fixtures.toArray(TenantFixture[]::new);
+        this.tenantWeights = new double[tenants.length];
+        this.stats = new ScenarioStats[tenants.length][];
+        this.scenarioWeights = new double[tenants.length][];
+
+        for (int t = 0; t < tenants.length; t++) {
+            TenantFixture fixture = tenants[t];
+            LoadProfile.TenantProfile tenant = profile.tenants().get(fixture.tenantId());
+            tenantWeights[t] = tenant.weight();
+
+            List<ScenarioStats> runnable = new ArrayList<>();
+            List<Integer> weights = new ArrayList<>();
+            for (Map.Entry<Scenario, Integer> entry : tenant.mix().entrySet()) {
+                if (entry.getValue() > 0 && entry.getKey().runnable(fixture)) {
+                    runnable.add(new ScenarioStats(fixture.tenantId(), entry.getKey()));
+                    weights.add(entry.getValue());
+                }
+            }
+            if (runnable.isEmpty()) {
+                throw new IllegalArgumentException("Tenant " + fixture.tenantId() + " has no runnable scenario");
+            }
+            stats[t] = runnable.toArray(ScenarioStats[]::new);
+            scenarioWeights[t] = weights.stream().mapToDouble(Integer::doubleValue).toArray();
+        }
+    }
+
+    List<ScenarioStats> run() {
+        double intervalNanos = 1e9 / profile.rate();
+        long start = System.nanoTime();
+        long recordFrom = start + profile.warmup().toNanos();
+        long end = recordFrom + profile.duration().toNanos();
+
+        // Closing the executor waits for the requests still in flight, bounded by the request timeout
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long started = 0;
+            for (long now = start; now < end; now = System.nanoTime()) {
+                long due = (long) ((now - start) / intervalNanos) + 1;
+                for (; started < due; started++) {
+                    long intended = start + (long) (started * intervalNanos);
+                    dispatch(executor, intended, intended >= recordFrom && intended < end);
+                }
+                LockSupport.parkNanos(start + (long) (started * intervalNanos) - System.nanoTime());
+            }
+        }
+
+        List<ScenarioStats> all = new ArrayList<>();
+        for (ScenarioStats[] tenant : stats) {
+            all.addAll(List.of(tenant));
+        }
+        return all;
+    }
+
+    private void dispatch(ExecutorService executor, long intended, boolean recorded) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int tenant = pick(tenantWeights, random);
+        ScenarioStats scenario = stats[tenant][pick(scenarioWeights[tenant], random)];
+
+        if (inFlight.incrementAndGet() > profile.maxInFlight()) {
+            inFlight.decrementAndGet();
+            if (recorded) {
+                scenario.drop();
+            }
+            return;
+        }
+        HttpRequest request = scenario.scenario().next(target, tenants[tenant], profile.requestTimeout());
+        executor.execute(() -> {
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (recorded) {
+                    scenario.completed(response.statusCode(), System.nanoTime() - intended);
+                }
+            } catch (IOException e) {
+                if (recorded) {
+                    scenario.failed(System.nanoTime() - intended);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+    }
+
+    private static int pick(double[] weights, ThreadLocalRandom random) {
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        double point = random.nextDouble(total);
+        for (int i = 0; i < weights.length - 1; i++) {
+            point -= weights[i];
+            if (point < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+}
@@ -0,0 +1,93 @@
+package com.travelplatform.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One kind of request a virtual user makes. Requests carry the tenant
+ * header, the user's access token for the gateway, and the identity header
+ * the gateway would derive from it, so they can go to the services directly
+ * or through the gateway.
+ */
+public enum Scenario {
+
+    LOGIN {
+        @Override
+        HttpRequest.Builder request(LoadProfile.Target target, TenantFixture fixture, ThreadLocalRandom random) {
+            TenantFixture.VirtualUser user = pick(fixture.users(), random);
+            return HttpRequest.newBuilder(URI.create(target.userService() + "/api/v1/users/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(user.loginBody()));
+        }
+    },
+
+    BOOKINGS {
+        @Override
+        HttpRequest.Builder request(LoadProfile.Target target, TenantFixture fixture, ThreadLocalRandom random) {
+            return authenticated(target.userService() + "/api/v1/users/bookings", fixture, random)
+                .GET();
+        }
+    },
+
+    LIST_PACKAGES {
+        private static final String[] SORTS = {"NEWEST", "PRICE_ASC", "PRICE_DESC"};
+
+        @Override
+        HttpRequest.Builder request(LoadProfile.Target target, TenantFixture fixture, ThreadLocalRandom random) {
+            return authenticated(target.travelService() + "/api/v1/travels/packages?limit=20&sort="
+                    + SORTS[random.nextInt(SORTS.length)], fixture, random)
+                .GET();
+        }
+    },
+
+    GET_PACKAGE {
+        @Override
+        HttpRequest.Builder request(LoadProfile.Target target, TenantFixture fixture, ThreadLocalRandom random) {
+            UUID id = pick(fixture.packageIds(), random);
+            return authenticated(target.travelService() + "/api/v1/travels/packages/" + id, fixture, random)
+                .GET();
+        }
+    };
+
+    static final String TENANT_HEADER = "X-Tenant-ID";
+    static final String AUTHORIZATION_HEADER = "Authorization";
+    static final String USER_ID_HEADER = "X-User-Id";
+
+    /**
+     * A request for this scenario in the given tenant.
+     */
+    HttpRequest next(LoadProfile.Target target, TenantFixture fixture, Duration timeout) {
+        return request(target, fixture, ThreadLocalRandom.current())
+            .header(TENANT_HEADER, fixture.tenantId())
+            .timeout(timeout)
+            .build();
+    }
+
+    /**
+     * Whether the fixture has what this scenario needs.
+     */
+    boolean runnable(TenantFixture fixture) {
+        return switch (this) {
+            case LOGIN, BOOKINGS, LIST_PACKAGES -> !fixture.users().isEmpty();
+            case GET_PACKAGE -> !fixture.users().isEmpty() && !fixture.packageIds().isEmpty();
+        };
+    }
+
+    abstract HttpRequest.Builder request(LoadProfile.Target target, TenantFixture fixture, ThreadLocalRandom random);
+
+    // As a random user of the tenant; the gateway replaces X-User-Id with the token's own
+    private static HttpRequest.Builder authenticated(String url, TenantFixture fixture, ThreadLocalRandom random) {
+        TenantFixture.VirtualUser user = pick(fixture.users(), random);
+        return HttpRequest.newBuilder(URI.create(url))
+            .header(AUTHORIZATION_HEADER, "Bearer " + user.accessToken())
+            .header(USER_ID_HEADER, user.userId().toString());
+    }
+
+    private static <T> T pick(List<T> values, ThreadLocalRandom random) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
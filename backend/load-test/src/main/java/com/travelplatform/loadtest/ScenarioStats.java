@@ -0,0 +1,75 @@
+package com.travelplatform.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outcomes of one scenario in one tenant. Latencies are in microseconds,
+ * measured from when the request was due rather than when it was sent, so
+ * a stalled generator or server shows up in the percentiles.
+ */
+final class ScenarioStats {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final String tenantId;
+    private final Scenario scenario;
+    private final Recorder latency = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    ScenarioStats(String tenantId, Scenario scenario) {
+        this.tenantId = tenantId;
+        this.scenario = scenario;
+    }
+
+    String tenantId() {
+        return tenantId;
+    }
+
+    Scenario scenario() {
+        return scenario;
+    }
+
+    void completed(int status, long latencyNanos) {
+        record(latencyNanos);
+        if (status >= 200 && status < 400) {
+            succeeded.increment();
+        } else {
+            failed.increment();
+        }
+    }
+
+    void failed(long latencyNanos) {
+        record(latencyNanos);
+        failed.increment();
+    }
+
+    void drop() {
+        dropped.increment();
+    }
+
+    long succeeded() {
+        return succeeded.sum();
+    }
+
+    long failed() {
+        return failed.sum();
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+
+    Histogram latency() {
+        return latency.getIntervalHistogram();
+    }
+
+    private void record(long latencyNanos) {
+        latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+    }
+}
@@ -0,0 +1,19 @@
+package com.travelplatform.loadtest;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * What a tenant's scenarios pick from: its registered users and the
+ * packages it can read.
+ */
+record TenantFixture(String tenantId, List<VirtualUser> users, List<UUID> packageIds) {
+
+    /**
+     * @param loginBody    JSON body of a login as this user
+     * @param accessToken  token from registration, sent on every request as the gateway expects
+     * @param userId       the account id, which the token carries and bookings are keyed by
+     */
+    record VirtualUser(String username, String loginBody, String accessToken, UUID userId) {
+    }
+}
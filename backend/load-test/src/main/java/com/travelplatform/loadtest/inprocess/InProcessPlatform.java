@@ -0,0 +1,285 @@
+package com.travelplatform.loadtest.inprocess;
+
+import com.travelplatform.common.tenant.TenantDirectory;
+import com.travelplatform.gateway.ApiGatewayApplication;
+import com.travelplatform.gateway.EmbeddedRedis;
+import com.travelplatform.travelservice.TravelServiceApplication;
+import com.travelplatform.userservice.UserServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * The gateway, user-service and travel-service started in this JVM on random
+ * ports, on in-memory H2 databases and an {@link EmbeddedRedis}. Each reads
+ * its own application.yml; only connections, ports and log levels are
+ * overridden, so routes, filters, pools, caches and limits are the ones
+ * deployed.
+ */
+public final class InProcessPlatform implements AutoCloseable {
+
+    private static final String USERS_URL = "jdbc:h2:mem:users;DB_CLOSE_DELAY=-1";
+    private static final String TRAVELS_URL = "jdbc:h2:mem:travels;DB_CLOSE_DELAY=-1";
+    private static final String DB_USER = "sa";
+    private static final String DB_PASSWORD = "";
+
+    private static final String MERGE_TENANT = "MERGE INTO tenants (id, name) KEY (id) VALUES (?, ?)";
+
+    private static final String INSERT_PACKAGE = "INSERT INTO travel_packages (id, title, description, destination, "
+        + "category, price, duration_days, max_travelers, is_active, created_at, updated_at, tenant_id) "
+        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, TRUE, ?, ?, ?)";
+    private static final String INSERT_BOOKING = "INSERT INTO bookings (id, user_id, travel_package_id, booking_date, "
+        + "travelers_count, total_price, status, created_at, updated_at, tenant_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final List<String> SERVICE_AUTO_CONFIGURATION = List.of(
+        "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration",
+        "org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration",
+        "org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration");
+
+    private static final String[] DESTINATIONS = {"Lisbon", "Kyoto", "Reykjavik", "Cape Town", "Cusco", "Bali",
+        "Queenstown", "Marrakesh", "Vancouver", "Dubrovnik"};
+    private static final String[] CATEGORIES = {"ADVENTURE", "BEACH", "CITY", "CULTURE", "NATURE", "WELLNESS"};
+    private static final String[] STATUSES = {"PENDING", "CONFIRMED", "CONFIRMED", "COMPLETED", "CANCELLED"};
+
+    private final EmbeddedRedis redis;
+    private final ConfigurableApplicationContext travelService;
+    private final ConfigurableApplicationContext userService;
+    private final ConfigurableApplicationContext gateway;
+
+    private InProcessPlatform(EmbeddedRedis redis, ConfigurableApplicationContext travelService,
+                              ConfigurableApplicationContext userService, ConfigurableApplicationContext gateway) {
+        this.redis = redis;
+        this.travelService = travelService;
+        this.userService = userService;
+        this.gateway = gateway;
+    }
+
+    public static InProcessPlatform start(Collection<String> tenantIds) throws IOException, SQLException {
+        String tenants = "default," + String.join(",", tenantIds);
+        try (Connection connection = DriverManager.getConnection(TRAVELS_URL, DB_USER, DB_PASSWORD)) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("h2/travels-schema.sql"));
+            registerTenants(connection, tenantIds);
+        }
+        try (Connection connection = DriverManager.getConnection(USERS_URL, DB_USER, DB_PASSWORD)) {
+            registerTenants(connection, tenantIds);
+        }
+        EmbeddedRedis redis = new EmbeddedRedis();
+        ConfigurableApplicationContext travelService = null;
+        ConfigurableApplicationContext userService = null;
+        try {
+            Map<String, String> travel = common(TravelServiceApplication.class, TRAVELS_URL, redis);
+            travel.put("logging.level.com.travelplatform.travelservice", "INFO");
+            travelService = run(TravelServiceApplication.class, travel);
+
+            Map<String, String> user = common(UserServiceApplication.class, USERS_URL, redis);
+            user.put("bookings.datasource.url", TRAVELS_URL);
+            user.put("bookings.datasource.username", DB_USER);
+            user.put("bookings.datasource.password", DB_PASSWORD);
+            user.put("bookings.datasource.driver-class-name", "org.h2.Driver");
+            user.put("logging.level.com.travelplatform.userservice", "INFO");
+            userService = run(UserServiceApplication.class, user);
+
+            Map<String, String> edge = new LinkedHashMap<>();
+            edge.put("spring.config.location", ownConfig(ApiGatewayApplication.class));
+            edge.put("spring.main.web-application-type", "reactive");
+            edge.put("eureka.client.enabled", "false");
+            edge.put("server.port", "0");
+            edge.put("spring.data.redis.host", "127.0.0.1");
+            edge.put("spring.data.redis.port", String.valueOf(redis.port()));
+            edge.put("spring.cloud.gateway.discovery.locator.enabled", "false");
+            edge.put("spring.cloud.discovery.client.simple.instances.user-service[0].uri", baseUrl(userService));
+            edge.put("spring.cloud.discovery.client.simple.instances.travel-service[0].uri", baseUrl(travelService));
+            // The gateway has no tenants table; it must know a tenant before its first registration
+            edge.put("tenant.resolution.known", tenants);
+            // The services' JPA and servlet stack share this classpath but not the gateway's context
+            edge.put("spring.autoconfigure.exclude", String.join(",", SERVICE_AUTO_CONFIGURATION));
+            edge.put("logging.level.com.travelplatform.gateway", "INFO");
+            ConfigurableApplicationContext gateway = run(ApiGatewayApplication.class, edge);
+
+            return new InProcessPlatform(redis, travelService, userService, gateway);
+        } catch (RuntimeException e) {
+            if (userService != null) {
+                userService.close();
+            }
+            if (travelService != null) {
+                travelService.close();
+            }
+            redis.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Serves every route as deployed: JWT verification, identity headers,
+     * rate limits and load balancing over the in-process services.
+     */
+    public String gatewayUrl() {
+        return baseUrl(gateway);
+    }
+
+    public String userServiceUrl() {
+        return baseUrl(userService);
+    }
+
+    public String travelServiceUrl() {
+        return baseUrl(travelService);
+    }
+
+    /**
+     * Inserts active packages for a tenant, and bookings of them for each
+     * owner, straight into the travels database.
+     *
+     * @return ids of the inserted packages
+     */
+    public List<UUID> seedCatalog(String tenantId, int packages, List<UUID> owners, int bookingsPerOwner)
+            throws SQLException {
+        Random random = new Random(tenantId.hashCode());
+        LocalDateTime now = LocalDateTime.now();
+        List<UUID> packageIds = new ArrayList<>(packages);
+        List<BigDecimal> prices = new ArrayList<>(packages);
+        try (Connection connection = DriverManager.getConnection(TRAVELS_URL, DB_USER, DB_PASSWORD)) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_PACKAGE)) {
+                for (int i = 0; i < packages; i++) {
+                    UUID id = UUID.randomUUID();
+                    String destination = DESTINATIONS[random.nextInt(DESTINATIONS.length)];
+                    BigDecimal price = BigDecimal.valueOf(20000 + random.nextInt(980000), 2);
+                    Timestamp created = Timestamp.valueOf(now.minusMinutes(i));
+                    insert.setObject(1, id);
+                    insert.setString(2, destination + " getaway " + i);
+                    insert.setString(3, "Guided days around " + destination + " with local hosts");
+                    insert.setString(4, destination);
+                    insert.setString(5, CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                    insert.setBigDecimal(6, price);
+                    insert.setInt(7, 2 + random.nextInt(20));
+                    insert.setInt(8, 2 + random.nextInt(29));
+                    insert.setTimestamp(9, created);
+                    insert.setTimestamp(10, created);
+                    insert.setString(11, tenantId);
+                    insert.addBatch();
+                    packageIds.add(id);
+                    prices.add(price);
+                }
+                insert.executeBatch();
+            }
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_BOOKING)) {
+                for (UUID owner : owners) {
+                    for (int i = 0; i < bookingsPerOwner && !packageIds.isEmpty(); i++) {
+                        int pick = random.nextInt(packageIds.size());
+                        int travelers = 1 + random.nextInt(4);
+                        Timestamp created = Timestamp.valueOf(now.minusHours(i));
+                        insert.setObject(1, UUID.randomUUID());
+                        insert.setObject(2, owner);
+                        insert.setObject(3, packageIds.get(pick));
+                        insert.setObject(4, LocalDate.now().plusDays(7 + random.nextInt(180)));
+                        insert.setInt(5, travelers);
+                        insert.setBigDecimal(6, prices.get(pick).multiply(BigDecimal.valueOf(travelers)));
+                        insert.setString(7, STATUSES[random.nextInt(STATUSES.length)]);
+                        insert.setTimestamp(8, created);
+                        insert.setTimestamp(9, created);
+                        insert.setString(10, tenantId);
+                        insert.addBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+        }
+        return packageIds;
+    }
+
+    /**
+     * Adds a tenant to the services' tenants tables, as onboarding does, and
+     * has them re-read the tables now rather than at their next refresh. The
+     * gateway is not told; it learns the tenant from its users' tokens.
+     */
+    public void onboardTenant(String tenantId) throws SQLException {
+        for (String url : List.of(USERS_URL, TRAVELS_URL)) {
+            try (Connection connection = DriverManager.getConnection(url, DB_USER, DB_PASSWORD)) {
+                registerTenants(connection, List.of(tenantId));
+            }
+        }
+        userService.getBean(TenantDirectory.class).refresh();
+        travelService.getBean(TenantDirectory.class).refresh();
+    }
+
+    @Override
+    public void close() throws IOException {
+        gateway.close();
+        userService.close();
+        travelService.close();
+        redis.close();
+    }
+
+    // The services accept the tenants of their tenants table, as deployed
+    private static void registerTenants(Connection connection, Collection<String> tenantIds) throws SQLException {
+        ScriptUtils.executeSqlScript(connection, new ClassPathResource("h2/tenants-schema.sql"));
+        try (PreparedStatement merge = connection.prepareStatement(MERGE_TENANT)) {
+            for (String tenantId : tenantIds) {
+                merge.setString(1, tenantId);
+                merge.setString(2, "Load test tenant " + tenantId);
+                merge.addBatch();
+            }
+            merge.executeBatch();
+        }
+    }
+
+    private static Map<String, String> common(Class<?> application, String databaseUrl, EmbeddedRedis redis) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("spring.config.location", ownConfig(application));
+        properties.put("spring.cloud.config.enabled", "false");
+        properties.put("eureka.client.enabled", "false");
+        properties.put("server.port", "0");
+        properties.put("spring.datasource.url", databaseUrl);
+        properties.put("spring.datasource.username", DB_USER);
+        properties.put("spring.datasource.password", DB_PASSWORD);
+        properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        properties.put("spring.jpa.database-platform", "org.hibernate.dialect.H2Dialect");
+        properties.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.put("spring.jpa.properties.hibernate.default_schema", "");
+        properties.put("spring.data.redis.host", "127.0.0.1");
+        properties.put("spring.data.redis.port", String.valueOf(redis.port()));
+        // H2 has no set_config; a session variable stands in for the tenant binding
+        properties.put("tenant.datasource.bind-sql", "SET @app_tenant = ?");
+        properties.put("spring.main.web-application-type", "servlet");
+        properties.put("spring.cloud.gateway.enabled", "false");
+        properties.put("spring.cloud.gateway.redis.enabled", "false");
+        return properties;
+    }
+
+    // Both service jars ship an application.yml at the root, so each is pointed at its own
+    private static String ownConfig(Class<?> application) {
+        String source = application.getProtectionDomain().getCodeSource().getLocation().toString();
+        return source.endsWith(".jar") ? "jar:" + source + "!/application.yml" : source + "application.yml";
+    }
+
+    private static ConfigurableApplicationContext run(Class<?> application, Map<String, String> properties) {
+        // Command-line arguments take precedence over the yml
+        String[] args = properties.entrySet().stream()
+            .map(property -> "--" + property.getKey() + "=" + property.getValue())
+            .toArray(String[]::new);
+        return new SpringApplicationBuilder(application).run(args);
+    }
+
+    private static String baseUrl(ConfigurableApplicationContext context) {
+        return "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+    }
+}
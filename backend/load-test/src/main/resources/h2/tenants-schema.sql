@@ -0,0 +1,8 @@
+-- The tenants table of both databases (infrastructure/sql/init.sql), which
+-- the services read the tenants they accept from
+CREATE TABLE IF NOT EXISTS tenants (
+    id VARCHAR(63) PRIMARY KEY,
+    name VARCHAR(255),
+    is_active BOOLEAN DEFAULT TRUE,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,67 @@
+-- Tables of travel_platform_travels that no entity maps (infrastructure/sql/init.sql
+-- creates them in PostgreSQL); travel_packages comes from Hibernate.
+-- The outbox writer casts payloads to jsonb
+CREATE DOMAIN IF NOT EXISTS JSONB AS VARCHAR(65535);
+
+CREATE TABLE IF NOT EXISTS bookings (
+    id UUID DEFAULT RANDOM_UUID() PRIMARY KEY,
+    user_id UUID NOT NULL,
+    travel_package_id UUID,
+    booking_date DATE NOT NULL,
+    travelers_count INTEGER NOT NULL,
+    total_price DECIMAL(10,2) NOT NULL,
+    status VARCHAR(50) DEFAULT 'PENDING',
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    tenant_id VARCHAR(100) NOT NULL DEFAULT 'default'
+);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_user_created ON bookings(user_id, created_at, id);
+
+CREATE TABLE IF NOT EXISTS seat_inventory (
+    travel_package_id UUID NOT NULL,
+    booking_date DATE NOT NULL,
+    remaining INTEGER NOT NULL,
+    PRIMARY KEY (travel_package_id, booking_date)
+);
+
+CREATE TABLE IF NOT EXISTS seat_leases (
+    id UUID PRIMARY KEY,
+    travel_package_id UUID NOT NULL,
+    booking_date DATE NOT NULL,
+    granted INTEGER NOT NULL,
+    renewed_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_seat_leases_renewed_at ON seat_leases(renewed_at);
+
+CREATE TABLE IF NOT EXISTS seat_holds (
+    id UUID PRIMARY KEY,
+    tenant_id VARCHAR(100) NOT NULL,
+    user_id UUID NOT NULL,
+    travel_package_id UUID NOT NULL,
+    booking_date DATE NOT NULL,
+    seats INTEGER NOT NULL,
+    total_price DECIMAL(10,2) NOT NULL,
+    lease_id UUID NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_seat_holds_expires_at ON seat_holds(expires_at);
+CREATE INDEX IF NOT EXISTS idx_seat_holds_lease_id ON seat_holds(lease_id);
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    aggregate_type VARCHAR(50) NOT NULL,
+    aggregate_id UUID NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    tenant_id VARCHAR(100) NOT NULL,
+    payload VARCHAR(65535) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS outbox_relay_lock (
+    id INTEGER PRIMARY KEY
+);
+
+MERGE INTO outbox_relay_lock KEY (id) VALUES (1);
@@ -0,0 +1,94 @@
+package com.travelplatform.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.travelplatform.loadtest.inprocess.InProcessPlatform;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Every scenario succeeds when both targets are the gateway, as they are in
+ * {@code performance-test.sh}.
+ */
+class ScenarioTest {
+
+    private static final String TENANT = "acme";
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private static final HttpClient client = HttpClient.newHttpClient();
+
+    private static InProcessPlatform platform;
+    private static LoadProfile.Target gateway;
+    private static TenantFixture fixture;
+
+    @BeforeAll
+    static void start() throws Exception {
+        platform = InProcessPlatform.start(List.of(TENANT));
+        // A cold first registration can outlast the route's time limit; warm up behind the gateway
+        String registration = new ObjectMapper().writeValueAsString(Map.of(
+            "username", "scenario-warm-up",
+            "email", "scenario-warm-up@example.com",
+            "password", "warm-up-password",
+            "confirmPassword", "warm-up-password",
+            "firstName", "Warm",
+            "lastName", "Up"));
+        client.send(HttpRequest.newBuilder(URI.create(platform.userServiceUrl() + "/api/v1/users/auth/register"))
+                .header(Scenario.TENANT_HEADER, TENANT)
+                .header("Content-Type", "application/json")
+                .timeout(TIMEOUT)
+                .POST(HttpRequest.BodyPublishers.ofString(registration))
+                .build(),
+            HttpResponse.BodyHandlers.discarding());
+
+        gateway = new LoadProfile.Target(platform.gatewayUrl(), platform.gatewayUrl());
+        fixture = new FixtureLoader(client, gateway, platform)
+            .load(Map.of(TENANT, new LoadProfile.TenantProfile(1, 3, 4, 2, Map.of())))
+            .get(0);
+    }
+
+    @AfterAll
+    static void stop() throws Exception {
+        if (platform != null) {
+            platform.close();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Scenario.class)
+    void scenarioSucceedsThroughTheGateway(Scenario scenario) throws Exception {
+        assertThat(scenario.runnable(fixture)).isTrue();
+        for (int i = 0; i < 5; i++) {
+            HttpResponse<String> response = client.send(scenario.next(gateway, fixture, TIMEOUT),
+                HttpResponse.BodyHandlers.ofString());
+            assertThat(response.statusCode()).as(scenario + ": " + response.body()).isEqualTo(200);
+        }
+    }
+
+    @Test
+    void bookingsAreSeededUnderTheSignedInUser() throws Exception {
+        for (TenantFixture.VirtualUser user : fixture.users()) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(gateway.userService() + "/api/v1/users/bookings"))
+                .header(Scenario.TENANT_HEADER, TENANT)
+                .header(Scenario.AUTHORIZATION_HEADER, "Bearer " + user.accessToken())
+                .timeout(TIMEOUT)
+                .GET()
+                .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(new ObjectMapper().readTree(response.body()).path("bookings")).hasSize(2);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.travelplatform.loadtest.inprocess;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A user registered through the gateway reads their own bookings with
+ * nothing but the access token they were issued: the gateway turns the
+ * token's user id into {@code X-User-Id}, and the services key bookings by
+ * that same id.
+ */
+class GatewayIdentityTest {
+
+    private static final String TENANT = "acme";
+
+    private static InProcessPlatform platform;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeAll
+    static void start() throws Exception {
+        platform = InProcessPlatform.start(List.of(TENANT));
+        // A cold first registration can outlast the route's time limit; warm up behind the gateway
+        new GatewayIdentityTest().register(platform.userServiceUrl(), "identity-warm-up");
+    }
+
+    @AfterAll
+    static void stop() throws Exception {
+        if (platform != null) {
+            platform.close();
+        }
+    }
+
+    @Test
+    void bookingsAreReadWithTheIssuedToken() throws Exception {
+        JsonNode auth = register("identity-bookings");
+        UUID userId = UUID.fromString(auth.path("user").path("id").asText());
+        platform.seedCatalog(TENANT, 3, List.of(userId), 2);
+        // Someone else's bookings in the same tenant stay out of the page
+        platform.seedCatalog(TENANT, 1, List.of(UUID.randomUUID()), 1);
+
+        HttpResponse<String> response = get("/api/v1/users/bookings", auth.path("accessToken").asText());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(objectMapper.readTree(response.body()).path("bookings")).hasSize(2);
+    }
+
+    @Test
+    void homePageIncludesTheCallersBookings() throws Exception {
+        JsonNode auth = register("identity-home");
+        UUID userId = UUID.fromString(auth.path("user").path("id").asText());
+        platform.seedCatalog(TENANT, 2, List.of(userId), 1);
+
+        HttpResponse<String> response = get("/api/v1/bff/home", auth.path("accessToken").asText());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        JsonNode page = objectMapper.readTree(response.body());
+        assertThat(page.path("degraded")).isEmpty();
+        assertThat(page.path("profile").path("userId").asText()).isEqualTo(userId.toString());
+        assertThat(page.path("bookings").path("bookings")).hasSize(1);
+    }
+
+    @Test
+    void reservationConfirmedThroughTheGatewayIsTheCallersBooking() throws Exception {
+        JsonNode auth = register("identity-reservation");
+        String accessToken = auth.path("accessToken").asText();
+        UUID packageId = platform.seedCatalog(TENANT, 1, List.of(), 0).get(0);
+
+        String reservation = objectMapper.writeValueAsString(Map.of(
+            "travelPackageId", packageId.toString(),
+            "bookingDate", LocalDate.now().plusDays(14).toString(),
+            "travelersCount", 1));
+        HttpResponse<String> held = post("/api/v1/travels/reservations", accessToken, reservation);
+        assertThat(held.statusCode()).as(held.body()).isEqualTo(201);
+        String holdId = objectMapper.readTree(held.body()).path("id").asText();
+
+        HttpResponse<String> confirmed = post("/api/v1/travels/reservations/" + holdId + "/confirm", accessToken, "");
+        assertThat(confirmed.statusCode()).as(confirmed.body()).isEqualTo(201);
+
+        JsonNode bookings = objectMapper.readTree(get("/api/v1/users/bookings", accessToken).body()).path("bookings");
+        assertThat(bookings).hasSize(1);
+        assertThat(bookings.get(0).path("id").asText()).isEqualTo(holdId);
+    }
+
+    @Test
+    void refreshedTokenKeepsTheUserId() throws Exception {
+        JsonNode auth = register("identity-refresh");
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(platform.gatewayUrl()
+                + "/api/v1/users/auth/refresh?refreshToken=" + auth.path("refreshToken").asText()))
+            .header("X-Tenant-ID", TENANT)
+            .POST(HttpRequest.BodyPublishers.noBody())
+            .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(objectMapper.readTree(response.body()).path("user").path("id").asText())
+            .isEqualTo(auth.path("user").path("id").asText());
+    }
+
+    @Test
+    void unknownTenantsAreRejected() throws Exception {
+        String junk = "junk-" + UUID.randomUUID().toString().substring(0, 8);
+
+        assertThat(login(platform.gatewayUrl(), junk).statusCode()).isEqualTo(400);
+        assertThat(login(platform.userServiceUrl(), junk).statusCode()).isEqualTo(400);
+    }
+
+    @Test
+    void gatewayAdmitsATenantOnceItsUsersPresentATokenForIt() throws Exception {
+        String tenant = "onboarded";
+        platform.onboardTenant(tenant);
+        assertThat(login(platform.gatewayUrl(), tenant).statusCode()).isEqualTo(400);
+
+        JsonNode auth = register(platform.userServiceUrl(), tenant, "identity-onboarded");
+        HttpRequest request = HttpRequest.newBuilder(URI.create(platform.gatewayUrl() + "/api/v1/users/bookings"))
+            .header("X-Tenant-ID", tenant)
+            .header("Authorization", "Bearer " + auth.path("accessToken").asText())
+            .timeout(Duration.ofSeconds(30))
+            .GET()
+            .build();
+        assertThat(client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode()).isEqualTo(200);
+
+        // Known from now on, so the tenant's other users can sign in through the gateway
+        assertThat(login(platform.gatewayUrl(), tenant).statusCode()).isEqualTo(401);
+    }
+
+    @Test
+    void searchRequiresAToken() throws Exception {
+        JsonNode auth = register("identity-search");
+
+        HttpRequest anonymous = HttpRequest.newBuilder(URI.create(platform.gatewayUrl() + "/api/v1/search/packages"))
+            .header("X-Tenant-ID", TENANT)
+            .timeout(Duration.ofSeconds(30))
+            .GET()
+            .build();
+        assertThat(client.send(anonymous, HttpResponse.BodyHandlers.ofString()).statusCode()).isEqualTo(401);
+        assertThat(get("/api/v1/search/packages", auth.path("accessToken").asText()).statusCode()).isEqualTo(200);
+    }
+
+    @Test
+    void exportsRequireAnalyticsRead() throws Exception {
+        String accessToken = register("identity-export").path("accessToken").asText();
+
+        assertThat(get("/api/v1/users/bookings/export", accessToken).statusCode()).isEqualTo(403);
+        assertThat(get("/api/v1/travels/packages/export", accessToken).statusCode()).isEqualTo(403);
+    }
+
+    @Test
+    void cachedResponsesCarryTheCallersOwnRateLimit() throws Exception {
+        String first = register("identity-cache-first").path("accessToken").asText();
+        String second = register("identity-cache-second").path("accessToken").asText();
+        platform.seedCatalog(TENANT, 1, List.of(), 0);
+        // Concurrently, so the first caller's bucket drains faster than it refills
+        List<CompletableFuture<HttpResponse<Void>>> burst = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            burst.add(client.sendAsync(request("/api/v1/travels/packages?limit=1", first).GET().build(),
+                HttpResponse.BodyHandlers.discarding()));
+        }
+        CompletableFuture.allOf(burst.toArray(CompletableFuture[]::new)).join();
+        HttpResponse<String> miss = get("/api/v1/travels/packages?limit=3", first);
+        assertThat(miss.headers().firstValue("X-Cache")).hasValue("MISS");
+
+        HttpResponse<String> hit = get("/api/v1/travels/packages?limit=3", second);
+
+        assertThat(hit.headers().firstValue("X-Cache")).hasValue("HIT");
+        // A full bucket of 40 less this request, not what was left of the first caller's
+        assertThat(hit.headers().firstValue(RedisRateLimiter.REMAINING_HEADER)).hasValue("39");
+    }
+
+    @Test
+    void tenantOfTheSubdomainIsForwarded() throws Exception {
+        register("identity-subdomain");
+        String body = objectMapper.writeValueAsString(
+            Map.of("usernameOrEmail", "identity-subdomain", "password", "identity-password"));
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(platform.gatewayUrl() + "/api/v1/users/auth/login"))
+            .header("Host", TENANT + ".travelplatform.com")
+            .version(HttpClient.Version.HTTP_1_1)
+            .header("Content-Type", "application/json")
+            .timeout(Duration.ofSeconds(30))
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).as(response.body()).isEqualTo(200);
+        assertThat(objectMapper.readTree(response.body()).path("tenantId").asText()).isEqualTo(TENANT);
+    }
+
+    private HttpResponse<String> login(String baseUrl, String tenant) throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of("usernameOrEmail", "nobody", "password", "wrong-password"));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/users/auth/login"))
+            .header("X-Tenant-ID", tenant)
+            .header("Content-Type", "application/json")
+            .timeout(Duration.ofSeconds(30))
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private JsonNode register(String username) throws Exception {
+        return register(platform.gatewayUrl(), username);
+    }
+
+    private JsonNode register(String baseUrl, String username) throws Exception {
+        return register(baseUrl, TENANT, username);
+    }
+
+    private JsonNode register(String baseUrl, String tenant, String username) throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of(
+            "username", username,
+            "email", username + "@example.com",
+            "password", "identity-password",
+            "confirmPassword", "identity-password",
+            "firstName", "Test",
+            "lastName", "User"));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/users/auth/register"))
+            .header("X-Tenant-ID", tenant)
+            .header("Content-Type", "application/json")
+            .timeout(Duration.ofSeconds(30))
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).as(response.body()).isEqualTo(200);
+        return objectMapper.readTree(response.body());
+    }
+
+    private HttpResponse<String> post(String path, String accessToken, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(platform.gatewayUrl() + path))
+            .header("X-Tenant-ID", TENANT)
+            .header("Authorization", "Bearer " + accessToken)
+            .header("Content-Type", "application/json")
+            .timeout(Duration.ofSeconds(30))
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String path, String accessToken) throws Exception {
+        return client.send(request(path, accessToken).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest.Builder request(String path, String accessToken) {
+        return HttpRequest.newBuilder(URI.create(platform.gatewayUrl() + path))
+            .header("X-Tenant-ID", TENANT)
+            .header("Authorization", "Bearer " + accessToken)
+            .timeout(Duration.ofSeconds(30));
+    }
+}
@@ -0,0 +1,169 @@
+package com.travelplatform.loadtest.inprocess;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Refresh-token rotation, reuse detection and logout through the gateway,
+ * with user-service's token store and the gateway's revocation filter sharing
+ * the Redis stand-in.
+ */
+class TokenRevocationTest {
+
+    private static final String TENANT = "acme";
+    // Revocations reach the gateway over pub/sub, so its filter lags the store slightly
+    private static final Duration PROPAGATION = Duration.ofSeconds(5);
+
+    private static InProcessPlatform platform;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeAll
+    static void start() throws Exception {
+        platform = InProcessPlatform.start(List.of(TENANT));
+        // A cold first registration can outlast the route's time limit; warm up behind the gateway
+        new TokenRevocationTest().register(platform.userServiceUrl(), "revocation-warm-up");
+    }
+
+    @AfterAll
+    static void stop() throws Exception {
+        if (platform != null) {
+            platform.close();
+        }
+    }
+
+    @Test
+    void rotatedTokensKeepWorking() throws Exception {
+        JsonNode auth = register(platform.gatewayUrl(), "revocation-rotation");
+
+        JsonNode first = objectMapper.readTree(refresh(auth.path("refreshToken").asText()).body());
+        HttpResponse<String> second = refresh(first.path("refreshToken").asText());
+
+        assertThat(second.statusCode()).isEqualTo(200);
+        String accessToken = objectMapper.readTree(second.body()).path("accessToken").asText();
+        assertThat(bookings(accessToken).statusCode()).isEqualTo(200);
+    }
+
+    @Test
+    void reusedRefreshTokenRevokesTheSession() throws Exception {
+        JsonNode auth = register(platform.gatewayUrl(), "revocation-reuse");
+        String stolen = auth.path("refreshToken").asText();
+        JsonNode rotated = objectMapper.readTree(refresh(stolen).body());
+        String accessToken = rotated.path("accessToken").asText();
+        assertThat(bookings(accessToken).statusCode()).isEqualTo(200);
+
+        assertThat(refresh(stolen).statusCode()).isEqualTo(401);
+
+        // Every token of the session goes, including the ones the legitimate rotation issued
+        assertThat(refresh(rotated.path("refreshToken").asText()).statusCode()).isEqualTo(401);
+        assertThat(awaitRejected(accessToken)).isEqualTo(401);
+    }
+
+    @Test
+    void logoutRevokesTheSession() throws Exception {
+        JsonNode auth = register(platform.gatewayUrl(), "revocation-logout");
+        String accessToken = auth.path("accessToken").asText();
+        String refreshToken = auth.path("refreshToken").asText();
+
+        HttpRequest logout = HttpRequest.newBuilder(URI.create(platform.gatewayUrl()
+                + "/api/v1/users/auth/logout?refreshToken=" + refreshToken))
+            .header("X-Tenant-ID", TENANT)
+            .timeout(Duration.ofSeconds(30))
+            .POST(HttpRequest.BodyPublishers.noBody())
+            .build();
+        assertThat(client.send(logout, HttpResponse.BodyHandlers.discarding()).statusCode()).isEqualTo(200);
+
+        assertThat(awaitRejected(accessToken)).isEqualTo(401);
+        assertThat(refresh(refreshToken).statusCode()).isEqualTo(401);
+    }
+
+    @Test
+    void otherSessionsOfTheUserAreUntouched() throws Exception {
+        register(platform.gatewayUrl(), "revocation-sessions");
+        JsonNode kept = login("revocation-sessions");
+        JsonNode revoked = login("revocation-sessions");
+
+        assertThat(refresh(revoked.path("refreshToken").asText()).statusCode()).isEqualTo(200);
+        assertThat(refresh(revoked.path("refreshToken").asText()).statusCode()).isEqualTo(401);
+        assertThat(awaitRejected(revoked.path("accessToken").asText())).isEqualTo(401);
+
+        assertThat(bookings(kept.path("accessToken").asText()).statusCode()).isEqualTo(200);
+        assertThat(refresh(kept.path("refreshToken").asText()).statusCode()).isEqualTo(200);
+    }
+
+    private int awaitRejected(String accessToken) throws Exception {
+        long deadline = System.nanoTime() + PROPAGATION.toNanos();
+        int status;
+        while ((status = bookings(accessToken).statusCode()) == 200 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        return status;
+    }
+
+    private HttpResponse<String> bookings(String accessToken) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(platform.gatewayUrl() + "/api/v1/users/bookings"))
+            .header("X-Tenant-ID", TENANT)
+            .header("Authorization", "Bearer " + accessToken)
+            .timeout(Duration.ofSeconds(30))
+            .GET()
+            .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> refresh(String refreshToken) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(platform.gatewayUrl()
+                + "/api/v1/users/auth/refresh?refreshToken=" + refreshToken))
+            .header("X-Tenant-ID", TENANT)
+            .timeout(Duration.ofSeconds(30))
+            .POST(HttpRequest.BodyPublishers.noBody())
+            .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private JsonNode login(String username) throws Exception {
+        String body = objectMapper.writeValueAsString(
+            Map.of("usernameOrEmail", username, "password", "revocation-password"));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(platform.gatewayUrl() + "/api/v1/users/auth/login"))
+            .header("X-Tenant-ID", TENANT)
+            .header("Content-Type", "application/json")
+            .timeout(Duration.ofSeconds(30))
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).as(response.body()).isEqualTo(200);
+        return objectMapper.readTree(response.body());
+    }
+
+    private JsonNode register(String baseUrl, String username) throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of(
+            "username", username,
+            "email", username + "@example.com",
+            "password", "revocation-password",
+            "confirmPassword", "revocation-password",
+            "firstName", "Test",
+            "lastName", "User"));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/users/auth/register"))
+            .header("X-Tenant-ID", TENANT)
+            .header("Content-Type", "application/json")
+            .timeout(Duration.ofSeconds(30))
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).as(response.body()).isEqualTo(200);
+        return objectMapper.readTree(response.body());
+    }
+}
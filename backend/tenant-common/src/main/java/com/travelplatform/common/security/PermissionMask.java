@@ -0,0 +1,52 @@
+package com.travelplatform.common.security;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bit layout of the permission masks user-service compiles into access
+ * tokens and the gateway forwards as {@code X-User-Permissions}, so every
+ * service checks the same bit for a permission name.
+ */
+public final class PermissionMask {
+
+    // Bit positions: append new names, never reorder
+    private static final List<String> ORDER = List.of(
+        "USER_READ", "USER_CREATE", "USER_UPDATE", "USER_DELETE",
+        "TRAVEL_READ", "TRAVEL_CREATE", "TRAVEL_UPDATE", "TRAVEL_DELETE",
+        "BOOKING_READ", "BOOKING_CREATE", "BOOKING_UPDATE", "BOOKING_DELETE",
+        "PAYMENT_READ", "PAYMENT_CREATE", "PAYMENT_UPDATE", "PAYMENT_DELETE",
+        "ANALYTICS_READ", "ANALYTICS_CREATE", "ANALYTICS_UPDATE", "ANALYTICS_DELETE");
+
+    private static final Map<String, Long> BITS = ORDER.stream()
+        .collect(Collectors.toUnmodifiableMap(Function.identity(), name -> 1L << ORDER.indexOf(name)));
+
+    /**
+     * Required by the bookings and travel package exports.
+     */
+    public static final long EXPORT = bit("ANALYTICS_READ");
+
+    private PermissionMask() {
+    }
+
+    /**
+     * Mask bit of a predefined permission, or 0 for names outside the catalogue.
+     */
+    public static long bit(String name) {
+        return name == null ? 0L : BITS.getOrDefault(name, 0L);
+    }
+
+    public static long mask(String... names) {
+        long mask = 0L;
+        for (String name : names) {
+            mask |= bit(name);
+        }
+        return mask;
+    }
+
+    public static boolean hasAll(long granted, long required) {
+        return (granted & required) == required;
+    }
+}
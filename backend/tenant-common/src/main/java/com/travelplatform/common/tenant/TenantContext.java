@@ -0,0 +1,30 @@
+package com.travelplatform.common.tenant;
+
+/**
+ * The tenant the current thread works for, set per request by
+ * {@link TenantServletFilter}. Threads outside a request have none. Not used
+ * by the reactive gateway, where the tenant is an exchange attribute.
+ */
+public final class TenantContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    public static void set(String tenantId) {
+        if (tenantId == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(tenantId);
+        }
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
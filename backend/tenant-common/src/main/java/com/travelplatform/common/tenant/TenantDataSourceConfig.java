@@ -0,0 +1,84 @@
+package com.travelplatform.common.tenant;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Puts every Hikari pool behind a {@link TenantRoutingDataSource}, with a
+ * dedicated pool per tenant listed under {@code tenant.datasource.dedicated}
+ * (tenant id to pool size) cloned from the shared pool's settings.
+ */
+@Configuration
+public class TenantDataSourceConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(TenantDataSourceConfig.class);
+
+    @Bean
+    public static TenantRoutingPostProcessor tenantRoutingPostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                                                        Environment environment) {
+        return new TenantRoutingPostProcessor(meterRegistry, environment);
+    }
+
+    /**
+     * Runs ahead of other post-processors so they see the routing data source
+     * and can decorate its pools.
+     */
+    public static class TenantRoutingPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final ObjectProvider<MeterRegistry> meterRegistry;
+        private final Environment environment;
+
+        TenantRoutingPostProcessor(ObjectProvider<MeterRegistry> meterRegistry, Environment environment) {
+            this.meterRegistry = meterRegistry;
+            this.environment = environment;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof HikariDataSource sharedPool)) {
+                return bean;
+            }
+            Map<String, Integer> poolSizes = Binder.get(environment)
+                .bind("tenant.datasource.dedicated", Bindable.mapOf(String.class, Integer.class))
+                .orElseGet(Map::of);
+            Map<String, HikariDataSource> dedicatedPools = new HashMap<>();
+            poolSizes.forEach((tenantId, size) -> dedicatedPools.put(tenantId, dedicatedPool(sharedPool, tenantId, size)));
+            if (!dedicatedPools.isEmpty()) {
+                log.info("Data source {} has dedicated pools for tenants {}", beanName, dedicatedPools.keySet());
+            }
+            return new TenantRoutingDataSource(beanName, sharedPool, dedicatedPools,
+                environment.getProperty("tenant.datasource.bind-sql", "SELECT set_config('app.current_tenant', ?, false)"),
+                meterRegistry.getObject(),
+                environment.getProperty("tenant.datasource.metrics.max-tenants", Integer.class, 50));
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        private HikariDataSource dedicatedPool(HikariDataSource sharedPool, String tenantId, int size) {
+            // Started on first use like the shared pool
+            HikariDataSource pool = new HikariDataSource();
+            sharedPool.copyStateTo(pool);
+            pool.setPoolName((sharedPool.getPoolName() != null ? sharedPool.getPoolName() : "HikariPool") + "-" + tenantId);
+            pool.setMaximumPoolSize(size);
+            pool.setMinimumIdle(Math.min(sharedPool.getMinimumIdle(), size));
+            pool.setMetricRegistry(meterRegistry.getObject());
+            return pool;
+        }
+    }
+}
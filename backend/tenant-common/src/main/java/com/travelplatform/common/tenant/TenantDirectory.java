@@ -0,0 +1,61 @@
+package com.travelplatform.common.tenant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Registers the active tenants of the {@code tenants} table with a
+ * {@link TenantRegistry}. Run at startup and then periodically, so a tenant
+ * onboarded by inserting its row is accepted without a restart while ids
+ * nobody onboarded never take up the registry's room.
+ */
+public class TenantDirectory {
+
+    private static final Logger log = LoggerFactory.getLogger(TenantDirectory.class);
+
+    private static final String SELECT_TENANTS = "SELECT id FROM tenants WHERE is_active = TRUE";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TenantRegistry registry;
+    private boolean missingTableLogged;
+
+    public TenantDirectory(DataSource dataSource, TenantRegistry registry) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.registry = registry;
+    }
+
+    /**
+     * @return the number of tenants newly registered
+     */
+    @Scheduled(fixedDelayString = "${tenant.resolution.refresh-interval:PT1M}",
+               initialDelayString = "${tenant.resolution.refresh-interval:PT1M}")
+    public synchronized int refresh() {
+        List<String> tenantIds;
+        try {
+            tenantIds = jdbcTemplate.queryForList(SELECT_TENANTS, String.class);
+        } catch (BadSqlGrammarException e) {
+            if (!missingTableLogged) {
+                log.warn("No tenants table; only the configured tenants are accepted: {}", e.getMessage());
+                missingTableLogged = true;
+            }
+            return 0;
+        }
+        int before = registry.size();
+        for (String tenantId : tenantIds) {
+            if (registry.register(tenantId) == null) {
+                log.warn("Tenant {} was not registered: the id is malformed or the registry is full", tenantId);
+            }
+        }
+        int added = registry.size() - before;
+        if (added > 0) {
+            log.info("Registered {} tenants from the tenants table", added);
+        }
+        return added;
+    }
+}
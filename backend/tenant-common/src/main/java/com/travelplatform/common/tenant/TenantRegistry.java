@@ -0,0 +1,170 @@
+package com.travelplatform.common.tenant;
+
+import java.util.Collection;
+
+/**
+ * Bounded set of tenant ids, looked up by a region of a string so a tenant
+ * can be found in a header or host name without cutting out a substring.
+ * Lookups return the registry's own instance of the id, so every request of
+ * a tenant shares one string.
+ * <p>
+ * Reads are lock-free over an open-addressing table. A lookup that misses a
+ * concurrent insert falls through to {@link #resolve}, which rechecks under
+ * the lock.
+ */
+public final class TenantRegistry {
+
+    static final int MAX_ID_LENGTH = 63;
+
+    private final int maxSize;
+    private final boolean admitUnknown;
+    private volatile String[] table;
+    private int size;
+
+    /**
+     * @param known        tenants always accepted
+     * @param maxSize      most tenants ever held; unknown ones are refused past it
+     * @param admitUnknown whether well-formed ids not in {@code known} are
+     *                     registered on first sight, or refused until
+     *                     {@link #register registered}
+     */
+    public TenantRegistry(Collection<String> known, int maxSize, boolean admitUnknown) {
+        this.maxSize = Math.max(maxSize, known.size());
+        this.admitUnknown = admitUnknown;
+        this.table = new String[tableSize(Math.max(known.size(), 8))];
+        for (String tenantId : known) {
+            if (!isValid(tenantId, 0, tenantId.length())) {
+                throw new IllegalArgumentException("Invalid tenant id: " + tenantId);
+            }
+            insert(tenantId);
+        }
+    }
+
+    /**
+     * Returns the registered id equal to {@code source[start, end)}, or
+     * {@code null}. Allocates nothing.
+     */
+    public String find(String source, int start, int end) {
+        String[] slots = table;
+        int mask = slots.length - 1;
+        int length = end - start;
+        for (int i = hash(source, start, end) & mask; ; i = (i + 1) & mask) {
+            String candidate = slots[i];
+            if (candidate == null) {
+                return null;
+            }
+            if (candidate.length() == length && candidate.regionMatches(0, source, start, length)) {
+                return candidate;
+            }
+        }
+    }
+
+    /**
+     * Like {@link #find}, but registers a well-formed unknown id when the
+     * registry admits them and has room. Returns {@code null} for a rejected id.
+     */
+    public String resolve(String source, int start, int end) {
+        String tenantId = find(source, start, end);
+        if (tenantId != null || !admitUnknown || !isValid(source, start, end)) {
+            return tenantId;
+        }
+        return admit(source, start, end);
+    }
+
+    /**
+     * Registers a well-formed id whether or not the registry admits unknown
+     * ones, for tenants vouched for elsewhere. Returns {@code null} for a
+     * malformed id or once the registry is full.
+     */
+    public String register(String tenantId) {
+        if (!isValid(tenantId, 0, tenantId.length())) {
+            return null;
+        }
+        String registered = find(tenantId, 0, tenantId.length());
+        return registered != null ? registered : admit(tenantId, 0, tenantId.length());
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Ids are DNS-label sized and limited to letters, digits, {@code -} and
+     * {@code _}, so they are safe in headers, metric tags and cache keys.
+     */
+    static boolean isValid(String source, int start, int end) {
+        int length = end - start;
+        if (length <= 0 || length > MAX_ID_LENGTH) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '-' || c == '_')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private synchronized String admit(String source, int start, int end) {
+        String tenantId = find(source, start, end);
+        if (tenantId != null) {
+            return tenantId;
+        }
+        if (size >= maxSize) {
+            return null;
+        }
+        // The one allocation per tenant, made the first time it is seen
+        tenantId = source.substring(start, end);
+        insert(tenantId);
+        return tenantId;
+    }
+
+    // Callers hold the lock or are the constructor
+    private void insert(String tenantId) {
+        String[] slots = table;
+        if ((size + 1) * 2 > slots.length) {
+            slots = rehash(slots, tableSize(size + 1));
+        }
+        if (place(slots, tenantId)) {
+            size++;
+        }
+        table = slots;
+    }
+
+    private static String[] rehash(String[] slots, int length) {
+        String[] grown = new String[length];
+        for (String tenantId : slots) {
+            if (tenantId != null) {
+                place(grown, tenantId);
+            }
+        }
+        return grown;
+    }
+
+    private static boolean place(String[] slots, String tenantId) {
+        int mask = slots.length - 1;
+        int i = hash(tenantId, 0, tenantId.length()) & mask;
+        while (slots[i] != null) {
+            if (slots[i].equals(tenantId)) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        slots[i] = tenantId;
+        return true;
+    }
+
+    private static int hash(String source, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + source.charAt(i);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    // Power of two with the load factor kept at or below one half
+    private static int tableSize(int entries) {
+        return Integer.highestOneBit(Math.max(entries * 2 - 1, 1)) << 1;
+    }
+}
@@ -0,0 +1,67 @@
+package com.travelplatform.common.tenant;
+
+/**
+ * Picks a request's tenant: the tenant header if present, else the first
+ * label of the host name when enabled, else the default tenant. Ids are
+ * checked against a {@link TenantRegistry}; {@code null} means reject.
+ */
+public class TenantResolver {
+
+    /** Request or exchange attribute holding the resolved tenant id. */
+    public static final String TENANT_ATTRIBUTE = "com.travelplatform.common.tenant.TenantResolver.TENANT";
+
+    private final TenantRegistry registry;
+    private final String headerName;
+    private final String defaultTenant;
+    private final boolean fromHost;
+
+    public TenantResolver(TenantRegistry registry, String headerName, String defaultTenant, boolean fromHost) {
+        this.registry = registry;
+        this.headerName = headerName;
+        this.defaultTenant = registry.resolve(defaultTenant, 0, defaultTenant.length());
+        if (this.defaultTenant == null) {
+            throw new IllegalArgumentException("Default tenant is not a valid tenant id: " + defaultTenant);
+        }
+        this.fromHost = fromHost;
+    }
+
+    public String headerName() {
+        return headerName;
+    }
+
+    public String defaultTenant() {
+        return defaultTenant;
+    }
+
+    /**
+     * Accepts a tenant vouched for elsewhere from now on.
+     *
+     * @return the registered id, or {@code null} if it is malformed or the registry is full
+     */
+    public String register(String tenantId) {
+        return registry.register(tenantId);
+    }
+
+    /**
+     * @param header value of the tenant header, or {@code null}
+     * @param host   the Host header, or {@code null}
+     * @return the registered tenant id, or {@code null} if it is unknown or malformed
+     */
+    public String resolve(String header, String host) {
+        if (header != null && !header.isEmpty()) {
+            return registry.resolve(header, 0, header.length());
+        }
+        if (fromHost && host != null) {
+            int dot = host.indexOf('.');
+            // A name with a subdomain, not an IPv4 address
+            if (dot > 0 && !isDigit(host.charAt(0))) {
+                return registry.resolve(host, 0, dot);
+            }
+        }
+        return defaultTenant;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,224 @@
+package com.travelplatform.common.tenant;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Hands out connections for the tenant in {@link TenantContext}: from the
+ * tenant's dedicated pool if it has one, otherwise from the shared pool.
+ * <p>
+ * The tenant is bound to the session with the bind SQL (by default
+ * {@code set_config('app.current_tenant', ?, false)}, what the row-level
+ * security policies read). The setting outlives the lease, so the binding
+ * of every pooled connection is remembered and the round trip only happens
+ * when a connection changes tenant. Connections leased without a tenant are
+ * cleared rather than left bound to the previous one.
+ */
+public class TenantRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final String NO_TENANT = "";
+    private static final String OTHER_TENANTS = "other";
+
+    private final String name;
+    private final HikariDataSource sharedPool;
+    private final Map<String, HikariDataSource> dedicatedPools;
+    private DataSource shared;
+    private Map<String, DataSource> dedicated;
+    private final String bindSql;
+    // Keyed by the physical connection, which lives as long as the pool keeps it
+    private final Map<Connection, String> boundTenants = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final MeterRegistry meterRegistry;
+    private final int maxTaggedTenants;
+    private final Map<String, TenantMeters> tenantMeters = new ConcurrentHashMap<>();
+    private final Counter binds;
+    private final Counter bindsSkipped;
+
+    public TenantRoutingDataSource(String name, HikariDataSource sharedPool, Map<String, HikariDataSource> dedicatedPools,
+                                   String bindSql, MeterRegistry meterRegistry, int maxTaggedTenants) {
+        this.name = name;
+        this.sharedPool = sharedPool;
+        this.dedicatedPools = Map.copyOf(dedicatedPools);
+        this.shared = sharedPool;
+        this.dedicated = Map.copyOf(dedicatedPools);
+        this.bindSql = bindSql == null || bindSql.isBlank() ? null : bindSql;
+        this.meterRegistry = meterRegistry;
+        this.maxTaggedTenants = maxTaggedTenants;
+        this.binds = bindCounter("bound");
+        this.bindsSkipped = bindCounter("skipped");
+    }
+
+    /**
+     * Wraps each pool, e.g. with a concurrency limit; called with the pool's
+     * metric name and the pool itself.
+     */
+    public void decoratePools(BiFunction<String, HikariDataSource, DataSource> decorator) {
+        this.shared = decorator.apply(name, sharedPool);
+        Map<String, DataSource> decorated = new HashMap<>();
+        dedicatedPools.forEach((tenantId, pool) -> decorated.put(tenantId, decorator.apply(poolName(tenantId), pool)));
+        this.dedicated = Map.copyOf(decorated);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return lease(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return lease(username, password);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return (T) this;
+        }
+        // Lets pool metrics and health checks find the shared Hikari pool
+        return sharedPool.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || sharedPool.isWrapperFor(iface);
+    }
+
+    @Override
+    public void close() {
+        dedicatedPools.values().forEach(HikariDataSource::close);
+        sharedPool.close();
+    }
+
+    private Connection lease(String username, String password) throws SQLException {
+        String tenantId = TenantContext.current();
+        DataSource target = tenantId == null ? shared : dedicated.getOrDefault(tenantId, shared);
+        Connection connection = username == null ? target.getConnection() : target.getConnection(username, password);
+        try {
+            bind(connection, tenantId == null ? NO_TENANT : tenantId);
+        } catch (SQLException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+        return tracked(connection, meters(tenantId, target != shared));
+    }
+
+    private void bind(Connection connection, String tenantId) throws SQLException {
+        if (bindSql == null) {
+            return;
+        }
+        Connection physical = connection.unwrap(Connection.class);
+        // A session never bound carries no tenant, which is what NO_TENANT asks for
+        if (tenantId.equals(boundTenants.getOrDefault(physical, NO_TENANT))) {
+            bindsSkipped.increment();
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(bindSql)) {
+            statement.setString(1, tenantId);
+            statement.execute();
+        }
+        // A setting made inside a transaction is undone if that transaction rolls back
+        if (!connection.getAutoCommit()) {
+            connection.commit();
+        }
+        boundTenants.put(physical, tenantId);
+        binds.increment();
+    }
+
+    private Connection tracked(Connection connection, TenantMeters meters) {
+        meters.active.incrementAndGet();
+        long leasedAt = System.nanoTime();
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "close" -> {
+                        if (closed.compareAndSet(false, true)) {
+                            meters.active.decrementAndGet();
+                            meters.lease.record(System.nanoTime() - leasedAt, TimeUnit.NANOSECONDS);
+                        }
+                    }
+                    case "equals" -> {
+                        return proxy == args[0];
+                    }
+                    case "hashCode" -> {
+                        return System.identityHashCode(proxy);
+                    }
+                    default -> {
+                        // Everything else goes straight to the pooled connection
+                    }
+                }
+                try {
+                    return method.invoke(connection, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            });
+    }
+
+    private TenantMeters meters(String tenantId, boolean dedicatedPool) {
+        String tenant = tenantId == null ? "none" : tenantId;
+        TenantMeters meters = tenantMeters.get(tenant);
+        if (meters != null) {
+            return meters;
+        }
+        // Dedicated tenants always get their own series; the rest share one past the cap
+        if (!dedicatedPool && tenantMeters.size() >= maxTaggedTenants) {
+            tenant = OTHER_TENANTS;
+        }
+        String pool = dedicatedPool ? poolName(tenantId) : name;
+        return tenantMeters.computeIfAbsent(tenant, t -> new TenantMeters(pool, t));
+    }
+
+    private String poolName(String tenantId) {
+        return name + ":" + tenantId;
+    }
+
+    private Counter bindCounter(String outcome) {
+        return Counter.builder("tenant.datasource.binds")
+            .description("Connection leases that had to bind the tenant to the session, or could skip it")
+            .tag("datasource", name)
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    private final class TenantMeters {
+
+        private final AtomicInteger active = new AtomicInteger();
+        private final Timer lease;
+
+        private TenantMeters(String pool, String tenant) {
+            this.lease = Timer.builder("tenant.datasource.lease")
+                .description("How long a tenant holds a pooled connection")
+                .tag("pool", pool)
+                .tag("tenant", tenant)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+            Gauge.builder("tenant.datasource.active", active, AtomicInteger::get)
+                .description("Connections currently leased by a tenant")
+                .tag("pool", pool)
+                .tag("tenant", tenant)
+                .register(meterRegistry);
+        }
+    }
+}
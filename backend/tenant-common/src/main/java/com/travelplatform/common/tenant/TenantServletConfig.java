@@ -0,0 +1,45 @@
+package com.travelplatform.common.tenant;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Tenant resolution for the servlet services: the tenants of the
+ * configuration and of the {@code tenants} table, checked by a
+ * {@link TenantServletFilter} on every request.
+ */
+@Configuration
+public class TenantServletConfig {
+
+    @Bean
+    public TenantRegistry tenantRegistry(@Value("${tenant.resolution.known:default}") List<String> known,
+                                         @Value("${tenant.resolution.max-tenants:10000}") int maxTenants,
+                                         @Value("${tenant.resolution.admit-unknown:false}") boolean admitUnknown) {
+        return new TenantRegistry(known, maxTenants, admitUnknown);
+    }
+
+    @Bean
+    public TenantDirectory tenantDirectory(DataSource dataSource, TenantRegistry tenantRegistry) {
+        TenantDirectory directory = new TenantDirectory(dataSource, tenantRegistry);
+        // Before the first request, so onboarded tenants are never refused at startup
+        directory.refresh();
+        return directory;
+    }
+
+    @Bean
+    public TenantResolver tenantResolver(TenantRegistry tenantRegistry,
+                                         @Value("${tenant.header-name:X-Tenant-ID}") String headerName,
+                                         @Value("${tenant.default-tenant:default}") String defaultTenant,
+                                         @Value("${tenant.resolution.from-host:false}") boolean fromHost) {
+        return new TenantResolver(tenantRegistry, headerName, defaultTenant, fromHost);
+    }
+
+    @Bean
+    public TenantServletFilter tenantServletFilter(TenantResolver tenantResolver) {
+        return new TenantServletFilter(tenantResolver);
+    }
+}
@@ -0,0 +1,49 @@
+package com.travelplatform.common.tenant;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Resolves the tenant once per request for servlet services, stores it in
+ * the {@link TenantResolver#TENANT_ATTRIBUTE} request attribute and in
+ * {@link TenantContext}, and answers 400 for an unknown tenant before any
+ * other work is done.
+ */
+public class TenantServletFilter extends OncePerRequestFilter implements Ordered {
+
+    private final TenantResolver resolver;
+
+    public TenantServletFilter(TenantResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String tenantId = resolver.resolve(request.getHeader(resolver.headerName()), request.getHeader(HttpHeaders.HOST));
+        if (tenantId == null) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown tenant");
+            return;
+        }
+        request.setAttribute(TenantResolver.TENANT_ATTRIBUTE, tenantId);
+        TenantContext.set(tenantId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        // Right after character encoding, ahead of security
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+}
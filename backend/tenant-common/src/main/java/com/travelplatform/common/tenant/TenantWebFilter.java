@@ -0,0 +1,71 @@
+package com.travelplatform.common.tenant;
+
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+
+/**
+ * Resolves the tenant once per exchange for the reactive gateway, stores it in
+ * the {@link TenantResolver#TENANT_ATTRIBUTE} exchange attribute, forwards a
+ * tenant taken from the host name as the tenant header, and answers 400 for
+ * an unknown tenant ahead of security and routing.
+ * <p>
+ * An unknown tenant is registered when the request itself vouches for it,
+ * as a valid access token issued for that tenant does, so only tenants with
+ * real users take up the registry's room.
+ */
+public class TenantWebFilter implements WebFilter, Ordered {
+
+    private final TenantResolver resolver;
+    private final Function<ServerHttpRequest, String> vouchedTenant;
+
+    public TenantWebFilter(TenantResolver resolver) {
+        this(resolver, request -> null);
+    }
+
+    /**
+     * @param vouchedTenant the tenant a request proves it belongs to, or {@code null}
+     */
+    public TenantWebFilter(TenantResolver resolver, Function<ServerHttpRequest, String> vouchedTenant) {
+        this.resolver = resolver;
+        this.vouchedTenant = vouchedTenant;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        String tenantId = resolver.resolve(headers.getFirst(resolver.headerName()), headers.getFirst(HttpHeaders.HOST));
+        if (tenantId == null) {
+            String vouched = vouchedTenant.apply(exchange.getRequest());
+            if (vouched != null && resolver.register(vouched) != null) {
+                tenantId = resolver.resolve(headers.getFirst(resolver.headerName()), headers.getFirst(HttpHeaders.HOST));
+            }
+        }
+        if (tenantId == null) {
+            exchange.getResponse().setStatusCode(HttpStatus.BAD_REQUEST);
+            return exchange.getResponse().setComplete();
+        }
+        exchange.getAttributes().put(TenantResolver.TENANT_ATTRIBUTE, tenantId);
+        // Resolved from the host: forwarded so services see the same tenant. The default is
+        // left out so that a token's own tenant still applies to requests without one
+        if (!headers.containsKey(resolver.headerName()) && !tenantId.equals(resolver.defaultTenant())) {
+            String resolved = tenantId;
+            return chain.filter(exchange.mutate()
+                .request(request -> request.headers(h -> h.set(resolver.headerName(), resolved)))
+                .build());
+        }
+        return chain.filter(exchange);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -1,11 +1,19 @@
 package com.travelplatform.travelservice;
 
+import com.travelplatform.common.cache.RedisListenerConfig;
+import com.travelplatform.common.concurrency.VirtualThreadConfig;
+import com.travelplatform.common.tenant.TenantDataSourceConfig;
+import com.travelplatform.common.tenant.TenantServletConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableDiscoveryClient
+@EnableScheduling
+@Import({TenantServletConfig.class, TenantDataSourceConfig.class, VirtualThreadConfig.class, RedisListenerConfig.class})
 public class TravelServiceApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,53 @@
+package com.travelplatform.travelservice.config;
+
+import com.travelplatform.common.cache.TwoTierCache;
+import com.travelplatform.common.cache.TwoTierCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+
+/**
+ * Spring caches are two-tier: a bounded in-process L1 in front of the Redis
+ * caches configured under {@code spring.cache.redis}, kept coherent across
+ * instances over pub/sub.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    @Bean
+    public TwoTierCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                            StringRedisTemplate redisTemplate,
+                                            RedisMessageListenerContainer redisMessageListenerContainer,
+                                            MeterRegistry meterRegistry,
+                                            @Value("${spring.cache.redis.time-to-live:5m}") Duration ttl,
+                                            @Value("${spring.cache.redis.key-prefix:travel-service:}") String keyPrefix,
+                                            @Value("${cache.l1.max-size:10000}") long l1MaxSize,
+                                            @Value("${cache.l1.ttl:60s}") Duration l1Ttl,
+                                            @Value("${cache.l1.refresh-after:45s}") Duration l1RefreshAfter) {
+        RedisCacheConfiguration defaults = RedisCacheConfiguration.defaultCacheConfig(getClass().getClassLoader())
+            .entryTtl(ttl)
+            .disableCachingNullValues()
+            .prefixCacheNameWith(keyPrefix);
+        RedisCacheManager redis = RedisCacheManager.builder(connectionFactory)
+            .cacheDefaults(defaults)
+            .build();
+        redis.initializeCaches();
+
+        TwoTierCacheManager cacheManager = new TwoTierCacheManager(redis,
+            new TwoTierCache.L1Spec(l1MaxSize, l1Ttl, l1RefreshAfter), redisTemplate, keyPrefix + "cache-invalidation",
+            meterRegistry);
+        redisMessageListenerContainer.addMessageListener(cacheManager, new ChannelTopic(cacheManager.getChannel()));
+        return cacheManager;
+    }
+}
@@ -2,6 +2,7 @@ package com.travelplatform.travelservice.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.core.userdetails.User;
@@ -34,6 +35,12 @@ public class SecurityConfig {
                 .requestMatchers("/actuator/**").permitAll()
                 // Allow health check
                 .requestMatchers("/health").permitAll()
+                // Failed async requests (e.g. a confirm whose batch failed) are rendered here
+                .requestMatchers("/error").permitAll()
+                // Catalog reads are authenticated by the gateway
+                .requestMatchers(HttpMethod.GET, "/api/v1/travels/**", "/api/v1/search/**").permitAll()
+                // Reservations are scoped by the X-User-Id the gateway derives from the access token
+                .requestMatchers("/api/v1/travels/reservations/**").permitAll()
                 // Require authentication for everything else
                 .anyRequest().authenticated()
             )
@@ -0,0 +1,76 @@
+package com.travelplatform.travelservice.controller;
+
+import com.travelplatform.common.tenant.TenantResolver;
+import com.travelplatform.travelservice.dto.ReservationDto;
+import com.travelplatform.travelservice.dto.ReservationRequestDto;
+import com.travelplatform.travelservice.service.ReservationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/api/v1/travels/reservations")
+@RequiredArgsConstructor
+@Tag(name = "Reservations", description = "Seat reservation and booking APIs")
+public class ReservationController {
+
+    private final ReservationService reservationService;
+
+    @PostMapping
+    @Operation(summary = "Hold seats", description = "Hold seats on a package for a travel date until the reservation is confirmed or expires")
+    public ResponseEntity<ReservationDto> hold(
+            @RequestHeader(value = "X-User-Id", required = false) String userId,
+            @RequestAttribute(TenantResolver.TENANT_ATTRIBUTE) String tenantId,
+            @Valid @RequestBody ReservationRequestDto request) {
+        ReservationDto reservation = reservationService.hold(tenantId, owner(userId), request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(reservation);
+    }
+
+    @PostMapping("/{id}/confirm")
+    @Operation(summary = "Confirm reservation", description = "Turn a held reservation into a confirmed booking")
+    public CompletableFuture<ResponseEntity<ReservationDto>> confirm(
+            @RequestHeader(value = "X-User-Id", required = false) String userId,
+            @RequestAttribute(TenantResolver.TENANT_ATTRIBUTE) String tenantId,
+            @PathVariable UUID id) {
+        // Completes when the booking's batch commits; the request thread is released meanwhile
+        return reservationService.confirm(tenantId, owner(userId), id)
+            .thenApply(booking -> ResponseEntity.status(HttpStatus.CREATED).body(booking));
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Cancel reservation", description = "Release the seats of a held reservation")
+    public ResponseEntity<Void> cancel(
+            @RequestHeader(value = "X-User-Id", required = false) String userId,
+            @RequestAttribute(TenantResolver.TENANT_ATTRIBUTE) String tenantId,
+            @PathVariable UUID id) {
+        reservationService.cancel(tenantId, owner(userId), id);
+        return ResponseEntity.noContent().build();
+    }
+
+    private static UUID owner(String userId) {
+        // X-User-Id is set by the gateway from a verified access token
+        if (userId == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+        try {
+            return UUID.fromString(userId);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid user id");
+        }
+    }
+}
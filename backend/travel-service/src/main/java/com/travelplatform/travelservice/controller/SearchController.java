@@ -0,0 +1,66 @@
+package com.travelplatform.travelservice.controller;
+
+import com.travelplatform.common.tenant.TenantResolver;
+import com.travelplatform.travelservice.dto.PackageSearchCriteria;
+import com.travelplatform.travelservice.dto.PackageSearchResultDto;
+import com.travelplatform.travelservice.search.PackageSearchIndex;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/search")
+@RequiredArgsConstructor
+@Validated
+@Tag(name = "Search", description = "Travel package search APIs")
+public class SearchController {
+
+    private final PackageSearchIndex packageSearchIndex;
+
+    @GetMapping("/packages")
+    @Operation(summary = "Search travel packages",
+        description = "Full-text search with filters, sorting and facet counts, served from the in-memory index")
+    public ResponseEntity<PackageSearchResultDto> searchPackages(
+            @RequestAttribute(TenantResolver.TENANT_ATTRIBUTE) String tenantId,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) List<String> category,
+            @RequestParam(required = false) String destination,
+            @RequestParam(required = false) @DecimalMin("0") BigDecimal minPrice,
+            @RequestParam(required = false) @DecimalMin("0") BigDecimal maxPrice,
+            @RequestParam(required = false) @Min(0) Integer minDuration,
+            @RequestParam(required = false) @Min(0) Integer maxDuration,
+            @RequestParam(required = false) @Min(1) Integer travelers,
+            @RequestParam(defaultValue = "NEWEST") PackageSearchCriteria.Sort sort,
+            @RequestParam(defaultValue = "0") @Min(0) @Max(1000) int offset,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit) {
+        PackageSearchCriteria criteria = PackageSearchCriteria.builder()
+            .tenantId(tenantId)
+            .query(q)
+            .categories(category)
+            .destination(destination)
+            .minPrice(minPrice)
+            .maxPrice(maxPrice)
+            .minDuration(minDuration)
+            .maxDuration(maxDuration)
+            .travelers(travelers)
+            .sort(sort)
+            .offset(offset)
+            .limit(limit)
+            .build();
+        return ResponseEntity.ok().cacheControl(TravelController.CATALOG_CACHE_CONTROL)
+            .body(packageSearchIndex.search(criteria));
+    }
+}
@@ -1,20 +1,118 @@
 package com.travelplatform.travelservice.controller;
 
+import com.travelplatform.common.security.PermissionMask;
+import com.travelplatform.common.tenant.TenantResolver;
+import com.travelplatform.travelservice.dto.CursorPageDto;
+import com.travelplatform.travelservice.dto.TravelPackageDto;
+import com.travelplatform.travelservice.dto.TravelPackageSearchCriteria;
+import com.travelplatform.travelservice.dto.TravelPackageSummaryDto;
+import com.travelplatform.travelservice.service.PackageExportService;
+import com.travelplatform.travelservice.service.TravelPackageService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/travels")
+@RequiredArgsConstructor
+@Validated
 @Tag(name = "Travel", description = "Travel management APIs")
 public class TravelController {
 
+    // Set explicitly so Spring Security's no-store default leaves catalog reads to the gateway's response cache
+    static final CacheControl CATALOG_CACHE_CONTROL = CacheControl.maxAge(Duration.ofSeconds(30));
+
+    private final TravelPackageService travelPackageService;
+    private final PackageExportService packageExportService;
+
     @GetMapping("/health")
     @Operation(summary = "Health check", description = "Check if the service is healthy")
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("Travel Service is healthy!");
     }
-} 
\ No newline at end of file
+
+    @GetMapping("/packages")
+    @Operation(summary = "List travel packages",
+        description = "List packages for the tenant, filtered by destination, price range and active flag, using cursor pagination")
+    public ResponseEntity<CursorPageDto<TravelPackageSummaryDto>> listPackages(
+            @RequestAttribute(TenantResolver.TENANT_ATTRIBUTE) String tenantId,
+            @RequestParam(required = false) String destination,
+            @RequestParam(required = false) @DecimalMin("0") BigDecimal minPrice,
+            @RequestParam(required = false) @DecimalMin("0") BigDecimal maxPrice,
+            @RequestParam(defaultValue = "true") Boolean active,
+            @RequestParam(defaultValue = "NEWEST") TravelPackageSearchCriteria.Sort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit) {
+        TravelPackageSearchCriteria criteria = TravelPackageSearchCriteria.builder()
+            .tenantId(tenantId)
+            .destination(destination)
+            .minPrice(minPrice)
+            .maxPrice(maxPrice)
+            .active(active)
+            .sort(sort)
+            .limit(limit)
+            .build();
+        return ResponseEntity.ok().cacheControl(CATALOG_CACHE_CONTROL)
+            .body(travelPackageService.listPackages(criteria, cursor));
+    }
+
+    @GetMapping("/packages/export")
+    @Operation(summary = "Export travel packages",
+        description = "Stream every package of the tenant, active or not, oldest first, as newline-delimited JSON. "
+            + "Pass the id of the last package received as 'after' to resume an interrupted export")
+    public void exportPackages(
+            @RequestHeader(value = "X-User-Permissions", required = false) String permissions,
+            @RequestAttribute(TenantResolver.TENANT_ATTRIBUTE) String tenantId,
+            @RequestParam(required = false) UUID after,
+            HttpServletResponse response) throws IOException {
+        // X-User-Permissions is the hex permission mask the gateway derives from the access token
+        if (permissions == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+        long granted;
+        try {
+            granted = Long.parseUnsignedLong(permissions, 16);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid permissions");
+        }
+        if (!PermissionMask.hasAll(granted, PermissionMask.EXPORT)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+        }
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        // Keeps the gateway's response cache from buffering the stream
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        packageExportService.export(tenantId, after, response.getOutputStream());
+    }
+
+    @GetMapping("/packages/{id}")
+    @Operation(summary = "Get travel package", description = "Get a single travel package by id")
+    public ResponseEntity<TravelPackageDto> getPackage(
+            @RequestAttribute(TenantResolver.TENANT_ATTRIBUTE) String tenantId,
+            @PathVariable UUID id) {
+        return ResponseEntity.ok().cacheControl(CATALOG_CACHE_CONTROL)
+            .body(travelPackageService.getPackage(id, tenantId));
+    }
+}
@@ -0,0 +1,36 @@
+package com.travelplatform.travelservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PackageSearchCriteria {
+
+    private String tenantId;
+    private String query;
+    private List<String> categories;
+    private String destination;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Integer minDuration;
+    private Integer maxDuration;
+    private Integer travelers;
+
+    @Builder.Default
+    private Sort sort = Sort.NEWEST;
+
+    private int offset;
+    private int limit;
+
+    public enum Sort {
+        NEWEST, PRICE_ASC, PRICE_DESC, DURATION_ASC
+    }
+}
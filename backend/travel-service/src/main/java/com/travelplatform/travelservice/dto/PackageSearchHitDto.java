@@ -0,0 +1,24 @@
+package com.travelplatform.travelservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PackageSearchHitDto {
+
+    private UUID id;
+    private String title;
+    private String destination;
+    private String category;
+    private BigDecimal price;
+    private Integer durationDays;
+    private Integer maxTravelers;
+}
@@ -0,0 +1,22 @@
+package com.travelplatform.travelservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PackageSearchResultDto {
+
+    private int total;
+    private List<PackageSearchHitDto> items;
+    // Facet name -> bucket label -> number of matching packages
+    private Map<String, Map<String, Integer>> facets;
+    private long tookMicros;
+}
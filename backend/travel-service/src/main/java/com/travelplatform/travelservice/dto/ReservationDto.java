@@ -0,0 +1,27 @@
+package com.travelplatform.travelservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationDto {
+
+    // Also the id of the booking once confirmed
+    private UUID id;
+    private UUID travelPackageId;
+    private LocalDate bookingDate;
+    private Integer travelersCount;
+    private BigDecimal totalPrice;
+    private String status;
+    private Instant expiresAt;
+}
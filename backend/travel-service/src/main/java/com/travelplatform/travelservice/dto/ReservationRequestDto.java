@@ -0,0 +1,32 @@
+package com.travelplatform.travelservice.dto;
+
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationRequestDto {
+
+    @NotNull(message = "Travel package is required")
+    private UUID travelPackageId;
+
+    @NotNull(message = "Booking date is required")
+    @FutureOrPresent(message = "Booking date must not be in the past")
+    private LocalDate bookingDate;
+
+    @NotNull(message = "Travelers count is required")
+    @Min(value = 1, message = "At least one traveler is required")
+    @Max(value = 50, message = "At most 50 travelers per booking")
+    private Integer travelersCount;
+}
@@ -0,0 +1,47 @@
+package com.travelplatform.travelservice.dto;
+
+import com.travelplatform.travelservice.entity.TravelPackage;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TravelPackageDto implements Serializable {
+
+    private UUID id;
+    private String title;
+    private String description;
+    private String destination;
+    private String category;
+    private BigDecimal price;
+    private Integer durationDays;
+    private Integer maxTravelers;
+    private Boolean isActive;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public static TravelPackageDto from(TravelPackage travelPackage) {
+        return TravelPackageDto.builder()
+            .id(travelPackage.getId())
+            .title(travelPackage.getTitle())
+            .description(travelPackage.getDescription())
+            .destination(travelPackage.getDestination())
+            .category(travelPackage.getCategory())
+            .price(travelPackage.getPrice())
+            .durationDays(travelPackage.getDurationDays())
+            .maxTravelers(travelPackage.getMaxTravelers())
+            .isActive(travelPackage.getIsActive())
+            .createdAt(travelPackage.getCreatedAt())
+            .updatedAt(travelPackage.getUpdatedAt())
+            .build();
+    }
+}
@@ -0,0 +1,37 @@
+package com.travelplatform.travelservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TravelPackageSearchCriteria {
+
+    private String tenantId;
+    private String destination;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Boolean active;
+
+    @Builder.Default
+    private Sort sort = Sort.NEWEST;
+
+    private int limit;
+
+    // Seek position from the previous page; only the field matching the sort is set
+    private LocalDateTime afterCreatedAt;
+    private BigDecimal afterPrice;
+    private UUID afterId;
+
+    public enum Sort {
+        NEWEST, PRICE_ASC, PRICE_DESC
+    }
+}
@@ -0,0 +1,31 @@
+package com.travelplatform.travelservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * List-view projection of a travel package. Selected directly by the catalog
+ * query, so the description column is never read for list pages.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TravelPackageSummaryDto {
+
+    private UUID id;
+    private String title;
+    private String destination;
+    private String category;
+    private BigDecimal price;
+    private Integer durationDays;
+    private Integer maxTravelers;
+    private Boolean isActive;
+    private LocalDateTime createdAt;
+}
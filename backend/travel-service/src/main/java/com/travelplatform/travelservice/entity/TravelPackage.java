@@ -0,0 +1,85 @@
+package com.travelplatform.travelservice.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "travel_packages", indexes = {
+    @Index(name = "idx_travel_packages_destination", columnList = "destination"),
+    @Index(name = "idx_travel_packages_price", columnList = "price"),
+    @Index(name = "idx_travel_packages_is_active", columnList = "is_active"),
+    @Index(name = "idx_travel_packages_tenant_id", columnList = "tenant_id"),
+    @Index(name = "idx_travel_packages_created_at", columnList = "created_at"),
+    @Index(name = "idx_travel_packages_updated_at", columnList = "updated_at"),
+    // Keyset pagination: equality columns first, then the sort key and id tie-breaker
+    @Index(name = "idx_travel_packages_tenant_active_created", columnList = "tenant_id, is_active, created_at, id"),
+    @Index(name = "idx_travel_packages_tenant_active_price", columnList = "tenant_id, is_active, price, id"),
+    @Index(name = "idx_travel_packages_tenant_destination_price", columnList = "tenant_id, destination, price, id"),
+    @Index(name = "idx_travel_packages_tenant_created", columnList = "tenant_id, created_at, id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TravelPackage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @NotBlank
+    @Size(max = 255)
+    @Column(name = "title", nullable = false)
+    private String title;
+
+    @Column(name = "description", columnDefinition = "TEXT")
+    private String description;
+
+    @NotBlank
+    @Size(max = 255)
+    @Column(name = "destination", nullable = false)
+    private String destination;
+
+    @Size(max = 50)
+    @Column(name = "category", length = 50)
+    private String category;
+
+    @NotNull
+    @Column(name = "price", nullable = false, precision = 10, scale = 2)
+    private BigDecimal price;
+
+    @NotNull
+    @Column(name = "duration_days", nullable = false)
+    private Integer durationDays;
+
+    @NotNull
+    @Column(name = "max_travelers", nullable = false)
+    private Integer maxTravelers;
+
+    @Builder.Default
+    @Column(name = "is_active")
+    private Boolean isActive = true;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "tenant_id", nullable = false, length = 100)
+    private String tenantId;
+}
@@ -0,0 +1,17 @@
+package com.travelplatform.travelservice.outbox;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A row of {@code outbox_events}; {@code id} and {@code createdAt} are assigned
+ * by the database.
+ */
+public record OutboxEvent(Long id,
+                          String aggregateType,
+                          UUID aggregateId,
+                          String eventType,
+                          String tenantId,
+                          String payload,
+                          LocalDateTime createdAt) {
+}
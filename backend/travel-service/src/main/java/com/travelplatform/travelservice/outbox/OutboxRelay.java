@@ -0,0 +1,211 @@
+package com.travelplatform.travelservice.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import com.travelplatform.travelservice.service.TravelPackageService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains {@code outbox_events} to Kafka in batches.
+ * <p>
+ * One instance relays at a time: each batch transaction first takes the row
+ * of {@code outbox_relay_lock} with {@code SKIP LOCKED}, and an instance that
+ * finds it taken leaves the batch to the holder. Batches would otherwise be
+ * split across instances and two events of one aggregate could reach Kafka in
+ * either order. A batch is sent without waiting between records so the
+ * producer can pipeline them, and deleted in the same transaction once every
+ * send is acknowledged. A failed batch is rolled back and sent again later,
+ * so delivery is at-least-once; the {@code event-id} header lets consumers
+ * dedupe.
+ * <p>
+ * Package events also evict the package from {@link TravelPackageService#PACKAGE_CACHE};
+ * packages change through any writer of {@code travel_packages} and the outbox
+ * row is the only notice this service gets.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private static final String LOCK_RELAY = "SELECT id FROM outbox_relay_lock WHERE id = 1 FOR UPDATE SKIP LOCKED";
+
+    private static final String SELECT_BATCH = "SELECT id, aggregate_type, aggregate_id, event_type, tenant_id, "
+        + "payload, created_at FROM outbox_events ORDER BY id LIMIT ?";
+
+    private static final String DELETE_EVENT = "DELETE FROM outbox_events WHERE id = ?";
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final Cache packageCache;
+    private final Map<String, String> topics;
+    private final String defaultTopic;
+    private final int batchSize;
+    private final Duration sendTimeout;
+
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final DistributionSummary batchSizes;
+    private final Timer relayTimer;
+    private final Counter published;
+    private final Counter failures;
+
+    public OutboxRelay(DataSource dataSource,
+                       PlatformTransactionManager transactionManager,
+                       KafkaTemplate<String, String> kafkaTemplate,
+                       CacheManager cacheManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${outbox.topics.booking:travel.bookings}") String bookingTopic,
+                       @Value("${outbox.topics.package:travel.packages}") String packageTopic,
+                       @Value("${outbox.topics.default:travel.events}") String defaultTopic,
+                       @Value("${outbox.relay.batch-size:1000}") int batchSize,
+                       @Value("${outbox.relay.send-timeout:10s}") Duration sendTimeout) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.kafkaTemplate = kafkaTemplate;
+        this.packageCache = cacheManager.getCache(TravelPackageService.PACKAGE_CACHE);
+        this.topics = Map.of(OutboxWriter.BOOKING, bookingTopic, OutboxWriter.PACKAGE, packageTopic);
+        this.defaultTopic = defaultTopic;
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+        this.batchSizes = DistributionSummary.builder("travel.outbox.batch.size")
+            .description("Outbox events published per batch")
+            .register(meterRegistry);
+        this.relayTimer = Timer.builder("travel.outbox.relay")
+            .description("Time to publish and delete one outbox batch")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+        this.published = Counter.builder("travel.outbox.published")
+            .description("Outbox events acknowledged by Kafka")
+            .register(meterRegistry);
+        this.failures = Counter.builder("travel.outbox.failures")
+            .description("Outbox batches rolled back after a failed publish")
+            .register(meterRegistry);
+        Gauge.builder("travel.outbox.lag", lagMillis, lag -> lag.get() / 1000.0)
+            .description("Age in seconds of the oldest unpublished outbox event")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-interval:PT0.2S}")
+    public void relay() {
+        try {
+            // Keep going while batches come back full instead of waiting for the next poll
+            while (relayBatch() == batchSize) {
+                log.debug("Outbox backlog, relaying next batch");
+            }
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Outbox relay failed: {}", e.getMessage());
+        }
+    }
+
+    int relayBatch() {
+        Integer relayed = transactionTemplate.execute(status -> {
+            if (jdbcTemplate.queryForList(LOCK_RELAY, Integer.class).isEmpty()) {
+                // Another instance is relaying; held until its transaction ends
+                return 0;
+            }
+            List<OutboxEvent> events = jdbcTemplate.query(SELECT_BATCH, (rs, rowNum) -> event(rs), batchSize);
+            if (events.isEmpty()) {
+                lagMillis.set(0);
+                return 0;
+            }
+            long start = System.nanoTime();
+            lagMillis.set(Math.max(0, System.currentTimeMillis()
+                - events.get(0).createdAt().atZone(ZONE).toInstant().toEpochMilli()));
+
+            CompletableFuture<?>[] sends = new CompletableFuture<?>[events.size()];
+            for (int i = 0; i < sends.length; i++) {
+                OutboxEvent event = events.get(i);
+                // The change is committed once its event is visible, so evict before Kafka can hold it up
+                evict(event);
+                sends[i] = send(event);
+            }
+            await(CompletableFuture.allOf(sends));
+
+            jdbcTemplate.batchUpdate(DELETE_EVENT, events, events.size(),
+                (ps, event) -> ps.setLong(1, event.id()));
+            relayTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batchSizes.record(events.size());
+            published.increment(events.size());
+            return events.size();
+        });
+        return relayed == null ? 0 : relayed;
+    }
+
+    private void evict(OutboxEvent event) {
+        if (packageCache != null && OutboxWriter.PACKAGE.equals(event.aggregateType())) {
+            try {
+                packageCache.evict(event.tenantId() + ':' + event.aggregateId());
+            } catch (RuntimeException e) {
+                // Redis being down must not hold up the relay; the entry still expires
+                log.warn("Package {} not evicted: {}", event.aggregateId(), e.getMessage());
+            }
+        }
+    }
+
+    private CompletableFuture<SendResult<String, String>> send(OutboxEvent event) {
+        ProducerRecord<String, String> record = new ProducerRecord<>(
+            topics.getOrDefault(event.aggregateType(), defaultTopic),
+            // Keyed by aggregate so events of one booking or package stay ordered
+            event.aggregateId().toString(),
+            event.payload());
+        record.headers()
+            .add("event-id", Long.toString(event.id()).getBytes(StandardCharsets.UTF_8))
+            .add("event-type", event.eventType().getBytes(StandardCharsets.UTF_8))
+            .add("tenant-id", event.tenantId().getBytes(StandardCharsets.UTF_8));
+        return kafkaTemplate.send(record);
+    }
+
+    private void await(CompletableFuture<Void> sends) {
+        try {
+            sends.get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing outbox batch", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Outbox batch not acknowledged: " + e.getMessage(), e);
+        }
+    }
+
+    private static OutboxEvent event(ResultSet rs) throws SQLException {
+        return new OutboxEvent(
+            rs.getLong("id"),
+            rs.getString("aggregate_type"),
+            rs.getObject("aggregate_id", UUID.class),
+            rs.getString("event_type"),
+            rs.getString("tenant_id"),
+            rs.getString("payload"),
+            rs.getTimestamp("created_at").toLocalDateTime());
+    }
+}
@@ -0,0 +1,55 @@
+package com.travelplatform.travelservice.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Appends events to {@code outbox_events} inside the caller's transaction, so an
+ * event exists exactly when the change it describes was committed.
+ * {@link OutboxRelay} publishes them to Kafka afterwards.
+ */
+@Component
+public class OutboxWriter {
+
+    public static final String BOOKING = "booking";
+    public static final String PACKAGE = "package";
+
+    private static final String INSERT_EVENT = "INSERT INTO outbox_events (aggregate_type, aggregate_id, "
+        + "event_type, tenant_id, payload) VALUES (?, ?, ?, ?, CAST(? AS jsonb))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public OutboxWriter(DataSource dataSource, ObjectMapper objectMapper) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.objectMapper = objectMapper;
+    }
+
+    public OutboxEvent event(String aggregateType, UUID aggregateId, String eventType, String tenantId, Object payload) {
+        try {
+            return new OutboxEvent(null, aggregateType, aggregateId, eventType, tenantId,
+                objectMapper.writeValueAsString(payload), null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unserializable " + eventType + " payload", e);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(List<OutboxEvent> events) {
+        jdbcTemplate.batchUpdate(INSERT_EVENT, events, events.size(), (ps, event) -> {
+            ps.setString(1, event.aggregateType());
+            ps.setObject(2, event.aggregateId());
+            ps.setString(3, event.eventType());
+            ps.setString(4, event.tenantId());
+            ps.setString(5, event.payload());
+        });
+    }
+}
@@ -0,0 +1,26 @@
+package com.travelplatform.travelservice.repository;
+
+import com.travelplatform.travelservice.dto.TravelPackageDto;
+import com.travelplatform.travelservice.dto.TravelPackageSearchCriteria;
+import com.travelplatform.travelservice.dto.TravelPackageSummaryDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+public interface TravelPackageCatalogRepository {
+
+    /**
+     * Returns up to {@code criteria.limit} summaries strictly after the seek
+     * position in {@code criteria}, ordered by the requested sort and then id.
+     */
+    List<TravelPackageSummaryDto> findPage(TravelPackageSearchCriteria criteria);
+
+    /**
+     * Hands every package of the tenant, oldest first and strictly after the
+     * given position when set, to {@code sink} as rows are read. Must run in
+     * a transaction, which holds the cursor open until the last row.
+     */
+    void exportAll(String tenantId, LocalDateTime afterCreatedAt, UUID afterId, Consumer<TravelPackageDto> sink);
+}
@@ -0,0 +1,118 @@
+package com.travelplatform.travelservice.repository;
+
+import com.travelplatform.travelservice.dto.TravelPackageDto;
+import com.travelplatform.travelservice.dto.TravelPackageSearchCriteria;
+import com.travelplatform.travelservice.dto.TravelPackageSummaryDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Keyset catalog query. Only the filters that were actually supplied end up in
+ * the WHERE clause, so Postgres plans each shape against the matching composite
+ * index instead of a catch-all {@code (:x IS NULL OR ...)} plan.
+ */
+class TravelPackageCatalogRepositoryImpl implements TravelPackageCatalogRepository {
+
+    private static final String SELECT = "select new com.travelplatform.travelservice.dto.TravelPackageSummaryDto("
+        + "p.id, p.title, p.destination, p.category, p.price, p.durationDays, p.maxTravelers, p.isActive, p.createdAt) "
+        + "from TravelPackage p where p.tenantId = :tenantId";
+
+    private static final String EXPORT = "select new com.travelplatform.travelservice.dto.TravelPackageDto("
+        + "p.id, p.title, p.description, p.destination, p.category, p.price, p.durationDays, p.maxTravelers, "
+        + "p.isActive, p.createdAt, p.updatedAt) from TravelPackage p where p.tenantId = :tenantId";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${packages.export.fetch-size:50}")
+    private int exportFetchSize;
+
+    @Override
+    public List<TravelPackageSummaryDto> findPage(TravelPackageSearchCriteria criteria) {
+        StringBuilder jpql = new StringBuilder(SELECT);
+        Map<String, Object> params = new HashMap<>();
+        params.put("tenantId", criteria.getTenantId());
+
+        if (criteria.getActive() != null) {
+            jpql.append(" and p.isActive = :active");
+            params.put("active", criteria.getActive());
+        }
+        if (criteria.getDestination() != null) {
+            jpql.append(" and p.destination = :destination");
+            params.put("destination", criteria.getDestination());
+        }
+        if (criteria.getMinPrice() != null) {
+            jpql.append(" and p.price >= :minPrice");
+            params.put("minPrice", criteria.getMinPrice());
+        }
+        if (criteria.getMaxPrice() != null) {
+            jpql.append(" and p.price <= :maxPrice");
+            params.put("maxPrice", criteria.getMaxPrice());
+        }
+
+        boolean seek = criteria.getAfterId() != null;
+        switch (criteria.getSort()) {
+            case PRICE_ASC -> {
+                if (seek) {
+                    jpql.append(" and (p.price > :afterPrice or (p.price = :afterPrice and p.id > :afterId))");
+                    params.put("afterPrice", criteria.getAfterPrice());
+                }
+                jpql.append(" order by p.price asc, p.id asc");
+            }
+            case PRICE_DESC -> {
+                if (seek) {
+                    jpql.append(" and (p.price < :afterPrice or (p.price = :afterPrice and p.id < :afterId))");
+                    params.put("afterPrice", criteria.getAfterPrice());
+                }
+                jpql.append(" order by p.price desc, p.id desc");
+            }
+            default -> {
+                if (seek) {
+                    jpql.append(" and (p.createdAt < :afterCreatedAt or (p.createdAt = :afterCreatedAt and p.id < :afterId))");
+                    params.put("afterCreatedAt", criteria.getAfterCreatedAt());
+                }
+                jpql.append(" order by p.createdAt desc, p.id desc");
+            }
+        }
+        if (seek) {
+            params.put("afterId", criteria.getAfterId());
+        }
+
+        TypedQuery<TravelPackageSummaryDto> query =
+            entityManager.createQuery(jpql.toString(), TravelPackageSummaryDto.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(criteria.getLimit()).getResultList();
+    }
+
+    @Override
+    public void exportAll(String tenantId, LocalDateTime afterCreatedAt, UUID afterId, Consumer<TravelPackageDto> sink) {
+        StringBuilder jpql = new StringBuilder(EXPORT);
+        if (afterId != null) {
+            jpql.append(" and (p.createdAt > :afterCreatedAt or (p.createdAt = :afterCreatedAt and p.id > :afterId))");
+        }
+        jpql.append(" order by p.createdAt asc, p.id asc");
+
+        // DTOs rather than entities, so nothing accumulates in the persistence context
+        TypedQuery<TravelPackageDto> query = entityManager.createQuery(jpql.toString(), TravelPackageDto.class)
+            .setParameter("tenantId", tenantId)
+            .setHint(HibernateHints.HINT_FETCH_SIZE, exportFetchSize)
+            .setHint(HibernateHints.HINT_READ_ONLY, true);
+        if (afterId != null) {
+            query.setParameter("afterCreatedAt", afterCreatedAt).setParameter("afterId", afterId);
+        }
+        try (Stream<TravelPackageDto> rows = query.getResultStream()) {
+            rows.forEach(sink);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.travelplatform.travelservice.repository;
+
+import com.travelplatform.travelservice.entity.TravelPackage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface TravelPackageRepository extends JpaRepository<TravelPackage, UUID>, TravelPackageCatalogRepository {
+
+    Optional<TravelPackage> findByIdAndTenantId(UUID id, String tenantId);
+
+    @Query("select p.createdAt from TravelPackage p where p.id = :id and p.tenantId = :tenantId")
+    Optional<LocalDateTime> findCreatedAt(@Param("id") UUID id, @Param("tenantId") String tenantId);
+}
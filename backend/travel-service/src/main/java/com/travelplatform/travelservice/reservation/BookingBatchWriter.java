@@ -0,0 +1,259 @@
+package com.travelplatform.travelservice.reservation;
+
+import com.travelplatform.travelservice.outbox.OutboxEvent;
+import com.travelplatform.travelservice.outbox.OutboxWriter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes confirmed reservations to {@code bookings} from a single thread,
+ * one multi-row batch and transaction per drain of the queue. Their holds are
+ * deleted from {@code seat_holds} and their {@code BookingConfirmed} events go
+ * to the outbox in the same transaction, and their seats leave the lease the
+ * hold took them from. A reservation whose hold is already
+ * gone, released by {@link SeatInventory#releaseOrphans} or written by
+ * another instance, is not booked: its seats were given back or used.
+ * <p>
+ * Callers get a future that completes once their row is committed, so the
+ * batch grows with load instead of waiting on a timer.
+ */
+@Slf4j
+@Component
+public class BookingBatchWriter {
+
+    // Read by user-service's first-page bookings cache
+    public static final String INVALIDATION_CHANNEL = "bookings:changed";
+
+    private static final String INSERT_BOOKING = "INSERT INTO bookings (id, user_id, travel_package_id, "
+        + "booking_date, travelers_count, total_price, status, tenant_id) VALUES (?, ?, ?, ?, ?, ?, 'CONFIRMED', ?)";
+
+    private static final String SELECT_HOLD_LEASES = "SELECT id, lease_id FROM seat_holds WHERE id IN (%s)";
+
+    // The seats stay taken in seat_inventory, now by the booking
+    private static final String DELETE_HOLD = "DELETE FROM seat_holds WHERE id = ?";
+
+    private static final String RELEASE_LEASED = "UPDATE seat_leases SET granted = granted - ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final OutboxWriter outboxWriter;
+    private final BlockingQueue<PendingWrite> queue;
+    private final int maxBatchSize;
+    private final DistributionSummary batchSizes;
+    private final Timer batchTimer;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public BookingBatchWriter(DataSource dataSource,
+                              PlatformTransactionManager transactionManager,
+                              StringRedisTemplate redisTemplate,
+                              OutboxWriter outboxWriter,
+                              MeterRegistry meterRegistry,
+                              @Value("${reservations.writer.queue-capacity:10000}") int queueCapacity,
+                              @Value("${reservations.writer.max-batch-size:500}") int maxBatchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.redisTemplate = redisTemplate;
+        this.outboxWriter = outboxWriter;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.batchSizes = DistributionSummary.builder("travel.bookings.batch.size")
+            .description("Bookings written per batch")
+            .register(meterRegistry);
+        this.batchTimer = Timer.builder("travel.bookings.batch.write")
+            .description("Time to insert and commit one booking batch")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+        Gauge.builder("travel.bookings.batch.queue", queue, BlockingQueue::size)
+            .description("Confirmed bookings waiting to be written")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Queues a hold for writing; the future fails with {@link RejectedExecutionException}
+     * right away when the queue is full.
+     */
+    public CompletableFuture<Void> submit(ReservationHold hold) {
+        PendingWrite write = new PendingWrite(hold, new CompletableFuture<>());
+        if (!running || !queue.offer(write)) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Booking writer is saturated"));
+        }
+        return write.done();
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        worker = new Thread(this::run, "booking-batch-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void run() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+        // Keeps draining after stop so accepted bookings are not lost
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingWrite> batch) {
+        long start = System.nanoTime();
+        List<PendingWrite> booked;
+        try {
+            booked = transactionTemplate.execute(status -> {
+                Map<UUID, UUID> leaseIds = leaseIds(batch);
+                int[] deleted = jdbcTemplate.batchUpdate(DELETE_HOLD, batch, batch.size(),
+                    (ps, write) -> ps.setObject(1, write.hold().id()))[0];
+                List<PendingWrite> held = new ArrayList<>(batch.size());
+                // Sorted so writers on several instances lock the lease rows in one order
+                Map<UUID, Integer> leased = new TreeMap<>();
+                for (int i = 0; i < batch.size(); i++) {
+                    if (deleted[i] != 0) {
+                        ReservationHold hold = batch.get(i).hold();
+                        held.add(batch.get(i));
+                        leased.merge(leaseIds.get(hold.id()), hold.travelersCount(), Integer::sum);
+                    }
+                }
+                if (held.isEmpty()) {
+                    return held;
+                }
+                // A reclaimed lease has no row left; its holds' seats were kept out of seat_inventory
+                jdbcTemplate.batchUpdate(RELEASE_LEASED, List.copyOf(leased.entrySet()), leased.size(),
+                    (ps, entry) -> {
+                        ps.setInt(1, entry.getValue());
+                        ps.setObject(2, entry.getKey());
+                    });
+                jdbcTemplate.batchUpdate(INSERT_BOOKING, held, held.size(), (ps, write) -> {
+                    ReservationHold hold = write.hold();
+                    ps.setObject(1, hold.id());
+                    ps.setObject(2, hold.userId());
+                    ps.setObject(3, hold.key().travelPackageId());
+                    ps.setDate(4, Date.valueOf(hold.key().bookingDate()));
+                    ps.setInt(5, hold.travelersCount());
+                    ps.setBigDecimal(6, hold.totalPrice());
+                    ps.setString(7, hold.tenantId());
+                });
+                outboxWriter.append(held.stream().map(write -> confirmedEvent(write.hold())).toList());
+                return held;
+            });
+        } catch (RuntimeException e) {
+            if (batch.size() > 1 && e instanceof DataIntegrityViolationException) {
+                // Retry row by row so one bad booking does not fail the others
+                log.warn("Batch of {} bookings failed, retrying individually: {}", batch.size(), e.getMessage());
+                batch.forEach(write -> write(List.of(write)));
+            } else {
+                log.error("Failed to write {} bookings: {}", batch.size(), e.getMessage());
+                batch.forEach(write -> write.done().completeExceptionally(e));
+            }
+            return;
+        }
+        batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        batchSizes.record(booked.size());
+
+        Set<String> owners = new LinkedHashSet<>();
+        for (PendingWrite write : batch) {
+            if (!booked.contains(write)) {
+                write.done().completeExceptionally(
+                    new ResponseStatusException(HttpStatus.GONE, "Reservation is no longer held"));
+                continue;
+            }
+            owners.add(write.hold().tenantId() + ':' + write.hold().userId());
+            write.done().complete(null);
+        }
+        if (owners.isEmpty()) {
+            return;
+        }
+        // Off the writer thread: a slow Redis must not hold up the next batch
+        CompletableFuture.runAsync(() -> publishChanged(owners));
+    }
+
+    private Map<UUID, UUID> leaseIds(List<PendingWrite> batch) {
+        String placeholders = String.join(", ", Collections.nCopies(batch.size(), "?"));
+        Map<UUID, UUID> leaseIds = new HashMap<>();
+        jdbcTemplate.query(SELECT_HOLD_LEASES.formatted(placeholders),
+            rs -> { leaseIds.put(rs.getObject("id", UUID.class), rs.getObject("lease_id", UUID.class)); },
+            batch.stream().map(write -> write.hold().id()).toArray());
+        return leaseIds;
+    }
+
+    private OutboxEvent confirmedEvent(ReservationHold hold) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", hold.id());
+        payload.put("user_id", hold.userId());
+        payload.put("travel_package_id", hold.key().travelPackageId());
+        payload.put("booking_date", hold.key().bookingDate());
+        payload.put("travelers_count", hold.travelersCount());
+        payload.put("total_price", hold.totalPrice());
+        payload.put("status", "CONFIRMED");
+        payload.put("tenant_id", hold.tenantId());
+        return outboxWriter.event(OutboxWriter.BOOKING, hold.id(), "BookingConfirmed", hold.tenantId(), payload);
+    }
+
+    private void publishChanged(Set<String> owners) {
+        try {
+            for (String owner : owners) {
+                redisTemplate.convertAndSend(INVALIDATION_CHANNEL, owner);
+            }
+        } catch (RuntimeException e) {
+            // Readers' cache TTL bounds how long they miss the new booking
+            log.warn("Could not publish booking changes: {}", e.getMessage());
+        }
+    }
+
+    private record PendingWrite(ReservationHold hold, CompletableFuture<Void> done) {
+    }
+}
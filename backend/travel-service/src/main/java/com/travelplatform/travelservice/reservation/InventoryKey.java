@@ -0,0 +1,7 @@
+package com.travelplatform.travelservice.reservation;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+public record InventoryKey(UUID travelPackageId, LocalDate bookingDate) {
+}
@@ -0,0 +1,21 @@
+package com.travelplatform.travelservice.reservation;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Seats taken from {@link SeatInventory} but not yet written as a booking.
+ * The hold id becomes the booking id, so a hold can be written at most once.
+ */
+public record ReservationHold(UUID id,
+                              String tenantId,
+                              UUID userId,
+                              InventoryKey key,
+                              int travelersCount,
+                              BigDecimal totalPrice,
+                              long expiresAtMillis) {
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+}
@@ -0,0 +1,581 @@
+package com.travelplatform.travelservice.reservation;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Remaining seats per package and travel date. {@code seat_inventory} holds
+ * the seats no instance has taken yet; each instance leases blocks of them
+ * into an in-memory counter per date and admits holds from that, so most
+ * holds, and sold-out requests within {@code sold-out-recheck}, never touch
+ * the row. Only a refill locks it, until its own short transaction commits,
+ * and leases shrink as a date sells out so few seats sit unused elsewhere.
+ * <p>
+ * A lease is a {@code seat_leases} row granting an instance its unused seats
+ * plus those of its recorded holds. Unused seats go back once a date sat idle
+ * for a renewal and when the instance stops; those of an instance that
+ * stopped without returning them are reclaimed by another once its lease was
+ * not renewed for {@code lease-timeout}. An instance stops admitting from a
+ * lease half that long after its last renewal, so a lease in use is never
+ * reclaimed.
+ * <p>
+ * A row is seeded on first use from {@code max_travelers} minus the travelers
+ * already booked for that date. Every hold is also written to
+ * {@code seat_holds}, so the seats of an instance that stops before its holds
+ * are confirmed or expire are returned by {@link #releaseOrphans}, and any
+ * instance can confirm or cancel a hold via {@link #find}. Package details
+ * are cached per instance.
+ */
+@Slf4j
+@Component
+public class SeatInventory {
+
+    private static final String SELECT_PACKAGE =
+        "SELECT tenant_id, price, max_travelers, is_active FROM travel_packages WHERE id = ?";
+
+    private static final String SELECT_BOOKED = "SELECT COALESCE(SUM(travelers_count), 0) FROM bookings "
+        + "WHERE travel_package_id = ? AND booking_date = ? AND status <> 'CANCELLED'";
+
+    private static final String INSERT_INVENTORY =
+        "INSERT INTO seat_inventory (travel_package_id, booking_date, remaining) VALUES (?, ?, ?)";
+
+    private static final String LOCK_INVENTORY = "SELECT remaining FROM seat_inventory "
+        + "WHERE travel_package_id = ? AND booking_date = ? FOR UPDATE";
+
+    private static final String TAKE_SEATS = "UPDATE seat_inventory SET remaining = remaining - ? "
+        + "WHERE travel_package_id = ? AND booking_date = ?";
+
+    private static final String RETURN_SEATS = "UPDATE seat_inventory SET remaining = remaining + ? "
+        + "WHERE travel_package_id = ? AND booking_date = ?";
+
+    private static final String INSERT_LEASE = "INSERT INTO seat_leases (id, travel_package_id, booking_date, "
+        + "granted, renewed_at) VALUES (?, ?, ?, 0, ?)";
+
+    private static final String RENEW_LEASE = "UPDATE seat_leases SET renewed_at = ? WHERE id = ?";
+
+    private static final String GRANT_SEATS = "UPDATE seat_leases SET granted = granted + ? WHERE id = ?";
+
+    private static final String DELETE_LEASE = "DELETE FROM seat_leases WHERE id = ?";
+
+    private static final String SELECT_STALE_LEASES = "SELECT id, travel_package_id, booking_date "
+        + "FROM seat_leases WHERE renewed_at < ? ORDER BY renewed_at LIMIT ?";
+
+    private static final String LOCK_STALE_LEASE =
+        "SELECT granted FROM seat_leases WHERE id = ? AND renewed_at < ? FOR UPDATE";
+
+    private static final String SELECT_LEASE_HELD = "SELECT COALESCE(SUM(seats), 0) FROM seat_holds WHERE lease_id = ?";
+
+    private static final String INSERT_HOLD = "INSERT INTO seat_holds (id, tenant_id, user_id, travel_package_id, "
+        + "booking_date, seats, total_price, lease_id, expires_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_HOLD = "SELECT travel_package_id, booking_date, seats, total_price, expires_at "
+        + "FROM seat_holds WHERE id = ? AND tenant_id = ? AND user_id = ?";
+
+    private static final String SELECT_HOLD_LEASE = "SELECT lease_id FROM seat_holds WHERE id = ?";
+
+    private static final String DELETE_HOLD = "DELETE FROM seat_holds WHERE id = ?";
+
+    private static final String DELETE_LEASED_HOLD = "DELETE FROM seat_holds WHERE id = ? AND lease_id = ?";
+
+    private static final String SELECT_EXPIRED_HOLDS = "SELECT id, travel_package_id, booking_date, seats "
+        + "FROM seat_holds WHERE expires_at < ? ORDER BY expires_at LIMIT ?";
+
+    private static final String SELECT_REMAINING =
+        "SELECT remaining FROM seat_inventory WHERE travel_package_id = ? AND booking_date = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int leaseSize;
+    private final long leaseTimeoutMillis;
+    private final long soldOutRecheckMillis;
+    private final Map<InventoryKey, Slot> slots = new ConcurrentHashMap<>();
+
+    public SeatInventory(DataSource dataSource,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${reservations.inventory.lease-size:20}") int leaseSize,
+                         @Value("${reservations.inventory.lease-timeout:1m}") Duration leaseTimeout,
+                         @Value("${reservations.inventory.sold-out-recheck:1s}") Duration soldOutRecheck) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.leaseSize = leaseSize;
+        this.leaseTimeoutMillis = leaseTimeout.toMillis();
+        this.soldOutRecheckMillis = soldOutRecheck.toMillis();
+    }
+
+    /**
+     * Returns the package details for a package of the given tenant, seeding
+     * its inventory row for the date on first use.
+     */
+    public Slot slot(String tenantId, InventoryKey key) {
+        Slot slot = slots.computeIfAbsent(key, k -> new Slot());
+        if (!slot.loaded) {
+            // Loaded outside computeIfAbsent so a slow query only blocks callers of this key
+            slot.loadLock.lock();
+            try {
+                if (!slot.loaded) {
+                    load(slot, key);
+                }
+            } catch (RuntimeException e) {
+                slots.remove(key, slot);
+                throw e;
+            } finally {
+                slot.loadLock.unlock();
+            }
+        }
+        if (!slot.tenantId.equals(tenantId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Travel package not found");
+        }
+        if (!slot.active) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Travel package is not bookable");
+        }
+        return slot;
+    }
+
+    /**
+     * Takes the hold's seats and records the hold, or returns {@code false}
+     * if fewer seats remain.
+     */
+    public boolean tryHold(ReservationHold hold) {
+        Slot slot = slot(hold.tenantId(), hold.key());
+        int seats = hold.travelersCount();
+        long now = System.currentTimeMillis();
+        Lease lease = slot.lease;
+        if (!isFresh(lease, now) || !lease.take(seats)) {
+            if (slot.isSoldOut(seats, now, soldOutRecheckMillis)) {
+                return false;
+            }
+            lease = refill(slot, hold.key(), seats, now);
+            if (lease == null) {
+                return false;
+            }
+        }
+        lease.used = true;
+        InventoryKey key = hold.key();
+        try {
+            jdbcTemplate.update(INSERT_HOLD, hold.id(), hold.tenantId(), hold.userId(), key.travelPackageId(),
+                Date.valueOf(key.bookingDate()), seats, hold.totalPrice(), lease.id,
+                new Timestamp(hold.expiresAtMillis()));
+        } catch (RuntimeException e) {
+            lease.available.addAndGet(seats);
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * Looks up a hold of the given user that another instance took. It is only
+     * read: whoever deletes the row, by booking or releasing it, claims it.
+     */
+    public Optional<ReservationHold> find(String tenantId, UUID userId, UUID holdId) {
+        List<ReservationHold> found = jdbcTemplate.query(SELECT_HOLD, (rs, rowNum) -> new ReservationHold(holdId,
+                tenantId, userId,
+                new InventoryKey(rs.getObject("travel_package_id", UUID.class), rs.getDate("booking_date").toLocalDate()),
+                rs.getInt("seats"), rs.getBigDecimal("total_price"), rs.getTimestamp("expires_at").getTime()),
+            holdId, tenantId, userId);
+        return found.stream().findFirst();
+    }
+
+    /**
+     * Gives back the seats of a hold that was not written as a booking.
+     *
+     * @return {@code false} if the hold was already released or booked
+     */
+    public boolean release(ReservationHold hold) {
+        Slot slot = slots.get(hold.key());
+        if (slot != null) {
+            Lease lease = slot.lease;
+            // Taken from this instance's lease, which still counts the seats
+            if (isFresh(lease, System.currentTimeMillis())
+                    && jdbcTemplate.update(DELETE_LEASED_HOLD, hold.id(), lease.id) != 0) {
+                lease.available.addAndGet(hold.travelersCount());
+                return true;
+            }
+        }
+        return release(hold.id(), hold.key(), hold.travelersCount());
+    }
+
+    /**
+     * Releases holds that expired before {@code expiredBefore} and are still
+     * recorded, which only happens when the instance that took them stopped.
+     *
+     * @return the number of holds released
+     */
+    public int releaseOrphans(Instant expiredBefore, int limit) {
+        List<OrphanHold> orphans = jdbcTemplate.query(SELECT_EXPIRED_HOLDS, (rs, rowNum) -> new OrphanHold(
+                rs.getObject("id", UUID.class),
+                new InventoryKey(rs.getObject("travel_package_id", UUID.class), rs.getDate("booking_date").toLocalDate()),
+                rs.getInt("seats")),
+            Timestamp.from(expiredBefore), limit);
+        int released = 0;
+        for (OrphanHold orphan : orphans) {
+            // Another instance may be sweeping the same rows; only the one that deletes a hold returns its seats
+            if (release(orphan.id(), orphan.key(), orphan.seats())) {
+                released++;
+            }
+        }
+        if (released > 0) {
+            log.info("Released {} holds left behind by a stopped instance", released);
+        }
+        return released;
+    }
+
+    /**
+     * Returns the unused seats of leases that were not renewed for
+     * {@code lease-timeout}, which only happens when their instance stopped.
+     * Seats of their recorded holds go back as those are released.
+     *
+     * @return the number of leases reclaimed
+     */
+    public int reclaimLeases(int limit) {
+        return reclaimLeases(Instant.now().minusMillis(leaseTimeoutMillis), limit);
+    }
+
+    int reclaimLeases(Instant renewedBefore, int limit) {
+        Timestamp staleBefore = Timestamp.from(renewedBefore);
+        List<StaleLease> stale = jdbcTemplate.query(SELECT_STALE_LEASES, (rs, rowNum) -> new StaleLease(
+                rs.getObject("id", UUID.class),
+                new InventoryKey(rs.getObject("travel_package_id", UUID.class), rs.getDate("booking_date").toLocalDate())),
+            staleBefore, limit);
+        int reclaimed = 0;
+        for (StaleLease lease : stale) {
+            Boolean done = transactionTemplate.execute(status -> {
+                List<Integer> granted = jdbcTemplate.queryForList(LOCK_STALE_LEASE, Integer.class, lease.id(),
+                    staleBefore);
+                if (granted.isEmpty()) {
+                    // Renewed, or reclaimed by another instance, since it was read
+                    return false;
+                }
+                Integer held = jdbcTemplate.queryForObject(SELECT_LEASE_HELD, Integer.class, lease.id());
+                jdbcTemplate.update(RETURN_SEATS, granted.get(0) - held, lease.key().travelPackageId(),
+                    Date.valueOf(lease.key().bookingDate()));
+                jdbcTemplate.update(DELETE_LEASE, lease.id());
+                return true;
+            });
+            if (Boolean.TRUE.equals(done)) {
+                reclaimed++;
+            }
+        }
+        if (reclaimed > 0) {
+            log.info("Reclaimed {} seat leases of a stopped instance", reclaimed);
+        }
+        return reclaimed;
+    }
+
+    /**
+     * Keeps this instance's leases from being reclaimed, and gives back the
+     * unused seats of dates no hold was taken for since the last renewal.
+     */
+    @Scheduled(fixedDelayString = "${reservations.inventory.lease-renew-interval:PT10S}")
+    public void renewLeases() {
+        List<Leased> leased = new ArrayList<>();
+        slots.forEach((key, slot) -> {
+            Lease lease = slot.lease;
+            if (lease.stored) {
+                leased.add(new Leased(key, slot, lease));
+            }
+        });
+        if (leased.isEmpty()) {
+            return;
+        }
+        for (Leased entry : leased) {
+            Lease lease = entry.lease();
+            int unused = lease.available.get();
+            int surplus = lease.used ? unused - 2 * leaseSize : unused;
+            lease.used = false;
+            if (surplus > 0) {
+                giveBack(entry.slot(), entry.key(), lease, surplus);
+            }
+        }
+        // In one order on every instance, as the booking writer takes them
+        leased.sort(Comparator.comparing(entry -> entry.lease().id));
+        long now = System.currentTimeMillis();
+        Timestamp renewedAt = new Timestamp(now);
+        try {
+            int[] renewed = jdbcTemplate.batchUpdate(RENEW_LEASE, leased, leased.size(), (ps, entry) -> {
+                ps.setTimestamp(1, renewedAt);
+                ps.setObject(2, entry.lease().id);
+            })[0];
+            for (int i = 0; i < leased.size(); i++) {
+                Leased entry = leased.get(i);
+                if (renewed[i] == 0) {
+                    log.warn("Seat lease for package {} on {} was reclaimed", entry.key().travelPackageId(),
+                        entry.key().bookingDate());
+                    entry.slot().replace(entry.lease());
+                } else {
+                    entry.lease().renewedAt = now;
+                }
+            }
+        } catch (DataAccessException e) {
+            // Admission stops on leases left unrenewed for half the timeout
+            log.warn("Could not renew seat leases: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Returns every unused leased seat, so the other instances can sell them
+     * right away instead of after {@code lease-timeout}.
+     */
+    @PreDestroy
+    public void returnLeases() {
+        slots.forEach((key, slot) -> {
+            slot.leaseLock.lock();
+            try {
+                Lease lease = slot.lease;
+                if (!lease.stored) {
+                    return;
+                }
+                slot.replace(lease);
+                int unused = lease.available.getAndSet(0);
+                // Seats of the lease's holds go back, or to a booking, with the holds
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (jdbcTemplate.update(DELETE_LEASE, lease.id) != 0 && unused > 0) {
+                        jdbcTemplate.update(RETURN_SEATS, unused, key.travelPackageId(),
+                            Date.valueOf(key.bookingDate()));
+                    }
+                });
+            } catch (DataAccessException e) {
+                log.warn("Could not return leased seats for package {} on {}: {}", key.travelPackageId(),
+                    key.bookingDate(), e.getMessage());
+            } finally {
+                slot.leaseLock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Seats for a package date that no instance has leased, or {@code null}
+     * if none has been booked yet.
+     */
+    public Integer remaining(InventoryKey key) {
+        List<Integer> remaining = jdbcTemplate.queryForList(SELECT_REMAINING, Integer.class,
+            key.travelPackageId(), Date.valueOf(key.bookingDate()));
+        return remaining.isEmpty() ? null : remaining.get(0);
+    }
+
+    /**
+     * Drops cached package details for dates that can no longer be booked.
+     */
+    public void evictBefore(LocalDate date) {
+        slots.keySet().removeIf(key -> key.bookingDate().isBefore(date));
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    private boolean isFresh(Lease lease, long now) {
+        return now - lease.renewedAt < leaseTimeoutMillis / 2;
+    }
+
+    /**
+     * Leases more seats for the slot and takes {@code seats} of them, or
+     * returns {@code null} if fewer are left.
+     */
+    private Lease refill(Slot slot, InventoryKey key, int seats, long now) {
+        slot.leaseLock.lock();
+        try {
+            Lease lease = slot.lease;
+            // Refilled by another caller while this one waited
+            if (isFresh(lease, now) && lease.take(seats)) {
+                return lease;
+            }
+            if (slot.isSoldOut(seats, now, soldOutRecheckMillis)) {
+                return null;
+            }
+            int[] remaining = new int[1];
+            Integer granted = transactionTemplate.execute(status -> {
+                // The lease row first, as everything else that takes both locks it
+                if (!lease.stored) {
+                    jdbcTemplate.update(INSERT_LEASE, lease.id, key.travelPackageId(), Date.valueOf(key.bookingDate()),
+                        new Timestamp(now));
+                } else if (jdbcTemplate.update(RENEW_LEASE, new Timestamp(now), lease.id) == 0) {
+                    return null;
+                }
+                remaining[0] = jdbcTemplate.queryForObject(LOCK_INVENTORY, Integer.class, key.travelPackageId(),
+                    Date.valueOf(key.bookingDate()));
+                if (remaining[0] < seats) {
+                    return 0;
+                }
+                // Smaller leases as the date sells out, so its last seats are not stuck on one instance
+                int take = Math.max(seats, Math.min(leaseSize, remaining[0] / 2));
+                remaining[0] -= take;
+                jdbcTemplate.update(TAKE_SEATS, take, key.travelPackageId(), Date.valueOf(key.bookingDate()));
+                jdbcTemplate.update(GRANT_SEATS, take, lease.id);
+                return take;
+            });
+            if (granted == null) {
+                log.warn("Seat lease for package {} on {} was reclaimed", key.travelPackageId(), key.bookingDate());
+                slot.replace(lease);
+                return refill(slot, key, seats, now);
+            }
+            lease.stored = true;
+            lease.renewedAt = now;
+            slot.knownRemaining = remaining[0];
+            slot.checkedAt = now;
+            if (granted == 0) {
+                return null;
+            }
+            lease.available.addAndGet(granted - seats);
+            return lease;
+        } finally {
+            slot.leaseLock.unlock();
+        }
+    }
+
+    private void giveBack(Slot slot, InventoryKey key, Lease lease, int seats) {
+        slot.leaseLock.lock();
+        try {
+            if (slot.lease != lease || !lease.take(seats)) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    // A reclaimed lease already had its unused seats returned
+                    if (jdbcTemplate.update(GRANT_SEATS, -seats, lease.id) != 0) {
+                        jdbcTemplate.update(RETURN_SEATS, seats, key.travelPackageId(),
+                            Date.valueOf(key.bookingDate()));
+                    }
+                });
+            } catch (DataAccessException e) {
+                lease.available.addAndGet(seats);
+                log.warn("Could not return leased seats for package {} on {}: {}", key.travelPackageId(),
+                    key.bookingDate(), e.getMessage());
+            }
+        } finally {
+            slot.leaseLock.unlock();
+        }
+    }
+
+    private boolean release(UUID holdId, InventoryKey key, int seats) {
+        Boolean released = transactionTemplate.execute(status -> {
+            List<UUID> lease = jdbcTemplate.queryForList(SELECT_HOLD_LEASE, UUID.class, holdId);
+            if (lease.isEmpty() || jdbcTemplate.update(DELETE_HOLD, holdId) == 0) {
+                return false;
+            }
+            // The seats leave the lease, if it was not reclaimed, for seat_inventory
+            jdbcTemplate.update(GRANT_SEATS, -seats, lease.get(0));
+            jdbcTemplate.update(RETURN_SEATS, seats, key.travelPackageId(), Date.valueOf(key.bookingDate()));
+            return true;
+        });
+        return Boolean.TRUE.equals(released);
+    }
+
+    private void load(Slot slot, InventoryKey key) {
+        int[] maxTravelers = new int[1];
+        List<Slot> found = jdbcTemplate.query(SELECT_PACKAGE, (rs, rowNum) -> {
+            slot.tenantId = rs.getString("tenant_id");
+            slot.unitPrice = rs.getBigDecimal("price");
+            slot.active = rs.getBoolean("is_active");
+            maxTravelers[0] = rs.getInt("max_travelers");
+            return slot;
+        }, key.travelPackageId());
+        if (found.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Travel package not found");
+        }
+        if (remaining(key) == null) {
+            Integer booked = jdbcTemplate.queryForObject(SELECT_BOOKED, Integer.class,
+                key.travelPackageId(), Date.valueOf(key.bookingDate()));
+            int seats = maxTravelers[0] - (booked == null ? 0 : booked);
+            try {
+                jdbcTemplate.update(INSERT_INVENTORY, key.travelPackageId(), Date.valueOf(key.bookingDate()), seats);
+                log.debug("Seeded inventory for package {} on {} with {} seats", key.travelPackageId(),
+                    key.bookingDate(), seats);
+            } catch (DuplicateKeyException e) {
+                // Seeded by another instance in the meantime; its row is the one in use
+            }
+        }
+        slot.loaded = true;
+    }
+
+    private record OrphanHold(UUID id, InventoryKey key, int seats) {
+    }
+
+    private record StaleLease(UUID id, InventoryKey key) {
+    }
+
+    private record Leased(InventoryKey key, Slot slot, Lease lease) {
+    }
+
+    /**
+     * Seats leased from {@code seat_inventory} and not yet held; replaced as a
+     * whole when its row is gone, so a hold always records the lease it took
+     * seats from.
+     */
+    private static final class Lease {
+
+        private final UUID id = UUID.randomUUID();
+        private final AtomicInteger available = new AtomicInteger();
+        private volatile boolean stored;
+        private volatile long renewedAt;
+        private volatile boolean used;
+
+        boolean take(int seats) {
+            int left;
+            do {
+                left = available.get();
+                if (left < seats) {
+                    return false;
+                }
+            } while (!available.compareAndSet(left, left - seats));
+            return true;
+        }
+    }
+
+    public static final class Slot {
+
+        // Locks rather than monitors so virtual threads waiting on them can unmount
+        private final ReentrantLock loadLock = new ReentrantLock();
+        private final ReentrantLock leaseLock = new ReentrantLock();
+        // Fields below are written before the volatile store to loaded and read after it
+        private volatile boolean loaded;
+        private String tenantId;
+        private BigDecimal unitPrice;
+        private boolean active;
+
+        private volatile Lease lease = new Lease();
+        // Unleased seats as of the last refill
+        private volatile int knownRemaining;
+        private volatile long checkedAt;
+
+        public BigDecimal unitPrice() {
+            return unitPrice;
+        }
+
+        private boolean isSoldOut(int seats, long now, long recheckMillis) {
+            return knownRemaining < seats && now - checkedAt < recheckMillis;
+        }
+
+        private void replace(Lease lost) {
+            if (lease == lost) {
+                lease = new Lease();
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.travelplatform.travelservice.search;
+
+import java.util.UUID;
+
+/**
+ * One travel_packages row as the search index sees it.
+ */
+record PackageDocument(UUID id, String tenantId, String title, String description, String destination,
+                       String category, long priceCents, int durationDays, int maxTravelers,
+                       boolean active, long createdAtMillis, long updatedAtMillis) {
+}
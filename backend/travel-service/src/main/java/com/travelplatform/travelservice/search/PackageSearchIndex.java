@@ -0,0 +1,237 @@
+package com.travelplatform.travelservice.search;
+
+import com.travelplatform.travelservice.dto.PackageSearchCriteria;
+import com.travelplatform.travelservice.dto.PackageSearchResultDto;
+import com.travelplatform.travelservice.entity.TravelPackage;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Per-tenant in-memory search over travel packages, kept in sync with
+ * {@code travel_packages} by polling {@code updated_at}.
+ * <p>
+ * Only rows changed since the last poll are read and applied to the tenant's
+ * {@link TenantSearchSegment}; a periodic full reload additionally catches hard
+ * deletes. Queries never touch the database.
+ */
+@Slf4j
+@Service
+public class PackageSearchIndex {
+
+    private static final String SELECT_PACKAGES = "SELECT id, tenant_id, title, description, destination, category, "
+        + "price, duration_days, max_travelers, is_active, created_at, updated_at FROM travel_packages";
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Duration refreshOverlap;
+    private final Timer queryTimer;
+
+    private final Map<String, TenantSearchSegment> segments = new ConcurrentHashMap<>();
+    // Serialises writers; not synchronized, so a virtual thread waiting out a
+    // refresh query does not pin its carrier
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // Writer-only; null until the first full load succeeds
+    private LocalDateTime watermark;
+
+    public PackageSearchIndex(DataSource dataSource,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${search.index.fetch-size:1000}") int fetchSize,
+                              @Value("${search.index.refresh-overlap:30s}") Duration refreshOverlap) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        // Postgres only streams with a cursor inside a transaction
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.refreshOverlap = refreshOverlap;
+        this.queryTimer = Timer.builder("travel.search.query")
+            .description("In-memory package search latency")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+        Gauge.builder("travel.search.index.documents", this, PackageSearchIndex::liveDocuments)
+            .description("Live packages held by the search index")
+            .register(meterRegistry);
+    }
+
+    public PackageSearchResultDto search(PackageSearchCriteria criteria) {
+        long start = System.nanoTime();
+        TenantSearchSegment segment = segments.get(criteria.getTenantId());
+        PackageSearchResultDto result;
+        if (segment == null) {
+            result = PackageSearchResultDto.builder()
+                .items(List.of())
+                .facets(Map.of())
+                .build();
+        } else {
+            Set<String> terms = new LinkedHashSet<>();
+            SearchTokenizer.tokenize(criteria.getQuery(), terms);
+            result = segment.search(criteria, new ArrayList<>(terms));
+        }
+        long elapsed = System.nanoTime() - start;
+        queryTimer.record(Duration.ofNanos(elapsed));
+        result.setTookMicros(elapsed / 1000);
+        return result;
+    }
+
+    /**
+     * Applies a change made in this instance right away instead of waiting for
+     * the next poll.
+     */
+    public void apply(TravelPackage travelPackage) {
+        writeLock.lock();
+        try {
+            PackageDocument document = new PackageDocument(travelPackage.getId(), travelPackage.getTenantId(),
+                travelPackage.getTitle(), travelPackage.getDescription(), travelPackage.getDestination(),
+                travelPackage.getCategory(), toCents(travelPackage.getPrice()), travelPackage.getDurationDays(),
+                travelPackage.getMaxTravelers(), Boolean.TRUE.equals(travelPackage.getIsActive()),
+                toMillis(travelPackage.getCreatedAt()), toMillis(travelPackage.getUpdatedAt()));
+            upsert(segments, document);
+            compact(Set.of(document.tenantId()));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${search.index.refresh-interval:PT5S}")
+    public void refresh() {
+        writeLock.lock();
+        try {
+            if (watermark == null) {
+                reload();
+                return;
+            }
+            LocalDateTime since = watermark.minus(refreshOverlap);
+            try {
+                Set<String> touched = new HashSet<>();
+                LocalDateTime latest = load(" WHERE updated_at >= ?", document -> {
+                    upsert(segments, document);
+                    touched.add(document.tenantId());
+                }, Timestamp.valueOf(since));
+                compact(touched);
+                if (latest != null && latest.isAfter(watermark)) {
+                    watermark = latest;
+                }
+            } catch (DataAccessException e) {
+                log.warn("Search index refresh failed: {}", e.getMessage());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${search.index.full-reload-interval:PT1H}",
+               initialDelayString = "${search.index.full-reload-interval:PT1H}")
+    public void reload() {
+        writeLock.lock();
+        try {
+            long start = System.nanoTime();
+            // Built off to the side so queries keep using the current segments meanwhile
+            Map<String, TenantSearchSegment> rebuilt = new HashMap<>();
+            LocalDateTime latest = load("", document -> upsert(rebuilt, document));
+
+            segments.putAll(rebuilt);
+            segments.keySet().retainAll(rebuilt.keySet());
+            watermark = latest != null ? latest : LocalDateTime.now();
+            log.info("Search index loaded {} packages for {} tenants in {} ms", liveDocuments(), rebuilt.size(),
+                Duration.ofNanos(System.nanoTime() - start).toMillis());
+        } catch (DataAccessException e) {
+            log.warn("Search index reload failed: {}", e.getMessage());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static void upsert(Map<String, TenantSearchSegment> target, PackageDocument document) {
+        target.computeIfAbsent(document.tenantId(), t -> new TenantSearchSegment()).upsert(document);
+    }
+
+    private void compact(Set<String> tenantIds) {
+        for (String tenantId : tenantIds) {
+            TenantSearchSegment segment = segments.get(tenantId);
+            if (segment.needsCompaction()) {
+                segments.put(tenantId, segment.compact());
+            }
+        }
+    }
+
+    private LocalDateTime load(String where, Consumer<PackageDocument> sink, Object... args) {
+        LocalDateTime[] latest = new LocalDateTime[1];
+        readOnlyTransaction.executeWithoutResult(status ->
+            jdbcTemplate.query(SELECT_PACKAGES + where, rs -> {
+                sink.accept(document(rs));
+                Timestamp updatedAt = rs.getTimestamp("updated_at");
+                if (updatedAt != null && (latest[0] == null || updatedAt.toLocalDateTime().isAfter(latest[0]))) {
+                    latest[0] = updatedAt.toLocalDateTime();
+                }
+            }, args));
+        return latest[0];
+    }
+
+    private static PackageDocument document(ResultSet rs) throws SQLException {
+        return new PackageDocument(
+            rs.getObject("id", UUID.class),
+            rs.getString("tenant_id"),
+            rs.getString("title"),
+            rs.getString("description"),
+            rs.getString("destination"),
+            rs.getString("category"),
+            toCents(rs.getBigDecimal("price")),
+            rs.getInt("duration_days"),
+            rs.getInt("max_travelers"),
+            rs.getBoolean("is_active"),
+            toMillis(rs.getTimestamp("created_at")),
+            toMillis(rs.getTimestamp("updated_at")));
+    }
+
+    static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    private static long toMillis(Timestamp timestamp) {
+        return timestamp == null ? 0 : timestamp.getTime();
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime == null ? 0 : dateTime.atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    private double liveDocuments() {
+        long total = 0;
+        for (TenantSearchSegment segment : segments.values()) {
+            total += segment.liveCount();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,35 @@
+package com.travelplatform.travelservice.search;
+
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Splits text into lower-case alphanumeric terms. Index and query side share it
+ * so both agree on what a term is.
+ */
+final class SearchTokenizer {
+
+    private static final int MIN_TERM_LENGTH = 2;
+
+    private SearchTokenizer() {
+    }
+
+    static void tokenize(String text, Collection<String> terms) {
+        if (text == null) {
+            return;
+        }
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean termChar = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (termChar && start < 0) {
+                start = i;
+            } else if (!termChar && start >= 0) {
+                if (i - start >= MIN_TERM_LENGTH) {
+                    terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                }
+                start = -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,692 @@
+package com.travelplatform.travelservice.search;
+
+import com.travelplatform.travelservice.dto.PackageSearchCriteria;
+import com.travelplatform.travelservice.dto.PackageSearchHitDto;
+import com.travelplatform.travelservice.dto.PackageSearchResultDto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Columnar, append-only search index over one tenant's active packages.
+ * <p>
+ * Every attribute is a primitive array indexed by document number, and text terms
+ * map to ascending posting lists. An update appends a new document and clears the
+ * old one in the live bitset, so a single writer can change the segment while
+ * queries run without locks: a query only looks at documents below the
+ * {@code size} it read, and all of those were fully written before {@code size}
+ * was published. {@link #compact()} drops the dead documents once they pile up.
+ */
+final class TenantSearchSegment {
+
+    static final String FACET_CATEGORY = "category";
+    static final String FACET_DESTINATION = "destination";
+    static final String FACET_PRICE = "price";
+    static final String FACET_DURATION = "duration";
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int NONE = -1;
+    private static final int DESTINATION_FACET_SIZE = 10;
+
+    private static final long[] PRICE_BOUNDS_CENTS = {50_000, 100_000, 200_000, 500_000};
+    private static final String[] PRICE_LABELS = {"0-500", "500-1000", "1000-2000", "2000-5000", "5000+"};
+    private static final int[] DURATION_BOUNDS = {3, 7, 14};
+    private static final String[] DURATION_LABELS = {"1-3", "4-7", "8-14", "15+"};
+
+    // Writer-only bookkeeping
+    private final Map<UUID, Integer> docByPackage = new HashMap<>();
+    private int liveCount;
+
+    private final Dictionary categories;
+    private final Dictionary destinations;
+    private final Map<String, Postings> terms = new ConcurrentHashMap<>();
+    private volatile Postings[] categoryPostings = new Postings[16];
+    private volatile Columns columns;
+    private volatile int size;
+
+    TenantSearchSegment() {
+        this(INITIAL_CAPACITY, new Dictionary(), new Dictionary());
+    }
+
+    private TenantSearchSegment(int capacity, Dictionary categories, Dictionary destinations) {
+        this.columns = new Columns(capacity);
+        this.categories = categories;
+        this.destinations = destinations;
+    }
+
+    int liveCount() {
+        return liveCount;
+    }
+
+    boolean needsCompaction() {
+        int dead = size - liveCount;
+        return dead > INITIAL_CAPACITY && dead > size / 4;
+    }
+
+    void upsert(PackageDocument document) {
+        Integer previous = docByPackage.get(document.id());
+        Columns c = columns;
+        if (previous != null && c.updatedAt[previous] == document.updatedAtMillis()) {
+            return;
+        }
+        if (!document.active()) {
+            remove(document.id());
+            return;
+        }
+
+        int doc = size;
+        if (doc == c.capacity()) {
+            c = c.copy(doc * 2, doc);
+            columns = c;
+        }
+        c.idHigh[doc] = document.id().getMostSignificantBits();
+        c.idLow[doc] = document.id().getLeastSignificantBits();
+        c.title[doc] = document.title();
+        c.priceCents[doc] = document.priceCents();
+        c.durationDays[doc] = document.durationDays();
+        c.maxTravelers[doc] = document.maxTravelers();
+        c.createdAt[doc] = document.createdAtMillis();
+        c.updatedAt[doc] = document.updatedAtMillis();
+        c.destination[doc] = destinations.ordinal(document.destination());
+        int category = document.category() == null ? NONE : categories.ordinal(document.category());
+        c.category[doc] = category;
+        c.live[doc >>> 6] |= 1L << doc;
+
+        Set<String> docTerms = new HashSet<>();
+        SearchTokenizer.tokenize(document.title(), docTerms);
+        SearchTokenizer.tokenize(document.description(), docTerms);
+        SearchTokenizer.tokenize(document.destination(), docTerms);
+        for (String term : docTerms) {
+            terms.computeIfAbsent(term, t -> new Postings()).add(doc);
+        }
+        if (category != NONE) {
+            categoryPostings(category).add(doc);
+        }
+
+        if (previous != null) {
+            c.live[previous >>> 6] &= ~(1L << previous);
+        } else {
+            liveCount++;
+        }
+        docByPackage.put(document.id(), doc);
+        size = doc + 1;
+    }
+
+    void remove(UUID packageId) {
+        Integer doc = docByPackage.remove(packageId);
+        if (doc == null) {
+            return;
+        }
+        Columns c = columns;
+        c.live[doc >>> 6] &= ~(1L << doc);
+        liveCount--;
+        // Volatile write so queries that read size afterwards see the cleared bit
+        size = size;
+    }
+
+    /**
+     * Returns a copy without dead documents. Posting lists are remapped in memory,
+     * so compaction never goes back to the database.
+     */
+    TenantSearchSegment compact() {
+        int n = size;
+        Columns c = columns;
+        TenantSearchSegment target = new TenantSearchSegment(Math.max(INITIAL_CAPACITY, liveCount), categories, destinations);
+        Columns t = target.columns;
+
+        int[] remap = new int[n];
+        int next = 0;
+        for (int doc = 0; doc < n; doc++) {
+            if (!c.isLive(doc)) {
+                remap[doc] = NONE;
+                continue;
+            }
+            t.idHigh[next] = c.idHigh[doc];
+            t.idLow[next] = c.idLow[doc];
+            t.title[next] = c.title[doc];
+            t.priceCents[next] = c.priceCents[doc];
+            t.durationDays[next] = c.durationDays[doc];
+            t.maxTravelers[next] = c.maxTravelers[doc];
+            t.createdAt[next] = c.createdAt[doc];
+            t.updatedAt[next] = c.updatedAt[doc];
+            t.destination[next] = c.destination[doc];
+            t.category[next] = c.category[doc];
+            t.live[next >>> 6] |= 1L << next;
+            target.docByPackage.put(new UUID(c.idHigh[doc], c.idLow[doc]), next);
+            remap[doc] = next++;
+        }
+
+        terms.forEach((term, postings) -> {
+            Postings remapped = postings.remap(remap);
+            if (remapped != null) {
+                target.terms.put(term, remapped);
+            }
+        });
+        Postings[] byCategory = categoryPostings;
+        Postings[] targetByCategory = new Postings[byCategory.length];
+        for (int i = 0; i < byCategory.length; i++) {
+            targetByCategory[i] = byCategory[i] == null ? null : byCategory[i].remap(remap);
+        }
+        target.categoryPostings = targetByCategory;
+        target.liveCount = next;
+        target.size = next;
+        return target;
+    }
+
+    PackageSearchResultDto search(PackageSearchCriteria criteria, List<String> queryTerms) {
+        int n = size;
+        Columns c = columns;
+
+        Filter filter = Filter.from(criteria, categories, destinations);
+        int[] matches = filter == null ? new int[0] : collect(c, n, filter, queryTerms);
+        int count = matches.length;
+
+        int from = Math.min(criteria.getOffset(), count);
+        int[] top = topK(c, matches, criteria.getSort(), Math.min(count, criteria.getOffset() + criteria.getLimit()));
+        List<PackageSearchHitDto> items = new ArrayList<>(top.length - from);
+        for (int i = from; i < top.length; i++) {
+            items.add(hit(c, top[i]));
+        }
+
+        return PackageSearchResultDto.builder()
+            .total(count)
+            .items(items)
+            .facets(facets(c, matches))
+            .build();
+    }
+
+    private int[] collect(Columns c, int n, Filter filter, List<String> queryTerms) {
+        IntBuffer out = new IntBuffer();
+        if (!queryTerms.isEmpty()) {
+            // Drive the intersection from the rarest list and probe the others
+            List<Postings> postingLists = new ArrayList<>(queryTerms.size() + 1);
+            for (String term : queryTerms) {
+                Postings postings = terms.get(term);
+                if (postings == null) {
+                    return out.toArray();
+                }
+                postingLists.add(postings);
+            }
+            if (filter.singleCategory != NONE) {
+                Postings[] byCategory = categoryPostings;
+                if (filter.singleCategory >= byCategory.length || byCategory[filter.singleCategory] == null) {
+                    return out.toArray();
+                }
+                postingLists.add(byCategory[filter.singleCategory]);
+            }
+            int lists = postingLists.size();
+            int[][] docs = new int[lists][];
+            int[] counts = new int[lists];
+            for (int i = 0; i < lists; i++) {
+                Postings postings = postingLists.get(i);
+                counts[i] = postings.count;
+                docs[i] = postings.docs;
+            }
+            Integer[] order = new Integer[lists];
+            for (int i = 0; i < lists; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingInt(i -> counts[i]));
+
+            int lead = order[0];
+            int[] cursors = new int[lists];
+            outer:
+            for (int i = 0; i < counts[lead]; i++) {
+                int doc = docs[lead][i];
+                if (doc >= n) {
+                    break;
+                }
+                for (int j = 1; j < lists; j++) {
+                    int other = order[j];
+                    int pos = gallop(docs[other], cursors[other], counts[other], doc);
+                    if (pos < 0) {
+                        cursors[other] = -pos - 1;
+                        continue outer;
+                    }
+                    cursors[other] = pos;
+                }
+                if (c.isLive(doc) && filter.test(c, doc)) {
+                    out.add(doc);
+                }
+            }
+        } else if (filter.singleCategory != NONE) {
+            Postings[] byCategory = categoryPostings;
+            Postings postings = filter.singleCategory < byCategory.length ? byCategory[filter.singleCategory] : null;
+            if (postings != null) {
+                int total = postings.count;
+                int[] docs = postings.docs;
+                for (int i = 0; i < total && docs[i] < n; i++) {
+                    int doc = docs[i];
+                    if (c.isLive(doc) && filter.test(c, doc)) {
+                        out.add(doc);
+                    }
+                }
+            }
+        } else {
+            for (int doc = 0; doc < n; doc++) {
+                if (c.isLive(doc) && filter.test(c, doc)) {
+                    out.add(doc);
+                }
+            }
+        }
+        return out.toArray();
+    }
+
+    /**
+     * Exponential then binary search from {@code from}, so probing a long list
+     * with ascending targets costs roughly the distance skipped rather than
+     * {@code log n} per probe. Same return contract as {@link Arrays#binarySearch}.
+     */
+    private static int gallop(int[] docs, int from, int to, int target) {
+        int bound = 1;
+        while (from + bound < to && docs[from + bound] < target) {
+            bound <<= 1;
+        }
+        return Arrays.binarySearch(docs, from + (bound >>> 1), Math.min(from + bound + 1, to), target);
+    }
+
+    private Map<String, Map<String, Integer>> facets(Columns c, int[] matches) {
+        int[] byCategory = new int[categories.capacity()];
+        int[] byDestination = new int[destinations.capacity()];
+        int[] byPrice = new int[PRICE_LABELS.length];
+        int[] byDuration = new int[DURATION_LABELS.length];
+        for (int doc : matches) {
+            int category = c.category[doc];
+            if (category != NONE) {
+                byCategory[category]++;
+            }
+            byDestination[c.destination[doc]]++;
+            byPrice[bucket(c.priceCents[doc], PRICE_BOUNDS_CENTS)]++;
+            byDuration[bucket(c.durationDays[doc], DURATION_BOUNDS)]++;
+        }
+
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        facets.put(FACET_CATEGORY, topCounts(byCategory, categories, Integer.MAX_VALUE));
+        facets.put(FACET_DESTINATION, topCounts(byDestination, destinations, DESTINATION_FACET_SIZE));
+        facets.put(FACET_PRICE, labelled(byPrice, PRICE_LABELS));
+        facets.put(FACET_DURATION, labelled(byDuration, DURATION_LABELS));
+        return facets;
+    }
+
+    private PackageSearchHitDto hit(Columns c, int doc) {
+        int category = c.category[doc];
+        return PackageSearchHitDto.builder()
+            .id(new UUID(c.idHigh[doc], c.idLow[doc]))
+            .title(c.title[doc])
+            .destination(destinations.name(c.destination[doc]))
+            .category(category == NONE ? null : categories.name(category))
+            .price(BigDecimal.valueOf(c.priceCents[doc], 2))
+            .durationDays(c.durationDays[doc])
+            .maxTravelers(c.maxTravelers[doc])
+            .build();
+    }
+
+    private Postings categoryPostings(int category) {
+        Postings[] byCategory = categoryPostings;
+        if (category >= byCategory.length) {
+            byCategory = Arrays.copyOf(byCategory, Math.max(byCategory.length * 2, category + 1));
+            categoryPostings = byCategory;
+        }
+        if (byCategory[category] == null) {
+            byCategory[category] = new Postings();
+        }
+        return byCategory[category];
+    }
+
+    /**
+     * Bounded max-heap selection of the {@code k} best documents, returned in sort order.
+     */
+    private static int[] topK(Columns c, int[] matches, PackageSearchCriteria.Sort sort, int k) {
+        if (k <= 0) {
+            return new int[0];
+        }
+        long[] keys = new long[k];
+        int[] docs = new int[k];
+        int heapSize = 0;
+        for (int doc : matches) {
+            long key = sortKey(c, doc, sort);
+            if (heapSize < k) {
+                keys[heapSize] = key;
+                docs[heapSize] = doc;
+                siftUp(keys, docs, heapSize++);
+            } else if (before(key, doc, keys[0], docs[0])) {
+                keys[0] = key;
+                docs[0] = doc;
+                siftDown(keys, docs, heapSize);
+            }
+        }
+        int[] ordered = new int[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            ordered[i] = docs[0];
+            keys[0] = keys[i];
+            docs[0] = docs[i];
+            siftDown(keys, docs, i);
+        }
+        return ordered;
+    }
+
+    private static long sortKey(Columns c, int doc, PackageSearchCriteria.Sort sort) {
+        return switch (sort) {
+            case PRICE_ASC -> c.priceCents[doc];
+            case PRICE_DESC -> -c.priceCents[doc];
+            case DURATION_ASC -> c.durationDays[doc];
+            case NEWEST -> -c.createdAt[doc];
+        };
+    }
+
+    private static boolean before(long key, int doc, long otherKey, int otherDoc) {
+        return key < otherKey || (key == otherKey && doc < otherDoc);
+    }
+
+    private static void siftUp(long[] keys, int[] docs, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(keys[parent], docs[parent], keys[i], docs[i])) {
+                return;
+            }
+            swap(keys, docs, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(long[] keys, int[] docs, int heapSize) {
+        int i = 0;
+        while (true) {
+            int largest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < heapSize && before(keys[largest], docs[largest], keys[left], docs[left])) {
+                largest = left;
+            }
+            if (right < heapSize && before(keys[largest], docs[largest], keys[right], docs[right])) {
+                largest = right;
+            }
+            if (largest == i) {
+                return;
+            }
+            swap(keys, docs, i, largest);
+            i = largest;
+        }
+    }
+
+    private static void swap(long[] keys, int[] docs, int a, int b) {
+        long key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        int doc = docs[a];
+        docs[a] = docs[b];
+        docs[b] = doc;
+    }
+
+    private static int bucket(long value, long[] bounds) {
+        int i = 0;
+        while (i < bounds.length && value >= bounds[i]) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int bucket(int value, int[] bounds) {
+        int i = 0;
+        while (i < bounds.length && value > bounds[i]) {
+            i++;
+        }
+        return i;
+    }
+
+    private static Map<String, Integer> topCounts(int[] counts, Dictionary names, int limit) {
+        List<Integer> ordinals = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                ordinals.add(i);
+            }
+        }
+        ordinals.sort((a, b) -> Integer.compare(counts[b], counts[a]));
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (int i = 0; i < ordinals.size() && i < limit; i++) {
+            result.put(names.name(ordinals.get(i)), counts[ordinals.get(i)]);
+        }
+        return result;
+    }
+
+    private static Map<String, Integer> labelled(int[] counts, String[] labels) {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (int i = 0; i < labels.length; i++) {
+            result.put(labels[i], counts[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Per-query predicate over the primitive columns. {@code null} from
+     * {@link #from} means the query names a category or destination this tenant
+     * has never seen, so nothing can match.
+     */
+    private static final class Filter {
+
+        long minPrice = Long.MIN_VALUE;
+        long maxPrice = Long.MAX_VALUE;
+        int minDuration = Integer.MIN_VALUE;
+        int maxDuration = Integer.MAX_VALUE;
+        int travelers = Integer.MIN_VALUE;
+        int destination = NONE;
+        boolean[] allowedCategories;
+        int singleCategory = NONE;
+
+        static Filter from(PackageSearchCriteria criteria, Dictionary categories, Dictionary destinations) {
+            Filter filter = new Filter();
+            if (criteria.getMinPrice() != null) {
+                filter.minPrice = PackageSearchIndex.toCents(criteria.getMinPrice());
+            }
+            if (criteria.getMaxPrice() != null) {
+                filter.maxPrice = PackageSearchIndex.toCents(criteria.getMaxPrice());
+            }
+            if (criteria.getMinDuration() != null) {
+                filter.minDuration = criteria.getMinDuration();
+            }
+            if (criteria.getMaxDuration() != null) {
+                filter.maxDuration = criteria.getMaxDuration();
+            }
+            if (criteria.getTravelers() != null) {
+                filter.travelers = criteria.getTravelers();
+            }
+            if (criteria.getDestination() != null) {
+                filter.destination = destinations.lookup(criteria.getDestination());
+                if (filter.destination == NONE) {
+                    return null;
+                }
+            }
+            if (criteria.getCategories() != null && !criteria.getCategories().isEmpty()) {
+                filter.allowedCategories = new boolean[categories.capacity()];
+                int allowed = 0;
+                for (String name : criteria.getCategories()) {
+                    int category = categories.lookup(name);
+                    if (category != NONE && category < filter.allowedCategories.length) {
+                        filter.allowedCategories[category] = true;
+                        filter.singleCategory = allowed++ == 0 ? category : NONE;
+                    }
+                }
+                if (allowed == 0) {
+                    return null;
+                }
+            }
+            return filter;
+        }
+
+        boolean test(Columns c, int doc) {
+            long price = c.priceCents[doc];
+            int duration = c.durationDays[doc];
+            if (price < minPrice || price > maxPrice || duration < minDuration || duration > maxDuration
+                    || c.maxTravelers[doc] < travelers) {
+                return false;
+            }
+            if (destination != NONE && c.destination[doc] != destination) {
+                return false;
+            }
+            if (allowedCategories != null) {
+                int category = c.category[doc];
+                return category != NONE && allowedCategories[category];
+            }
+            return true;
+        }
+    }
+
+    private static final class Columns {
+
+        final long[] idHigh;
+        final long[] idLow;
+        final String[] title;
+        final long[] priceCents;
+        final int[] durationDays;
+        final int[] maxTravelers;
+        final long[] createdAt;
+        final long[] updatedAt;
+        final int[] destination;
+        final int[] category;
+        final long[] live;
+
+        Columns(int capacity) {
+            idHigh = new long[capacity];
+            idLow = new long[capacity];
+            title = new String[capacity];
+            priceCents = new long[capacity];
+            durationDays = new int[capacity];
+            maxTravelers = new int[capacity];
+            createdAt = new long[capacity];
+            updatedAt = new long[capacity];
+            destination = new int[capacity];
+            category = new int[capacity];
+            live = new long[(capacity + 63) >>> 6];
+        }
+
+        int capacity() {
+            return title.length;
+        }
+
+        boolean isLive(int doc) {
+            return (live[doc >>> 6] & (1L << doc)) != 0;
+        }
+
+        Columns copy(int capacity, int size) {
+            Columns grown = new Columns(capacity);
+            System.arraycopy(idHigh, 0, grown.idHigh, 0, size);
+            System.arraycopy(idLow, 0, grown.idLow, 0, size);
+            System.arraycopy(title, 0, grown.title, 0, size);
+            System.arraycopy(priceCents, 0, grown.priceCents, 0, size);
+            System.arraycopy(durationDays, 0, grown.durationDays, 0, size);
+            System.arraycopy(maxTravelers, 0, grown.maxTravelers, 0, size);
+            System.arraycopy(createdAt, 0, grown.createdAt, 0, size);
+            System.arraycopy(updatedAt, 0, grown.updatedAt, 0, size);
+            System.arraycopy(destination, 0, grown.destination, 0, size);
+            System.arraycopy(category, 0, grown.category, 0, size);
+            System.arraycopy(live, 0, grown.live, 0, live.length);
+            return grown;
+        }
+    }
+
+    /**
+     * Ascending document numbers for one term. Appended by the writer only;
+     * {@code docs} is replaced before {@code count} grows, so a reader that
+     * reads {@code count} first always gets an array at least that long.
+     */
+    private static final class Postings {
+
+        volatile int[] docs = new int[4];
+        volatile int count;
+
+        void add(int doc) {
+            int[] current = docs;
+            int n = count;
+            if (n == current.length) {
+                current = Arrays.copyOf(current, n * 2);
+                docs = current;
+            }
+            current[n] = doc;
+            count = n + 1;
+        }
+
+        Postings remap(int[] remap) {
+            int n = count;
+            int[] current = docs;
+            Postings remapped = null;
+            for (int i = 0; i < n && current[i] < remap.length; i++) {
+                int doc = remap[current[i]];
+                if (doc != NONE) {
+                    if (remapped == null) {
+                        remapped = new Postings();
+                    }
+                    remapped.add(doc);
+                }
+            }
+            return remapped;
+        }
+    }
+
+    /**
+     * Case-insensitive string to ordinal encoding for low-cardinality columns.
+     * Shared between a segment and its compacted copy.
+     */
+    private static final class Dictionary {
+
+        private final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+        private volatile String[] names = new String[16];
+        private int count;
+
+        int ordinal(String name) {
+            String key = name.toLowerCase(Locale.ROOT);
+            Integer existing = ordinals.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            String[] current = names;
+            if (count == current.length) {
+                current = Arrays.copyOf(current, count * 2);
+                names = current;
+            }
+            current[count] = name;
+            ordinals.put(key, count);
+            return count++;
+        }
+
+        int lookup(String name) {
+            Integer ordinal = ordinals.get(name.toLowerCase(Locale.ROOT));
+            return ordinal == null ? NONE : ordinal;
+        }
+
+        String name(int ordinal) {
+            return names[ordinal];
+        }
+
+        int capacity() {
+            return names.length;
+        }
+    }
+
+    private static final class IntBuffer {
+
+        private int[] values = new int[64];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.travelplatform.travelservice.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.travelplatform.travelservice.repository.TravelPackageRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Streams a tenant's packages as newline-delimited JSON. Rows go to the
+ * output as they are read, so memory stays flat however many there are;
+ * a client that loses the connection resumes after the last id it received.
+ */
+@Service
+public class PackageExportService {
+
+    private final TravelPackageRepository travelPackageRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    // Each export holds a connection from the shared pool until it completes
+    private final Semaphore exports;
+    private final int flushEvery;
+
+    public PackageExportService(TravelPackageRepository travelPackageRepository,
+                                ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${packages.export.max-concurrent:2}") int maxConcurrent,
+                                @Value("${packages.export.fetch-size:50}") int fetchSize) {
+        this.travelPackageRepository = travelPackageRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.exports = new Semaphore(maxConcurrent);
+        this.flushEvery = fetchSize;
+    }
+
+    /**
+     * @param after id of the last package already received, or {@code null} to start from the oldest
+     * @throws ResponseStatusException 429 when the maximum number of exports are running, 400 for an unknown cursor
+     */
+    public void export(String tenantId, UUID after, OutputStream out) throws IOException {
+        if (!exports.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many exports running, retry shortly");
+        }
+        try {
+            LocalDateTime afterCreatedAt = null;
+            if (after != null) {
+                afterCreatedAt = travelPackageRepository.findCreatedAt(after, tenantId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown cursor"));
+            }
+
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+            generator.setRootValueSeparator(null);
+            long[] written = {0};
+            LocalDateTime from = afterCreatedAt;
+            try {
+                // Postgres only streams a result through a cursor inside a transaction
+                readOnlyTransaction.executeWithoutResult(status ->
+                    travelPackageRepository.exportAll(tenantId, from, after, travelPackage -> {
+                        try {
+                            generator.writeObject(travelPackage);
+                            generator.writeRaw('\n');
+                            // Once per fetch, so the client sees rows as the cursor advances
+                            if (++written[0] % flushEvery == 0) {
+                                generator.flush();
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }));
+            } catch (UncheckedIOException e) {
+                // The client went away; the query was abandoned with the transaction
+                throw e.getCause();
+            }
+            generator.flush();
+        } finally {
+            exports.release();
+        }
+    }
+}
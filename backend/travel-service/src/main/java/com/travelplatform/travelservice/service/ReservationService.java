@@ -0,0 +1,191 @@
+package com.travelplatform.travelservice.service;
+
+import com.travelplatform.travelservice.dto.ReservationDto;
+import com.travelplatform.travelservice.dto.ReservationRequestDto;
+import com.travelplatform.travelservice.reservation.BookingBatchWriter;
+import com.travelplatform.travelservice.reservation.InventoryKey;
+import com.travelplatform.travelservice.reservation.ReservationHold;
+import com.travelplatform.travelservice.reservation.SeatInventory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Two-step booking: a hold takes seats from {@link SeatInventory} for a short
+ * time, and confirming it hands the booking to {@link BookingBatchWriter}.
+ * Holds that are neither confirmed nor cancelled give their seats back when
+ * they expire, and holds and unused leased seats of an instance that stopped
+ * are given back by the others, once the holds are {@code orphan-grace} past
+ * their expiry and the leases went unrenewed for their timeout.
+ * <p>
+ * Clients are not pinned to an instance, so a hold not found in this
+ * instance's map is looked up in {@code seat_holds}. Deleting the row claims
+ * it, so two instances never both book or release the same hold.
+ */
+@Slf4j
+@Service
+public class ReservationService {
+
+    private final SeatInventory inventory;
+    private final BookingBatchWriter writer;
+    private final long holdTtlMillis;
+    private final int maxHolds;
+    private final Duration orphanGrace;
+    private final int orphanBatchSize;
+
+    private final Map<UUID, ReservationHold> holds = new ConcurrentHashMap<>();
+
+    private final Counter held;
+    private final Counter soldOut;
+    private final Counter confirmed;
+    private final Counter expired;
+    private final Counter cancelled;
+    private final Counter failed;
+
+    public ReservationService(SeatInventory inventory,
+                              BookingBatchWriter writer,
+                              MeterRegistry meterRegistry,
+                              @Value("${reservations.hold-ttl:10m}") Duration holdTtl,
+                              @Value("${reservations.max-holds:100000}") int maxHolds,
+                              @Value("${reservations.orphan-grace:5m}") Duration orphanGrace,
+                              @Value("${reservations.orphan-batch-size:500}") int orphanBatchSize) {
+        this.inventory = inventory;
+        this.writer = writer;
+        this.holdTtlMillis = holdTtl.toMillis();
+        this.maxHolds = maxHolds;
+        this.orphanGrace = orphanGrace;
+        this.orphanBatchSize = orphanBatchSize;
+        this.held = outcome(meterRegistry, "held");
+        this.soldOut = outcome(meterRegistry, "sold-out");
+        this.confirmed = outcome(meterRegistry, "confirmed");
+        this.expired = outcome(meterRegistry, "expired");
+        this.cancelled = outcome(meterRegistry, "cancelled");
+        this.failed = outcome(meterRegistry, "failed");
+        Gauge.builder("travel.reservations.holds", holds, Map::size)
+            .description("Reservations held and not yet confirmed")
+            .register(meterRegistry);
+        Gauge.builder("travel.reservations.inventory.slots", inventory, SeatInventory::size)
+            .description("Package dates with details cached in memory")
+            .register(meterRegistry);
+    }
+
+    public ReservationDto hold(String tenantId, UUID userId, ReservationRequestDto request) {
+        if (holds.size() >= maxHolds) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many pending reservations");
+        }
+        InventoryKey key = new InventoryKey(request.getTravelPackageId(), request.getBookingDate());
+        int travelers = request.getTravelersCount();
+
+        SeatInventory.Slot slot = inventory.slot(tenantId, key);
+        ReservationHold hold = new ReservationHold(UUID.randomUUID(), tenantId, userId, key, travelers,
+            slot.unitPrice().multiply(BigDecimal.valueOf(travelers)), System.currentTimeMillis() + holdTtlMillis);
+        if (!inventory.tryHold(hold)) {
+            soldOut.increment();
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Not enough seats left");
+        }
+        holds.put(hold.id(), hold);
+        held.increment();
+        return toDto(hold, "HELD");
+    }
+
+    public CompletableFuture<ReservationDto> confirm(String tenantId, UUID userId, UUID holdId) {
+        ReservationHold hold = take(tenantId, userId, holdId);
+        if (hold.isExpired(System.currentTimeMillis())) {
+            inventory.release(hold);
+            expired.increment();
+            throw new ResponseStatusException(HttpStatus.GONE, "Reservation has expired");
+        }
+
+        return writer.submit(hold).handle((ignored, error) -> {
+            if (error instanceof CompletionException wrapped) {
+                error = wrapped.getCause();
+            }
+            if (error instanceof ResponseStatusException gone) {
+                // The hold was released or booked elsewhere, its seats are accounted for
+                expired.increment();
+                throw gone;
+            }
+            if (error != null) {
+                // The failed batch rolled back, so the hold is still recorded
+                inventory.release(hold);
+                failed.increment();
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Booking could not be saved", error);
+            }
+            confirmed.increment();
+            return toDto(hold, "CONFIRMED");
+        });
+    }
+
+    public void cancel(String tenantId, UUID userId, UUID holdId) {
+        ReservationHold hold = take(tenantId, userId, holdId);
+        if (!inventory.release(hold)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Reservation not found");
+        }
+        cancelled.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${reservations.sweep-interval:PT1S}")
+    public void releaseExpired() {
+        long now = System.currentTimeMillis();
+        for (ReservationHold hold : holds.values()) {
+            // remove(key, value) settles races with a concurrent confirm or cancel
+            if (hold.isExpired(now) && holds.remove(hold.id(), hold) && inventory.release(hold)) {
+                expired.increment();
+            }
+        }
+        inventory.evictBefore(LocalDate.now());
+    }
+
+    @Scheduled(fixedDelayString = "${reservations.orphan-sweep-interval:PT1M}")
+    public void releaseOrphans() {
+        inventory.reclaimLeases(orphanBatchSize);
+        inventory.releaseOrphans(Instant.now().minus(orphanGrace), orphanBatchSize);
+    }
+
+    private ReservationHold take(String tenantId, UUID userId, UUID holdId) {
+        ReservationHold hold = holds.get(holdId);
+        if (hold == null) {
+            return inventory.find(tenantId, userId, holdId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Reservation not found"));
+        }
+        if (!hold.tenantId().equals(tenantId) || !hold.userId().equals(userId) || !holds.remove(holdId, hold)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Reservation not found");
+        }
+        return hold;
+    }
+
+    private static ReservationDto toDto(ReservationHold hold, String status) {
+        return ReservationDto.builder()
+            .id(hold.id())
+            .travelPackageId(hold.key().travelPackageId())
+            .bookingDate(hold.key().bookingDate())
+            .travelersCount(hold.travelersCount())
+            .totalPrice(hold.totalPrice())
+            .status(status)
+            .expiresAt("HELD".equals(status) ? Instant.ofEpochMilli(hold.expiresAtMillis()) : null)
+            .build();
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("travel.reservations")
+            .description("Reservation requests by outcome")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+}
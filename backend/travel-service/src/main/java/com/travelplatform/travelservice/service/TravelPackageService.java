@@ -0,0 +1,84 @@
+package com.travelplatform.travelservice.service;
+
+import com.travelplatform.travelservice.dto.CursorPageDto;
+import com.travelplatform.travelservice.dto.TravelPackageDto;
+import com.travelplatform.travelservice.dto.TravelPackageSearchCriteria;
+import com.travelplatform.travelservice.dto.TravelPackageSummaryDto;
+import com.travelplatform.travelservice.repository.TravelPackageRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class TravelPackageService {
+
+    public static final String PACKAGE_CACHE = "packages";
+
+    private final TravelPackageRepository travelPackageRepository;
+
+    @Cacheable(cacheNames = PACKAGE_CACHE, key = "#tenantId + ':' + #id", sync = true)
+    public TravelPackageDto getPackage(UUID id, String tenantId) {
+        return travelPackageRepository.findByIdAndTenantId(id, tenantId)
+            .map(TravelPackageDto::from)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Travel package not found"));
+    }
+
+    public CursorPageDto<TravelPackageSummaryDto> listPackages(TravelPackageSearchCriteria criteria, String cursor) {
+        if (cursor != null && !cursor.isEmpty()) {
+            applyCursor(criteria, cursor);
+        }
+
+        // Fetch one extra row to learn whether another page exists without a COUNT
+        int limit = criteria.getLimit();
+        criteria.setLimit(limit + 1);
+        List<TravelPackageSummaryDto> rows = travelPackageRepository.findPage(criteria);
+
+        boolean hasMore = rows.size() > limit;
+        List<TravelPackageSummaryDto> items = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = hasMore ? encodeCursor(criteria.getSort(), items.get(items.size() - 1)) : null;
+
+        return CursorPageDto.<TravelPackageSummaryDto>builder()
+            .items(items)
+            .nextCursor(nextCursor)
+            .hasMore(hasMore)
+            .build();
+    }
+
+    private static String encodeCursor(TravelPackageSearchCriteria.Sort sort, TravelPackageSummaryDto last) {
+        String position = sort == TravelPackageSearchCriteria.Sort.NEWEST
+            ? last.getCreatedAt().toString()
+            : last.getPrice().toPlainString();
+        String raw = sort.name() + '|' + position + '|' + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void applyCursor(TravelPackageSearchCriteria criteria, String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            if (parts.length != 3 || !parts[0].equals(criteria.getSort().name())) {
+                throw new IllegalArgumentException("Cursor does not match sort order");
+            }
+            if (criteria.getSort() == TravelPackageSearchCriteria.Sort.NEWEST) {
+                criteria.setAfterCreatedAt(LocalDateTime.parse(parts[1]));
+            } else {
+                criteria.setAfterPrice(new BigDecimal(parts[1]));
+            }
+            criteria.setAfterId(UUID.fromString(parts[2]));
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
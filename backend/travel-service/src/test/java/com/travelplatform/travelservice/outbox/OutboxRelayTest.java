@@ -0,0 +1,166 @@
+package com.travelplatform.travelservice.outbox;
+
+import com.travelplatform.travelservice.service.TravelPackageService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Relays on separate pools over one H2 database stand in for travel-service
+ * instances; a shared {@link MockProducer} stands in for the broker, which
+ * sees sends in the order they were made.
+ */
+class OutboxRelayTest {
+
+    private static final String TENANT = "acme";
+
+    private final MockProducer<String, String> producer = new MockProducer<>(true,
+        new StringSerializer(), new StringSerializer()) {
+        @Override
+        public void close(Duration timeout) {
+            // KafkaTemplate closes its producer after every send; keep this one for the assertions
+        }
+    };
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private String url;
+    private JdbcTemplate jdbcTemplate;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        url = "jdbc:h2:mem:outbox-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        relay = relay(100);
+        HikariDataSource schema = pools.get(0);
+        new ResourceDatabasePopulator(new ClassPathResource("h2/outbox-schema.sql")).execute(schema);
+        jdbcTemplate = new JdbcTemplate(schema);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pools.forEach(HikariDataSource::close);
+    }
+
+    @Test
+    void eventsOfAnAggregateArePublishedInOrderAcrossInstances() throws Exception {
+        List<UUID> aggregates = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        int eventsPerAggregate = 200;
+        List<OutboxRelay> relays = List.of(relay, relay(7), relay(7), relay(7));
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(relays.size() + 1);
+        try {
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int sequence = 0; sequence < eventsPerAggregate; sequence++) {
+                    for (UUID aggregate : aggregates) {
+                        insert(OutboxWriter.BOOKING, aggregate, sequence);
+                    }
+                }
+                return null;
+            }));
+            for (OutboxRelay instance : relays) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    while (producer.history().size() < aggregates.size() * eventsPerAggregate) {
+                        instance.relay();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<String, List<Integer>> published = new HashMap<>();
+        for (ProducerRecord<String, String> record : producer.history()) {
+            published.computeIfAbsent(record.key(), key -> new ArrayList<>()).add(Integer.valueOf(record.value()));
+        }
+        assertThat(published).hasSize(aggregates.size());
+        for (List<Integer> sequences : published.values()) {
+            assertThat(sequences).hasSize(eventsPerAggregate).isSorted();
+        }
+    }
+
+    @Test
+    void anInstanceLeavesTheOutboxToTheOneRelaying() {
+        insert(OutboxWriter.BOOKING, UUID.randomUUID(), 0);
+        OutboxRelay second = relay(100);
+
+        // The first instance is mid-batch
+        new TransactionTemplate(new DataSourceTransactionManager(pools.get(0))).executeWithoutResult(status -> {
+            jdbcTemplate.queryForList("SELECT id FROM outbox_relay_lock FOR UPDATE", Integer.class);
+            assertThat(second.relayBatch()).isZero();
+        });
+
+        assertThat(producer.history()).isEmpty();
+        assertThat(second.relayBatch()).isEqualTo(1);
+    }
+
+    @Test
+    void packageEventsEvictTheCachedPackage() {
+        UUID changed = UUID.randomUUID();
+        UUID untouched = UUID.randomUUID();
+        Cache packages = cacheManager.getCache(TravelPackageService.PACKAGE_CACHE);
+        packages.put(TENANT + ':' + changed, "stale");
+        packages.put(TENANT + ':' + untouched, "current");
+        insert(OutboxWriter.PACKAGE, changed, 0);
+        insert(OutboxWriter.BOOKING, untouched, 0);
+
+        assertThat(relay.relayBatch()).isEqualTo(2);
+
+        assertThat(packages.get(TENANT + ':' + changed)).isNull();
+        assertThat(packages.get(TENANT + ':' + untouched)).isNotNull();
+        assertThat(producer.history()).hasSize(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_events", Integer.class)).isZero();
+    }
+
+    private void insert(String aggregateType, UUID aggregateId, int sequence) {
+        jdbcTemplate.update("INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, tenant_id, payload) "
+            + "VALUES (?, ?, 'updated', ?, ?)", aggregateType, aggregateId, TENANT, Integer.toString(sequence));
+    }
+
+    private OutboxRelay relay(int batchSize) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl(url);
+        pool.setUsername("sa");
+        pool.setMaximumPoolSize(4);
+        pools.add(pool);
+        return new OutboxRelay(pool, new DataSourceTransactionManager(pool), new KafkaTemplate<>(() -> producer),
+            cacheManager, new SimpleMeterRegistry(), "travel.bookings", "travel.packages", "travel.events",
+            batchSize, Duration.ofSeconds(5));
+    }
+}
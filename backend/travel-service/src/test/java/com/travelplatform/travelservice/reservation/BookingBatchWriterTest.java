@@ -0,0 +1,98 @@
+package com.travelplatform.travelservice.reservation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.travelplatform.travelservice.outbox.OutboxWriter;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BookingBatchWriterTest {
+
+    private static final String TENANT = "acme";
+    private static final int CAPACITY = 10;
+    private static final LocalDate DATE = LocalDate.now().plusDays(30);
+
+    private HikariDataSource pool;
+    private JdbcTemplate jdbcTemplate;
+    private SeatInventory inventory;
+    private BookingBatchWriter writer;
+    private InventoryKey key;
+
+    @BeforeEach
+    void setUp() {
+        pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:bookings-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        pool.setUsername("sa");
+        new ResourceDatabasePopulator(new ClassPathResource("h2/reservations-schema.sql"),
+            new ClassPathResource("h2/outbox-schema.sql")).execute(pool);
+        jdbcTemplate = new JdbcTemplate(pool);
+        UUID packageId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO travel_packages (id, tenant_id, price, max_travelers) VALUES (?, ?, ?, ?)",
+            packageId, TENANT, new BigDecimal("120.00"), CAPACITY);
+        key = new InventoryKey(packageId, DATE);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(pool);
+        inventory = new SeatInventory(pool, transactionManager, 20, Duration.ofMinutes(1), Duration.ofSeconds(1));
+        writer = new BookingBatchWriter(pool, transactionManager, null,
+            new OutboxWriter(pool, new ObjectMapper().findAndRegisterModules()), new SimpleMeterRegistry(), 100, 50);
+        writer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writer.stop();
+        pool.close();
+    }
+
+    @Test
+    void holdReleasedBeforeTheWriteIsNotBooked() throws Exception {
+        ReservationHold released = hold(4, System.currentTimeMillis() - 1);
+        assertThat(inventory.tryHold(released)).isTrue();
+        ReservationHold live = hold(3, System.currentTimeMillis() + 600_000);
+        assertThat(inventory.tryHold(live)).isTrue();
+        // The orphan sweep gives the seats back while the confirm is on its way
+        assertThat(inventory.releaseOrphans(Instant.now(), 100)).isEqualTo(1);
+
+        assertThatThrownBy(() -> writer.submit(released).get(10, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .cause()
+            .isInstanceOfSatisfying(ResponseStatusException.class,
+                e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.GONE));
+        writer.submit(live).get(10, TimeUnit.SECONDS);
+        inventory.returnLeases();
+
+        assertThat(bookedSeats()).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM seat_holds", Integer.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_events", Integer.class)).isEqualTo(1);
+        assertThat(bookedSeats() + inventory.remaining(key)).isEqualTo(CAPACITY);
+    }
+
+    private ReservationHold hold(int travelers, long expiresAtMillis) {
+        SeatInventory.Slot slot = inventory.slot(TENANT, key);
+        return new ReservationHold(UUID.randomUUID(), TENANT, UUID.randomUUID(), key, travelers,
+            slot.unitPrice().multiply(BigDecimal.valueOf(travelers)), expiresAtMillis);
+    }
+
+    private int bookedSeats() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(travelers_count), 0) FROM bookings", Integer.class);
+    }
+}
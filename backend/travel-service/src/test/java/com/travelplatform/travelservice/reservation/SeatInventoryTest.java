@@ -0,0 +1,220 @@
+package com.travelplatform.travelservice.reservation;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two inventories on separate pools over one database stand in for two
+ * travel-service instances selling the same package.
+ */
+class SeatInventoryTest {
+
+    private static final String TENANT = "acme";
+    private static final int CAPACITY = 40;
+    private static final int LEASE_SIZE = 10;
+    private static final LocalDate DATE = LocalDate.now().plusDays(30);
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private JdbcTemplate jdbcTemplate;
+    private SeatInventory first;
+    private SeatInventory second;
+    private UUID packageId;
+
+    @BeforeEach
+    void setUp() {
+        String url = "jdbc:h2:mem:seats-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        first = inventory(url);
+        second = inventory(url);
+        HikariDataSource schema = pools.get(0);
+        new ResourceDatabasePopulator(new ClassPathResource("h2/reservations-schema.sql")).execute(schema);
+        jdbcTemplate = new JdbcTemplate(schema);
+        packageId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO travel_packages (id, tenant_id, price, max_travelers) VALUES (?, ?, ?, ?)",
+            packageId, TENANT, new BigDecimal("120.00"), CAPACITY);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pools.forEach(HikariDataSource::close);
+    }
+
+    @Test
+    void concurrentHoldsOnTwoInstancesNeverOversell() throws Exception {
+        InventoryKey key = new InventoryKey(packageId, DATE);
+        int threads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger held = new AtomicInteger();
+        AtomicInteger released = new AtomicInteger();
+        List<Future<?>> workers = new ArrayList<>(threads);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int t = 0; t < threads; t++) {
+                SeatInventory inventory = t % 2 == 0 ? first : second;
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 50; i++) {
+                        ReservationHold hold = hold(inventory, key, 1 + random.nextInt(3));
+                        if (!inventory.tryHold(hold)) {
+                            continue;
+                        }
+                        held.addAndGet(hold.travelersCount());
+                        // Some holds are cancelled, so seats go back and are sold again
+                        if (random.nextInt(4) == 0 && inventory.release(hold)) {
+                            released.addAndGet(hold.travelersCount());
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int outstanding = held.get() - released.get();
+        assertThat(outstanding).isLessThanOrEqualTo(CAPACITY);
+        assertThat(heldSeats()).isEqualTo(outstanding);
+        // Far more seats were asked for than exist, so few were left unleased
+        assertThat(first.remaining(key)).isLessThan(CAPACITY / 4);
+        first.returnLeases();
+        second.returnLeases();
+        assertThat(first.remaining(key) + outstanding).isEqualTo(CAPACITY);
+    }
+
+    @Test
+    void seedingCountsExistingBookings() {
+        jdbcTemplate.update("INSERT INTO bookings (user_id, travel_package_id, booking_date, travelers_count, "
+                + "total_price, status, tenant_id) VALUES (?, ?, ?, 15, 1800.00, 'CONFIRMED', ?)",
+            UUID.randomUUID(), packageId, Date.valueOf(DATE), TENANT);
+        InventoryKey key = new InventoryKey(packageId, DATE);
+
+        first.slot(TENANT, key);
+        second.slot(TENANT, key);
+
+        assertThat(first.remaining(key)).isEqualTo(CAPACITY - 15);
+        assertThat(second.tryHold(hold(second, key, CAPACITY - 15))).isTrue();
+        assertThat(first.tryHold(hold(first, key, 1))).isFalse();
+    }
+
+    @Test
+    void holdsOfAStoppedInstanceAreReleasedByAnother() {
+        InventoryKey key = new InventoryKey(packageId, DATE);
+        first.slot(TENANT, key);
+        ReservationHold abandoned = new ReservationHold(UUID.randomUUID(), TENANT, UUID.randomUUID(), key, 5,
+            new BigDecimal("600.00"), System.currentTimeMillis() - 1);
+        assertThat(first.tryHold(abandoned)).isTrue();
+        ReservationHold live = hold(first, key, 3);
+        assertThat(first.tryHold(live)).isTrue();
+
+        // The first instance stops without returning its unused leased seats
+        assertThat(second.reclaimLeases(Instant.now().plusSeconds(1), 100)).isEqualTo(1);
+        assertThat(second.releaseOrphans(Instant.now(), 100)).isEqualTo(1);
+
+        assertThat(second.remaining(key)).isEqualTo(CAPACITY - 3);
+        assertThat(heldSeats()).isEqualTo(3);
+        // Already given back, so the seats are not returned twice
+        assertThat(first.release(abandoned)).isFalse();
+        assertThat(second.remaining(key)).isEqualTo(CAPACITY - 3);
+    }
+
+    @Test
+    void holdTakenOnOneInstanceIsClaimedOnAnother() {
+        InventoryKey key = new InventoryKey(packageId, DATE);
+        ReservationHold hold = hold(first, key, 3);
+        assertThat(first.tryHold(hold)).isTrue();
+
+        assertThat(second.find(TENANT, UUID.randomUUID(), hold.id())).isEmpty();
+        ReservationHold found = second.find(TENANT, hold.userId(), hold.id()).orElseThrow();
+        assertThat(found).isEqualTo(hold);
+
+        assertThat(second.release(found)).isTrue();
+        // The instance that took it lost the claim and must not return the seats again
+        assertThat(first.release(hold)).isFalse();
+        first.returnLeases();
+        assertThat(first.remaining(key)).isEqualTo(CAPACITY);
+        assertThat(second.find(TENANT, hold.userId(), hold.id())).isEmpty();
+    }
+
+    @Test
+    void leasedSeatsAreHeldWithoutTheInventoryRow() {
+        InventoryKey key = new InventoryKey(packageId, DATE);
+        assertThat(first.tryHold(hold(first, key, 1))).isTrue();
+        assertThat(first.remaining(key)).isEqualTo(CAPACITY - LEASE_SIZE);
+
+        // Taken from under the lease: only a refill would notice
+        jdbcTemplate.update("UPDATE seat_inventory SET remaining = 0");
+        for (int i = 1; i < LEASE_SIZE; i++) {
+            assertThat(first.tryHold(hold(first, key, 1))).isTrue();
+        }
+        assertThat(first.tryHold(hold(first, key, 1))).isFalse();
+        // Sold out is now answered from memory until the recheck
+        jdbcTemplate.update("UPDATE seat_inventory SET remaining = ?", CAPACITY - LEASE_SIZE);
+        assertThat(first.tryHold(hold(first, key, 1))).isFalse();
+        assertThat(second.tryHold(hold(second, key, 1))).isTrue();
+    }
+
+    @Test
+    void unusedLeasedSeatsGoBackWhenADateIsIdle() {
+        InventoryKey key = new InventoryKey(packageId, DATE);
+        ReservationHold hold = hold(first, key, 2);
+        assertThat(first.tryHold(hold)).isTrue();
+
+        first.renewLeases();
+        assertThat(first.remaining(key)).isEqualTo(CAPACITY - LEASE_SIZE);
+        first.renewLeases();
+        assertThat(first.remaining(key)).isEqualTo(CAPACITY - 2);
+        // Cancelled after its lease gave the rest back
+        assertThat(first.release(hold)).isTrue();
+        first.renewLeases();
+        assertThat(first.remaining(key)).isEqualTo(CAPACITY);
+    }
+
+    private ReservationHold hold(SeatInventory inventory, InventoryKey key, int travelers) {
+        SeatInventory.Slot slot = inventory.slot(TENANT, key);
+        return new ReservationHold(UUID.randomUUID(), TENANT, UUID.randomUUID(), key, travelers,
+            slot.unitPrice().multiply(BigDecimal.valueOf(travelers)), System.currentTimeMillis() + 600_000);
+    }
+
+    private int heldSeats() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(seats), 0) FROM seat_holds", Integer.class);
+    }
+
+    private SeatInventory inventory(String url) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl(url);
+        pool.setUsername("sa");
+        pool.setMaximumPoolSize(8);
+        pools.add(pool);
+        return new SeatInventory(pool, new DataSourceTransactionManager(pool), LEASE_SIZE, Duration.ofMinutes(1),
+            Duration.ofMinutes(1));
+    }
+}
@@ -0,0 +1,98 @@
+package com.travelplatform.travelservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.travelplatform.travelservice.dto.TravelPackageDto;
+import com.travelplatform.travelservice.repository.TravelPackageRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Rows are generated as the export asks for them, standing in for a database
+ * cursor, so any growth in the heap is the export's own.
+ */
+class PackageExportServiceTest {
+
+    private static final String TENANT = "acme";
+    private static final int ROWS = 2_000_000;
+    private static final int SAMPLE_EVERY = 250_000;
+    private static final long MAX_GROWTH = 32L * 1024 * 1024;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void heapStaysFlatOverMillionsOfRows() throws Exception {
+        TravelPackageRepository repository = mock(TravelPackageRepository.class);
+        List<Long> heap = new ArrayList<>();
+        LocalDateTime createdAt = LocalDateTime.now();
+        doAnswer(invocation -> {
+            Consumer<TravelPackageDto> sink = invocation.getArgument(3);
+            heap.add(usedHeapAfterGc());
+            for (int i = 1; i <= ROWS; i++) {
+                sink.accept(new TravelPackageDto(UUID.randomUUID(), "Package " + i, "A week somewhere warm",
+                    "Lisbon", "CITY", new BigDecimal("899.00"), 7, 20, true, createdAt, createdAt));
+                if (i % SAMPLE_EVERY == 0) {
+                    heap.add(usedHeapAfterGc());
+                }
+            }
+            return null;
+        }).when(repository).exportAll(eq(TENANT), isNull(), isNull(), any(Consumer.class));
+        PackageExportService service = new PackageExportService(repository, new ObjectMapper().findAndRegisterModules(),
+            mock(PlatformTransactionManager.class), 1, 50);
+        CountingOutputStream out = new CountingOutputStream();
+
+        service.export(TENANT, null, out);
+
+        assertThat(out.lines).isEqualTo(ROWS);
+        // Every row went out, far more bytes than the heap was allowed to grow by
+        assertThat(out.bytes).isGreaterThan(100L * ROWS);
+        assertThat(Collections.max(heap) - heap.get(0)).isLessThan(MAX_GROWTH);
+    }
+
+    private long usedHeapAfterGc() {
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long bytes;
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+-- The outbox of travel_platform_travels; rows are written by triggers and OutboxWriter
+-- Lets OutboxWriter's CAST(? AS jsonb) run on H2
+CREATE DOMAIN IF NOT EXISTS jsonb AS VARCHAR(4000);
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    aggregate_type VARCHAR(50) NOT NULL,
+    aggregate_id UUID NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    tenant_id VARCHAR(100) NOT NULL,
+    payload VARCHAR(4000) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS outbox_relay_lock (
+    id INTEGER PRIMARY KEY
+);
+
+MERGE INTO outbox_relay_lock KEY (id) VALUES (1);
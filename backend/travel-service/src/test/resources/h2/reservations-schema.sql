@@ -0,0 +1,50 @@
+-- The columns of travel_platform_travels that seat reservations read and write
+CREATE TABLE IF NOT EXISTS travel_packages (
+    id UUID PRIMARY KEY,
+    tenant_id VARCHAR(100) NOT NULL,
+    price DECIMAL(10,2) NOT NULL,
+    max_travelers INTEGER NOT NULL,
+    is_active BOOLEAN NOT NULL DEFAULT TRUE
+);
+
+CREATE TABLE IF NOT EXISTS bookings (
+    id UUID DEFAULT RANDOM_UUID() PRIMARY KEY,
+    user_id UUID NOT NULL,
+    travel_package_id UUID,
+    booking_date DATE NOT NULL,
+    travelers_count INTEGER NOT NULL,
+    total_price DECIMAL(10,2) NOT NULL,
+    status VARCHAR(50) DEFAULT 'PENDING',
+    tenant_id VARCHAR(100) NOT NULL DEFAULT 'default'
+);
+
+CREATE TABLE IF NOT EXISTS seat_inventory (
+    travel_package_id UUID NOT NULL,
+    booking_date DATE NOT NULL,
+    remaining INTEGER NOT NULL,
+    PRIMARY KEY (travel_package_id, booking_date)
+);
+
+CREATE TABLE IF NOT EXISTS seat_leases (
+    id UUID PRIMARY KEY,
+    travel_package_id UUID NOT NULL,
+    booking_date DATE NOT NULL,
+    granted INTEGER NOT NULL,
+    renewed_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_seat_leases_renewed_at ON seat_leases(renewed_at);
+
+CREATE TABLE IF NOT EXISTS seat_holds (
+    id UUID PRIMARY KEY,
+    tenant_id VARCHAR(100) NOT NULL,
+    user_id UUID NOT NULL,
+    travel_package_id UUID NOT NULL,
+    booking_date DATE NOT NULL,
+    seats INTEGER NOT NULL,
+    total_price DECIMAL(10,2) NOT NULL,
+    lease_id UUID NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_seat_holds_lease_id ON seat_holds(lease_id);
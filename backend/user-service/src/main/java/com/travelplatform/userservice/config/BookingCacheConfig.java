@@ -0,0 +1,35 @@
+package com.travelplatform.userservice.config;
+
+import com.travelplatform.userservice.service.BookingQueryService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+@Configuration
+public class BookingCacheConfig {
+
+    @Bean
+    public MessageListener bookingInvalidationListener(RedisMessageListenerContainer redisMessageListenerContainer,
+                                                       BookingQueryService bookingQueryService) {
+        // The cache TTL bounds staleness while the subscription is down
+        MessageListener listener = (message, pattern) -> {
+            // Payload is "tenantId:userId"; user ids are UUIDs so the last colon splits it
+            String payload = new String(message.getBody(), StandardCharsets.UTF_8);
+            int separator = payload.lastIndexOf(':');
+            if (separator > 0) {
+                try {
+                    bookingQueryService.evict(payload.substring(0, separator), UUID.fromString(payload.substring(separator + 1)));
+                } catch (IllegalArgumentException ignored) {
+                    // Not a booking owner we could have cached
+                }
+            }
+        };
+        redisMessageListenerContainer.addMessageListener(listener, new ChannelTopic(BookingQueryService.INVALIDATION_CHANNEL));
+        return listener;
+    }
+}
@@ -0,0 +1,52 @@
+package com.travelplatform.userservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * The users database backs JPA as before. Bookings live in the travels
+ * database, so they get their own small read-only pool.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("bookings.datasource")
+    public DataSourceProperties bookingsDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("bookings.datasource.hikari")
+    public HikariDataSource bookingsDataSource(
+            @Qualifier("bookingsDataSourceProperties") DataSourceProperties bookingsDataSourceProperties) {
+        return bookingsDataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public NamedParameterJdbcTemplate bookingsJdbcTemplate(@Qualifier("bookingsDataSource") DataSource bookingsDataSource) {
+        return new NamedParameterJdbcTemplate(bookingsDataSource);
+    }
+}
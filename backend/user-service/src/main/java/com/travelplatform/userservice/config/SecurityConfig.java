@@ -1,5 +1,6 @@
 package com.travelplatform.userservice.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -16,6 +17,9 @@ import org.springframework.security.web.SecurityFilterChain;
 @EnableWebSecurity
 public class SecurityConfig {
 
+    @Value("${security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -34,10 +38,12 @@ public class SecurityConfig {
                 .requestMatchers("/actuator/**").permitAll()
                 // Allow health check
                 .requestMatchers("/health").permitAll()
+                // Error pages keep the status that was sent, such as 400 for an unknown tenant
+                .requestMatchers("/error").permitAll()
                 // Allow auth endpoints without authentication
                 .requestMatchers("/api/v1/users/auth/**").permitAll()
-                // Allow bookings endpoint without authentication (for development)
-                .requestMatchers("/api/v1/users/bookings").permitAll()
+                // Bookings are scoped by the X-User-Id the gateway derives from the access token
+                .requestMatchers("/api/v1/users/bookings", "/api/v1/users/bookings/export").permitAll()
                 // Require authentication for everything else
                 .anyRequest().authenticated()
             )
@@ -59,6 +65,7 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        // Hashes below this cost are re-encoded on the next successful login
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 } 
\ No newline at end of file
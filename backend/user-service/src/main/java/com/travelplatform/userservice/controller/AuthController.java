@@ -1,12 +1,12 @@
 package com.travelplatform.userservice.controller;
 
+import com.travelplatform.common.tenant.TenantResolver;
 import com.travelplatform.userservice.dto.AuthResponseDto;
 import com.travelplatform.userservice.dto.LoginDto;
 import com.travelplatform.userservice.dto.UserRegistrationDto;
 import com.travelplatform.userservice.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -14,6 +14,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/users/auth")
@@ -25,24 +26,21 @@ public class AuthController {
 
     @PostMapping("/register")
     @Operation(summary = "Register a new user", description = "Register a new user with the system")
-    public ResponseEntity<AuthResponseDto> register(@Valid @RequestBody UserRegistrationDto registrationDto,
-                                                  HttpServletRequest request) {
-        String tenantId = extractTenantId(request);
+    public CompletableFuture<ResponseEntity<AuthResponseDto>> register(@Valid @RequestBody UserRegistrationDto registrationDto,
+                                                                       @RequestAttribute(TenantResolver.TENANT_ATTRIBUTE) String tenantId) {
         registrationDto.setTenantId(tenantId);
-        
-        AuthResponseDto response = authService.register(registrationDto);
-        return ResponseEntity.ok(response);
+
+        // Completes on the password hashing pool; the request thread is released meanwhile
+        return authService.register(registrationDto).thenApply(ResponseEntity::ok);
     }
 
     @PostMapping("/login")
     @Operation(summary = "User login", description = "Authenticate user and return JWT tokens")
-    public ResponseEntity<AuthResponseDto> login(@Valid @RequestBody LoginDto loginDto,
-                                               HttpServletRequest request) {
-        String tenantId = extractTenantId(request);
+    public CompletableFuture<ResponseEntity<AuthResponseDto>> login(@Valid @RequestBody LoginDto loginDto,
+                                                                    @RequestAttribute(TenantResolver.TENANT_ATTRIBUTE) String tenantId) {
         loginDto.setTenantId(tenantId);
-        
-        AuthResponseDto response = authService.login(loginDto);
-        return ResponseEntity.ok(response);
+
+        return authService.login(loginDto).thenApply(ResponseEntity::ok);
     }
 
     @PostMapping("/refresh")
@@ -69,8 +67,7 @@ public class AuthController {
     @PostMapping("/forgot-password")
     @Operation(summary = "Forgot password", description = "Send password reset email")
     public ResponseEntity<Void> forgotPassword(@RequestParam String email,
-                                             HttpServletRequest request) {
-        String tenantId = extractTenantId(request);
+                                             @RequestAttribute(TenantResolver.TENANT_ATTRIBUTE) String tenantId) {
         authService.forgotPassword(email, tenantId);
         return ResponseEntity.ok().build();
     }
@@ -88,18 +85,4 @@ public class AuthController {
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("User Service is healthy!");
     }
-
-
-
-    private String extractTenantId(HttpServletRequest request) {
-        String tenantId = request.getHeader("X-Tenant-ID");
-        if (tenantId == null) {
-            // Extract from subdomain if available
-            String host = request.getHeader("Host");
-            if (host != null && host.contains(".")) {
-                tenantId = host.split("\\.")[0];
-            }
-        }
-        return tenantId != null ? tenantId : "default";
-    }
-} 
\ No newline at end of file
+}
@@ -1,68 +1,84 @@
 package com.travelplatform.userservice.controller;
 
+import com.travelplatform.common.security.PermissionMask;
+import com.travelplatform.common.tenant.TenantResolver;
+import com.travelplatform.userservice.dto.BookingPageDto;
+import com.travelplatform.userservice.service.BookingExportService;
+import com.travelplatform.userservice.service.BookingQueryService;
+import com.travelplatform.userservice.service.PermissionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.util.List;
-import java.util.Map;
+import java.io.IOException;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/users")
+@RequiredArgsConstructor
+@Validated
 @Tag(name = "Bookings", description = "Bookings management APIs")
 public class BookingsController {
 
-    @GetMapping("/bookings")
-    @Operation(summary = "Get user bookings", description = "Get all bookings for the authenticated user")
-    public ResponseEntity<Map<String, Object>> getBookings(HttpServletRequest request) {
-        // Mock bookings data for development
-        List<Map<String, Object>> mockBookings = List.of(
-            Map.of(
-                "id", "1",
-                "travelPackageId", "1",
-                "travelPackageTitle", "Sunny Beach Paradise",
-                "travelPackageImage", "https://images.unsplash.com/photo-1537953773345-d172ccf13cf1?w=800&h=600&fit=crop",
-                "destination", "Bali, Indonesia",
-                "bookingDate", "2024-09-15",
-                "travelersCount", 2,
-                "totalPrice", 2599.98,
-                "status", "CONFIRMED",
-                "createdAt", "2024-08-01T10:30:00Z"
-            ),
-            Map.of(
-                "id", "2",
-                "travelPackageId", "3",
-                "travelPackageTitle", "City Break in Paris",
-                "travelPackageImage", "https://images.unsplash.com/photo-1499856871958-5b9627545d1a?w=800&h=600&fit=crop",
-                "destination", "Paris, France",
-                "bookingDate", "2024-08-05",
-                "travelersCount", 2,
-                "totalPrice", 1599.98,
-                "status", "CONFIRMED",
-                "createdAt", "2024-07-15T14:20:00Z"
-            ),
-            Map.of(
-                "id", "3",
-                "travelPackageId", "5",
-                "travelPackageTitle", "Island Hopping",
-                "travelPackageImage", "https://images.unsplash.com/photo-1570077188670-e3a8d69ac5ff?w=800&h=600&fit=crop",
-                "destination", "Greek Islands",
-                "bookingDate", "2024-12-01",
-                "travelersCount", 2,
-                "totalPrice", 3199.98,
-                "status", "PENDING",
-                "createdAt", "2024-08-02T09:15:00Z"
-            )
-        );
+    private final BookingQueryService bookingQueryService;
+    private final BookingExportService bookingExportService;
 
-        Map<String, Object> response = Map.of(
-            "bookings", mockBookings,
-            "total", mockBookings.size(),
-            "message", "Bookings retrieved successfully"
-        );
+    @GetMapping("/bookings")
+    @Operation(summary = "Get user bookings", description = "Get the authenticated user's bookings, newest first, using cursor pagination")
+    public ResponseEntity<BookingPageDto> getBookings(
+            @RequestHeader(value = "X-User-Id", required = false) String userId,
+            @RequestAttribute(TenantResolver.TENANT_ATTRIBUTE) String tenantId,
+            @RequestParam(required = false) @Pattern(regexp = "PENDING|CONFIRMED|CANCELLED|COMPLETED") String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) @Min(1) @Max(100) Integer limit) {
+        // X-User-Id is set by the gateway from a verified access token
+        if (userId == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+        UUID owner;
+        try {
+            owner = UUID.fromString(userId);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid user id");
+        }
+        return ResponseEntity.ok(bookingQueryService.getBookings(tenantId, owner, status, cursor, limit));
+    }
 
-        return ResponseEntity.ok(response);
+    @GetMapping("/bookings/export")
+    @Operation(summary = "Export tenant bookings",
+        description = "Stream every booking of the tenant, oldest first, as newline-delimited JSON. "
+            + "Pass the id of the last booking received as 'after' to resume an interrupted export")
+    public void exportBookings(
+            @RequestHeader(value = "X-User-Permissions", required = false) String permissions,
+            @RequestAttribute(TenantResolver.TENANT_ATTRIBUTE) String tenantId,
+            @RequestParam(required = false) UUID after,
+            HttpServletResponse response) throws IOException {
+        // X-User-Permissions is the hex permission mask the gateway derives from the access token
+        if (permissions == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+        long granted;
+        try {
+            granted = Long.parseUnsignedLong(permissions, 16);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid permissions");
+        }
+        if (!PermissionService.hasAll(granted, PermissionMask.EXPORT)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+        }
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        bookingExportService.export(tenantId, after, response.getOutputStream());
     }
-} 
\ No newline at end of file
+}
@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 import java.util.Set;
+import java.util.UUID;
 
 @Data
 @Builder
@@ -26,7 +27,7 @@ public class AuthResponseDto {
     @NoArgsConstructor
     @AllArgsConstructor
     public static class UserDto {
-        private Long id;
+        private UUID id;
         private String username;
         private String email;
         private String firstName;
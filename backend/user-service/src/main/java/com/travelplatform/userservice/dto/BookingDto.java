@@ -0,0 +1,28 @@
+package com.travelplatform.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingDto {
+
+    private UUID id;
+    private UUID travelPackageId;
+    private String travelPackageTitle;
+    private String destination;
+    private LocalDate bookingDate;
+    private Integer travelersCount;
+    private BigDecimal totalPrice;
+    private String status;
+    private LocalDateTime createdAt;
+}
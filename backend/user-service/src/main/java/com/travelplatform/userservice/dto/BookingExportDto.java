@@ -0,0 +1,32 @@
+package com.travelplatform.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One line of a tenant's bookings export: the row as stored, without the
+ * package details a user's own listing joins in.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingExportDto {
+
+    private UUID id;
+    private UUID userId;
+    private UUID travelPackageId;
+    private LocalDate bookingDate;
+    private Integer travelersCount;
+    private BigDecimal totalPrice;
+    private String status;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
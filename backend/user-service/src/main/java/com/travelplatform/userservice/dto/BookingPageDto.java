@@ -0,0 +1,19 @@
+package com.travelplatform.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingPageDto {
+
+    private List<BookingDto> bookings;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -1,18 +1,22 @@
 package com.travelplatform.userservice.entity;
 
+import com.travelplatform.common.security.PermissionMask;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.UUID;
 
 @Entity
 @Table(name = "permissions", indexes = {
@@ -26,8 +30,8 @@ import java.util.Set;
 public class Permission {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
 
     @NotBlank
     @Size(max = 100)
@@ -51,6 +55,8 @@ public class Permission {
     private String tenantId;
 
     @ManyToMany(mappedBy = "permissions")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Set<Role> roles = new HashSet<>();
 
     @CreationTimestamp
@@ -93,6 +99,17 @@ public class Permission {
     public static final String ANALYTICS_UPDATE = "ANALYTICS_UPDATE";
     public static final String ANALYTICS_DELETE = "ANALYTICS_DELETE";
 
+    /**
+     * Mask bit of a predefined permission, or 0 for names outside the catalogue.
+     */
+    public static long bit(String name) {
+        return PermissionMask.bit(name);
+    }
+
+    public static long mask(String... names) {
+        return PermissionMask.mask(names);
+    }
+
     public String getFullPermissionName() {
         return resource + ":" + action;
     }
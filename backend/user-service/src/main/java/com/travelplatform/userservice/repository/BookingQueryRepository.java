@@ -0,0 +1,129 @@
+package com.travelplatform.userservice.repository;
+
+import com.travelplatform.userservice.dto.BookingDto;
+import com.travelplatform.userservice.dto.BookingExportDto;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Read-only access to the bookings table in the travels database.
+ */
+@Repository
+public class BookingQueryRepository {
+
+    private static final String SELECT_BOOKINGS = "SELECT b.id, b.travel_package_id, p.title, p.destination, "
+        + "b.booking_date, b.travelers_count, b.total_price, b.status, b.created_at "
+        + "FROM bookings b LEFT JOIN travel_packages p ON p.id = b.travel_package_id "
+        + "WHERE b.user_id = :userId AND b.tenant_id = :tenantId";
+
+    private static final RowMapper<BookingDto> ROW_MAPPER = (rs, rowNum) -> BookingDto.builder()
+        .id(rs.getObject("id", UUID.class))
+        .travelPackageId(rs.getObject("travel_package_id", UUID.class))
+        .travelPackageTitle(rs.getString("title"))
+        .destination(rs.getString("destination"))
+        .bookingDate(rs.getObject("booking_date", LocalDate.class))
+        .travelersCount(rs.getInt("travelers_count"))
+        .totalPrice(rs.getBigDecimal("total_price"))
+        .status(rs.getString("status"))
+        .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+        .build();
+
+    private static final String EXPORT_BOOKINGS = "SELECT id, user_id, travel_package_id, booking_date, "
+        + "travelers_count, total_price, status, created_at, updated_at FROM bookings WHERE tenant_id = :tenantId";
+
+    private static final RowMapper<BookingExportDto> EXPORT_ROW_MAPPER = (rs, rowNum) -> BookingExportDto.builder()
+        .id(rs.getObject("id", UUID.class))
+        .userId(rs.getObject("user_id", UUID.class))
+        .travelPackageId(rs.getObject("travel_package_id", UUID.class))
+        .bookingDate(rs.getObject("booking_date", LocalDate.class))
+        .travelersCount(rs.getInt("travelers_count"))
+        .totalPrice(rs.getBigDecimal("total_price"))
+        .status(rs.getString("status"))
+        .createdAt(rs.getObject("created_at", LocalDateTime.class))
+        .updatedAt(rs.getObject("updated_at", LocalDateTime.class))
+        .build();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate exportJdbcTemplate;
+    private final TransactionTemplate exportTransaction;
+
+    public BookingQueryRepository(@Qualifier("bookingsJdbcTemplate") NamedParameterJdbcTemplate jdbcTemplate,
+                                  @Qualifier("bookingsDataSource") DataSource bookingsDataSource,
+                                  @Value("${bookings.export.fetch-size:50}") int exportFetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        JdbcTemplate exportJdbc = new JdbcTemplate(bookingsDataSource);
+        exportJdbc.setFetchSize(exportFetchSize);
+        this.exportJdbcTemplate = new NamedParameterJdbcTemplate(exportJdbc);
+        // Not a bean: a second transaction manager in the context would switch off the JPA one
+        this.exportTransaction = new TransactionTemplate(new DataSourceTransactionManager(bookingsDataSource));
+        this.exportTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Newest first. With a status the lookup runs on idx_bookings_user_status,
+     * otherwise on idx_bookings_user_created; both seek past the cursor row
+     * instead of skipping with OFFSET.
+     */
+    public List<BookingDto> findPage(String tenantId, UUID userId, String status,
+                                     LocalDateTime afterCreatedAt, UUID afterId, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT_BOOKINGS);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("userId", userId)
+            .addValue("tenantId", tenantId)
+            .addValue("limit", limit);
+        if (status != null) {
+            sql.append(" AND b.status = :status");
+            params.addValue("status", status);
+        }
+        if (afterId != null) {
+            sql.append(" AND (b.created_at, b.id) < (:afterCreatedAt, :afterId)");
+            params.addValue("afterCreatedAt", Timestamp.valueOf(afterCreatedAt));
+            params.addValue("afterId", afterId);
+        }
+        sql.append(" ORDER BY b.created_at DESC, b.id DESC LIMIT :limit");
+        return jdbcTemplate.query(sql.toString(), params, ROW_MAPPER);
+    }
+
+    public Optional<LocalDateTime> findCreatedAt(String tenantId, UUID id) {
+        List<Timestamp> createdAt = jdbcTemplate.queryForList(
+            "SELECT created_at FROM bookings WHERE id = :id AND tenant_id = :tenantId",
+            new MapSqlParameterSource("id", id).addValue("tenantId", tenantId), Timestamp.class);
+        return createdAt.stream().findFirst().map(Timestamp::toLocalDateTime);
+    }
+
+    /**
+     * Every booking of the tenant, oldest first, after the given one when set,
+     * handed to {@code sink} as it is read. Postgres only streams a result
+     * through a cursor inside a transaction, so one is held for the whole
+     * export and rows arrive a fetch at a time instead of all at once.
+     */
+    public void exportAll(String tenantId, LocalDateTime afterCreatedAt, UUID afterId, Consumer<BookingExportDto> sink) {
+        StringBuilder sql = new StringBuilder(EXPORT_BOOKINGS);
+        MapSqlParameterSource params = new MapSqlParameterSource("tenantId", tenantId);
+        if (afterId != null) {
+            sql.append(" AND (created_at, id) > (:afterCreatedAt, :afterId)");
+            params.addValue("afterCreatedAt", Timestamp.valueOf(afterCreatedAt));
+            params.addValue("afterId", afterId);
+        }
+        sql.append(" ORDER BY created_at, id");
+        exportTransaction.executeWithoutResult(status -> exportJdbcTemplate.query(sql.toString(), params,
+            (RowCallbackHandler) rs -> sink.accept(EXPORT_ROW_MAPPER.mapRow(rs, 0))));
+    }
+}
@@ -0,0 +1,33 @@
+package com.travelplatform.userservice.repository;
+
+import com.travelplatform.userservice.entity.Role;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface RoleRepository extends JpaRepository<Role, UUID> {
+
+    Optional<Role> findByNameAndTenantId(String name, String tenantId);
+
+    /**
+     * One row per active role and active permission of a tenant, plus one row
+     * with a null permission for roles that have none.
+     */
+    @Query("select r.id as roleId, r.name as roleName, p.name as permissionName from Role r "
+        + "left join r.permissions p on p.isActive = true "
+        + "where r.tenantId = :tenantId and r.isActive = true")
+    List<RoleGrantRow> findActiveGrants(@Param("tenantId") String tenantId);
+
+    interface RoleGrantRow {
+
+        UUID getRoleId();
+
+        String getRoleName();
+
+        String getPermissionName();
+    }
+}
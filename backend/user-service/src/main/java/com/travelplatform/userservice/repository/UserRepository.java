@@ -0,0 +1,53 @@
+package com.travelplatform.userservice.repository;
+
+import com.travelplatform.userservice.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Users are loaded with their role ids in the same query and nothing else;
+ * {@link com.travelplatform.userservice.service.PermissionService} turns the ids
+ * into role names and a permission mask.
+ */
+public interface UserRepository extends JpaRepository<User, UUID> {
+
+    @EntityGraph(attributePaths = "roleIds")
+    Optional<User> findByUsernameAndTenantId(String username, String tenantId);
+
+    @EntityGraph(attributePaths = "roleIds")
+    Optional<User> findByEmailAndTenantId(String email, String tenantId);
+
+    @EntityGraph(attributePaths = "roleIds")
+    Optional<User> findByIdAndTenantId(UUID id, String tenantId);
+
+    boolean existsByEmail(String email);
+
+    boolean existsByUsernameAndTenantId(String username, String tenantId);
+
+    // Single-column updates for the login path, without loading and merging the entity
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.failedLoginAttempts = 0, u.accountLockedUntil = null, u.lastLoginAt = :loginAt "
+        + "where u.id = :id")
+    int recordSuccessfulLogin(@Param("id") UUID id, @Param("loginAt") LocalDateTime loginAt);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.failedLoginAttempts = :attempts, u.accountLockedUntil = :lockedUntil where u.id = :id")
+    int recordFailedLogin(@Param("id") UUID id, @Param("attempts") int attempts,
+                          @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :password where u.id = :id")
+    int updatePassword(@Param("id") UUID id, @Param("password") String password);
+}
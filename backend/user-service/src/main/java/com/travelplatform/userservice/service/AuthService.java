@@ -3,71 +3,215 @@ package com.travelplatform.userservice.service;
 import com.travelplatform.userservice.dto.AuthResponseDto;
 import com.travelplatform.userservice.dto.LoginDto;
 import com.travelplatform.userservice.dto.UserRegistrationDto;
+import com.travelplatform.userservice.entity.Role;
+import com.travelplatform.userservice.entity.User;
+import com.travelplatform.userservice.repository.RoleRepository;
+import com.travelplatform.userservice.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
+@RequiredArgsConstructor
 public class AuthService {
 
-    public AuthResponseDto register(UserRegistrationDto registrationDto) {
-        // TODO: Implement user registration
-        return AuthResponseDto.builder()
-            .accessToken("dummy-token")
-            .refreshToken("dummy-refresh-token")
-            .tokenType("Bearer")
-            .expiresIn(86400000L)
-            .tenantId(registrationDto.getTenantId())
-            .user(AuthResponseDto.UserDto.builder()
-                .id(1L)
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final PasswordHashingService passwordHashingService;
+    private final PermissionService permissionService;
+    private final JwtService jwtService;
+    private final RefreshTokenStore refreshTokenStore;
+
+    public CompletableFuture<AuthResponseDto> register(UserRegistrationDto registrationDto) {
+        if (!registrationDto.getPassword().equals(registrationDto.getConfirmPassword())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Passwords do not match");
+        }
+        String tenantId = registrationDto.getTenantId();
+        if (userRepository.existsByEmail(registrationDto.getEmail())
+                || userRepository.existsByUsernameAndTenantId(registrationDto.getUsername(), tenantId)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Username or email is already registered");
+        }
+        Set<UUID> roleIds = new HashSet<>();
+        roleRepository.findByNameAndTenantId(Role.ROLE_USER, tenantId).ifPresent(role -> roleIds.add(role.getId()));
+
+        return passwordHashingService.encode(registrationDto.getPassword()).thenApply(hash -> {
+            User user = User.builder()
                 .username(registrationDto.getUsername())
                 .email(registrationDto.getEmail())
+                .password(hash)
                 .firstName(registrationDto.getFirstName())
                 .lastName(registrationDto.getLastName())
-                .fullName(registrationDto.getFirstName() + " " + registrationDto.getLastName())
+                .phoneNumber(registrationDto.getPhoneNumber())
+                .preferredLanguage(registrationDto.getPreferredLanguage() != null ? registrationDto.getPreferredLanguage() : "en")
+                .timezone(registrationDto.getTimezone() != null ? registrationDto.getTimezone() : "UTC")
+                .tenantId(tenantId)
+                .isActive(true)
                 .isEmailVerified(false)
-                .preferredLanguage(registrationDto.getPreferredLanguage())
-                .timezone(registrationDto.getTimezone())
-                .roles(java.util.Set.of("ROLE_USER"))
-                .createdAt(java.time.LocalDateTime.now())
-                .build())
-            .build();
+                .failedLoginAttempts(0)
+                .roleIds(roleIds)
+                .build();
+            try {
+                return authResponse(userRepository.save(user), newSessionId());
+            } catch (DataIntegrityViolationException e) {
+                // Lost a race with a concurrent registration
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Username or email is already registered");
+            }
+        });
+    }
+
+    /**
+     * The password check runs on {@link PasswordHashingService}'s pool, so no
+     * request thread waits on BCrypt. Every attempt costs one hash before the
+     * account's state is looked at, and only a caller who knows the password
+     * learns that the account is disabled.
+     */
+    public CompletableFuture<AuthResponseDto> login(LoginDto loginDto) {
+        String login = loginDto.getUsernameOrEmail();
+        Optional<User> found = login.contains("@")
+            ? userRepository.findByEmailAndTenantId(login, loginDto.getTenantId())
+            : userRepository.findByUsernameAndTenantId(login, loginDto.getTenantId());
+
+        if (found.isEmpty()) {
+            return passwordHashingService.matches(loginDto.getPassword(), null).thenApply(matches -> {
+                throw invalidCredentials();
+            });
+        }
+        User user = found.get();
+        return passwordHashingService.matches(loginDto.getPassword(), user.getPassword()).thenApply(matches -> {
+            // Answered like a wrong password either way, or the lock would confirm a guess
+            if (user.isAccountLocked()) {
+                throw invalidCredentials();
+            }
+            if (!matches) {
+                user.incrementFailedLoginAttempts();
+                userRepository.recordFailedLogin(user.getId(), user.getFailedLoginAttempts(), user.getAccountLockedUntil());
+                throw invalidCredentials();
+            }
+            if (!Boolean.TRUE.equals(user.getIsActive())) {
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Account is disabled");
+            }
+            LocalDateTime now = LocalDateTime.now();
+            userRepository.recordSuccessfulLogin(user.getId(), now);
+            user.resetFailedLoginAttempts();
+            user.setLastLoginAt(now);
+            passwordHashingService.upgradeIfNeeded(loginDto.getPassword(), user.getPassword(),
+                hash -> userRepository.updatePassword(user.getId(), hash));
+            return authResponse(user, newSessionId());
+        });
     }
 
-    public AuthResponseDto login(LoginDto loginDto) {
-        // TODO: Implement user login
+    private AuthResponseDto authResponse(User user, String sessionId) {
         return AuthResponseDto.builder()
-            .accessToken("dummy-token")
-            .refreshToken("dummy-refresh-token")
+            .accessToken(jwtService.generateAccessToken(user, sessionId))
+            .refreshToken(jwtService.generateRefreshToken(user, sessionId))
             .tokenType("Bearer")
-            .expiresIn(86400000L)
-            .tenantId(loginDto.getTenantId())
+            .expiresIn(jwtService.getExpirationTime())
+            .tenantId(user.getTenantId())
             .user(AuthResponseDto.UserDto.builder()
-                .id(1L)
-                .username("testuser")
-                .email("test@example.com")
-                .firstName("Test")
-                .lastName("User")
-                .fullName("Test User")
-                .isEmailVerified(true)
-                .preferredLanguage("en")
-                .timezone("UTC")
-                .roles(java.util.Set.of("ROLE_USER"))
-                .createdAt(java.time.LocalDateTime.now())
+                .id(user.getId())
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .fullName(user.getFullName())
+                .phoneNumber(user.getPhoneNumber())
+                .profilePictureUrl(user.getProfilePictureUrl())
+                .isEmailVerified(user.getIsEmailVerified())
+                .preferredLanguage(user.getPreferredLanguage())
+                .timezone(user.getTimezone())
+                .lastLoginAt(user.getLastLoginAt())
+                .roles(permissionService.grantsFor(user.getTenantId(), user.getRoleIds()).roles())
+                .createdAt(user.getCreatedAt())
                 .build())
             .build();
     }
 
+    private static ResponseStatusException invalidCredentials() {
+        return new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid username or password");
+    }
+
+    /**
+     * Spends the refresh token and issues a new pair for the same session.
+     * A token presented twice was copied, so its whole session is revoked.
+     */
     public AuthResponseDto refreshToken(String refreshToken) {
-        // TODO: Implement token refresh
-        return AuthResponseDto.builder()
-            .accessToken("new-dummy-token")
-            .refreshToken("new-dummy-refresh-token")
-            .tokenType("Bearer")
-            .expiresIn(86400000L)
-            .build();
+        Claims claims = refreshClaims(refreshToken);
+        String sessionId = sessionId(claims);
+        if (refreshTokenStore.isRevoked(sessionId)) {
+            throw invalidRefreshToken();
+        }
+        if (!refreshTokenStore.consume(claims.getId(), claims.getExpiration().getTime())) {
+            refreshTokenStore.revoke(sessionId);
+            throw invalidRefreshToken();
+        }
+
+        // Reloaded so a disabled account or changed roles take effect on refresh
+        UUID userId = userId(claims);
+        User user = userId == null ? null : userRepository
+            .findByIdAndTenantId(userId, claims.get(JwtService.CLAIM_TENANT_ID, String.class))
+            .orElse(null);
+        if (user == null || !Boolean.TRUE.equals(user.getIsActive())) {
+            throw invalidRefreshToken();
+        }
+        return authResponse(user, sessionId);
     }
 
+    /**
+     * Revokes the session, which also stops its access tokens at the gateway.
+     */
     public void logout(String refreshToken) {
-        // TODO: Implement logout
+        refreshTokenStore.revoke(sessionId(refreshClaims(refreshToken)));
+    }
+
+    private Claims refreshClaims(String refreshToken) {
+        Claims claims;
+        try {
+            claims = jwtService.parseClaims(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw invalidRefreshToken();
+        }
+        if (!JwtService.TOKEN_TYPE_REFRESH.equals(claims.get(JwtService.CLAIM_TOKEN_TYPE, String.class))) {
+            throw invalidRefreshToken();
+        }
+        return claims;
+    }
+
+    // Tokens issued before ids were UUIDs carry a number, which no longer names a user
+    private static UUID userId(Claims claims) {
+        Object userId = claims.get(JwtService.CLAIM_USER_ID);
+        if (!(userId instanceof String value)) {
+            return null;
+        }
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Tokens from before sessions were tracked are their own session
+    private static String sessionId(Claims claims) {
+        String sessionId = claims.get(JwtService.CLAIM_SESSION_ID, String.class);
+        return sessionId != null ? sessionId : claims.getId();
+    }
+
+    private static String newSessionId() {
+        return UUID.randomUUID().toString();
+    }
+
+    private static ResponseStatusException invalidRefreshToken() {
+        return new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
     }
 
     public void verifyEmail(String token) {
@@ -0,0 +1,82 @@
+package com.travelplatform.userservice.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.travelplatform.userservice.repository.BookingQueryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Streams a tenant's bookings as newline-delimited JSON. Rows go to the
+ * output as they are read, so memory stays flat however many there are;
+ * a client that loses the connection resumes after the last id it received.
+ */
+@Service
+public class BookingExportService {
+
+    private final BookingQueryRepository bookingQueryRepository;
+    private final ObjectMapper objectMapper;
+    // Each export holds a bookings connection until it completes
+    private final Semaphore exports;
+    private final int flushEvery;
+
+    public BookingExportService(BookingQueryRepository bookingQueryRepository,
+                                ObjectMapper objectMapper,
+                                @Value("${bookings.export.max-concurrent:2}") int maxConcurrent,
+                                @Value("${bookings.export.fetch-size:50}") int fetchSize) {
+        this.bookingQueryRepository = bookingQueryRepository;
+        this.objectMapper = objectMapper;
+        this.exports = new Semaphore(maxConcurrent);
+        this.flushEvery = fetchSize;
+    }
+
+    /**
+     * @param after id of the last booking already received, or {@code null} to start from the oldest
+     * @throws ResponseStatusException 429 when the maximum number of exports are running, 400 for an unknown cursor
+     */
+    public void export(String tenantId, UUID after, OutputStream out) throws IOException {
+        if (!exports.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many exports running, retry shortly");
+        }
+        try {
+            LocalDateTime afterCreatedAt = null;
+            if (after != null) {
+                afterCreatedAt = bookingQueryRepository.findCreatedAt(tenantId, after)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown cursor"));
+            }
+
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+            generator.setRootValueSeparator(null);
+            long[] written = {0};
+            try {
+                bookingQueryRepository.exportAll(tenantId, afterCreatedAt, after, booking -> {
+                    try {
+                        generator.writeObject(booking);
+                        generator.writeRaw('\n');
+                        // Once per fetch, so the client sees rows as the cursor advances
+                        if (++written[0] % flushEvery == 0) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                // The client went away; the query was abandoned with the transaction
+                throw e.getCause();
+            }
+            generator.flush();
+        } finally {
+            exports.release();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.travelplatform.userservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.travelplatform.userservice.dto.BookingDto;
+import com.travelplatform.userservice.dto.BookingPageDto;
+import com.travelplatform.userservice.repository.BookingQueryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+public class BookingQueryService {
+
+    /**
+     * Redis channel carrying {@code tenantId:userId} whenever one of the user's
+     * bookings is written, so every instance drops its cached first pages.
+     */
+    public static final String INVALIDATION_CHANNEL = "bookings:changed";
+
+    public static final List<String> STATUSES = List.of("PENDING", "CONFIRMED", "CANCELLED", "COMPLETED");
+
+    private static final String ALL_STATUSES = "*";
+
+    private final BookingQueryRepository bookingQueryRepository;
+    private final Cache<String, BookingPageDto> firstPages;
+    private final int firstPageSize;
+
+    public BookingQueryService(BookingQueryRepository bookingQueryRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${bookings.cache.ttl:30s}") Duration ttl,
+                               @Value("${bookings.cache.max-size:100000}") long maxSize,
+                               @Value("${bookings.page-size:20}") int firstPageSize) {
+        this.bookingQueryRepository = bookingQueryRepository;
+        this.firstPageSize = firstPageSize;
+        this.firstPages = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, firstPages, "bookings.first-page");
+    }
+
+    public BookingPageDto getBookings(String tenantId, UUID userId, String status, String cursor, Integer limit) {
+        int pageSize = limit != null ? limit : firstPageSize;
+        if (cursor == null && pageSize == firstPageSize) {
+            // The default "My bookings" load; everything else goes to the database
+            return firstPages.get(cacheKey(tenantId, userId, status),
+                key -> loadPage(tenantId, userId, status, null, null, pageSize));
+        }
+        if (cursor == null) {
+            return loadPage(tenantId, userId, status, null, null, pageSize);
+        }
+        Cursor after = Cursor.decode(cursor);
+        return loadPage(tenantId, userId, status, after.createdAt(), after.id(), pageSize);
+    }
+
+    public void evict(String tenantId, UUID userId) {
+        List<String> keys = new ArrayList<>(STATUSES.size() + 1);
+        keys.add(cacheKey(tenantId, userId, null));
+        for (String status : STATUSES) {
+            keys.add(cacheKey(tenantId, userId, status));
+        }
+        firstPages.invalidateAll(keys);
+    }
+
+    private BookingPageDto loadPage(String tenantId, UUID userId, String status,
+                                    LocalDateTime afterCreatedAt, UUID afterId, int pageSize) {
+        // One extra row tells us whether there is a next page without a COUNT
+        List<BookingDto> rows = bookingQueryRepository.findPage(tenantId, userId, status,
+            afterCreatedAt, afterId, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<BookingDto> bookings = hasMore ? List.copyOf(rows.subList(0, pageSize)) : rows;
+        return BookingPageDto.builder()
+            .bookings(bookings)
+            .nextCursor(hasMore ? Cursor.of(bookings.get(bookings.size() - 1)).encode() : null)
+            .hasMore(hasMore)
+            .build();
+    }
+
+    private static String cacheKey(String tenantId, UUID userId, String status) {
+        return tenantId + ':' + userId + ':' + (status != null ? status : ALL_STATUSES);
+    }
+
+    private record Cursor(LocalDateTime createdAt, UUID id) {
+
+        static Cursor of(BookingDto last) {
+            return new Cursor(last.getCreatedAt(), last.getId());
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                return new Cursor(LocalDateTime.parse(raw.substring(0, separator)), UUID.fromString(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+        }
+
+        String encode() {
+            String raw = createdAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
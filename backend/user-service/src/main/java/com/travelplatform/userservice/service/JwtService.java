@@ -1,18 +1,59 @@
 package com.travelplatform.userservice.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.travelplatform.userservice.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
 public class JwtService {
 
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_TENANT_ID = "tid";
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_TOKEN_TYPE = "typ";
+    // Shared by the access and refresh tokens of one login and its rotations
+    public static final String CLAIM_SESSION_ID = "sid";
+    // Permission mask as compiled by PermissionService
+    public static final String CLAIM_PERMISSIONS = "perms";
+    public static final String TOKEN_TYPE_ACCESS = "access";
+    public static final String TOKEN_TYPE_REFRESH = "refresh";
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final MeterRegistry meterRegistry;
+    private final PermissionService permissionService;
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
@@ -22,39 +63,168 @@ public class JwtService {
     @Value("${jwt.refresh-expiration}")
     private Long refreshExpiration;
 
-    public String generateAccessToken(User user) {
-        return "dummy-access-token";
+    @Value("${jwt.cache.max-size:100000}")
+    private long cacheMaxSize;
+
+    @Value("${jwt.cache.max-ttl:5m}")
+    private Duration cacheMaxTtl;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private Cache<String, Claims> verifiedTokens;
+    private Timer verifyTimer;
+
+    public JwtService(MeterRegistry meterRegistry, PermissionService permissionService) {
+        this.meterRegistry = meterRegistry;
+        this.permissionService = permissionService;
     }
 
-    public String generateRefreshToken(User user) {
-        return "dummy-refresh-token";
+    @PostConstruct
+    void init() {
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+
+        // Entries live until the token itself expires, capped at max-ttl so
+        // long-lived tokens still get re-verified periodically
+        this.verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(cacheMaxSize)
+            .expireAfter(new Expiry<String, Claims>() {
+                @Override
+                public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                    long untilExpiry = claims.getExpiration().getTime() - System.currentTimeMillis();
+                    return TimeUnit.MILLISECONDS.toNanos(Math.max(0, Math.min(untilExpiry, cacheMaxTtl.toMillis())));
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+
+                @Override
+                public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .recordStats()
+            .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified-tokens");
+        this.verifyTimer = Timer.builder("jwt.verify")
+            .description("Time spent verifying JWT signatures on cache misses")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+    }
+
+    public String generateAccessToken(User user, String sessionId) {
+        return buildToken(user, sessionId, TOKEN_TYPE_ACCESS, getExpirationTime());
+    }
+
+    public String generateRefreshToken(User user, String sessionId) {
+        return buildToken(user, sessionId, TOKEN_TYPE_REFRESH, getRefreshExpirationTime());
     }
 
     public String extractUsername(String token) {
-        return "dummy-username";
+        return parseClaims(token).getSubject();
     }
 
-    public Long extractUserId(String token) {
-        return 1L;
+    public UUID extractUserId(String token) {
+        String userId = parseClaims(token).get(CLAIM_USER_ID, String.class);
+        return userId != null ? UUID.fromString(userId) : null;
     }
 
     public String extractTenantId(String token) {
-        return "default";
+        return parseClaims(token).get(CLAIM_TENANT_ID, String.class);
+    }
+
+    public Set<String> extractRoles(String token) {
+        List<?> roles = parseClaims(token).get(CLAIM_ROLES, List.class);
+        if (roles == null) {
+            return Set.of();
+        }
+        return roles.stream().map(String::valueOf).collect(Collectors.toUnmodifiableSet());
+    }
+
+    public long extractPermissions(String token) {
+        Number permissions = parseClaims(token).get(CLAIM_PERMISSIONS, Number.class);
+        return permissions != null ? permissions.longValue() : 0L;
+    }
+
+    public String extractTokenId(String token) {
+        return parseClaims(token).getId();
     }
 
     public Date extractExpiration(String token) {
-        return new Date(System.currentTimeMillis() + 86400000L);
+        return parseClaims(token).getExpiration();
     }
 
     public boolean isTokenExpired(String token) {
-        return false;
+        return extractExpiration(token).before(new Date());
     }
 
     public boolean validateToken(String token) {
-        return true;
+        if (token == null || token.isBlank()) {
+            return false;
+        }
+        try {
+            return !isTokenExpired(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return false;
+        }
     }
 
     public long getExpirationTime() {
         return jwtExpiration != null ? jwtExpiration : 86400000L;
     }
-} 
\ No newline at end of file
+
+    public long getRefreshExpirationTime() {
+        return refreshExpiration != null ? refreshExpiration : 604800000L;
+    }
+
+    /**
+     * Returns the verified claims for a token, checking the signature only on
+     * the first sighting. Cache keys are SHA-256 digests so raw bearer tokens
+     * are never retained on the heap.
+     *
+     * @throws JwtException if the token is malformed, tampered with or expired
+     */
+    public Claims parseClaims(String token) {
+        String key = digest(token);
+        Claims claims = verifiedTokens.getIfPresent(key);
+        if (claims != null) {
+            return claims;
+        }
+
+        long start = System.nanoTime();
+        try {
+            claims = parser.parseSignedClaims(token).getPayload();
+        } finally {
+            verifyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        verifiedTokens.put(key, claims);
+        return claims;
+    }
+
+    private String buildToken(User user, String sessionId, String tokenType, long ttlMillis) {
+        long now = System.currentTimeMillis();
+        PermissionService.UserGrants grants = permissionService.grantsFor(user.getTenantId(), user.getRoleIds());
+
+        return Jwts.builder()
+            .id(UUID.randomUUID().toString())
+            .subject(user.getUsername())
+            .claim(CLAIM_USER_ID, user.getId().toString())
+            .claim(CLAIM_TENANT_ID, user.getTenantId())
+            .claim(CLAIM_ROLES, grants.roles())
+            .claim(CLAIM_PERMISSIONS, grants.permissions())
+            .claim(CLAIM_TOKEN_TYPE, tokenType)
+            .claim(CLAIM_SESSION_ID, sessionId)
+            .issuedAt(new Date(now))
+            .expiration(new Date(now + ttlMillis))
+            .signWith(signingKey)
+            .compact();
+    }
+
+    private static String digest(String token) {
+        byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(hash);
+    }
+}
@@ -0,0 +1,211 @@
+package com.travelplatform.userservice.service;
+
+import com.travelplatform.common.tenant.TenantContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing on a small pool sized to the CPU count with a bounded
+ * queue, so a login storm costs at most that many cores and gets fast 429s
+ * beyond it instead of occupying every request thread. Results are handed to
+ * the application task executor, so the stages chained on them, with their
+ * queries, never hold a hashing thread.
+ */
+@Slf4j
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Executor callbackExecutor;
+    private final boolean upgradeOnLogin;
+    private final String retryAfterSeconds;
+    // Compared against when the user does not exist, so both paths cost one hash
+    private final String unknownUserHash;
+
+    private final Timer waitTimer;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+    private final Counter upgraded;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  MeterRegistry meterRegistry,
+                                  @Qualifier("applicationTaskExecutor") Executor callbackExecutor,
+                                  @Value("${security.password.hashing.threads:0}") int threads,
+                                  @Value("${security.password.hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${security.password.hashing.retry-after:1}") long retryAfterSeconds,
+                                  @Value("${security.password.upgrade-on-login:true}") boolean upgradeOnLogin) {
+        this.passwordEncoder = passwordEncoder;
+        this.callbackExecutor = callbackExecutor;
+        this.upgradeOnLogin = upgradeOnLogin;
+        this.retryAfterSeconds = Long.toString(retryAfterSeconds);
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "password-hash-" + sequence.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        this.unknownUserHash = passwordEncoder.encode("unknown-user-placeholder");
+
+        this.waitTimer = Timer.builder("auth.password.hash.wait")
+            .description("Time hashing tasks spend queued before a thread picks them up")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        this.matchesTimer = hashTimer(meterRegistry, "matches");
+        this.rejected = Counter.builder("auth.password.hash.rejected")
+            .description("Hashing requests rejected because the pool was saturated")
+            .register(meterRegistry);
+        this.upgraded = Counter.builder("auth.password.hash.upgraded")
+            .description("Stored hashes re-encoded at the current cost after login")
+            .register(meterRegistry);
+        Gauge.builder("auth.password.hash.queue", executor, pool -> pool.getQueue().size())
+            .description("Hashing tasks waiting for a thread")
+            .register(meterRegistry);
+        Gauge.builder("auth.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+            .description("Hashing threads currently busy")
+            .register(meterRegistry);
+    }
+
+    /**
+     * @throws ResponseStatusException 429 when the pool and its queue are full
+     */
+    public CompletableFuture<String> encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Checks a password; pass {@code null} for an unknown user to spend the same
+     * time and get {@code false}.
+     *
+     * @throws ResponseStatusException 429 when the pool and its queue are full
+     */
+    public CompletableFuture<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+        String target = encodedPassword != null ? encodedPassword : unknownUserHash;
+        return submit(matchesTimer, () -> {
+            boolean matches = passwordEncoder.matches(rawPassword, target);
+            return encodedPassword != null && matches;
+        });
+    }
+
+    /**
+     * After a successful login, re-encodes a hash made with a lower cost than
+     * the configured one. Best effort: skipped when the pool is busy and
+     * retried on a later login.
+     */
+    public void upgradeIfNeeded(CharSequence rawPassword, String encodedPassword, Consumer<String> store) {
+        if (!upgradeOnLogin || !passwordEncoder.upgradeEncoding(encodedPassword)) {
+            return;
+        }
+        // Leave half the queue for logins waiting on a response
+        if (executor.getQueue().remainingCapacity() < executor.getQueue().size()) {
+            return;
+        }
+        try {
+            submit(encodeTimer, () -> passwordEncoder.encode(rawPassword)).thenAccept(hash -> {
+                store.accept(hash);
+                upgraded.increment();
+            }).exceptionally(e -> {
+                log.warn("Password hash upgrade failed: {}", e.getMessage());
+                return null;
+            });
+        } catch (ResponseStatusException e) {
+            // Saturated; a later login will try again
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(Timer hashTimer, Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long queuedAt = System.nanoTime();
+        // Stages chained on the result run where it completes, and their queries must use the caller's tenant
+        String tenantId = TenantContext.current();
+        try {
+            executor.execute(() -> {
+                long startedAt = System.nanoTime();
+                waitTimer.record(startedAt - queuedAt, TimeUnit.NANOSECONDS);
+                Runnable completion;
+                try {
+                    T value = task.get();
+                    completion = () -> result.complete(value);
+                } catch (RuntimeException e) {
+                    completion = () -> result.completeExceptionally(e);
+                } finally {
+                    hashTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+                complete(tenantId, completion);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw saturated();
+        }
+        return result;
+    }
+
+    private void complete(String tenantId, Runnable completion) {
+        Runnable inTenant = () -> {
+            TenantContext.set(tenantId);
+            try {
+                completion.run();
+            } finally {
+                TenantContext.clear();
+            }
+        };
+        try {
+            callbackExecutor.execute(inTenant);
+        } catch (RejectedExecutionException e) {
+            // Better to finish here than to leave the caller waiting
+            inTenant.run();
+        }
+    }
+
+    private ResponseStatusException saturated() {
+        return new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many sign-in attempts, retry shortly") {
+            @Override
+            public HttpHeaders getHeaders() {
+                HttpHeaders headers = new HttpHeaders();
+                headers.set(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+                return headers;
+            }
+        };
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("auth.password.hash")
+            .description("CPU time spent hashing or checking passwords")
+            .tag("operation", operation)
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+    }
+}
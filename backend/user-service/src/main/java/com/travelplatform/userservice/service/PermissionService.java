@@ -0,0 +1,93 @@
+package com.travelplatform.userservice.service;
+
+import com.travelplatform.userservice.entity.Permission;
+import com.travelplatform.userservice.repository.RoleRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Compiles each tenant's roles into permission masks once and caches them
+ * (in-process, backed by Redis), so resolving a user's permissions is a map
+ * lookup per role id and checking one is a bitwise AND.
+ * <p>
+ * Bit positions are defined by {@link Permission#bit(String)}.
+ * <p>
+ * Nothing in this service writes roles or permissions, so entries are never
+ * evicted: a change made in the database applies once {@code permissions.cache.ttl}
+ * and the in-process tier's {@code cache.l1.ttl} have passed.
+ */
+@Service
+public class PermissionService {
+
+    public static final String CACHE_NAME = "role-grants";
+
+    private final RoleRepository roleRepository;
+    private final Cache tenantRoles;
+
+    public PermissionService(RoleRepository roleRepository, CacheManager cacheManager) {
+        this.roleRepository = roleRepository;
+        this.tenantRoles = cacheManager.getCache(CACHE_NAME);
+    }
+
+    /**
+     * Role names and the combined permission mask for a user's role ids. Ids
+     * that are unknown or inactive in the tenant grant nothing.
+     */
+    public UserGrants grantsFor(String tenantId, Collection<UUID> roleIds) {
+        if (roleIds == null || roleIds.isEmpty()) {
+            return UserGrants.NONE;
+        }
+        Map<UUID, RoleGrant> roles = tenantRoles.get(tenantId, () -> compile(tenantId));
+        Set<String> names = new HashSet<>(roleIds.size());
+        long permissions = 0L;
+        for (UUID roleId : roleIds) {
+            RoleGrant role = roles.get(roleId);
+            if (role != null) {
+                names.add(role.name());
+                permissions |= role.permissions();
+            }
+        }
+        return new UserGrants(Set.copyOf(names), permissions);
+    }
+
+    public static boolean hasAll(long granted, long required) {
+        return (granted & required) == required;
+    }
+
+    public static boolean hasAny(long granted, long required) {
+        return (granted & required) != 0;
+    }
+
+    private Map<UUID, RoleGrant> compile(String tenantId) {
+        Map<UUID, String> names = new HashMap<>();
+        Map<UUID, Long> masks = new HashMap<>();
+        for (RoleRepository.RoleGrantRow row : roleRepository.findActiveGrants(tenantId)) {
+            names.put(row.getRoleId(), row.getRoleName());
+            masks.merge(row.getRoleId(), Permission.bit(row.getPermissionName()), (a, b) -> a | b);
+        }
+        Map<UUID, RoleGrant> roles = new HashMap<>(names.size());
+        names.forEach((id, name) -> roles.put(id, new RoleGrant(name, masks.get(id))));
+        return Map.copyOf(roles);
+    }
+
+    public record RoleGrant(String name, long permissions) implements Serializable {
+    }
+
+    public record UserGrants(Set<String> roles, long permissions) {
+
+        public static final UserGrants NONE = new UserGrants(Set.of(), 0L);
+
+        public boolean hasAll(long required) {
+            return PermissionService.hasAll(permissions, required);
+        }
+    }
+}
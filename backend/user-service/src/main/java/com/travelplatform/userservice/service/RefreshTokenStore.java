@@ -0,0 +1,107 @@
+package com.travelplatform.userservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Server-side state for refresh tokens, kept in Redis.
+ * <p>
+ * Every token carries a session id shared by the access and refresh tokens of
+ * one login and all of its rotations. Revoking a session writes
+ * {@code auth:revoked:<sid>} with a TTL as long as any of its tokens can live,
+ * adds it to the {@code auth:revoked-index} sorted set (scored by expiry) that
+ * gateways rebuild their bloom filters from, and announces it on
+ * {@code auth:revocations} so they pick it up at once.
+ * <p>
+ * A refresh token can be used once: its id is claimed with {@code SET NX}
+ * until it expires, and a second use revokes the whole session.
+ */
+@Slf4j
+@Service
+public class RefreshTokenStore {
+
+    // Shared with the gateway's TokenRevocationService
+    public static final String REVOKED_KEY_PREFIX = "auth:revoked:";
+    public static final String REVOKED_INDEX_KEY = "auth:revoked-index";
+    public static final String REVOCATION_CHANNEL = "auth:revocations";
+
+    private static final String USED_KEY_PREFIX = "auth:refresh-used:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final JwtService jwtService;
+    private final Counter rotations;
+    private final Counter reuses;
+    private final Counter revocations;
+
+    public RefreshTokenStore(StringRedisTemplate redisTemplate, JwtService jwtService, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.jwtService = jwtService;
+        this.rotations = counter(meterRegistry, "rotated");
+        this.reuses = counter(meterRegistry, "reused");
+        this.revocations = counter(meterRegistry, "revoked");
+    }
+
+    /**
+     * Claims a refresh token for rotation.
+     *
+     * @return {@code false} if the token was already used
+     */
+    public boolean consume(String tokenId, long expiresAtMillis) {
+        Duration ttl = Duration.ofMillis(Math.max(1, expiresAtMillis - System.currentTimeMillis()));
+        Boolean first = redis(() -> redisTemplate.opsForValue().setIfAbsent(USED_KEY_PREFIX + tokenId, "1", ttl));
+        if (Boolean.TRUE.equals(first)) {
+            rotations.increment();
+            return true;
+        }
+        reuses.increment();
+        return false;
+    }
+
+    public boolean isRevoked(String sessionId) {
+        return Boolean.TRUE.equals(redis(() -> redisTemplate.hasKey(REVOKED_KEY_PREFIX + sessionId)));
+    }
+
+    /**
+     * Revokes every token of a session, including ones still to be issued by
+     * a rotation already under way.
+     */
+    public void revoke(String sessionId) {
+        long now = System.currentTimeMillis();
+        // A rotation just before this can still mint tokens for their full lifetime
+        long ttlMillis = Math.max(jwtService.getExpirationTime(), jwtService.getRefreshExpirationTime());
+        redis(() -> {
+            redisTemplate.opsForValue().set(REVOKED_KEY_PREFIX + sessionId, "1", Duration.ofMillis(ttlMillis));
+            redisTemplate.opsForZSet().add(REVOKED_INDEX_KEY, sessionId, now + ttlMillis);
+            // Keeps the index to sessions whose tokens can still be presented
+            redisTemplate.opsForZSet().removeRangeByScore(REVOKED_INDEX_KEY, Double.NEGATIVE_INFINITY, now);
+            return redisTemplate.convertAndSend(REVOCATION_CHANNEL, sessionId);
+        });
+        revocations.increment();
+        log.debug("Revoked session {}", sessionId);
+    }
+
+    private static <T> T redis(Supplier<T> call) {
+        try {
+            return call.get();
+        } catch (DataAccessException e) {
+            // Neither rotation nor logout can be honoured without the shared state
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Token store unavailable", e);
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("auth.refresh-tokens")
+            .description("Refresh token rotations, detected reuses and session revocations")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+}
@@ -3,7 +3,7 @@ import { createSlice, createAsyncThunk, PayloadAction } from '@reduxjs/toolkit';
 import { RootState } from '../store';
 
 export interface User {
-  id: number;
+  id: string;
   username: string;
   email: string;
   firstName?: string;
@@ -40,6 +40,17 @@ CREATE EXTENSION IF NOT EXISTS "uuid-ossp";
 CREATE EXTENSION IF NOT EXISTS "pg_stat_statements";
 CREATE EXTENSION IF NOT EXISTS "btree_gin";
 
+-- Tenants the services accept; ids not listed here are rejected with 400.
+-- Onboard a tenant by inserting its row here and in travel_platform_travels
+CREATE TABLE tenants (
+    id VARCHAR(63) PRIMARY KEY,
+    name VARCHAR(255),
+    is_active BOOLEAN DEFAULT true,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO tenants (id, name) VALUES ('default', 'Default tenant');
+
 -- Create users table with optimized structure
 CREATE TABLE users (
     id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
@@ -131,12 +142,23 @@ CREATE EXTENSION IF NOT EXISTS "uuid-ossp";
 CREATE EXTENSION IF NOT EXISTS "pg_stat_statements";
 CREATE EXTENSION IF NOT EXISTS "btree_gin";
 
+-- Tenants travel-service accepts; kept in step with travel_platform_users.tenants
+CREATE TABLE tenants (
+    id VARCHAR(63) PRIMARY KEY,
+    name VARCHAR(255),
+    is_active BOOLEAN DEFAULT true,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO tenants (id, name) VALUES ('default', 'Default tenant');
+
 -- Create travel packages table with optimized structure
 CREATE TABLE travel_packages (
     id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
     title VARCHAR(255) NOT NULL,
     description TEXT,
     destination VARCHAR(255) NOT NULL,
+    category VARCHAR(50),
     price DECIMAL(10,2) NOT NULL,
     duration_days INTEGER NOT NULL,
     max_travelers INTEGER NOT NULL,
@@ -152,6 +174,14 @@ CREATE INDEX idx_travel_packages_price ON travel_packages(price);
 CREATE INDEX idx_travel_packages_is_active ON travel_packages(is_active);
 CREATE INDEX idx_travel_packages_tenant_id ON travel_packages(tenant_id);
 CREATE INDEX idx_travel_packages_created_at ON travel_packages(created_at);
+CREATE INDEX idx_travel_packages_updated_at ON travel_packages(updated_at);
+
+-- Composite indexes for keyset (seek) pagination of the catalog
+CREATE INDEX idx_travel_packages_tenant_active_created ON travel_packages(tenant_id, is_active, created_at, id);
+CREATE INDEX idx_travel_packages_tenant_active_price ON travel_packages(tenant_id, is_active, price, id);
+CREATE INDEX idx_travel_packages_tenant_destination_price ON travel_packages(tenant_id, destination, price, id);
+-- Tenant-wide exports in creation order
+CREATE INDEX idx_travel_packages_tenant_created ON travel_packages(tenant_id, created_at, id);
 
 -- Create bookings table
 CREATE TABLE bookings (
@@ -177,7 +207,88 @@ CREATE INDEX idx_bookings_created_at ON bookings(created_at);
 
 -- Create composite indexes for common queries
 CREATE INDEX idx_bookings_user_status ON bookings(user_id, status);
+CREATE INDEX idx_bookings_user_created ON bookings(user_id, created_at, id);
 CREATE INDEX idx_bookings_package_date ON bookings(travel_package_id, booking_date);
+CREATE INDEX idx_bookings_tenant_created ON bookings(tenant_id, created_at, id);
+
+-- Seats left per package and travel date, shared by every travel-service instance
+CREATE TABLE seat_inventory (
+    travel_package_id UUID NOT NULL REFERENCES travel_packages(id) ON DELETE CASCADE,
+    booking_date DATE NOT NULL,
+    remaining INTEGER NOT NULL,
+    PRIMARY KEY (travel_package_id, booking_date)
+);
+
+-- Blocks of seat_inventory taken by one instance, which admits holds from them in memory;
+-- granted counts its unused seats and those of its seat_holds rows
+CREATE TABLE seat_leases (
+    id UUID PRIMARY KEY,
+    travel_package_id UUID NOT NULL,
+    booking_date DATE NOT NULL,
+    granted INTEGER NOT NULL,
+    renewed_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_seat_leases_renewed_at ON seat_leases(renewed_at);
+
+-- Seats taken by reservations not yet confirmed; the row is deleted with the booking insert.
+-- It holds enough of the reservation for any instance to confirm or cancel it
+CREATE TABLE seat_holds (
+    id UUID PRIMARY KEY,
+    tenant_id VARCHAR(100) NOT NULL,
+    user_id UUID NOT NULL,
+    travel_package_id UUID NOT NULL,
+    booking_date DATE NOT NULL,
+    seats INTEGER NOT NULL,
+    total_price DECIMAL(10,2) NOT NULL,
+    lease_id UUID NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_seat_holds_expires_at ON seat_holds(expires_at);
+CREATE INDEX idx_seat_holds_lease_id ON seat_holds(lease_id);
+
+-- Transactional outbox: events are written with the change they describe and
+-- relayed to Kafka by travel-service
+CREATE TABLE outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    aggregate_type VARCHAR(50) NOT NULL,
+    aggregate_id UUID NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    tenant_id VARCHAR(100) NOT NULL,
+    payload JSONB NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Row locked by the instance relaying the outbox, so events leave in id order
+CREATE TABLE outbox_relay_lock (
+    id INTEGER PRIMARY KEY
+);
+
+INSERT INTO outbox_relay_lock (id) VALUES (1);
+
+-- Package changes reach the outbox from any writer, inside its transaction
+CREATE OR REPLACE FUNCTION travel_packages_outbox()
+RETURNS TRIGGER AS $$
+DECLARE
+    pkg travel_packages%ROWTYPE;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        pkg := OLD;
+    ELSE
+        pkg := NEW;
+    END IF;
+    INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, tenant_id, payload)
+    VALUES ('package', pkg.id,
+            CASE TG_OP WHEN 'INSERT' THEN 'PackageCreated' WHEN 'UPDATE' THEN 'PackageUpdated' ELSE 'PackageDeleted' END,
+            pkg.tenant_id, to_jsonb(pkg));
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER travel_packages_outbox
+    AFTER INSERT OR UPDATE OR DELETE ON travel_packages
+    FOR EACH ROW EXECUTE FUNCTION travel_packages_outbox();
 
 -- Enable row level security for multi-tenancy
 ALTER TABLE travel_packages ENABLE ROW LEVEL SECURITY;
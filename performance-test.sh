@@ -19,10 +19,11 @@ GATEWAY_URL="${BASE_URL}:8080"
 USER_SERVICE_URL="${BASE_URL}:8081"
 TRAVEL_SERVICE_URL="${BASE_URL}:8082"
 
-# Test parameters
-CONCURRENT_USERS=100
-DURATION=60
-RAMP_UP_TIME=10
+# Load generator parameters; the thresholds come from backend/load-test/src/main/resources/load-test.yml
+RATE=${RATE:-10000}
+DURATION=${DURATION:-60s}
+LOAD_TEST_DIR="$(cd "$(dirname "$0")" && pwd)/backend/load-test"
+LOAD_TEST_JAR="${LOAD_TEST_DIR}/target/load-test.jar"
 
 echo -e "${BLUE}🚀 Travel Platform Performance Testing${NC}"
 echo "=========================================="
@@ -51,88 +52,22 @@ check_service() {
     return 1
 }
 
-# Function to run load test
+# Function to run the load generator through the gateway
 run_load_test() {
-    local test_name=$1
-    local endpoint=$2
-    local method=${3:-GET}
-    local data=${4:-""}
-    
-    echo -e "${BLUE}Running load test: ${test_name}${NC}"
-    echo "Endpoint: ${endpoint}"
-    echo "Method: ${method}"
-    echo "Concurrent users: ${CONCURRENT_USERS}"
-    echo "Duration: ${DURATION}s"
-    echo "Ramp-up time: ${RAMP_UP_TIME}s"
-    
-    # Create test data file if POST/PUT request
-    local data_file=""
-    if [ -n "$data" ]; then
-        data_file=$(mktemp)
-        echo "$data" > "$data_file"
-    fi
-    
-    # Run Apache Bench test
-    local ab_cmd="ab -n $((CONCURRENT_USERS * DURATION)) -c ${CONCURRENT_USERS} -t ${DURATION} -r -k"
-    
-    if [ "$method" = "POST" ] || [ "$method" = "PUT" ]; then
-        ab_cmd="$ab_cmd -p $data_file -T application/json"
-    fi
-    
-    ab_cmd="$ab_cmd ${endpoint}"
-    
-    echo "Command: $ab_cmd"
-    echo "----------------------------------------"
-    
-    # Run the test and capture results
-    local output_file=$(mktemp)
-    eval "$ab_cmd" > "$output_file" 2>&1
-    
-    # Parse and display results
-    echo -e "${GREEN}Results for ${test_name}:${NC}"
-    echo "----------------------------------------"
-    
-    # Extract key metrics
-    local requests_per_second=$(grep "Requests per second" "$output_file" | awk '{print $4}')
-    local time_per_request=$(grep "Time per request" "$output_file" | head -1 | awk '{print $4}')
-    local failed_requests=$(grep "Failed requests" "$output_file" | awk '{print $3}')
-    local total_requests=$(grep "Complete requests" "$output_file" | awk '{print $3}')
-    
-    echo "Requests per second: ${requests_per_second}"
-    echo "Time per request (ms): ${time_per_request}"
-    echo "Failed requests: ${failed_requests}"
-    echo "Total requests: ${total_requests}"
-    
-    # Calculate success rate
-    if [ -n "$total_requests" ] && [ "$total_requests" -gt 0 ]; then
-        local success_rate=$(( (total_requests - failed_requests) * 100 / total_requests ))
-        echo "Success rate: ${success_rate}%"
+    echo -e "${BLUE}Running load test at ${RATE} requests/s for ${DURATION}${NC}"
+
+    if [ ! -f "$LOAD_TEST_JAR" ]; then
+        echo -e "${YELLOW}Building the load generator...${NC}"
+        (cd "${LOAD_TEST_DIR}/.." && mvn -B -q -Pjava21 -pl load-test -am package -DskipTests)
     fi
-    
-    # Cleanup
-    rm -f "$output_file" "$data_file"
-    echo ""
-}
 
-# Function to run stress test
-run_stress_test() {
-    local test_name=$1
-    local endpoint=$2
-    local max_concurrent=500
-    
-    echo -e "${BLUE}Running stress test: ${test_name}${NC}"
-    echo "Endpoint: ${endpoint}"
-    echo "Max concurrent users: ${max_concurrent}"
-    echo "Duration: ${DURATION}s"
-    
-    # Run wrk stress test
-    local wrk_cmd="wrk -t12 -c${max_concurrent} -d${DURATION}s --latency ${endpoint}"
-    
-    echo "Command: $wrk_cmd"
-    echo "----------------------------------------"
-    
-    eval "$wrk_cmd"
-    echo ""
+    # Starts requests at a constant rate and fails when p95, throughput or error rate miss their thresholds
+    java -jar "$LOAD_TEST_JAR" \
+        --load.rate="${RATE}" \
+        --load.duration="${DURATION}" \
+        --load.target.user-service="${GATEWAY_URL}" \
+        --load.target.travel-service="${GATEWAY_URL}" \
+        --load.report-file=load-test-result.json "$@"
 }
 
 # Function to test database performance
@@ -204,54 +139,17 @@ EOF
     fi
 }
 
-# Function to generate test data
-generate_test_data() {
-    echo -e "${BLUE}Generating test data...${NC}"
-    
-    # Create test user registration data
-    cat > test_user_data.json << 'EOF'
-{
-    "email": "test@example.com",
-    "username": "testuser",
-    "password": "TestPassword123!",
-    "firstName": "Test",
-    "lastName": "User",
-    "phone": "+1234567890"
-}
-EOF
-    
-    # Create test travel package data
-    cat > test_travel_data.json << 'EOF'
-{
-    "title": "Test Travel Package",
-    "description": "A test travel package for performance testing",
-    "destination": "Test Destination",
-    "price": 999.99,
-    "durationDays": 7,
-    "maxTravelers": 4
-}
-EOF
-    
-    echo -e "${GREEN}✅ Test data generated${NC}"
-}
-
 # Main execution
 main() {
     echo -e "${BLUE}Starting performance tests...${NC}"
     echo ""
     
     # Check if required tools are available
-    if ! command -v ab >/dev/null 2>&1; then
-        echo -e "${RED}❌ Apache Bench (ab) is not installed${NC}"
-        echo "Please install it: sudo apt-get install apache2-utils"
+    if ! command -v java >/dev/null 2>&1; then
+        echo -e "${RED}❌ Java 21 is required to run the load generator${NC}"
         exit 1
     fi
     
-    if ! command -v wrk >/dev/null 2>&1; then
-        echo -e "${YELLOW}⚠️  wrk is not installed, stress tests will be skipped${NC}"
-        echo "Install wrk: https://github.com/wg/wrk"
-    fi
-    
     # Check services
     echo -e "${BLUE}Checking services...${NC}"
     check_service "API Gateway" "${GATEWAY_URL}/health" || exit 1
@@ -260,58 +158,31 @@ main() {
     
     echo ""
     
-    # Generate test data
-    generate_test_data
-    
-    echo ""
     echo -e "${BLUE}Starting performance tests...${NC}"
     echo "=========================================="
     
-    # Load tests
-    echo -e "${BLUE}1. Load Tests${NC}"
+    # Load test
+    echo -e "${BLUE}1. Load Test${NC}"
     echo "================"
     
-    # Health check load test
-    run_load_test "Health Check" "${GATEWAY_URL}/health"
-    
-    # User service load tests
-    run_load_test "User Health Check" "${USER_SERVICE_URL}/health"
-    run_load_test "User Registration" "${API_BASE_URL}/users/register" "POST" "$(cat test_user_data.json)"
-    
-    # Travel service load tests
-    run_load_test "Travel Health Check" "${TRAVEL_SERVICE_URL}/health"
-    run_load_test "Travel Packages" "${API_BASE_URL}/travels/packages"
-    
-    # Stress tests (if wrk is available)
-    if command -v wrk >/dev/null 2>&1; then
-        echo -e "${BLUE}2. Stress Tests${NC}"
-        echo "================"
-        
-        run_stress_test "API Gateway Stress" "${GATEWAY_URL}/health"
-        run_stress_test "User Service Stress" "${USER_SERVICE_URL}/health"
-        run_stress_test "Travel Service Stress" "${TRAVEL_SERVICE_URL}/health"
-    fi
+    local load_test_status=0
+    run_load_test "$@" || load_test_status=$?
+    echo ""
     
     # Infrastructure tests
-    echo -e "${BLUE}3. Infrastructure Tests${NC}"
+    echo -e "${BLUE}2. Infrastructure Tests${NC}"
     echo "========================"
     
     test_database_performance
     echo ""
     test_cache_performance
     
-    # Cleanup
-    rm -f test_user_data.json test_travel_data.json
-    
     echo ""
     echo -e "${GREEN}✅ Performance testing completed!${NC}"
     echo ""
     echo -e "${BLUE}📊 Performance Summary:${NC}"
     echo "================================"
-    echo "• Load tests completed"
-    if command -v wrk >/dev/null 2>&1; then
-        echo "• Stress tests completed"
-    fi
+    echo "• Load test report written to load-test-result.json"
     echo "• Database performance tested"
     echo "• Cache performance tested"
     echo ""
@@ -321,6 +192,8 @@ main() {
     echo "• Use connection pooling"
     echo "• Implement proper indexing"
     echo "• Consider horizontal scaling"
+    
+    exit $load_test_status
 }
 
 # Run main function